@@ -0,0 +1,129 @@
+package AmpmStorage.common.filter;
+
+import AmpmStorage.AmpmStorageApplication;
+import AmpmStorage.common.validator.SignatureValidator;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 본문 전송을 빼고 요청 한 건을 받아들이거나 거절하는 데 드는 비용(필터, 서명 검증, 핸들러 매핑)을 HTTP로 측정합니다.
+ * <ul>
+ *     <li>{@code notModified}: 서명된 {@code GET /storage/{fileId}} + {@code If-None-Match} -> 304</li>
+ *     <li>{@code invalidSignature}: 잘못된 서명 -> 403</li>
+ *     <li>{@code preflight}: CORS preflight -> 200</li>
+ * </ul>
+ * 변경 전후를 비교하려면 같은 벤치마크를 이전 커밋에서도 실행하고 두 {@code results.json}의 점수를 비교합니다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=StorageRequestOverheadBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+@Threads(16)
+@State(Scope.Benchmark)
+public class StorageRequestOverheadBenchmark {
+
+    private static final String FILE_ID = "overhead-bench-file";
+    private static final String ORIGIN = "http://localhost:6736";
+
+    private ConfigurableApplicationContext context;
+    private Path directory;
+    private HttpClient client;
+    private HttpRequest notModified;
+    private HttpRequest invalidSignature;
+    private HttpRequest preflight;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("overhead-bench");
+        Files.writeString(directory.resolve(FILE_ID), "overhead");
+        context = new SpringApplicationBuilder(AmpmStorageApplication.class)
+            .properties(
+                "server.port=0",
+                "app.storage.upload-dir=" + directory,
+                "app.storage.layout.migration.enabled=false",
+                "frontend.domain=" + ORIGIN,
+                "logging.level.root=WARN")
+            .run();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/storage/";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        long expires = System.currentTimeMillis() / 1000 + TimeUnit.DAYS.toSeconds(1);
+        String signature = context.getBean(SignatureValidator.class).generateSignature("GET", FILE_ID, expires);
+        URI signed = URI.create(baseUrl + FILE_ID + "?expires=" + expires + "&signature=" + signature);
+        HttpResponse<Void> first = client.send(HttpRequest.newBuilder(signed).GET().build(),
+            HttpResponse.BodyHandlers.discarding());
+        String eTag = first.headers().firstValue("ETag")
+            .orElseThrow(() -> new IllegalStateException("ETag 없음: " + first.statusCode()));
+
+        notModified = HttpRequest.newBuilder(signed).header("If-None-Match", eTag).GET().build();
+        invalidSignature = HttpRequest.newBuilder(
+                URI.create(baseUrl + FILE_ID + "?expires=" + expires + "&signature=AAAA" + signature.substring(4)))
+            .GET().build();
+        preflight = HttpRequest.newBuilder(signed)
+            .header("Origin", ORIGIN)
+            .header("Access-Control-Request-Method", "PUT")
+            .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int notModified() throws Exception {
+        return expect(client.send(notModified, HttpResponse.BodyHandlers.discarding()), 304);
+    }
+
+    @Benchmark
+    public int invalidSignature() throws Exception {
+        return expect(client.send(invalidSignature, HttpResponse.BodyHandlers.discarding()), 403);
+    }
+
+    @Benchmark
+    public int preflight() throws Exception {
+        return expect(client.send(preflight, HttpResponse.BodyHandlers.discarding()), 200);
+    }
+
+    private static int expect(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("예상하지 못한 응답 코드: " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,75 @@
+package AmpmStorage.common.validator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 요청마다 Mac을 새로 만들던 기존 방식(legacy*)과 {@link SignatureValidator}의 처리량을 비교합니다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SignatureValidatorBenchmark {
+
+    private static final String SECRET_KEY = "benchmark-secret-key";
+    private static final String METHOD = "PUT";
+    private static final String FILE_ID = "exhibits/images/42/posts/3f2a7c1e-0d5b-4f6e-9a8b-1c2d3e4f5a6b/image.png";
+
+    private SignatureValidator signatureValidator;
+    private long expires;
+    private String signature;
+
+    @Setup
+    public void setUp() {
+        signatureValidator = new SignatureValidator(SECRET_KEY);
+        expires = System.currentTimeMillis() / 1000 + 3600;
+        signature = signatureValidator.generateSignature(METHOD, FILE_ID, expires);
+    }
+
+    @Benchmark
+    public String legacyGenerate() throws Exception {
+        return legacySignature(METHOD, FILE_ID, expires);
+    }
+
+    @Benchmark
+    public String pooledGenerate() {
+        return signatureValidator.generateSignature(METHOD, FILE_ID, expires);
+    }
+
+    @Benchmark
+    public boolean legacyVerify() throws Exception {
+        return signature.equals(legacySignature(METHOD, FILE_ID, expires));
+    }
+
+    @Benchmark
+    public boolean pooledVerify() {
+        return signatureValidator.verify(METHOD, FILE_ID, expires, signature);
+    }
+
+    // SignatureVerificationInterceptor 가 예전에 요청마다 수행하던 코드와 동일합니다.
+    private static String legacySignature(String httpMethod, String fileId, long expires) throws Exception {
+        String messageToSign = httpMethod + "\n" + fileId + "\n" + expires;
+        Mac mac = Mac.getInstance(SignatureValidator.HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), SignatureValidator.HMAC_ALGORITHM));
+        byte[] signatureBytes = mac.doFinal(messageToSign.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signatureBytes);
+    }
+}
@@ -0,0 +1,65 @@
+package AmpmStorage.storage.backend;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 요청 키를 저장 경로로 바꾸는 비용을 비교합니다.
+ * <ul>
+ *     <li>legacyResolve: 예전 컨트롤러처럼 요청마다 {@code Paths.get(uploadDir)}부터 정규화하고 루트 포함 여부를 확인</li>
+ *     <li>flatResolve / hashedResolve: {@link StorageKeys} 검증 후 {@link DirectoryLayout}으로 경로 계산</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathResolutionBenchmark {
+
+    private static final String UPLOAD_DIR = "files";
+    private static final String KEY = "exhibits/images/42/posts/3f2a7c1e-0d5b-4f6e-9a8b-1c2d3e4f5a6b/image.png";
+
+    private Path root;
+    private DirectoryLayout flatLayout;
+    private DirectoryLayout hashedLayout;
+
+    @Setup
+    public void setUp() {
+        root = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
+        flatLayout = DirectoryLayout.flat();
+        hashedLayout = new DirectoryLayout(DirectoryLayout.Type.HASHED, 2);
+    }
+
+    @Benchmark
+    public Path legacyResolve() {
+        Path storageLocation = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
+        Path resolved = storageLocation.resolve(KEY).normalize();
+        if (!resolved.startsWith(storageLocation)) {
+            throw new IllegalStateException();
+        }
+        return resolved;
+    }
+
+    @Benchmark
+    public Path flatResolve() {
+        return flatLayout.resolve(root, StorageKeys.validate(KEY)).normalize();
+    }
+
+    @Benchmark
+    public Path hashedResolve() {
+        return hashedLayout.resolve(root, StorageKeys.validate(KEY)).normalize();
+    }
+}
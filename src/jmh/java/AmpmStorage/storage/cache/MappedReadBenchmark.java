@@ -0,0 +1,122 @@
+package AmpmStorage.storage.cache;
+
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 같은 파일을 반복해서 응답 스트림으로 내보내는 방식별 비용을 비교합니다. (페이지 캐시에 올라간 상태)
+ * <ul>
+ *     <li>urlResource: 예전 다운로드 경로의 {@code UrlResource} (요청마다 열기/힙 버퍼 복사/닫기)</li>
+ *     <li>pooledTransfer: 현재 기본 경로의 {@code FileChannel} + 풀에서 빌린 direct 버퍼 (요청마다 열기/닫기)</li>
+ *     <li>mappedRegion: {@link MappedRegionPool}이 재사용하는 매핑에서 바로 쓰기</li>
+ * </ul>
+ * 응답 스트림은 {@code Channels.newChannel(OutputStream)}로 감싸 서블릿 경로와 같은 쓰기 비용을 치르게 합니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MappedReadBenchmark {
+
+    private static final String ETAG = "\"bench\"";
+
+    @Param({"10KB", "100KB", "512KB", "2MB"})
+    public String size;
+
+    private Path directory;
+    private Path file;
+    private long length;
+    private DirectBufferPool bufferPool;
+    private MappedRegionPool mappedRegionPool;
+    private final OutputStream response = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] content = new byte[(int) DataSize.parse(size).toBytes()];
+        ThreadLocalRandom.current().nextBytes(content);
+        directory = Files.createTempDirectory("mmap-bench");
+        file = Files.write(directory.resolve("image.png"), content);
+        length = content.length;
+        bufferPool = new DirectBufferPool(DataSize.ofKilobytes(64), 16, 60_000);
+        mappedRegionPool = new MappedRegionPool(DiskIoLimiter.unlimited(), DataSize.ofMegabytes(64), 16,
+            DataSize.ofMegabytes(2), 1);
+        mappedRegionPool.get(file, ETAG, length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long urlResource() throws IOException {
+        try (InputStream body = new UrlResource(file.toUri()).getInputStream()) {
+            return StreamUtils.copy(body, response);
+        }
+    }
+
+    @Benchmark
+    public long pooledTransfer() throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response);
+            long position = 0;
+            while (position < length) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                position += read;
+            }
+            return position;
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    @Benchmark
+    public long mappedRegion() throws IOException {
+        ByteBuffer content = mappedRegionPool.get(file, ETAG, length).content();
+        WritableByteChannel target = Channels.newChannel(response);
+        long written = 0;
+        while (content.hasRemaining()) {
+            written += target.write(content);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,179 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.AmpmStorageApplication;
+import AmpmStorage.common.validator.SignatureValidator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 느린 업로드 연결이 수천 개 열려 있을 때 다른 클라이언트의 작은 다운로드가 얼마나 늦어지는지를 서블릿(MVC)과
+ * WebFlux 구현에서 나란히 측정합니다.
+ * <p>
+ * {@code slowClients}개의 소켓이 서명된 {@code PUT /storage/exhibits/...} 요청을 보내고 본문을 100ms마다 1바이트씩만
+ * 보냅니다. 그동안 8개 스레드가 작은 이미지를 내려받고, 처리량({@code thrpt})과 지연 백분위({@code sample})를 봅니다.
+ * 응답을 {@code timeout} 안에 받지 못하면 그 시간만큼 걸린 것으로 기록됩니다.
+ * <ul>
+ *     <li>{@code servlet}: Tomcat 스레드 풀 (느린 업로드가 요청 스레드를 하나씩 점유)</li>
+ *     <li>{@code servlet-virtual}: Tomcat + 가상 스레드 ({@code spring.threads.virtual.enabled=true})</li>
+ *     <li>{@code reactive}: WebFlux + Reactor Netty ({@code reactive} 프로필)</li>
+ * </ul>
+ * 연결 수만큼 파일 디스크립터가 필요하므로 {@code ulimit -n}을 충분히 올리고 실행합니다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=SlowClientBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Threads(8)
+@State(Scope.Benchmark)
+public class SlowClientBenchmark {
+
+    private static final String USER_ID = "1";
+    private static final String UUID = "slow-client-bench";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final long TRICKLE_INTERVAL_MILLIS = 100;
+
+    @Param({"servlet", "servlet-virtual", "reactive"})
+    public String stack;
+
+    @Param({"2000"})
+    public int slowClients;
+
+    private ConfigurableApplicationContext context;
+    private Path directory;
+    private HttpClient client;
+    private HttpRequest download;
+    private final List<Socket> sockets = new ArrayList<>();
+    private Thread trickler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("slow-client-bench");
+        Path image = directory.resolve("exhibits/images/" + USER_ID + "/posts/" + UUID + "/image.png");
+        Files.createDirectories(image.getParent());
+        Files.write(image, new byte[16 * 1024]);
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(AmpmStorageApplication.class)
+            .properties(
+                "server.port=0",
+                "app.storage.upload-dir=" + directory,
+                "app.storage.layout.migration.enabled=false",
+                "spring.threads.virtual.enabled=" + "servlet-virtual".equals(stack),
+                "logging.level.root=WARN");
+        if ("reactive".equals(stack)) {
+            builder.profiles("reactive");
+        }
+        context = builder.run();
+        int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        SignatureValidator signatureValidator = context.getBean(SignatureValidator.class);
+        long expires = System.currentTimeMillis() / 1000 + TimeUnit.DAYS.toSeconds(1);
+
+        String downloadPath = "exhibits/images/" + USER_ID + "/" + UUID + "/image.png";
+        download = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/storage/" + downloadPath
+                + "?expires=" + expires + "&signature=" + signatureValidator.generateSignature("GET", downloadPath, expires)))
+            .timeout(TIMEOUT)
+            .GET()
+            .build();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        for (int i = 0; i < slowClients; i++) {
+            String uploadPath = "exhibits/images/" + USER_ID + "/posts/slow-" + i + "/image.png";
+            String head = "PUT /storage/" + uploadPath + "?expires=" + expires
+                + "&signature=" + signatureValidator.generateSignature("PUT", uploadPath, expires) + " HTTP/1.1\r\n"
+                + "Host: localhost:" + port + "\r\n"
+                + "Content-Type: image/png\r\n"
+                + "Content-Length: 1048576\r\n\r\n";
+            Socket socket = new Socket("localhost", port);
+            socket.getOutputStream().write(head.getBytes(StandardCharsets.US_ASCII));
+            sockets.add(socket);
+        }
+        trickler = Thread.ofPlatform().daemon().name("slow-client-trickler").start(this::trickle);
+    }
+
+    // 모든 느린 연결에 주기적으로 1바이트씩 보내 서버가 연결을 끊지 않고 본문을 계속 기다리게 합니다.
+    private void trickle() {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (Socket socket : sockets) {
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(0);
+                    out.flush();
+                } catch (IOException e) {
+                    // 서버가 닫은 연결은 건너뜁니다.
+                }
+            }
+            try {
+                Thread.sleep(TRICKLE_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (trickler != null) {
+            trickler.interrupt();
+            trickler.join();
+        }
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        sockets.clear();
+        if (context != null) {
+            context.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int download() throws Exception {
+        try {
+            HttpResponse<Void> response = client.send(download, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("예상하지 못한 응답 코드: " + response.statusCode());
+            }
+            return response.statusCode();
+        } catch (HttpTimeoutException e) {
+            return -1;
+        }
+    }
+}
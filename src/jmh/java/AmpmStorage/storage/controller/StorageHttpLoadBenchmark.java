@@ -0,0 +1,146 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.AmpmStorageApplication;
+import AmpmStorage.common.validator.SignatureValidator;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 내장 서버를 띄워 HTTP 업로드/다운로드의 처리량과 지연 시간(p50/p99)을 측정합니다.
+ * <p>
+ * 애플리케이션을 임의 포트와 임시 {@code upload-dir}로 시작하고, 16개 클라이언트 스레드가 작은 이미지(16KB)와
+ * 큰 이미지(10MB)를 {@code PUT/GET /storage/exhibits/images/...}로 주고받습니다. 본문은 고정 시드로 만들어 매 실행이
+ * 같은 데이터를 보냅니다. 요청은 애플리케이션의 {@link SignatureValidator}로 서명합니다. 처리량은 {@code thrpt}, 백분위 지연은 {@code sample} 결과의 {@code p0.50/p0.99}를 봅니다.
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=StorageHttpLoadBenchmark
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g", "-XX:MaxDirectMemorySize=256m"})
+@Threads(16)
+@State(Scope.Benchmark)
+public class StorageHttpLoadBenchmark {
+
+    private static final String USER_ID = "1";
+
+    @Param({"16KB", "10MB"})
+    public String size;
+
+    private ConfigurableApplicationContext context;
+    private Path directory;
+    private HttpClient client;
+    private SignatureValidator signatureValidator;
+    private String baseUrl;
+    private long expires;
+    private byte[] image;
+    private URI downloadUri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("http-load-bench");
+        context = new SpringApplicationBuilder(AmpmStorageApplication.class)
+            .properties(
+                "server.port=0",
+                "app.storage.upload-dir=" + directory,
+                "app.storage.layout.migration.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/storage";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        signatureValidator = context.getBean(SignatureValidator.class);
+        expires = System.currentTimeMillis() / 1000 + TimeUnit.DAYS.toSeconds(1);
+
+        image = new byte[(int) DataSize.parse(size).toBytes()];
+        new Random(42).nextBytes(image);
+
+        // 다운로드 대상은 미리 올려 둡니다.
+        String uuid = UUID.nameUUIDFromBytes(size.getBytes()).toString();
+        HttpResponse<Void> response = client.send(upload(uuid), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("사전 업로드 실패: " + response.statusCode());
+        }
+        downloadUri = signed("GET", "exhibits/images/" + USER_ID + "/" + uuid + "/image.png");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 스레드마다 자기 게시물 경로에 반복해서 덮어씁니다. (같은 키에 대한 경합 없이 rename 비용까지 포함)
+     */
+    @State(Scope.Thread)
+    public static class Uploader {
+
+        private final String uuid = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public int upload(Uploader uploader) throws Exception {
+        return expect(client.send(upload(uploader.uuid), HttpResponse.BodyHandlers.discarding()), 200);
+    }
+
+    @Benchmark
+    public int download() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(downloadUri).GET().build();
+        return expect(client.send(request, HttpResponse.BodyHandlers.discarding()), 200);
+    }
+
+    private HttpRequest upload(String uuid) {
+        URI uri = signed("PUT", "exhibits/images/" + USER_ID + "/posts/" + uuid + "/image.png");
+        return HttpRequest.newBuilder(uri)
+            .header("Content-Type", "image/png")
+            .PUT(HttpRequest.BodyPublishers.ofByteArray(image))
+            .build();
+    }
+
+    private URI signed(String method, String path) {
+        String signature = signatureValidator.generateSignature(method, path, expires);
+        return URI.create(baseUrl + "/" + path + "?expires=" + expires + "&signature=" + signature);
+    }
+
+    private static int expect(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("예상하지 못한 응답 코드: " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
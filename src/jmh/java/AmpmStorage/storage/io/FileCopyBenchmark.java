@@ -0,0 +1,88 @@
+package AmpmStorage.storage.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 요청 본문(InputStream)을 파일로 옮기는 방식별 비용을 비교합니다.
+ * <ul>
+ *     <li>filesCopy: 예전 업로드 경로의 {@code Files.copy(InputStream, Path)} (힙 버퍼 복사)</li>
+ *     <li>streamingWriter: {@link StreamingFileWriter} (풀에서 빌린 direct 버퍼로 채널에 기록)</li>
+ *     <li>transferFrom: {@code FileChannel.transferFrom} (JDK 내부 버퍼 루프)</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCopyBenchmark {
+
+    @Param({"16KB", "1MB", "10MB"})
+    public String size;
+
+    private byte[] content;
+    private Path directory;
+    private Path target;
+    private StreamingFileWriter streamingFileWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        content = new byte[(int) DataSize.parse(size).toBytes()];
+        ThreadLocalRandom.current().nextBytes(content);
+        directory = Files.createTempDirectory("copy-bench");
+        target = directory.resolve("image.png");
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofKilobytes(64), 16, 60_000);
+        streamingFileWriter = new StreamingFileWriter(bufferPool, DiskIoLimiter.unlimited());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long filesCopy() throws IOException {
+        try (InputStream body = new ByteArrayInputStream(content)) {
+            return Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Benchmark
+    public long streamingWriter() throws IOException {
+        return streamingFileWriter.write(Channels.newChannel(new ByteArrayInputStream(content)), target, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long transferFrom() throws IOException {
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return channel.transferFrom(Channels.newChannel(new ByteArrayInputStream(content)), 0, Long.MAX_VALUE);
+        }
+    }
+}
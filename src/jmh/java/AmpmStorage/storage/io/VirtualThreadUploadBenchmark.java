@@ -0,0 +1,137 @@
+package AmpmStorage.storage.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 느린 클라이언트 업로드 N건을 모두 끝내는 데 걸리는 시간을 비교합니다.
+ * <ul>
+ *     <li>PLATFORM_POOL: Tomcat 기본값과 같은 200개 플랫폼 스레드 풀</li>
+ *     <li>VIRTUAL: 요청마다 가상 스레드 ({@code spring.threads.virtual.enabled=true})</li>
+ * </ul>
+ * 각 클라이언트는 청크마다 네트워크 지연을 흉내 내며, 디스크 기록은 {@link AtomicFileWriter}와
+ * {@link DiskIoLimiter}({@code maxConcurrentDiskOps})를 그대로 거칩니다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadUploadBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final int CHUNKS_PER_UPLOAD = 8;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final long NETWORK_DELAY_MILLIS = 5;
+
+    @Param({"200", "1000", "4000"})
+    public int clients;
+
+    @Param({"PLATFORM_POOL", "VIRTUAL"})
+    public String mode;
+
+    @Param({"64"})
+    public int maxConcurrentDiskOps;
+
+    private Path directory;
+    private AtomicFileWriter writer;
+    private ExecutorService executor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vt-upload-bench");
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofBytes(CHUNK_SIZE), 1024, 60_000);
+        DiskIoLimiter diskIoLimiter = new DiskIoLimiter(maxConcurrentDiskOps, 60_000);
+        writer = new AtomicFileWriter(new StreamingFileWriter(bufferPool, diskIoLimiter), diskIoLimiter,
+            DurabilityPolicy.NONE, 64, Duration.ofMillis(2));
+        executor = "VIRTUAL".equals(mode)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        writer.destroy();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void uploadAll() throws Exception {
+        List<Future<Long>> uploads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Path target = directory.resolve("user-" + i).resolve("image.png");
+            uploads.add(executor.submit(() -> writer.write(new SlowClientChannel(), target, Long.MAX_VALUE)));
+        }
+        for (Future<Long> upload : uploads) {
+            upload.get();
+        }
+    }
+
+    /**
+     * 청크마다 네트워크 지연 후 데이터를 돌려주는 클라이언트 흉내.
+     */
+    private static final class SlowClientChannel implements ReadableByteChannel {
+
+        private int remainingChunks = CHUNKS_PER_UPLOAD;
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (remainingChunks == 0) {
+                return -1;
+            }
+            try {
+                Thread.sleep(NETWORK_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            remainingChunks--;
+            int count = Math.min(CHUNK_SIZE, dst.remaining());
+            for (int i = 0; i < count; i++) {
+                dst.put((byte) i);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return remainingChunks > 0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
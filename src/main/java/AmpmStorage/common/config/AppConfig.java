@@ -1,6 +1,9 @@
 package AmpmStorage.common.config;
 
 import AmpmStorage.common.validator.SignatureValidator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,8 +11,22 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class AppConfig {
 
+    // 이전 키는 "id=비밀값" 목록입니다. 키를 바꾼 뒤에도 이전 키로 발급된 URL이 만료될 때까지 남겨 둡니다.
     @Bean
-    public SignatureValidator signatureValidator(@Value("${app.storage.secret-key}") String secretKey) {
-        return new SignatureValidator(secretKey);
+    public SignatureValidator signatureValidator(@Value("${app.storage.secret-key}") String secretKey,
+                                                 @Value("${app.storage.signing.key-id:default}") String keyId,
+                                                 @Value("${app.storage.signing.previous-keys:}") List<String> previousKeys) {
+        Map<String, String> previous = new LinkedHashMap<>();
+        for (String entry : previousKeys) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("app.storage.signing.previous-keys는 id=비밀값 형식이어야 합니다.");
+            }
+            previous.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+        return new SignatureValidator(keyId, secretKey, previous);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package AmpmStorage.common.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * WebFlux 모드({@code reactive} 프로필) 설정입니다.
+ * Tomcat도 클래스패스에 있으므로 zero-copy 전송({@code ZeroCopyHttpOutputMessage})을 지원하는 Reactor Netty를 명시합니다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,92 @@
+package AmpmStorage.common.filter;
+
+import AmpmStorage.common.filter.SignedRequestVerifier.Rejection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux 모드({@code reactive} 프로필)에서 {@link SignatureVerificationFilter}와 같은 CORS/서명 검증을 수행합니다.
+ * 거절할 요청은 핸들러 매핑 전에 미리 만들어 둔 본문으로 응답하고, 요청 본문은 읽지 않습니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class ReactiveSignatureVerificationFilter implements WebFilter {
+
+    private final SignedRequestVerifier verifier;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!path.startsWith(SignedRequestVerifier.STORAGE_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders requestHeaders = request.getHeaders();
+        String origin = requestHeaders.getOrigin();
+        boolean corsAllowed = verifier.isAllowedOrigin(origin);
+        if (HttpMethod.OPTIONS.equals(request.getMethod())) {
+            String requestMethod = requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+            if (requestMethod == null) {
+                return chain.filter(exchange);
+            }
+            HttpHeaders headers = response.getHeaders();
+            headers.add(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+            if (!corsAllowed || !verifier.isAllowedMethod(requestMethod)) {
+                return write(Rejection.CORS_REJECTED, response);
+            }
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, SignedRequestVerifier.ALLOWED_METHODS_VALUE);
+            String allowHeaders = requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+            if (allowHeaders != null) {
+                headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+            }
+            headers.set(HttpHeaders.ACCESS_CONTROL_MAX_AGE, SignedRequestVerifier.PREFLIGHT_MAX_AGE);
+            response.setStatusCode(HttpStatus.OK);
+            return response.setComplete();
+        }
+        if (corsAllowed) {
+            HttpHeaders headers = response.getHeaders();
+            headers.add(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+
+        Rejection rejection = verifier.verify(request.getMethod().name(),
+            path.substring(SignedRequestVerifier.STORAGE_PATH.length()), request.getQueryParams()::getFirst);
+        if (rejection != null) {
+            log.debug("서명 검증 실패: method={}, uri={}, reason={}", request.getMethod(), path, rejection);
+            return write(rejection, response);
+        }
+        return chain.filter(exchange);
+    }
+
+    private static Mono<Void> write(Rejection rejection, ServerHttpResponse response) {
+        byte[] body = rejection.body();
+        response.setStatusCode(rejection.status());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
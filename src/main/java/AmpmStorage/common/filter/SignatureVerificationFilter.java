@@ -0,0 +1,98 @@
+package AmpmStorage.common.filter;
+
+import AmpmStorage.common.filter.SignedRequestVerifier.Rejection;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * {@code /storage/**} 요청의 CORS preflight와 Presigned URL 서명/만료 검증을 한 곳에서 처리합니다.
+ * <p>
+ * DispatcherServlet의 핸들러 매핑보다 앞에서 실행되므로, 거절할 요청은 컨트롤러 탐색이나 예외 처리기를 거치지 않고
+ * 미리 만들어 둔 응답 본문으로 바로 응답합니다. 서명 대상 규칙은 {@link SignedRequestVerifier}를 참고하세요.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class SignatureVerificationFilter extends OncePerRequestFilter {
+
+    private final SignedRequestVerifier verifier;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(SignedRequestVerifier.STORAGE_PATH, request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        boolean corsAllowed = verifier.isAllowedOrigin(origin);
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            if (request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD) != null) {
+                handlePreflight(request, response, origin, corsAllowed);
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        if (corsAllowed) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+
+        String path = request.getRequestURI()
+            .substring(request.getContextPath().length() + SignedRequestVerifier.STORAGE_PATH.length());
+        Rejection rejection = verifier.verify(request.getMethod(), path, request::getParameter);
+        if (rejection != null) {
+            log.debug("서명 검증 실패: method={}, uri={}, reason={}", request.getMethod(), request.getRequestURI(), rejection);
+            write(rejection, response);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void handlePreflight(HttpServletRequest request, HttpServletResponse response, String origin,
+                                 boolean corsAllowed) throws IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+        if (!corsAllowed || !verifier.isAllowedMethod(request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD))) {
+            write(Rejection.CORS_REJECTED, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, SignedRequestVerifier.ALLOWED_METHODS_VALUE);
+        String requestHeaders = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+        if (requestHeaders != null) {
+            // 모든 헤더 허용("*")은 자격 증명과 함께 쓸 수 없으므로 요청한 헤더를 그대로 돌려줍니다.
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, requestHeaders);
+        }
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, SignedRequestVerifier.PREFLIGHT_MAX_AGE);
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    private static void write(Rejection rejection, HttpServletResponse response) throws IOException {
+        byte[] body = rejection.body();
+        response.setStatus(rejection.status().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
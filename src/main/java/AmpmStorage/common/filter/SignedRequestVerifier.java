@@ -0,0 +1,156 @@
+package AmpmStorage.common.filter;
+
+import AmpmStorage.common.validator.SignatureValidator;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * {@code /storage/**} 요청의 서명 대상 결정, 만료/서명 검증, CORS 허용 목록을 담당합니다.
+ * 서블릿({@link SignatureVerificationFilter})과 WebFlux({@link ReactiveSignatureVerificationFilter}) 필터가 함께 씁니다.
+ * <p>
+ * 서명 대상은 URL에서 바로 정합니다.
+ * <ul>
+ *     <li>{@code /storage/batch}: {@code "batch/{prefix}"}</li>
+ *     <li>{@code /storage/list}: {@code "list/{prefix}"} (묶음 다운로드 서명으로는 목록을 조회할 수 없음)</li>
+ *     <li>{@code /storage/uploads} (분할 업로드 시작): {@code "upload/{key}"}</li>
+ *     <li>{@code /storage/uploads/{uploadId}/**}: 검증하지 않음 (uploadId가 서명된 시작 요청으로만 발급되는 비밀 값)</li>
+ *     <li>{@code POST /storage/presign}: 검증하지 않음 (URL 발급 API이며 API 키로 인증)</li>
+ *     <li>그 외 ({@code /storage/{fileId}}, {@code /storage/exhibits/...}): {@code /storage/} 뒤의 디코딩된 경로.
+ *     위의 서명 대상과 같은 접두어({@code batch/}, {@code list/}, {@code upload/})로 시작하면 거절합니다.</li>
+ * </ul>
+ * {@code kid} 파라미터가 있으면 그 id의 키로 검증합니다. (키 교체 중에는 이전 키로 발급된 URL도 통과)
+ */
+@Component
+public class SignedRequestVerifier {
+
+    public static final String STORAGE_PATH = "/storage/";
+    public static final String ALLOWED_METHODS_VALUE = "GET,POST,PUT,DELETE,OPTIONS";
+    public static final String PREFLIGHT_MAX_AGE = "1800";
+
+    private static final String UPLOADS = "uploads";
+    private static final String UPLOAD_SESSION_PATH = "uploads/";
+    private static final String PRESIGN_PATH = "presign";
+    private static final String BATCH_PATH = "batch";
+    private static final String LIST_PATH = "list";
+    private static final Set<String> ALLOWED_METHODS = Set.of("GET", "POST", "PUT", "DELETE", "OPTIONS");
+
+    private final SignatureValidator signatureValidator;
+    private final Set<String> allowedOrigins;
+    private final MeterProvider<Timer> verificationTimers;
+
+    public SignedRequestVerifier(SignatureValidator signatureValidator,
+                                 @Value("${frontend.domain}") String frontendDomain,
+                                 MeterRegistry meterRegistry) {
+        this.signatureValidator = signatureValidator;
+        this.allowedOrigins = Set.of("null", frontendDomain);
+        this.verificationTimers = Timer.builder("storage.signature.verification")
+            .description("Presigned URL 서명 검증 시간")
+            .publishPercentileHistogram()
+            .withRegistry(meterRegistry);
+    }
+
+    public boolean isAllowedOrigin(String origin) {
+        return origin != null && allowedOrigins.contains(origin);
+    }
+
+    public boolean isAllowedMethod(String method) {
+        return method != null && ALLOWED_METHODS.contains(method);
+    }
+
+    /**
+     * @param path       {@code /storage/} 뒤의 (디코딩되지 않은) 요청 경로
+     * @param parameters 쿼리 파라미터 조회 함수 (없으면 {@code null} 반환)
+     * @return 거절 사유, 통과하면 {@code null}
+     */
+    public Rejection verify(String method, String path, Function<String, String> parameters) {
+        if (path.startsWith(UPLOAD_SESSION_PATH) || PRESIGN_PATH.equals(path) && "POST".equals(method)) {
+            return null;
+        }
+
+        String resource;
+        if (BATCH_PATH.equals(path) || LIST_PATH.equals(path)) {
+            String prefix = parameters.apply("prefix");
+            if (prefix == null) {
+                return Rejection.MISSING_PREFIX;
+            }
+            resource = BATCH_PATH.equals(path)
+                ? SignatureValidator.batchResource(prefix)
+                : SignatureValidator.listResource(prefix);
+        } else if (UPLOADS.equals(path)) {
+            String key = parameters.apply("key");
+            if (key == null) {
+                return Rejection.MISSING_KEY;
+            }
+            resource = SignatureValidator.uploadResource(key);
+        } else {
+            resource = path.indexOf('%') >= 0 ? UriUtils.decode(path, StandardCharsets.UTF_8) : path;
+            if (SignatureValidator.isReservedResource(resource)) {
+                return Rejection.INVALID_SIGNATURE;
+            }
+        }
+
+        String expiresStr = parameters.apply("expires");
+        String providedSignature = parameters.apply("signature");
+        if (expiresStr == null || providedSignature == null) {
+            return Rejection.MISSING_SIGNATURE;
+        }
+        long expiry;
+        try {
+            expiry = Long.parseLong(expiresStr);
+        } catch (NumberFormatException e) {
+            return Rejection.MALFORMED_EXPIRES;
+        }
+        if (System.currentTimeMillis() / 1000 > expiry) {
+            return Rejection.EXPIRED;
+        }
+
+        // 키가 설정된 Mac을 재사용하며, 상수 시간으로 비교합니다.
+        long startNanos = System.nanoTime();
+        boolean valid = signatureValidator.verify(parameters.apply("kid"), method, resource, expiry, providedSignature);
+        verificationTimers.withTags("result", valid ? "valid" : "invalid")
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return valid ? null : Rejection.INVALID_SIGNATURE;
+    }
+
+    /**
+     * 거절 응답. 본문은 {@code GlobalExceptionHandler}와 같은 형식이며 미리 인코딩해 둡니다.
+     */
+    public enum Rejection {
+        MISSING_SIGNATURE(HttpStatus.BAD_REQUEST, "필수 파라미터(expires, signature)가 누락되었습니다."),
+        MISSING_PREFIX(HttpStatus.BAD_REQUEST, "필수 파라미터(prefix)가 누락되었습니다."),
+        MISSING_KEY(HttpStatus.BAD_REQUEST, "필수 파라미터(key)가 누락되었습니다."),
+        MALFORMED_EXPIRES(HttpStatus.BAD_REQUEST, "만료 시간(expires)이 올바른 숫자 형식이 아닙니다."),
+        EXPIRED(HttpStatus.FORBIDDEN, "요청이 만료되었습니다."),
+        INVALID_SIGNATURE(HttpStatus.FORBIDDEN, "서명이 유효하지 않습니다."),
+        CORS_REJECTED(HttpStatus.FORBIDDEN, "허용되지 않은 CORS 요청입니다.");
+
+        private final HttpStatus status;
+        private final byte[] body;
+
+        Rejection(HttpStatus status, String message) {
+            this.status = status;
+            this.body = ("{\"status\":" + status.value() + ",\"message\":\"" + message + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        }
+
+        public HttpStatus status() {
+            return status;
+        }
+
+        /**
+         * @return JSON 본문. 호출 측에서 수정하면 안 됩니다.
+         */
+        public byte[] body() {
+            return body;
+        }
+    }
+}
@@ -1,37 +1,326 @@
 package AmpmStorage.common.validator;
 
 import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Objects;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Presigned URL 서명 생성/검증기입니다.
+ * <p>
+ * 키가 미리 설정된 {@link Mac}을 lock-free 풀에 보관하여 재사용하고, 서명할 메시지
+ * ({@code METHOD\nresource\nexpires})는 문자열 결합 없이 재사용 버퍼에 바이트로 조립합니다.
+ * 검증 시 서명 비교는 상수 시간으로 수행합니다. 인터셉터와 애플리케이션 코드가 같은 빈을 공유합니다.
+ * <p>
+ * 키 교체를 위해 여러 키를 id로 구분해 둘 수 있습니다. 새 서명은 현재 키로만 만들고, 이전 키는 검증에만 씁니다.
+ * URL의 {@code kid}가 없으면 {@link #DEFAULT_KEY_ID} 키로 검증하므로 키 id를 쓰기 전에 발급된 URL도 통과합니다.
+ */
 public class SignatureValidator {
 
-    private final String secretKey;
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    public static final String HMAC_ALGORITHM = "HmacSHA256";
+    /** 묶음 요청의 서명 대상 접두어. 단일 파일 ID에는 {@code /}가 들어갈 수 없으므로 서로 겹치지 않습니다. */
+    public static final String BATCH_RESOURCE_PREFIX = "batch/";
+    /** 목록 조회의 서명 대상 접두어. 묶음 다운로드 서명으로 목록을 조회할 수 없도록 따로 둡니다. */
+    public static final String LIST_RESOURCE_PREFIX = "list/";
+    /** 분할 업로드 시작 요청의 서명 대상 접두어 */
+    public static final String UPLOAD_RESOURCE_PREFIX = "upload/";
+    /** {@code kid} 파라미터가 없는 URL을 검증할 키의 id */
+    public static final String DEFAULT_KEY_ID = "default";
+
+    // 한 번에 검사하는 풀 슬롯 수. 모두 비어 있으면 새 Signer를 만듭니다.
+    private static final int MAX_PROBES = 4;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final String keyId;
+    private final SigningKey primary;
+    private final Map<String, SigningKey> keys;
 
     public SignatureValidator(String secretKey) {
-        this.secretKey = secretKey;
+        this(DEFAULT_KEY_ID, secretKey, Map.of());
+    }
+
+    /**
+     * @param keyId        새 서명에 쓰는 현재 키의 id
+     * @param secretKey    현재 키
+     * @param previousKeys 검증에만 쓰는 이전 키 (id → 비밀 값)
+     */
+    public SignatureValidator(String keyId, String secretKey, Map<String, String> previousKeys) {
+        if (previousKeys.containsKey(keyId)) {
+            throw new IllegalArgumentException("현재 키와 이전 키의 id가 같습니다: " + keyId);
+        }
+        this.keyId = keyId;
+        this.primary = new SigningKey(secretKey);
+        Map<String, SigningKey> keys = new HashMap<>();
+        keys.put(keyId, primary);
+        previousKeys.forEach((id, secret) -> keys.put(id, new SigningKey(secret)));
+        this.keys = Map.copyOf(keys);
+    }
+
+    /**
+     * @return 새 서명에 쓰는 현재 키의 id. 발급하는 URL에 {@code kid}로 붙입니다.
+     */
+    public String keyId() {
+        return keyId;
     }
 
     public boolean isValid(String httpMethod, String fileId, long expires, String providedSignature) {
         if (System.currentTimeMillis() / 1000 > expires) {
             return false;
         }
-        String expectedSignature = generateSignature(httpMethod, fileId, expires);
-        return Objects.equals(providedSignature, expectedSignature);
+        return verify(httpMethod, fileId, expires, providedSignature);
+    }
+
+    /**
+     * 만료 여부와 관계없이 서명만 검증합니다. 호출 측에서 만료를 먼저 확인해야 합니다.
+     */
+    public boolean verify(String httpMethod, String fileId, long expires, String providedSignature) {
+        return verify(null, httpMethod, fileId, expires, providedSignature);
+    }
+
+    /**
+     * {@code keyId}의 키로 서명을 검증합니다. 모르는 키 id이면 실패합니다.
+     *
+     * @param keyId URL의 {@code kid}, 없으면 {@code null}
+     */
+    public boolean verify(String keyId, String httpMethod, String fileId, long expires, String providedSignature) {
+        SigningKey key = keys.get(keyId != null ? keyId : DEFAULT_KEY_ID);
+        if (key == null || providedSignature == null) {
+            return false;
+        }
+        Signer signer = key.acquire();
+        try {
+            int length = signer.sign(httpMethod, fileId, expires);
+            return signer.matches(providedSignature, length);
+        } finally {
+            key.release(signer);
+        }
+    }
+
+    /**
+     * @return 묶음 업로드/다운로드에서 {@code prefix} 전체를 한 번에 서명할 때 쓰는 리소스 문자열
+     */
+    public static String batchResource(String prefix) {
+        return BATCH_RESOURCE_PREFIX + prefix;
+    }
+
+    /**
+     * @return {@code prefix} 아래의 목록 조회를 서명하는 리소스 문자열
+     */
+    public static String listResource(String prefix) {
+        return LIST_RESOURCE_PREFIX + prefix;
+    }
+
+    /**
+     * @return 요청 경로가 아닌 파라미터로 정하는 서명 대상(묶음, 목록, 분할 업로드)의 접두어로 시작하는지 여부.
+     * 이런 리소스의 서명은 파일 경로의 서명으로 쓸 수 없습니다.
+     */
+    public static boolean isReservedResource(String resource) {
+        return resource.startsWith(BATCH_RESOURCE_PREFIX) || resource.startsWith(LIST_RESOURCE_PREFIX)
+            || resource.startsWith(UPLOAD_RESOURCE_PREFIX);
+    }
+
+    /**
+     * @return 분할 업로드를 시작할 때 대상 키를 서명하는 리소스 문자열
+     */
+    public static String uploadResource(String key) {
+        return UPLOAD_RESOURCE_PREFIX + key;
     }
 
     public String generateSignature(String httpMethod, String fileId, long expires) {
-        String messageToSign = httpMethod + "\n" + fileId + "\n" + expires;
+        Signer signer = primary.acquire();
         try {
-            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
-            byte[] signatureBytes = mac.doFinal(messageToSign.getBytes(StandardCharsets.UTF_8));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(signatureBytes);
-        } catch (Exception e) {
-            throw new RuntimeException("서명 생성에 실패했습니다.", e);
+            int length = signer.sign(httpMethod, fileId, expires);
+            return new String(signer.encoded, 0, length, StandardCharsets.US_ASCII);
+        } finally {
+            primary.release(signer);
+        }
+    }
+
+    /**
+     * 여러 리소스를 같은 메서드와 만료 시각으로 서명합니다. 풀에서 {@link Mac}을 한 번만 빌립니다.
+     *
+     * @return {@code resources}와 같은 순서의 서명
+     */
+    public List<String> generateSignatures(String httpMethod, List<String> resources, long expires) {
+        List<String> signatures = new ArrayList<>(resources.size());
+        Signer signer = primary.acquire();
+        try {
+            for (String resource : resources) {
+                int length = signer.sign(httpMethod, resource, expires);
+                signatures.add(new String(signer.encoded, 0, length, StandardCharsets.US_ASCII));
+            }
+        } finally {
+            primary.release(signer);
+        }
+        return signatures;
+    }
+
+    /**
+     * 키 하나와 그 키로 초기화된 {@link Signer} 풀입니다.
+     */
+    private static final class SigningKey {
+
+        private final SecretKeySpec secretKeySpec;
+        private final Mac prototype;
+        private final AtomicReferenceArray<Signer> pool;
+        private final int poolMask;
+
+        private SigningKey(String secretKey) {
+            this.secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+            this.prototype = newMac();
+
+            int slots = Integer.highestOneBit(Math.max(2, Runtime.getRuntime().availableProcessors()) * 2 - 1) * 2;
+            this.pool = new AtomicReferenceArray<>(slots);
+            this.poolMask = slots - 1;
+        }
+
+        private Signer acquire() {
+            int start = ThreadLocalRandom.current().nextInt();
+            for (int i = 0; i < MAX_PROBES; i++) {
+                Signer signer = pool.getAndSet((start + i) & poolMask, null);
+                if (signer != null) {
+                    return signer;
+                }
+            }
+            return new Signer(copyPrototype());
+        }
+
+        private void release(Signer signer) {
+            int start = ThreadLocalRandom.current().nextInt();
+            for (int i = 0; i < MAX_PROBES; i++) {
+                if (pool.compareAndSet((start + i) & poolMask, null, signer)) {
+                    return;
+                }
+            }
+            // 풀이 가득 찬 경우 버립니다.
+        }
+
+        private Mac copyPrototype() {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                return newMac();
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKeySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("서명 생성기를 초기화할 수 없습니다.", e);
+            }
+        }
+    }
+
+    /**
+     * 풀에 보관되는 단위. 한 번에 한 스레드만 사용합니다.
+     */
+    private static final class Signer {
+
+        private final Mac mac;
+        private final byte[] digest;
+        private final byte[] encoded;
+        private byte[] message = new byte[256];
+        private int position;
+
+        private Signer(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+            this.encoded = new byte[(digest.length + 2) / 3 * 4];
+        }
+
+        /**
+         * @return {@link #encoded}에 기록된 Base64URL 서명의 길이
+         */
+        int sign(String httpMethod, String fileId, long expires) {
+            position = 0;
+            append(httpMethod);
+            appendByte('\n');
+            append(fileId);
+            appendByte('\n');
+            append(expires);
+            mac.update(message, 0, position);
+            try {
+                mac.doFinal(digest, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            return ENCODER.encode(digest, encoded);
+        }
+
+        /**
+         * 길이가 같은 경우 모든 문자를 비교하여, 일치하는 접두사 길이가 응답 시간으로 드러나지 않도록 합니다.
+         */
+        boolean matches(String providedSignature, int length) {
+            if (providedSignature.length() != length) {
+                return false;
+            }
+            int diff = 0;
+            for (int i = 0; i < length; i++) {
+                diff |= providedSignature.charAt(i) ^ encoded[i];
+            }
+            return diff == 0;
+        }
+
+        private void append(String value) {
+            String text = String.valueOf(value);
+            int length = text.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    // ASCII가 아닌 경우에만 UTF-8 인코딩 결과를 사용합니다.
+                    appendBytes(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                message[position++] = (byte) c;
+            }
+        }
+
+        private void append(long value) {
+            if (value < 0) {
+                append(Long.toString(value));
+                return;
+            }
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = position + digits - 1; i >= position; i--) {
+                message[i] = (byte) ('0' + (value % 10));
+                value /= 10;
+            }
+            position += digits;
+        }
+
+        private void appendByte(char c) {
+            ensureCapacity(1);
+            message[position++] = (byte) c;
+        }
+
+        private void appendBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, message, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > message.length) {
+                byte[] grown = new byte[Math.max(message.length * 2, position + additional)];
+                System.arraycopy(message, 0, grown, 0, position);
+                message = grown;
+            }
         }
     }
-}
\ No newline at end of file
+}
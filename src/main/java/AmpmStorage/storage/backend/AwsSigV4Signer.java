@@ -0,0 +1,135 @@
+package AmpmStorage.storage.backend;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AWS Signature Version 4 서명기입니다. S3 호환 저장소(MinIO 등) 요청의 Authorization 헤더를 만듭니다.
+ * <p>
+ * 서명 대상 헤더는 {@code host}, {@code x-amz-content-sha256}, {@code x-amz-date}만 사용합니다.
+ * 날짜별 서명 키는 하루 동안 재사용합니다.
+ */
+final class AwsSigV4Signer {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+    private static final DateTimeFormatter AMZ_DATE =
+        DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String service;
+    private volatile SigningKey signingKey;
+
+    AwsSigV4Signer(String accessKey, String secretKey, String region, String service) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.service = service;
+    }
+
+    /**
+     * 요청에 {@code x-amz-date}, {@code x-amz-content-sha256}, {@code Authorization} 헤더를 추가합니다.
+     *
+     * @param uri 경로와 쿼리가 이미 URI 인코딩된 요청 주소 (쿼리 파라미터는 이름순으로 정렬되어 있어야 함)
+     */
+    void sign(HttpRequest.Builder builder, String method, URI uri, String payloadHash, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/" + service + "/aws4_request";
+
+        String canonicalRequest = method + "\n"
+            + (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()) + "\n"
+            + (uri.getRawQuery() == null ? "" : uri.getRawQuery()) + "\n"
+            + "host:" + hostHeader(uri) + "\n"
+            + "x-amz-content-sha256:" + payloadHash + "\n"
+            + "x-amz-date:" + amzDate + "\n"
+            + "\n"
+            + SIGNED_HEADERS + "\n"
+            + payloadHash;
+        String stringToSign = ALGORITHM + "\n"
+            + amzDate + "\n"
+            + scope + "\n"
+            + HEX.formatHex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        String signature = HEX.formatHex(hmac(signingKey(date), stringToSign));
+
+        builder.header("x-amz-date", amzDate)
+            .header("x-amz-content-sha256", payloadHash)
+            .header("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + SIGNED_HEADERS + ", Signature=" + signature);
+    }
+
+    /**
+     * RFC 3986 비예약 문자를 제외하고 UTF-8 바이트를 퍼센트 인코딩합니다.
+     *
+     * @param keepSlash 경로처럼 {@code /}를 그대로 둘지 여부
+     */
+    static String uriEncode(String value, boolean keepSlash) {
+        StringBuilder encoded = new StringBuilder(value.length() + 16);
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit((c >> 4) & 0xf, 16)))
+                    .append(Character.toUpperCase(Character.forDigit(c & 0xf, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+            || ("http".equals(uri.getScheme()) && port == 80)
+            || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private byte[] signingKey(String date) {
+        SigningKey current = signingKey;
+        if (current != null && current.date().equals(date)) {
+            return current.key();
+        }
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, service);
+        key = hmac(key, "aws4_request");
+        signingKey = new SigningKey(date, key);
+        return key;
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record SigningKey(String date, byte[] key) {
+    }
+}
@@ -0,0 +1,145 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * 파일 시스템 저장소의 루트 아래에서 키를 어느 경로에 둘지 정합니다. ({@code app.storage.layout.type})
+ * <ul>
+ *     <li>{@code flat}: 키를 그대로 상대 경로로 사용합니다. ({@code exhibits/images/{userId}/posts/{uuid}/image.png})</li>
+ *     <li>{@code hashed}: 키의 CRC32C로 {@code .shards/3f/a2/} 같은 16진수 접두 디렉터리를 고르고, 키의 {@code /}를
+ *     이스케이프한 이름 하나로 저장합니다. 디렉터리 하나의 엔트리 수가 대략 (전체 객체 수 / 256^levels)로 제한되고,
+ *     업로드마다 사용자/게시물 디렉터리를 만들지 않습니다.</li>
+ * </ul>
+ * {@code hashed}로 바꾼 뒤에도 기존 flat 배치의 파일은 그대로 조회되며, {@link LayoutMigrator}가 백그라운드에서 옮깁니다.
+ */
+@Component
+public class DirectoryLayout {
+
+    /** hashed 배치의 최상위 디렉터리. {@link StorageKeys}가 {@code .}으로 시작하는 키를 예약하므로 키와 겹치지 않습니다. */
+    public static final String SHARD_DIRECTORY = ".shards";
+    private static final int MAX_LEVELS = 4;
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final String[] HEX_BYTES = new String[256];
+
+    static {
+        for (int i = 0; i < HEX_BYTES.length; i++) {
+            HEX_BYTES[i] = String.format("%02x", i);
+        }
+    }
+
+    /**
+     * 배치 방식
+     */
+    public enum Type {
+        FLAT,
+        HASHED
+    }
+
+    private final Type type;
+    private final int levels;
+
+    public DirectoryLayout(@Value("${app.storage.layout.type:flat}") Type type,
+                           @Value("${app.storage.layout.levels:2}") int levels) {
+        if (levels < 1 || levels > MAX_LEVELS) {
+            throw new IllegalStateException("app.storage.layout.levels는 1~" + MAX_LEVELS + " 사이여야 합니다: " + levels);
+        }
+        this.type = type;
+        this.levels = levels;
+    }
+
+    public static DirectoryLayout flat() {
+        return new DirectoryLayout(Type.FLAT, 2);
+    }
+
+    public boolean isHashed() {
+        return type == Type.HASHED;
+    }
+
+    public int levels() {
+        return levels;
+    }
+
+    /**
+     * @return 이 배치에서 키를 저장할 경로 (정규화 전)
+     */
+    public Path resolve(Path root, String key) {
+        if (type == Type.FLAT) {
+            return root.resolve(key);
+        }
+        String fileName = encode(key);
+        if (fileName.length() > MAX_FILE_NAME_LENGTH) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "파일 경로가 너무 깁니다: " + key);
+        }
+        int hash = hash(key);
+        Path directory = root.resolve(SHARD_DIRECTORY);
+        for (int level = 0; level < levels; level++) {
+            directory = directory.resolve(HEX_BYTES[(hash >>> (level * 8)) & 0xff]);
+        }
+        return directory.resolve(fileName);
+    }
+
+    /**
+     * @return 기존 flat 배치에서의 경로 (정규화 전)
+     */
+    public Path legacyPath(Path root, String key) {
+        return root.resolve(key);
+    }
+
+    /**
+     * @return hashed 배치의 파일 이름에서 되돌린 키
+     */
+    public String keyOf(Path shardedFile) {
+        return decode(shardedFile.getFileName().toString());
+    }
+
+    // '/'와 이스케이프 문자 '%'만 바꾸므로 되돌릴 수 있고, 확장자(Content-Type 추측에 사용)는 그대로 남습니다.
+    static String encode(String key) {
+        if (key.indexOf('/') < 0 && key.indexOf('%') < 0) {
+            return key;
+        }
+        StringBuilder encoded = new StringBuilder(key.length() + 16);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '/') {
+                encoded.append("%2F");
+            } else if (c == '%') {
+                encoded.append("%25");
+            } else {
+                encoded.append(c);
+            }
+        }
+        return encoded.toString();
+    }
+
+    static String decode(String fileName) {
+        if (fileName.indexOf('%') < 0) {
+            return fileName;
+        }
+        StringBuilder decoded = new StringBuilder(fileName.length());
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            if (c == '%' && fileName.startsWith("2F", i + 1)) {
+                decoded.append('/');
+                i += 2;
+            } else if (c == '%' && fileName.startsWith("25", i + 1)) {
+                decoded.append('%');
+                i += 2;
+            } else {
+                decoded.append(c);
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static int hash(String key) {
+        CRC32C crc = new CRC32C();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+}
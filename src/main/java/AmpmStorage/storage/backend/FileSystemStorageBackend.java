@@ -0,0 +1,658 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 키를 파일 시스템 경로에 대응시키는 저장소의 공통 구현입니다.
+ * 어느 루트 디렉터리에 둘지는 하위 클래스가 {@link #rootFor(String)}로, 루트 안의 어느 경로에 둘지는
+ * {@link DirectoryLayout}이 정합니다.
+ * <p>
+ * hashed 배치에서는 새 배치의 경로를 먼저 찾고, 없으면 기존 flat 배치의 경로를 찾습니다.
+ * {@link LayoutMigrator}가 기존 파일을 모두 옮기고 나면 flat 배치는 더 이상 조회하지 않습니다.
+ * <p>
+ * 쓰기와 삭제 후에는 {@link StoredObjectChangedEvent}를 발행하여 메타데이터/객체 캐시를 무효화합니다.
+ * 메타데이터 캐시는 rename 전에도 무효화하고 rename이 끝날 때까지 해당 경로를 캐시하지 않습니다.
+ * 루트 디렉터리마다 디스크 여유/전체 용량을 {@code storage.disk.free}, {@code storage.disk.total} 지표로 노출합니다.
+ */
+public abstract class FileSystemStorageBackend implements StorageBackend, MeterBinder {
+
+    /** 키별 버전 파일을 두는 디렉터리. 키와 겹치지 않도록 {@code .}으로 시작합니다. */
+    static final String VERSION_DIRECTORY = ".versions";
+    private static final int LOCK_STRIPES = 64;
+
+    private final DirectoryLayout layout;
+    private final AtomicFileWriter atomicFileWriter;
+    private final FileMetadataCache metadataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    // flat 배치에 남은 파일을 찾아야 하는지 여부. 이전이 끝나면 false가 됩니다.
+    private volatile boolean legacyLookup;
+    // putVersion의 버전 비교와 rename을 묶는 키별 잠금 (줄무늬)
+    private final Object[] versionLocks = new Object[LOCK_STRIPES];
+
+    protected FileSystemStorageBackend(DirectoryLayout layout,
+                                       AtomicFileWriter atomicFileWriter,
+                                       FileMetadataCache metadataCache,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.layout = layout;
+        this.atomicFileWriter = atomicFileWriter;
+        this.metadataCache = metadataCache;
+        this.eventPublisher = eventPublisher;
+        this.legacyLookup = layout.isHashed();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            versionLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return 키를 저장할 루트 디렉터리 (절대 경로, 정규화됨)
+     */
+    protected abstract Path rootFor(String key);
+
+    /**
+     * @return 모든 루트 디렉터리
+     */
+    protected abstract List<Path> roots();
+
+    /**
+     * 대상 경로에 내용을 씁니다. 하위 클래스는 쓰기 방식을 바꿀 수 있습니다. (중복 제거 등)
+     */
+    protected long write(ReadableByteChannel source, Path target, long maxBytes) throws IOException {
+        return atomicFileWriter.write(source, target, maxBytes);
+    }
+
+    /**
+     * 다 쓴 임시 파일을 대상 경로에 반영합니다. 하위 클래스는 반영 방식을 바꿀 수 있습니다. (중복 제거 등)
+     *
+     * @return 파일의 바이트 수
+     */
+    protected long commitFile(Path staged, Path target) throws IOException {
+        long size = Files.size(staged);
+        atomicFileWriter.syncFile(staged);
+        atomicFileWriter.commit(staged, target, List.of());
+        return size;
+    }
+
+    @Override
+    public Path stagingPath(String key) throws IOException {
+        Path target = layoutPath(key);
+        for (Path created : AtomicFileWriter.createParentDirectories(target)) {
+            atomicFileWriter.syncDirectory(created.getParent());
+        }
+        return AtomicFileWriter.tempSibling(target);
+    }
+
+    @Override
+    public long commit(String key, Path staged) throws IOException {
+        Path target = layoutPath(key);
+        if (!staged.getParent().equals(target.getParent())) {
+            throw new IllegalArgumentException("같은 디렉터리의 임시 파일만 반영할 수 있습니다: " + staged);
+        }
+        long size;
+        metadataCache.beginWrite(target);
+        try {
+            size = commitFile(staged, target);
+        } finally {
+            metadataCache.endWrite(target);
+        }
+        eventPublisher.publishEvent(new StoredObjectChangedEvent(target));
+        if (legacyLookup) {
+            deleteFile(legacyPath(key));
+        }
+        return size;
+    }
+
+    @Override
+    public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+        Path target = layoutPath(key);
+        long written;
+        metadataCache.beginWrite(target);
+        try {
+            written = write(source, target, maxBytes);
+        } finally {
+            metadataCache.endWrite(target);
+        }
+        eventPublisher.publishEvent(new StoredObjectChangedEvent(target));
+        if (legacyLookup) {
+            // flat 배치에 남은 이전 내용은 더 이상 조회되지 않으므로 바로 지웁니다.
+            deleteFile(legacyPath(key));
+        }
+        return written;
+    }
+
+    /**
+     * 클러스터 복제본을 버전과 함께 씁니다. 버전은 키마다 {@code .versions/{key}} 파일에 기록하며, 그 키에 이미 같거나
+     * 더 새 버전(삭제 포함)이 기록되어 있으면 반영하지 않습니다. (last-writer-wins)
+     * <p>
+     * 중복 제거를 켜면 같은 내용의 파일이 inode를 공유하므로 버전을 파일의 수정 시각에 두지 않습니다.
+     * 본문은 잠금 없이 임시 파일에 받고, 버전 비교와 rename만 키 잠금 안에서 합니다.
+     *
+     * @param snapshot rename 직전에 새 파일을 하드 링크로 남길 경로 ({@code null}이면 남기지 않음). 같은 키가 곧바로
+     *                 다시 바뀌어도 이 경로의 내용은 그대로입니다. 지우는 것은 호출 측의 몫입니다.
+     * @return 기록한 바이트 수
+     * @throws BusinessException 같거나 더 새 버전이 이미 기록되어 있는 경우 (409)
+     */
+    public long putVersion(String key, ReadableByteChannel source, long maxBytes, ObjectVersion version, Path snapshot)
+        throws IOException {
+        Path target = layoutPath(key);
+        List<Path> createdDirectories = AtomicFileWriter.createParentDirectories(target);
+        Path temp = AtomicFileWriter.tempSibling(target);
+        try {
+            long written = write(source, temp, maxBytes);
+            synchronized (versionLock(key)) {
+                rejectUnlessNewer(key, version);
+                if (snapshot != null) {
+                    linkOrCopy(temp, snapshot);
+                }
+                metadataCache.beginWrite(target);
+                try {
+                    atomicFileWriter.commit(temp, target, createdDirectories);
+                } finally {
+                    metadataCache.endWrite(target);
+                }
+                // 파일을 반영한 뒤에 기록하므로, 반영에 실패한 쓰기를 같은 버전으로 다시 보내면 받아들입니다.
+                writeVersion(key, version);
+            }
+            eventPublisher.publishEvent(new StoredObjectChangedEvent(target));
+            if (legacyLookup) {
+                deleteFile(legacyPath(key));
+            }
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 클러스터 복제본을 {@code version}으로 지웁니다. 버전 파일은 삭제 표시(tombstone)로 남기므로, 삭제보다 먼저 시작된
+     * 쓰기의 복제본이 늦게 도착해도 되살아나지 않습니다. 삭제 표시는 스크러버가 정리합니다.
+     *
+     * @return 복제본을 삭제했으면 {@code true}
+     * @throws BusinessException 같거나 더 새 버전이 이미 기록되어 있는 경우 (409)
+     */
+    public boolean deleteVersion(String key, ObjectVersion version) throws IOException {
+        synchronized (versionLock(key)) {
+            rejectUnlessNewer(key, version);
+            writeVersion(key, version);
+            return delete(key);
+        }
+    }
+
+    /**
+     * 파일이 없는 키의 버전 파일(삭제 표시)이 {@code threshold}(epoch millis)보다 오래되었으면 지웁니다.
+     *
+     * @return 지웠으면 {@code true}
+     */
+    boolean removeTombstone(String key, long threshold) throws IOException {
+        synchronized (versionLock(key)) {
+            Path versionFile = versionPath(key);
+            try {
+                if (Files.getLastModifiedTime(versionFile).toMillis() >= threshold || Files.exists(localPath(key))) {
+                    return false;
+                }
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            return Files.deleteIfExists(versionFile);
+        }
+    }
+
+    /**
+     * @return 키의 버전 파일 경로. 배치와 관계없이 {@code {root}/.versions/{key}}입니다.
+     */
+    Path versionPath(String key) {
+        Path root = rootFor(key);
+        return checked(root, root.resolve(VERSION_DIRECTORY).resolve(key), key);
+    }
+
+    private Object versionLock(String key) {
+        return versionLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void rejectUnlessNewer(String key, ObjectVersion version) throws IOException {
+        ObjectVersion current = versionOf(key);
+        if (current != null && current.compareTo(version) >= 0) {
+            throw new BusinessException(HttpStatus.CONFLICT, "같거나 더 새 버전이 이미 기록되어 있습니다: " + key);
+        }
+    }
+
+    // 버전 파일이 없으면 버전을 수정 시각으로 기록하던 이전 복제본으로 보고 파일의 수정 시각을 사용합니다.
+    // 캐시된 메타데이터는 다른 쓰기 직후 아직 무효화되지 않았을 수 있으므로 직접 stat 합니다.
+    private ObjectVersion versionOf(String key) throws IOException {
+        try {
+            return ObjectVersion.parse(Files.readString(versionPath(key), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            try {
+                return new ObjectVersion(Files.getLastModifiedTime(localPath(key)).toMillis(), "");
+            } catch (NoSuchFileException absent) {
+                return null;
+            }
+        }
+    }
+
+    private void writeVersion(String key, ObjectVersion version) throws IOException {
+        byte[] content = version.toString().getBytes(StandardCharsets.UTF_8);
+        atomicFileWriter.write(Channels.newChannel(new ByteArrayInputStream(content)), versionPath(key),
+            content.length);
+    }
+
+    private static void linkOrCopy(Path source, Path link) throws IOException {
+        try {
+            Files.createLink(link, source);
+        } catch (UnsupportedOperationException e) {
+            Files.copy(source, link);
+        }
+    }
+
+    @Override
+    public FileMetadata head(String key) throws IOException {
+        return metadataCache.get(localPath(key));
+    }
+
+    @Override
+    public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(localPath(key), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedChannel(channel, length);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean deleted = deleteFile(layoutPath(key));
+        if (legacyLookup) {
+            deleted |= deleteFile(legacyPath(key));
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<String> list(String prefix, int limit) throws IOException {
+        List<String> keys = new ArrayList<>();
+        for (Path root : roots()) {
+            if (layout.isHashed()) {
+                collectShardedKeys(root, prefix, keys);
+            }
+            if (legacyLookup || !layout.isHashed()) {
+                collectFlatKeys(root, prefix, keys);
+            }
+        }
+        return keys.stream().sorted().distinct().limit(limit).toList();
+    }
+
+    // 샤드 디렉터리는 키 순서와 무관하므로 전체를 훑습니다. 접두사 목록 조회가 잦다면 메타데이터 색인을 사용해야 합니다.
+    private void collectShardedKeys(Path root, String prefix, List<String> keys) throws IOException {
+        Path shardRoot = root.resolve(DirectoryLayout.SHARD_DIRECTORY);
+        if (!Files.isDirectory(shardRoot)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(shardRoot, layout.levels() + 1)) {
+            files.filter(file -> !file.getFileName().toString().startsWith("."))
+                .filter(Files::isRegularFile)
+                .map(layout::keyOf)
+                .filter(key -> key.startsWith(prefix) && StorageKeys.isValid(key))
+                .forEach(keys::add);
+        }
+    }
+
+    // prefix의 마지막 '/'까지를 디렉터리로 보고 그 아래만 탐색합니다.
+    private void collectFlatKeys(Path root, String prefix, List<String> keys) throws IOException {
+        int slash = prefix.lastIndexOf('/');
+        String directory = slash < 0 ? "" : prefix.substring(0, slash);
+        Path start = directory.isEmpty() ? root : root.resolve(directory).normalize();
+        if (!start.startsWith(root) || !Files.isDirectory(start)) {
+            return;
+        }
+        walkFlatFiles(root, start, file -> {
+            String key = flatKeyOf(root, file);
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        });
+    }
+
+    @Override
+    public Path localPath(String key) {
+        Path path = layoutPath(key);
+        if (legacyLookup && !exists(path)) {
+            Path legacy = legacyPath(key);
+            if (exists(legacy)) {
+                return legacy;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * flat 배치에 남은 파일을 hashed 배치로 옮깁니다. 옮기는 동안에도 두 배치 모두 조회되므로 서비스를 멈출 필요가 없습니다.
+     * <p>
+     * 새 경로에 하드 링크를 만든 뒤 기존 경로는 {@code gracePeriod}가 지나고 지웁니다. 그 사이에 기존 경로를 받아 간
+     * 다운로드(sendfile 등)가 파일을 열 수 있도록 하기 위함입니다. 새 경로에 이미 파일이 있으면(이전 중 업로드된 경우)
+     * 새 파일이 최신이므로 기존 파일만 지웁니다.
+     *
+     * @param maxFilesPerSecond 초당 옮길 파일 수 상한 (0 = 무제한)
+     * @return 옮긴 파일 수
+     */
+    long migrateLegacyLayout(int maxFilesPerSecond, Duration gracePeriod) throws IOException {
+        if (!layout.isHashed() || !legacyLookup) {
+            return 0;
+        }
+        long intervalNanos = maxFilesPerSecond > 0 ? 1_000_000_000L / maxFilesPerSecond : 0;
+        Deque<PendingDeletion> pendingDeletions = new ArrayDeque<>();
+        long[] migrated = {0};
+        long[] nextSlot = {System.nanoTime()};
+        for (Path root : roots()) {
+            walkFlatFiles(root, root, file -> {
+                String key = flatKeyOf(root, file);
+                if (!rootFor(key).equals(root)) {
+                    // 루트 목록이 바뀌어 다른 루트에 속하게 된 키는 재배치 대상이며 여기서 옮기지 않습니다.
+                    return;
+                }
+                if (intervalNanos > 0) {
+                    long wait = nextSlot[0] - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    nextSlot[0] = Math.max(nextSlot[0], System.nanoTime() - intervalNanos) + intervalNanos;
+                }
+                if (migrate(key, file)) {
+                    migrated[0]++;
+                }
+                pendingDeletions.add(new PendingDeletion(file, System.nanoTime() + gracePeriod.toNanos()));
+                deleteExpired(pendingDeletions, false);
+            });
+        }
+        deleteExpired(pendingDeletions, true);
+        for (Path root : roots()) {
+            deleteEmptyDirectories(root);
+        }
+        legacyLookup = false;
+        return migrated[0];
+    }
+
+    private boolean migrate(String key, Path legacy) throws IOException {
+        Path target = layoutPath(key);
+        AtomicFileWriter.createParentDirectories(target);
+        boolean linked;
+        try {
+            Files.createLink(target, legacy);
+            linked = true;
+        } catch (FileAlreadyExistsException | NoSuchFileException e) {
+            // 이전 도중 같은 키가 새로 업로드된 경우
+            linked = false;
+        } catch (UnsupportedOperationException e) {
+            // 하드 링크를 지원하지 않으면 복사한 뒤 원자적으로 게시합니다. (새 경로를 덮어쓰지 않도록 확인)
+            try (FileChannel source = FileChannel.open(legacy, StandardOpenOption.READ)) {
+                Path temp = AtomicFileWriter.tempSibling(target);
+                try {
+                    atomicFileWriter.writeContent(source, temp, Long.MAX_VALUE);
+                    Files.move(temp, target);
+                    linked = true;
+                } catch (FileAlreadyExistsException alreadyMigrated) {
+                    linked = false;
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (NoSuchFileException alreadyReplaced) {
+                linked = false;
+            }
+        }
+        if (linked) {
+            atomicFileWriter.syncDirectory(target.getParent());
+            eventPublisher.publishEvent(new StoredObjectChangedEvent(target));
+        }
+        return linked;
+    }
+
+    private void deleteExpired(Deque<PendingDeletion> pendingDeletions, boolean waitForAll) throws IOException {
+        while (!pendingDeletions.isEmpty()) {
+            PendingDeletion next = pendingDeletions.peekFirst();
+            long wait = next.deleteAt() - System.nanoTime();
+            if (wait > 0) {
+                if (!waitForAll) {
+                    return;
+                }
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            pendingDeletions.removeFirst();
+            deleteFile(next.path());
+        }
+    }
+
+    // 옮기고 남은 빈 flat 디렉터리를 지웁니다. hashed 배치에서는 flat 디렉터리가 새로 만들어지지 않습니다.
+    private static void deleteEmptyDirectories(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && dir.getFileName().toString().startsWith(".")
+                    ? FileVisitResult.SKIP_SUBTREE
+                    : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                if (!dir.equals(root)) {
+                    try {
+                        Files.delete(dir);
+                    } catch (IOException e) {
+                        // 비어 있지 않은 디렉터리
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * flat 배치의 파일을 방문합니다. 저장소 내부용 디렉터리({@code .shards}, {@code .blobs})와 임시 파일은 건너뜁니다.
+     */
+    private static void walkFlatFiles(Path root, Path start, FileAction action) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && dir.getParent().equals(root) && dir.getFileName().toString().startsWith(".")
+                    ? FileVisitResult.SKIP_SUBTREE
+                    : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                String name = file.getFileName().toString();
+                if (attrs.isRegularFile() && !name.endsWith(AtomicFileWriter.TEMP_SUFFIX)
+                    && StorageKeys.isValid(flatKeyOf(root, file))) {
+                    action.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // 탐색 도중 지워진 파일
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * @return 루트 아래 파일의 키. hashed 배치의 파일은 파일 이름에서, flat 배치의 파일은 상대 경로에서 되돌립니다.
+     */
+    String keyOf(Path root, Path file) {
+        return file.startsWith(root.resolve(DirectoryLayout.SHARD_DIRECTORY)) ? layout.keyOf(file) : flatKeyOf(root, file);
+    }
+
+    private static String flatKeyOf(Path root, Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private Path layoutPath(String key) {
+        Path root = rootFor(key);
+        return checked(root, layout.resolve(root, key), key);
+    }
+
+    private Path legacyPath(String key) {
+        Path root = rootFor(key);
+        return checked(root, layout.legacyPath(root, key), key);
+    }
+
+    private static Path checked(Path root, Path path, String key) {
+        Path resolved = path.normalize();
+        if (!resolved.startsWith(root)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "파일 경로가 올바르지 않습니다: " + key);
+        }
+        return resolved;
+    }
+
+    // 메타데이터 캐시에 있으면 stat 하지 않습니다.
+    private boolean exists(Path file) {
+        try {
+            return metadataCache.get(file) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean deleteFile(Path file) throws IOException {
+        boolean deleted = Files.deleteIfExists(file);
+        if (deleted) {
+            eventPublisher.publishEvent(new StoredObjectChangedEvent(file));
+        }
+        return deleted;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Path root : roots()) {
+            FileStore store;
+            try {
+                store = Files.getFileStore(root);
+            } catch (IOException e) {
+                continue;
+            }
+            Gauge.builder("storage.disk.free", store, FileSystemStorageBackend::usableSpace)
+                .tag("path", root.toString())
+                .baseUnit(BaseUnits.BYTES)
+                .description("저장소 루트가 있는 디스크의 사용 가능한 공간")
+                .register(registry);
+            Gauge.builder("storage.disk.total", store, FileSystemStorageBackend::totalSpace)
+                .tag("path", root.toString())
+                .baseUnit(BaseUnits.BYTES)
+                .description("저장소 루트가 있는 디스크의 전체 공간")
+                .register(registry);
+        }
+    }
+
+    private static double usableSpace(FileStore store) {
+        try {
+            return store.getUsableSpace();
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double totalSpace(FileStore store) {
+        try {
+            return store.getTotalSpace();
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+
+    protected static Path createRoot(String directory) {
+        Path root = Path.of(directory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException ex) {
+            throw new IllegalStateException("파일을 저장할 디렉터리를 생성할 수 없습니다: " + root, ex);
+        }
+        return root;
+    }
+
+    @FunctionalInterface
+    private interface FileAction {
+        void accept(Path file) throws IOException;
+    }
+
+    private record PendingDeletion(Path path, long deleteAt) {
+    }
+
+    /**
+     * 지정한 길이까지만 읽는 채널입니다.
+     */
+    private static final class BoundedChannel implements ReadableByteChannel {
+
+        private final FileChannel channel;
+        private long remaining;
+
+        private BoundedChannel(FileChannel channel, long length) {
+            this.channel = channel;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int read = channel.read(dst);
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
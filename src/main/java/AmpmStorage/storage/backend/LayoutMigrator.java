@@ -0,0 +1,56 @@
+package AmpmStorage.storage.backend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code app.storage.layout.type=hashed}일 때, 기존 flat 배치에 남은 파일을 백그라운드에서 새 배치로 옮깁니다.
+ * <p>
+ * 옮기는 동안에도 두 배치가 모두 조회되므로 서비스 중에 실행할 수 있습니다. 디스크를 요청 처리와 나눠 쓰도록
+ * {@code app.storage.layout.migration.max-files-per-second}로 속도를 제한합니다.
+ * 이전이 실패하면 flat 배치 조회는 계속 유지되고, 다음 시작 시 다시 시도합니다.
+ */
+@Slf4j
+@Component
+public class LayoutMigrator {
+
+    private final FileSystemStorageBackend backend;
+    private final boolean enabled;
+    private final int maxFilesPerSecond;
+    private final Duration gracePeriod;
+
+    public LayoutMigrator(ObjectProvider<FileSystemStorageBackend> backend,
+                          @Value("${app.storage.layout.migration.enabled:true}") boolean enabled,
+                          @Value("${app.storage.layout.migration.max-files-per-second:500}") int maxFilesPerSecond,
+                          @Value("${app.storage.layout.migration.grace-period:5s}") Duration gracePeriod) {
+        // 클러스터 모드에서도 노드의 로컬 저장소를 옮기도록 StorageBackend가 아닌 파일 시스템 저장소를 직접 받습니다.
+        this.backend = backend.getIfAvailable();
+        this.enabled = enabled;
+        this.maxFilesPerSecond = maxFilesPerSecond;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || backend == null) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("storage-layout-migrator").start(() -> {
+            try {
+                long migrated = backend.migrateLegacyLayout(maxFilesPerSecond, gracePeriod);
+                if (migrated > 0) {
+                    log.info("flat 배치의 파일을 hashed 배치로 옮겼습니다: {}개", migrated);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("파일 배치 이전 중 오류가 발생했습니다. flat 배치 조회를 유지합니다.", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code app.storage.upload-dir} 하나에 키를 그대로 상대 경로로 저장하는 기본 저장소입니다.
+ * {@link ContentAddressedStore}가 켜져 있으면 같은 내용을 한 번만 저장합니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage.backend", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalFileSystemBackend extends FileSystemStorageBackend {
+
+    private final Path root;
+    private final ContentAddressedStore contentAddressedStore;
+
+    public LocalFileSystemBackend(@Value("${app.storage.upload-dir}") String uploadDir,
+                                  DirectoryLayout layout,
+                                  AtomicFileWriter atomicFileWriter,
+                                  FileMetadataCache metadataCache,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectProvider<ContentAddressedStore> contentAddressedStore) {
+        super(layout, atomicFileWriter, metadataCache, eventPublisher);
+        this.root = createRoot(uploadDir);
+        this.contentAddressedStore = contentAddressedStore.getIfAvailable();
+    }
+
+    @Override
+    protected Path rootFor(String key) {
+        return root;
+    }
+
+    @Override
+    protected List<Path> roots() {
+        return List.of(root);
+    }
+
+    @Override
+    protected long write(ReadableByteChannel source, Path target, long maxBytes) throws IOException {
+        if (contentAddressedStore != null) {
+            return contentAddressedStore.store(source, target, maxBytes);
+        }
+        return super.write(source, target, maxBytes);
+    }
+
+    @Override
+    protected long commitFile(Path staged, Path target) throws IOException {
+        if (contentAddressedStore != null) {
+            return contentAddressedStore.storeFile(staged, target);
+        }
+        return super.commitFile(staged, target);
+    }
+}
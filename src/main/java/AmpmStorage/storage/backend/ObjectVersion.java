@@ -0,0 +1,46 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.util.Comparator;
+import java.util.Objects;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 클러스터 모드에서 쓰기/삭제의 버전입니다. 요청을 받은 노드의 시각(epoch millis)으로 비교하고, 시각이 같으면 그 노드의
+ * ID로 비교하므로 모든 노드가 같은 순서로 판단합니다. 헤더와 버전 파일에는 {@code {timestamp}@{nodeId}}로 기록합니다.
+ */
+public record ObjectVersion(long timestamp, String nodeId) implements Comparable<ObjectVersion> {
+
+    private static final Comparator<ObjectVersion> ORDER =
+        Comparator.comparingLong(ObjectVersion::timestamp).thenComparing(ObjectVersion::nodeId);
+
+    public ObjectVersion {
+        Objects.requireNonNull(nodeId, "nodeId");
+    }
+
+    /**
+     * 노드 ID가 없는 이전 형식(시각만)은 같은 시각의 어느 버전보다도 오래된 것으로 봅니다.
+     *
+     * @throws BusinessException 형식이 올바르지 않은 경우 (400)
+     */
+    public static ObjectVersion parse(String text) {
+        int separator = text.indexOf('@');
+        try {
+            return separator < 0
+                ? new ObjectVersion(Long.parseLong(text.trim()), "")
+                : new ObjectVersion(Long.parseLong(text.substring(0, separator)), text.substring(separator + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "버전 형식이 올바르지 않습니다: " + text);
+        }
+    }
+
+    @Override
+    public int compareTo(ObjectVersion other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "@" + nodeId;
+    }
+}
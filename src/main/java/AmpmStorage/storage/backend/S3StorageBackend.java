@@ -0,0 +1,223 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.io.StreamingFileWriter;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * S3 호환 객체 저장소(MinIO 등)에 저장합니다. path-style 주소({@code endpoint/bucket/key})와 SigV4 서명을 사용하며,
+ * JDK {@link HttpClient}만으로 동작합니다.
+ * <p>
+ * S3 PUT은 Content-Length가 필요하므로 업로드 본문은 먼저 로컬 임시 파일에 받은 뒤 전송합니다.
+ * 다운로드는 Range 요청으로 필요한 구간만 받아 응답에 흘려 보냅니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage.backend", name = "type", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final int MAX_KEYS_PER_PAGE = 1000;
+
+    private final URI bucketUri;
+    private final AwsSigV4Signer signer;
+    private final HttpClient httpClient;
+    private final StreamingFileWriter streamingFileWriter;
+    private final Duration requestTimeout;
+    private final Clock clock;
+
+    public S3StorageBackend(@Value("${app.storage.backend.s3.endpoint}") String endpoint,
+                            @Value("${app.storage.backend.s3.bucket}") String bucket,
+                            @Value("${app.storage.backend.s3.region:us-east-1}") String region,
+                            @Value("${app.storage.backend.s3.access-key}") String accessKey,
+                            @Value("${app.storage.backend.s3.secret-key}") String secretKey,
+                            @Value("${app.storage.backend.s3.request-timeout:30s}") Duration requestTimeout,
+                            StreamingFileWriter streamingFileWriter) {
+        String base = endpoint.endsWith("/") ? endpoint : endpoint + "/";
+        this.bucketUri = URI.create(base + AwsSigV4Signer.uriEncode(bucket, false));
+        this.signer = new AwsSigV4Signer(accessKey, secretKey, region, "s3");
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.streamingFileWriter = streamingFileWriter;
+        this.requestTimeout = requestTimeout;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Override
+    public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+        Path spool = Files.createTempFile("s3-upload-", ".tmp");
+        try {
+            long written = streamingFileWriter.write(source, spool, maxBytes);
+            HttpRequest.Builder request = request("PUT", objectUri(key))
+                .header("Content-Type", FileMetadataCache.resolveContentType(Path.of(key)))
+                .PUT(HttpRequest.BodyPublishers.ofFile(spool));
+            HttpResponse<Void> response = send(request, "PUT", objectUri(key), HttpResponse.BodyHandlers.discarding());
+            expectSuccess(response, key);
+            return written;
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public FileMetadata head(String key) throws IOException {
+        URI uri = objectUri(key);
+        HttpResponse<Void> response = send(request("HEAD", uri).method("HEAD", HttpRequest.BodyPublishers.noBody()),
+            "HEAD", uri, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        expectSuccess(response, key);
+
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+            .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+            .orElse(0L);
+        String eTag = response.headers().firstValue("ETag").orElse(null);
+        String contentType = response.headers().firstValue("Content-Type")
+            .orElseGet(() -> FileMetadataCache.resolveContentType(Path.of(key)));
+        return new FileMetadata(size, lastModified, eTag, contentType);
+    }
+
+    @Override
+    public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+        URI uri = objectUri(key);
+        HttpRequest.Builder request = request("GET", uri).GET();
+        if (length > 0) {
+            request.header("Range", "bytes=" + offset + "-" + (offset + length - 1));
+        }
+        HttpResponse<InputStream> response = send(request, "GET", uri, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw new IOException("S3 요청이 실패했습니다: " + response.statusCode() + " (" + key + ")");
+        }
+        return Channels.newChannel(response.body());
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        URI uri = objectUri(key);
+        HttpResponse<Void> response = send(request("DELETE", uri).DELETE(), "DELETE", uri,
+            HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        // S3는 객체가 없어도 204를 응답하므로 실제 삭제 여부와 다를 수 있습니다.
+        expectSuccess(response, key);
+        return true;
+    }
+
+    @Override
+    public List<String> list(String prefix, int limit) throws IOException {
+        List<String> keys = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            // SigV4 정규 쿼리 문자열과 같도록 파라미터를 이름순으로 정렬합니다.
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            query.put("max-keys", String.valueOf(Math.min(MAX_KEYS_PER_PAGE, limit - keys.size())));
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            StringBuilder rawQuery = new StringBuilder();
+            query.forEach((name, value) -> rawQuery.append(rawQuery.isEmpty() ? "" : "&")
+                .append(AwsSigV4Signer.uriEncode(name, false)).append('=')
+                .append(AwsSigV4Signer.uriEncode(value, false)));
+            URI uri = URI.create(bucketUri + "?" + rawQuery);
+
+            HttpResponse<InputStream> response = send(request("GET", uri).GET(), "GET", uri,
+                HttpResponse.BodyHandlers.ofInputStream());
+            Document document;
+            try (InputStream body = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("S3 목록 조회가 실패했습니다: " + response.statusCode());
+                }
+                document = parse(body);
+            }
+            NodeList contents = document.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength() && keys.size() < limit; i++) {
+                keys.add(childText((Element) contents.item(i), "Key"));
+            }
+            continuationToken = "true".equals(childText(document.getDocumentElement(), "IsTruncated"))
+                ? childText(document.getDocumentElement(), "NextContinuationToken")
+                : null;
+        } while (continuationToken != null && keys.size() < limit);
+        return keys;
+    }
+
+    private URI objectUri(String key) {
+        return URI.create(bucketUri + "/" + AwsSigV4Signer.uriEncode(key, true));
+    }
+
+    private HttpRequest.Builder request(String method, URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(requestTimeout);
+        signer.sign(builder, method, uri, AwsSigV4Signer.UNSIGNED_PAYLOAD, clock.instant());
+        return builder;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, String method, URI uri,
+                                     HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("S3 요청이 중단되었습니다: " + method + " " + uri);
+        }
+    }
+
+    private static void expectSuccess(HttpResponse<?> response, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 요청이 실패했습니다: " + response.statusCode() + " (" + key + ")");
+        }
+    }
+
+    private static Document parse(InputStream body) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(body);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("S3 응답을 해석할 수 없습니다.", e);
+        }
+    }
+
+    private static String childText(Element parent, String name) {
+        NodeList children = parent.getElementsByTagName(name);
+        return children.getLength() == 0 ? null : children.item(0).getTextContent();
+    }
+}
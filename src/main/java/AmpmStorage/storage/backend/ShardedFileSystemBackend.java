@@ -0,0 +1,77 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32C;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 키를 여러 루트 디렉터리(디스크)에 나누어 저장합니다.
+ * <p>
+ * 루트는 rendezvous(HRW) 해싱으로 고릅니다. 키와 각 루트의 경로로 점수를 매겨 가장 높은 루트를 사용하므로
+ * 설정의 루트 순서와 무관하고, 루트를 하나 추가하면 그 루트로 옮겨 갈 키(약 1/n)만 위치가 바뀝니다.
+ * 루트 목록을 바꾼 뒤에는 위치가 바뀐 키를 재배치해야 합니다.
+ * <p>
+ * 루트마다 파일 시스템이 다를 수 있으므로 하드 링크 기반의 중복 제거는 사용하지 않습니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage.backend", name = "type", havingValue = "sharded")
+public class ShardedFileSystemBackend extends FileSystemStorageBackend {
+
+    private final List<Path> roots;
+    private final long[] rootSeeds;
+
+    public ShardedFileSystemBackend(@Value("${app.storage.backend.sharded.roots}") List<String> roots,
+                                    DirectoryLayout layout,
+                                    AtomicFileWriter atomicFileWriter,
+                                    FileMetadataCache metadataCache,
+                                    ApplicationEventPublisher eventPublisher) {
+        super(layout, atomicFileWriter, metadataCache, eventPublisher);
+        if (roots.isEmpty()) {
+            throw new IllegalStateException("app.storage.backend.sharded.roots가 비어 있습니다.");
+        }
+        this.roots = roots.stream().map(String::trim).map(FileSystemStorageBackend::createRoot).toList();
+        this.rootSeeds = this.roots.stream().mapToLong(root -> hash(root.toString())).toArray();
+    }
+
+    @Override
+    protected Path rootFor(String key) {
+        long keyHash = hash(key);
+        int selected = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < rootSeeds.length; i++) {
+            long score = mix(keyHash ^ rootSeeds[i]);
+            if (score > bestScore) {
+                bestScore = score;
+                selected = i;
+            }
+        }
+        return roots.get(selected);
+    }
+
+    @Override
+    protected List<Path> roots() {
+        return roots;
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        // 키 길이도 섞어 32비트 CRC를 64비트로 넓힙니다.
+        return mix((crc.getValue() << 32) | bytes.length);
+    }
+
+    // SplitMix64의 마무리 단계. 비트를 고르게 퍼뜨립니다.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,85 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.service.FileMetadata;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 객체를 실제로 보관하는 저장소입니다. HTTP 계층은 키({@code exhibits/images/...}, {@code fileId})만 다루고,
+ * 키를 어느 디스크/노드의 어느 위치에 둘지는 구현체가 정합니다.
+ * <p>
+ * {@code app.storage.backend.type}으로 구현체를 고릅니다. ({@code local}, {@code sharded}, {@code s3})
+ * 키는 {@link StorageKeys#validate(String)}를 통과한 값이어야 합니다. (내부 기능이 쓰는 {@code .encoded/} 같은 예약 키는 예외)
+ */
+public interface StorageBackend {
+
+    /**
+     * 스트림을 키에 저장합니다. 같은 키의 기존 객체는 완성된 새 객체로 한 번에 교체됩니다.
+     *
+     * @return 기록한 바이트 수
+     */
+    long put(String key, ReadableByteChannel source, long maxBytes) throws IOException;
+
+    /**
+     * 본문을 로컬 파일로 직접 받을 수 있으면 쓸 임시 파일의 경로를 반환합니다. (상위 디렉터리는 만들어 둠)
+     * 파일을 다 쓴 뒤 {@link #commit(String, Path)}로 반영하면 본문을 다시 복사하지 않습니다.
+     *
+     * @return 임시 파일 경로, 지원하지 않으면 {@code null} ({@link #put}을 사용)
+     */
+    default Path stagingPath(String key) throws IOException {
+        return null;
+    }
+
+    /**
+     * {@link #stagingPath(String)}에 다 쓴 파일을 키에 반영합니다. 같은 키의 기존 객체는 한 번에 교체됩니다.
+     *
+     * @return 반영한 바이트 수
+     */
+    default long commit(String key, Path staged) throws IOException {
+        throw new UnsupportedOperationException("임시 파일 반영을 지원하지 않는 저장소입니다.");
+    }
+
+    /**
+     * @return 객체의 메타데이터, 객체가 없으면 {@code null}
+     */
+    FileMetadata head(String key) throws IOException;
+
+    /**
+     * {@code offset}부터 최대 {@code length} 바이트를 읽는 채널을 엽니다. 호출 측에서 닫아야 합니다.
+     *
+     * @throws java.nio.file.NoSuchFileException 객체가 없는 경우
+     */
+    ReadableByteChannel get(String key, long offset, long length) throws IOException;
+
+    /**
+     * @return 객체를 삭제했으면 {@code true}
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * @return {@code prefix}로 시작하는 키 목록 (사전순, 최대 {@code limit}개)
+     */
+    List<String> list(String prefix, int limit) throws IOException;
+
+    /**
+     * 객체가 로컬 파일 시스템에 있다면 그 경로를 반환합니다. 다운로드 시 sendfile, 메타데이터/객체 캐시 같은
+     * 파일 기반의 빠른 경로를 사용할 수 있습니다.
+     *
+     * @return 로컬 경로, 원격 저장소이면 {@code null}
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+
+    /**
+     * 클러스터 모드에서는 해시 링에서 이 노드가 담당하는 키만 {@code true}입니다. 이 노드의 색인과 파생 데이터
+     * (압축 사본 등)는 담당하는 키에 대해서만 만듭니다.
+     *
+     * @return 이 노드가 키의 객체를 보관하는지 여부
+     */
+    default boolean ownsKey(String key) {
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * 저장소 키 검증 유틸리티입니다.
+ * <p>
+ * 키는 {@code /}로 구분된 상대 경로이며, 빈 세그먼트나 {@code .}, {@code ..}, 역슬래시는 허용하지 않습니다.
+ * 첫 세그먼트가 {@code .}으로 시작하는 키({@code .blobs} 등)는 저장소 내부용으로 예약되어 있습니다.
+ * 임시 파일의 접미사({@link AtomicFileWriter#TEMP_SUFFIX})로 끝나는 키도 중단된 업로드로 보고 정리되므로 허용하지 않습니다.
+ */
+public final class StorageKeys {
+
+    private StorageKeys() {
+    }
+
+    /**
+     * @return 검증을 통과한 키 그대로
+     * @throws BusinessException 키가 올바르지 않은 경우 (400)
+     */
+    public static String validate(String key) {
+        if (!isValid(key)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "파일 경로가 올바르지 않습니다: " + key);
+        }
+        return key;
+    }
+
+    /**
+     * 여러 키를 한꺼번에 다룰 때 쓰는 접두어({@code exhibits/images/1/})를 검증합니다. {@code /}로 끝나야 합니다.
+     *
+     * @return 검증을 통과한 접두어 그대로
+     * @throws BusinessException 접두어가 올바르지 않은 경우 (400)
+     */
+    public static String validatePrefix(String prefix) {
+        if (prefix == null || prefix.length() < 2 || !prefix.endsWith("/")
+            || !isValid(prefix.substring(0, prefix.length() - 1))) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "경로 접두어가 올바르지 않습니다: " + prefix);
+        }
+        return prefix;
+    }
+
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.charAt(0) == '.' || key.charAt(0) == '/'
+            || key.endsWith(AtomicFileWriter.TEMP_SUFFIX)) {
+            return false;
+        }
+        int segmentStart = 0;
+        for (int i = 0; i <= key.length(); i++) {
+            char c = i < key.length() ? key.charAt(i) : '/';
+            if (c == '\\' || c == '\0') {
+                return false;
+            }
+            if (c == '/') {
+                int length = i - segmentStart;
+                if (length == 0
+                    || (length == 1 && key.charAt(segmentStart) == '.')
+                    || (length == 2 && key.startsWith("..", segmentStart))) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,559 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.index.IndexEntry;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 업로드 디렉터리를 주기적으로 훑어 남은 파일을 정리하고 손상된 파일을 찾는 백그라운드 작업입니다.
+ * <p>
+ * {@link Files#walkFileTree}로 디렉터리를 하나씩 방문하므로 파일 수와 무관하게 메모리를 거의 쓰지 않습니다.
+ * JVM에서는 I/O 우선순위를 직접 낮출 수 없으므로, 낮은 우선순위의 스레드 하나에서 초당 파일 수
+ * ({@code files-per-second})와 초당 읽기 바이트 수({@code bytes-per-second}) 예산 안에서만 진행합니다.
+ * <p>
+ * 정리 대상 (모두 {@code min-age}보다 오래된 것만)
+ * <ul>
+ *     <li>{@code incomplete-upload}: 중단된 업로드의 임시 파일({@code *.upload-tmp}, {@code .incoming/*})</li>
+ *     <li>{@code unreferenced-blob}: 덮어쓰거나 지워져 더 이상 링크되지 않은 중복 제거 블롭 ({@code app.storage.dedup.enabled})</li>
+ *     <li>{@code orphaned-copy}: 원본이 없는 gzip 사본({@code .encoded/})과 이미지 변형({@code .variants/})</li>
+ *     <li>{@code expired-tombstone}: 클러스터 모드에서 지운 키의 버전 파일({@code .versions/}). 그보다 먼저 시작된
+ *     복제본 전송은 이미 끝났으므로 남겨 둘 필요가 없습니다.</li>
+ *     <li>{@code abandoned-post}: 게시되지 않은 글의 {@code exhibits/images/{userId}/posts/{uuid}/} 파일.
+ *     게시 여부는 이 서비스가 알 수 없으므로 {@code abandoned-posts.check-url}이 설정된 경우에만, 그 URL이
+ *     404를 응답한 글만 {@code abandoned-posts.min-age}가 지난 뒤 지웁니다.</li>
+ *     <li>{@code empty-directory}: 위 정리 후 남은 빈 디렉터리</li>
+ * </ul>
+ * {@code verify-checksums}가 켜져 있으면 블롭(파일 이름이 SHA-256)과 색인에 digest가 있는 파일의 내용을 다시 읽어
+ * 비트 손상을 찾습니다. 손상된 파일은 지우지 않고 {@code storage.scrubber.corrupt} 지표와 로그로 알립니다.
+ * S3 저장소는 버킷의 수명 주기 규칙으로 관리하므로 대상이 아닙니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.scrubber", name = "enabled", havingValue = "true")
+public class StorageScrubber implements MeterBinder, DisposableBean {
+
+    private static final Pattern POST_KEY = Pattern.compile("^exhibits/images/([^/]+)/posts/([^/]+)/");
+    private static final String ENCODED_DIRECTORY = ".encoded";
+    private static final String ENCODED_PREFIX = ENCODED_DIRECTORY + "/";
+    private static final String ENCODED_SUFFIX = ".gz";
+    private static final String VARIANT_DIRECTORY = ".variants";
+    private static final String VARIANT_PREFIX = VARIANT_DIRECTORY + "/";
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("\\.w\\d+\\.[^./]+$");
+    private static final String INCOMING_DIRECTORY = ".incoming";
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    // 한 번의 순회에서 기억하는 게시 여부 확인 결과 수
+    private static final int MAX_CACHED_POSTS = 10_000;
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * 정리 사유. 지표의 {@code reason} 태그로 사용합니다.
+     */
+    enum Reason {
+        INCOMPLETE_UPLOAD, UNREFERENCED_BLOB, ORPHANED_COPY, EXPIRED_TOMBSTONE, ABANDONED_POST, EMPTY_DIRECTORY;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    /**
+     * 한 번의 순회 결과입니다.
+     */
+    record Report(long files, long verifiedBytes, Map<Reason, Long> removed, long reclaimedBytes, long corrupt) {
+
+        long removed(Reason reason) {
+            return removed.getOrDefault(reason, 0L);
+        }
+    }
+
+    private final FileSystemStorageBackend backend;
+    private final MetadataIndex metadataIndex;
+    private final ContentAddressedStore contentAddressedStore;
+    private final Duration interval;
+    private final Duration initialDelay;
+    private final int filesPerSecond;
+    private final long bytesPerSecond;
+    private final boolean verifyChecksums;
+    private final Duration minAge;
+    private final String postCheckUrl;
+    private final Duration abandonedPostMinAge;
+    private final HttpClient httpClient;
+
+    private final LongAdder filesScanned = new LongAdder();
+    private final LongAdder bytesVerified = new LongAdder();
+    private final Map<Reason, LongAdder> removed = new EnumMap<>(Reason.class);
+    private final LongAdder bytesReclaimed = new LongAdder();
+    private final LongAdder corruptFiles = new LongAdder();
+    private final AtomicLong currentPassFiles = new AtomicLong();
+    private final AtomicLong lastCompletedEpochSecond = new AtomicLong();
+    private volatile Thread worker;
+
+    public StorageScrubber(ObjectProvider<FileSystemStorageBackend> backend,
+                           ObjectProvider<MetadataIndex> metadataIndex,
+                           ObjectProvider<ContentAddressedStore> contentAddressedStore,
+                           @Value("${app.storage.scrubber.interval:PT24H}") Duration interval,
+                           @Value("${app.storage.scrubber.initial-delay:PT10M}") Duration initialDelay,
+                           @Value("${app.storage.scrubber.files-per-second:200}") int filesPerSecond,
+                           @Value("${app.storage.scrubber.bytes-per-second:10MB}") DataSize bytesPerSecond,
+                           @Value("${app.storage.scrubber.verify-checksums:true}") boolean verifyChecksums,
+                           @Value("${app.storage.scrubber.min-age:PT24H}") Duration minAge,
+                           @Value("${app.storage.scrubber.abandoned-posts.check-url:}") String postCheckUrl,
+                           @Value("${app.storage.scrubber.abandoned-posts.min-age:P7D}") Duration abandonedPostMinAge) {
+        this.backend = backend.getIfAvailable();
+        this.metadataIndex = metadataIndex.getIfAvailable();
+        this.contentAddressedStore = contentAddressedStore.getIfAvailable();
+        this.interval = interval;
+        this.initialDelay = initialDelay;
+        this.filesPerSecond = filesPerSecond;
+        this.bytesPerSecond = bytesPerSecond.toBytes();
+        this.verifyChecksums = verifyChecksums;
+        this.minAge = minAge;
+        this.postCheckUrl = postCheckUrl.isBlank() ? null : postCheckUrl;
+        this.abandonedPostMinAge = abandonedPostMinAge;
+        this.httpClient = this.postCheckUrl == null ? null : HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        for (Reason reason : Reason.values()) {
+            removed.put(reason, new LongAdder());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (backend == null) {
+            log.info("파일 시스템 저장소가 아니므로 스크러버를 실행하지 않습니다.");
+            return;
+        }
+        worker = Thread.ofPlatform().daemon().name("storage-scrubber").priority(Thread.MIN_PRIORITY).start(() -> {
+            try {
+                Thread.sleep(initialDelay);
+                while (!Thread.currentThread().isInterrupted()) {
+                    runPass();
+                    Thread.sleep(interval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void runPass() {
+        try {
+            long started = System.nanoTime();
+            Report report = scrub(Instant.now());
+            log.info("저장소 점검을 마쳤습니다: 파일 {}개, 정리 {}, 회수 {} bytes, 손상 {}개 ({}s)", report.files(),
+                report.removed(), report.reclaimedBytes(), report.corrupt(),
+                Duration.ofNanos(System.nanoTime() - started).toSeconds());
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("저장소 점검 중 오류가 발생했습니다. 다음 주기에 다시 시도합니다.", e);
+        }
+    }
+
+    /**
+     * 모든 루트를 한 번 훑습니다.
+     */
+    Report scrub(Instant now) throws IOException {
+        Pass pass = new Pass(now);
+        currentPassFiles.set(0);
+        for (Path root : backend.roots()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            pass.walk(root);
+        }
+        if (!Thread.currentThread().isInterrupted()) {
+            lastCompletedEpochSecond.set(now.getEpochSecond());
+        }
+        return pass.report();
+    }
+
+    /**
+     * 한 번의 순회 상태입니다. 순회는 스크러버 스레드 하나에서만 진행합니다.
+     */
+    private final class Pass {
+
+        private final long minAgeThreshold;
+        private final long abandonedPostThreshold;
+        private final Pacer filePacer = new Pacer(filesPerSecond);
+        private final Pacer bytePacer = new Pacer(bytesPerSecond);
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_SIZE);
+        // {userId}/{uuid} -> 게시되지 않은 글인지 여부
+        private final Map<String, Boolean> abandonedPosts = new HashMap<>();
+
+        private long files;
+        private long verifiedBytes;
+        private final Map<Reason, Long> removedByReason = new EnumMap<>(Reason.class);
+        private long reclaimedBytes;
+        private long corrupt;
+
+        private Pass(Instant now) {
+            this.minAgeThreshold = now.minus(minAge).toEpochMilli();
+            this.abandonedPostThreshold = now.minus(abandonedPostMinAge).toEpochMilli();
+        }
+
+        private void walk(Path root) throws IOException {
+            Path blobRoot = root.resolve(ContentAddressedStore.BLOB_DIRECTORY);
+            Path incomingRoot = root.resolve(INCOMING_DIRECTORY);
+            Path versionRoot = root.resolve(FileSystemStorageBackend.VERSION_DIRECTORY);
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return FileVisitResult.TERMINATE;
+                    }
+                    if (dir.equals(root) || !dir.getParent().equals(root) || !isHidden(dir)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    // 분할 업로드 세션(.uploads)과 색인(.index)은 각자 정리합니다.
+                    String name = dir.getFileName().toString();
+                    boolean scrubbed = dir.equals(blobRoot)
+                        ? contentAddressedStore != null
+                        : dir.equals(incomingRoot) || dir.equals(versionRoot)
+                        || name.equals(DirectoryLayout.SHARD_DIRECTORY) || name.equals(ENCODED_DIRECTORY)
+                        || name.equals(VARIANT_DIRECTORY);
+                    return scrubbed ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    filePacer.acquire(1);
+                    files++;
+                    filesScanned.increment();
+                    currentPassFiles.incrementAndGet();
+                    if (file.getFileName().toString().endsWith(AtomicFileWriter.TEMP_SUFFIX)
+                        || file.startsWith(incomingRoot)) {
+                        removeIfOld(file, attrs, Reason.INCOMPLETE_UPLOAD);
+                    } else if (file.startsWith(blobRoot)) {
+                        scrubBlob(file, attrs);
+                    } else if (file.startsWith(versionRoot)) {
+                        scrubTombstone(versionRoot, file, attrs);
+                    } else {
+                        scrubObject(root, file, attrs);
+                    }
+                    return Thread.currentThread().isInterrupted() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // 탐색 도중 지워진 파일
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    // 저장소가 시작 시 만들어 두는 디렉터리(최상위, .blobs/tmp)는 남깁니다.
+                    if (!dir.equals(root) && !dir.getParent().equals(root) && !dir.getParent().equals(blobRoot)) {
+                        removeIfEmpty(dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        private void scrubBlob(Path blob, BasicFileAttributes attrs) throws IOException {
+            String digest = blob.getFileName().toString();
+            // 블롭을 게시한 직후 논리 경로를 연결하기 전에는 참조 수가 0이므로 오래된 블롭만 정리합니다.
+            // 정리한 블롭을 다시 연결하려던 업로드는 블롭을 한 번 더 게시합니다. (ContentAddressedStore#store)
+            if (attrs.lastModifiedTime().toMillis() < minAgeThreshold && contentAddressedStore.referenceCount(digest) == 0) {
+                delete(blob, attrs.size(), Reason.UNREFERENCED_BLOB);
+                contentAddressedStore.forget(attrs);
+                return;
+            }
+            if (verifyChecksums) {
+                verify(blob, digest);
+            }
+        }
+
+        // 파일이 남아 있는 키의 버전 파일은 다음 쓰기의 비교에 필요하므로 남깁니다.
+        private void scrubTombstone(Path versionRoot, Path file, BasicFileAttributes attrs) throws IOException {
+            String key = versionRoot.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            if (StorageKeys.isValid(key) && backend.removeTombstone(key, minAgeThreshold)) {
+                recordRemoval(file, attrs.size(), Reason.EXPIRED_TOMBSTONE);
+            }
+        }
+
+        private void scrubObject(Path root, Path file, BasicFileAttributes attrs) throws IOException {
+            String key = backend.keyOf(root, file);
+            if (key.startsWith(ENCODED_PREFIX)) {
+                if (key.endsWith(ENCODED_SUFFIX)) {
+                    String sourceKey = key.substring(ENCODED_PREFIX.length(), key.length() - ENCODED_SUFFIX.length());
+                    if (StorageKeys.isValid(sourceKey) && !Files.exists(backend.localPath(sourceKey))) {
+                        removeKeyIfOld(key, attrs, Reason.ORPHANED_COPY);
+                    }
+                }
+                return;
+            }
+            if (key.startsWith(VARIANT_PREFIX)) {
+                Matcher suffix = VARIANT_SUFFIX.matcher(key);
+                if (suffix.find()) {
+                    String sourceKey = key.substring(VARIANT_PREFIX.length(), suffix.start());
+                    if (StorageKeys.isValid(sourceKey) && !Files.exists(backend.localPath(sourceKey))) {
+                        removeKeyIfOld(key, attrs, Reason.ORPHANED_COPY);
+                    }
+                }
+                return;
+            }
+            if (!StorageKeys.isValid(key)) {
+                return;
+            }
+            if (postCheckUrl != null && attrs.lastModifiedTime().toMillis() < abandonedPostThreshold
+                && isAbandonedPost(key)) {
+                removeKey(key, attrs.size(), Reason.ABANDONED_POST);
+                return;
+            }
+            // 블롭에 연결된 파일은 블롭을 점검할 때 함께 확인됩니다.
+            if (verifyChecksums && metadataIndex != null
+                && (contentAddressedStore == null || contentAddressedStore.digestOf(attrs) == null)) {
+                IndexEntry entry = metadataIndex.get(key);
+                // 색인에 기록된 뒤 바뀌지 않은 파일만 비교합니다. (색인은 저장이 끝난 뒤 기록됨)
+                if (entry != null && entry.digest() != null && entry.size() == attrs.size()
+                    && attrs.lastModifiedTime().toMillis() <= entry.lastModified()
+                    && (entry.fileKey() == null || entry.fileKey().equals(String.valueOf(attrs.fileKey())))) {
+                    verify(file, entry.digest());
+                }
+            }
+        }
+
+        private boolean isAbandonedPost(String key) {
+            Matcher matcher = POST_KEY.matcher(key);
+            if (!matcher.find()) {
+                return false;
+            }
+            String userId = matcher.group(1);
+            String postId = matcher.group(2);
+            if (abandonedPosts.size() >= MAX_CACHED_POSTS) {
+                abandonedPosts.clear();
+            }
+            return abandonedPosts.computeIfAbsent(userId + "/" + postId, ignored -> checkAbandoned(userId, postId));
+        }
+
+        // 404이면 게시되지 않은 글로 봅니다. 그 밖의 응답이나 오류는 판단하지 않고 남깁니다.
+        private boolean checkAbandoned(String userId, String postId) {
+            URI uri = URI.create(postCheckUrl
+                .replace("{userId}", URLEncoder.encode(userId, StandardCharsets.UTF_8))
+                .replace("{postId}", URLEncoder.encode(postId, StandardCharsets.UTF_8)));
+            try {
+                HttpResponse<Void> response = httpClient.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() == 404;
+            } catch (IOException e) {
+                log.warn("글 게시 여부를 확인하지 못했습니다: {}: {}", uri, e.toString());
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void verify(Path file, String expectedDigest) throws IOException {
+            MessageDigest digest = newDigest();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (true) {
+                    buffer.clear();
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    bytePacer.acquire(read);
+                    verifiedBytes += read;
+                    bytesVerified.add(read);
+                    digest.update(buffer.flip());
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // 점검 도중 지워지거나 교체된 파일
+                return;
+            }
+            String actual = HEX.formatHex(digest.digest());
+            if (!actual.equals(expectedDigest)) {
+                corrupt++;
+                corruptFiles.increment();
+                log.error("파일 내용이 기록된 digest와 다릅니다 (손상 의심): {} (expected={}, actual={})",
+                    file, expectedDigest, actual);
+            }
+        }
+
+        private void removeIfOld(Path file, BasicFileAttributes attrs, Reason reason) throws IOException {
+            if (attrs.lastModifiedTime().toMillis() < minAgeThreshold) {
+                delete(file, attrs.size(), reason);
+            }
+        }
+
+        private void removeKeyIfOld(String key, BasicFileAttributes attrs, Reason reason) throws IOException {
+            if (attrs.lastModifiedTime().toMillis() < minAgeThreshold) {
+                removeKey(key, attrs.size(), reason);
+            }
+        }
+
+        // 저장소를 통해 지워야 캐시 무효화 이벤트가 발행됩니다.
+        private void removeKey(String key, long size, Reason reason) throws IOException {
+            if (backend.delete(key)) {
+                if (metadataIndex != null && metadataIndex.get(key) != null) {
+                    metadataIndex.remove(key);
+                }
+                recordRemoval(key, size, reason);
+            }
+        }
+
+        private void delete(Path file, long size, Reason reason) throws IOException {
+            if (Files.deleteIfExists(file)) {
+                recordRemoval(file, size, reason);
+            }
+        }
+
+        // 디렉터리를 만든 직후 파일을 넣기 전인 업로드와 겹치지 않도록 오래된 빈 디렉터리만 지웁니다.
+        private void removeIfEmpty(Path dir) throws IOException {
+            try {
+                if (Files.getLastModifiedTime(dir).toMillis() >= minAgeThreshold) {
+                    return;
+                }
+                Files.delete(dir);
+                recordRemoval(dir, 0, Reason.EMPTY_DIRECTORY);
+            } catch (DirectoryNotEmptyException | NoSuchFileException e) {
+                // 비어 있지 않거나 이미 지워진 디렉터리
+            }
+        }
+
+        private void recordRemoval(Object target, long size, Reason reason) {
+            removedByReason.merge(reason, 1L, Long::sum);
+            removed.get(reason).increment();
+            reclaimedBytes += size;
+            bytesReclaimed.add(size);
+            log.debug("정리했습니다 ({}): {}", reason.tag(), target);
+        }
+
+        private Report report() {
+            return new Report(files, verifiedBytes, Map.copyOf(removedByReason), reclaimedBytes, corrupt);
+        }
+    }
+
+    private static boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 초당 {@code permitsPerSecond}를 넘지 않도록 호출 스레드를 재웁니다. (0 = 무제한)
+     */
+    private static final class Pacer {
+
+        private final long permitsPerSecond;
+        private long nextFree = System.nanoTime();
+
+        private Pacer(long permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        private void acquire(long permits) {
+            if (permitsPerSecond <= 0) {
+                return;
+            }
+            long wait = nextFree - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // 쉬고 있던 시간만큼 몰아서 쓰지 않도록 기준 시각을 현재 이후로 당깁니다.
+            long cost = permits / permitsPerSecond * 1_000_000_000L + permits % permitsPerSecond * 1_000_000_000L / permitsPerSecond;
+            nextFree = Math.max(nextFree, System.nanoTime()) + cost;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.scrubber.files", filesScanned, LongAdder::sum)
+            .description("점검한 파일 수")
+            .register(registry);
+        FunctionCounter.builder("storage.scrubber.verified", bytesVerified, LongAdder::sum)
+            .baseUnit(BaseUnits.BYTES)
+            .description("digest를 확인하려고 읽은 바이트 수")
+            .register(registry);
+        for (Reason reason : Reason.values()) {
+            FunctionCounter.builder("storage.scrubber.removed", removed.get(reason), LongAdder::sum)
+                .tag("reason", reason.tag())
+                .description("정리한 파일/디렉터리 수")
+                .register(registry);
+        }
+        FunctionCounter.builder("storage.scrubber.reclaimed", bytesReclaimed, LongAdder::sum)
+            .baseUnit(BaseUnits.BYTES)
+            .description("정리로 확보한 바이트 수")
+            .register(registry);
+        FunctionCounter.builder("storage.scrubber.corrupt", corruptFiles, LongAdder::sum)
+            .description("내용이 기록된 digest와 다른 파일 수")
+            .register(registry);
+        Gauge.builder("storage.scrubber.pass.files", currentPassFiles, AtomicLong::get)
+            .description("진행 중인(또는 마지막) 순회에서 점검한 파일 수")
+            .register(registry);
+        Gauge.builder("storage.scrubber.last-completed", lastCompletedEpochSecond, AtomicLong::get)
+            .baseUnit(BaseUnits.SECONDS)
+            .description("마지막으로 끝까지 마친 순회의 시작 시각 (epoch 초)")
+            .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package AmpmStorage.storage.batch;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.io.MultipartStream;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileUploadService;
+import AmpmStorage.storage.variant.ImageVariantService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 여러 파일을 한 요청으로 올리고 내려받습니다.
+ * <ul>
+ *     <li>업로드: multipart 본문의 파일 파트를 차례로 읽어 {@code prefix + filename} 키에 저장합니다.
+ *     작은 파트는 메모리에 받아 둔 뒤 가상 스레드에서 저장하므로, 앞 파일의 rename/fsync를 기다리는 동안 다음 파트를
+ *     계속 읽습니다. ({@code app.storage.batch.pipeline-depth}개까지 동시에 진행)</li>
+ *     <li>다운로드: {@code prefix} 아래의 객체를 zip 또는 tar로 묶어 디스크에 임시 파일을 만들지 않고 바로 응답에 씁니다.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class BatchTransferService implements DisposableBean {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 묶음 다운로드 형식
+     */
+    public enum ArchiveFormat {
+        ZIP("application/zip", "zip"),
+        TAR("application/x-tar", "tar");
+
+        private final String contentType;
+        private final String extension;
+
+        ArchiveFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final StorageBackend storageBackend;
+    private final FileUploadService fileUploadService;
+    private final ImageVariantService imageVariantService;
+    private final int maxFiles;
+    private final int pipelineDepth;
+    private final int pipelinePartSize;
+    private final int zipLevel;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchTransferService(StorageBackend storageBackend,
+                                FileUploadService fileUploadService,
+                                ObjectProvider<ImageVariantService> imageVariantService,
+                                @Value("${app.storage.batch.max-files:1000}") int maxFiles,
+                                @Value("${app.storage.batch.pipeline-depth:8}") int pipelineDepth,
+                                @Value("${app.storage.batch.pipeline-part-size:1MB}") DataSize pipelinePartSize,
+                                @Value("${app.storage.batch.zip-level:0}") int zipLevel) {
+        this.storageBackend = storageBackend;
+        this.fileUploadService = fileUploadService;
+        this.imageVariantService = imageVariantService.getIfAvailable();
+        this.maxFiles = maxFiles;
+        this.pipelineDepth = Math.max(1, pipelineDepth);
+        this.pipelinePartSize = (int) Math.min(Integer.MAX_VALUE - 8, pipelinePartSize.toBytes());
+        // 이미지는 이미 압축되어 있으므로 기본값은 무압축(0)입니다.
+        this.zipLevel = zipLevel;
+    }
+
+    /**
+     * 파일 이름이 있는 파트를 모두 저장합니다. 일반 폼 필드는 무시합니다.
+     * 모든 파트의 저장이 끝난 뒤에 반환하며, 하나라도 실패하면 예외를 던집니다. (이미 저장된 파일은 그대로 남습니다)
+     *
+     * @param prefix {@link StorageKeys#validatePrefix(String)}를 통과한 접두어
+     * @return 저장한 키 목록 (요청 순서)
+     */
+    public List<String> upload(String prefix, MultipartStream multipart, long maxBytesPerFile) throws IOException {
+        List<String> keys = new ArrayList<>();
+        List<Future<?>> pending = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(pipelineDepth);
+        boolean completed = false;
+        try {
+            MultipartStream.Part part;
+            while ((part = multipart.nextPart()) != null) {
+                String filename = part.getFilename();
+                if (filename == null || filename.isEmpty()) {
+                    continue;
+                }
+                if (keys.size() >= maxFiles) {
+                    throw new BusinessException(HttpStatus.BAD_REQUEST, "한 번에 올릴 수 있는 파일 수(" + maxFiles + ")를 초과했습니다.");
+                }
+                String key = StorageKeys.validate(prefix + filename);
+                String contentType = part.getContentType();
+                boolean image = contentType != null && contentType.startsWith("image/");
+                keys.add(key);
+
+                InputStream body = part.getInputStream();
+                byte[] head = body.readNBytes(pipelinePartSize + 1);
+                if (head.length <= pipelinePartSize) {
+                    // 파트 전체를 받았으므로 저장은 뒤로 넘기고 다음 파트를 읽습니다.
+                    acquire(inFlight);
+                    pending.add(executor.submit(() -> {
+                        try {
+                            store(key, contentType, Channels.newChannel(new ByteArrayInputStream(head)), maxBytesPerFile, image);
+                            return null;
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } else {
+                    // 큰 파트는 메모리에 쌓지 않고 이어서 바로 저장합니다.
+                    InputStream rest = new SequenceInputStream(new ByteArrayInputStream(head), body);
+                    store(key, contentType, Channels.newChannel(rest), maxBytesPerFile, image);
+                }
+            }
+            completed = true;
+        } finally {
+            awaitAll(pending, completed);
+        }
+        return keys;
+    }
+
+    /**
+     * {@code prefix} 아래의 객체를 묶어 {@code out}에 씁니다. 엔트리 이름은 {@code prefix}를 뺀 나머지 경로입니다.
+     * 목록을 만든 뒤 삭제된 객체는 건너뜁니다.
+     *
+     * @return 묶은 객체 수
+     */
+    public int download(List<String> keys, String prefix, ArchiveFormat format, OutputStream out) throws IOException {
+        int written = 0;
+        if (format == ArchiveFormat.ZIP) {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.setLevel(zipLevel);
+            for (String key : keys) {
+                FileMetadata metadata = storageBackend.head(key);
+                ReadableByteChannel content = open(key, metadata);
+                if (content == null) {
+                    continue;
+                }
+                try (InputStream input = Channels.newInputStream(content)) {
+                    ZipEntry entry = new ZipEntry(key.substring(prefix.length()));
+                    entry.setLastModifiedTime(FileTime.fromMillis(metadata.lastModified()));
+                    zip.putNextEntry(entry);
+                    input.transferTo(zip);
+                    zip.closeEntry();
+                }
+                written++;
+            }
+            zip.finish();
+            zip.flush();
+        } else {
+            TarWriter tar = new TarWriter(out);
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            for (String key : keys) {
+                FileMetadata metadata = storageBackend.head(key);
+                ReadableByteChannel content = open(key, metadata);
+                if (content == null) {
+                    continue;
+                }
+                try (InputStream input = Channels.newInputStream(content)) {
+                    long copied = tar.writeEntry(key.substring(prefix.length()), metadata.size(),
+                        metadata.lastModified(), input, buffer);
+                    if (copied != metadata.size()) {
+                        log.warn("묶음 다운로드 중 파일이 바뀌었습니다: {} ({} / {} bytes)", key, copied, metadata.size());
+                    }
+                }
+                written++;
+            }
+            tar.finish();
+        }
+        return written;
+    }
+
+    /**
+     * @return {@code prefix} 아래의 키 목록
+     * @throws BusinessException 객체 수가 {@code app.storage.batch.max-files}를 넘는 경우 (400)
+     */
+    public List<String> list(String prefix) throws IOException {
+        List<String> keys = storageBackend.list(prefix, maxFiles + 1);
+        if (keys.size() > maxFiles) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "한 번에 내려받을 수 있는 파일 수(" + maxFiles + ")를 초과했습니다.");
+        }
+        return keys;
+    }
+
+    private void store(String key, String contentType, ReadableByteChannel source, long maxBytes, boolean image)
+        throws IOException {
+        fileUploadService.store(key, contentType, source, maxBytes);
+        if (image && imageVariantService != null) {
+            imageVariantService.onOriginalStored(key);
+        }
+    }
+
+    private ReadableByteChannel open(String key, FileMetadata metadata) throws IOException {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return storageBackend.get(key, 0, metadata.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void acquire(Semaphore inFlight) throws IOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("업로드가 중단되었습니다.", e);
+        }
+    }
+
+    // 진행 중인 저장이 모두 끝날 때까지 기다립니다. 요청이 이미 실패한 경우에는 저장 실패를 다시 던지지 않습니다.
+    private static void awaitAll(List<Future<?>> pending, boolean rethrow) throws IOException {
+        Throwable failure = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure != null ? failure : e;
+            } catch (ExecutionException e) {
+                failure = failure != null ? failure : e.getCause();
+            }
+        }
+        if (failure == null || !rethrow) {
+            return;
+        }
+        if (failure instanceof BusinessException businessException) {
+            throw businessException;
+        }
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (failure instanceof UncheckedIOException uncheckedIOException) {
+            throw uncheckedIOException.getCause();
+        }
+        throw new IOException("파일을 저장하지 못했습니다.", failure);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
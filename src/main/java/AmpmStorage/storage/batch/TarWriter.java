@@ -0,0 +1,161 @@
+package AmpmStorage.storage.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * POSIX ustar 형식의 tar 스트림을 씁니다. 전체 크기를 미리 알 필요 없이 엔트리를 차례로 이어 붙입니다.
+ * <p>
+ * ustar 헤더에 들어가지 않는 긴 이름은 pax 확장 헤더({@code path=})로 기록하며,
+ * 8GiB 이상의 크기는 GNU/star와 같은 base-256 표기로 기록합니다.
+ */
+final class TarWriter {
+
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_LENGTH = 100;
+    private static final int PREFIX_LENGTH = 155;
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private final OutputStream out;
+    private final byte[] header = new byte[BLOCK_SIZE];
+
+    TarWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * 엔트리 하나를 씁니다. 본문이 {@code size}보다 짧게 끝나면 나머지를 0으로 채워 아카이브 구조를 유지합니다.
+     *
+     * @return 본문에서 실제로 읽은 바이트 수
+     */
+    long writeEntry(String name, long size, long lastModifiedMillis, InputStream content, byte[] buffer)
+        throws IOException {
+        writeHeader(name, size, lastModifiedMillis);
+        long remaining = size;
+        while (remaining > 0) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        long copied = size - remaining;
+        if (remaining > 0) {
+            Arrays.fill(buffer, (byte) 0);
+            while (remaining > 0) {
+                int chunk = (int) Math.min(buffer.length, remaining);
+                out.write(buffer, 0, chunk);
+                remaining -= chunk;
+            }
+        }
+        pad(size);
+        return copied;
+    }
+
+    /**
+     * 아카이브 끝을 알리는 빈 블록 두 개를 씁니다.
+     */
+    void finish() throws IOException {
+        out.write(new byte[BLOCK_SIZE * 2]);
+        out.flush();
+    }
+
+    private void writeHeader(String name, long size, long lastModifiedMillis) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] prefixBytes = new byte[0];
+        if (nameBytes.length > NAME_LENGTH) {
+            int split = splitPoint(nameBytes);
+            if (split < 0) {
+                writePaxPath(name, lastModifiedMillis);
+                nameBytes = Arrays.copyOfRange(nameBytes, nameBytes.length - NAME_LENGTH, nameBytes.length);
+            } else {
+                prefixBytes = Arrays.copyOfRange(nameBytes, 0, split);
+                nameBytes = Arrays.copyOfRange(nameBytes, split + 1, nameBytes.length);
+            }
+        }
+        fillHeader(nameBytes, prefixBytes, size, lastModifiedMillis, (byte) '0');
+        out.write(header);
+    }
+
+    // ustar의 prefix(155)/name(100)으로 나눌 수 있는 '/' 위치, 없으면 -1
+    private static int splitPoint(byte[] nameBytes) {
+        for (int i = nameBytes.length - NAME_LENGTH - 1; i < nameBytes.length && i <= PREFIX_LENGTH; i++) {
+            if (i > 0 && nameBytes[i] == '/' && nameBytes.length - i - 1 > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void writePaxPath(String name, long lastModifiedMillis) throws IOException {
+        byte[] record = paxRecord("path", name);
+        fillHeader("PaxHeader".getBytes(StandardCharsets.US_ASCII), new byte[0], record.length, lastModifiedMillis,
+            (byte) 'x');
+        out.write(header);
+        out.write(record);
+        pad(record.length);
+    }
+
+    // "<길이> <키>=<값>\n" 형식이며, 길이는 자기 자신의 자릿수를 포함합니다.
+    private static byte[] paxRecord(String key, String value) {
+        int payload = 1 + key.length() + 1 + value.getBytes(StandardCharsets.UTF_8).length + 1;
+        int length = payload + String.valueOf(payload).length();
+        if (String.valueOf(length).length() != String.valueOf(payload).length()) {
+            length = payload + String.valueOf(length).length();
+        }
+        return (length + " " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void fillHeader(byte[] name, byte[] prefix, long size, long lastModifiedMillis, byte type) {
+        Arrays.fill(header, (byte) 0);
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        octal(0644, 100, 8);
+        octal(0, 108, 8);
+        octal(0, 116, 8);
+        if (size > MAX_OCTAL_SIZE) {
+            header[124] = (byte) 0x80;
+            for (int i = 0; i < 8; i++) {
+                header[135 - i] = (byte) (size >>> (i * 8));
+            }
+        } else {
+            octal(size, 124, 12);
+        }
+        octal(Math.max(0, lastModifiedMillis / 1000), 136, 12);
+        header[156] = type;
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+        header[263] = '0';
+        header[264] = '0';
+        System.arraycopy(prefix, 0, header, 345, Math.min(prefix.length, PREFIX_LENGTH));
+
+        // 체크섬은 체크섬 필드를 공백으로 채운 상태에서 계산합니다.
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(checksum, 148, 7);
+        header[155] = ' ';
+    }
+
+    // 0으로 채운 8진수와 끝의 NUL로 field를 채웁니다.
+    private void octal(long value, int offset, int length) {
+        String digits = Long.toOctalString(value);
+        int width = length - 1;
+        for (int i = 0; i < width; i++) {
+            int digit = digits.length() - width + i;
+            header[offset + i] = (byte) (digit < 0 ? '0' : digits.charAt(digit));
+        }
+        header[offset + width] = 0;
+    }
+
+    private void pad(long size) throws IOException {
+        int remainder = (int) (size % BLOCK_SIZE);
+        if (remainder != 0) {
+            out.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+}
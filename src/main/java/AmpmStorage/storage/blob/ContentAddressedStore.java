@@ -0,0 +1,337 @@
+package AmpmStorage.storage.blob;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.io.StreamingFileWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * 내용 주소(content-addressed) 기반의 중복 제거 저장소입니다.
+ * <p>
+ * 업로드 스트림을 저장하면서 SHA-256을 계산하고, 같은 내용은 {@code {root}/.blobs/ab/cd/<digest>}에 한 번만 저장합니다.
+ * 논리 경로({@code exhibits/images/...}, {@code /{fileId}})는 블롭에 대한 하드 링크이므로 다운로드 경로는
+ * 기존과 같고(sendfile, Range 등 그대로 사용), 참조 횟수는 파일 시스템의 링크 수로 관리됩니다.
+ * 블롭 자신의 링크를 제외한 링크 수가 0이 되면 더 이상 참조되지 않는 블롭입니다.
+ * <p>
+ * 하드 링크를 지원하지 않는 파일 시스템에서는 시작 시 실패합니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.dedup", name = "enabled", havingValue = "true")
+public class ContentAddressedStore implements MeterBinder {
+
+    public static final String BLOB_DIRECTORY = ".blobs";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final Path blobRoot;
+    private final Path stagingDirectory;
+    private final StreamingFileWriter streamingFileWriter;
+    private final AtomicFileWriter atomicFileWriter;
+    // 파일 키(inode) -> digest. 하드 링크는 inode를 공유하므로 논리 경로의 digest를 stat 한 번으로 찾습니다.
+    // 블롭이 정리된 뒤 inode 번호가 재사용될 수 있으므로 기록할 때의 크기/수정 시각과 비교한 뒤에만 사용합니다.
+    private final Map<Object, CachedDigest> digestsByFileKey = new ConcurrentHashMap<>();
+
+    private final LongAdder dedupHits = new LongAdder();
+    private final LongAdder dedupMisses = new LongAdder();
+
+    public ContentAddressedStore(@Value("${app.storage.upload-dir}") String uploadDir,
+                                 StreamingFileWriter streamingFileWriter,
+                                 AtomicFileWriter atomicFileWriter) throws IOException {
+        this.blobRoot = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(BLOB_DIRECTORY);
+        this.stagingDirectory = blobRoot.resolve("tmp");
+        this.streamingFileWriter = streamingFileWriter;
+        this.atomicFileWriter = atomicFileWriter;
+
+        Files.createDirectories(stagingDirectory);
+        verifyHardLinkSupport();
+        startIndexing();
+    }
+
+    /**
+     * 스트림을 블롭으로 저장하고 대상 경로를 그 블롭에 연결합니다. 대상 경로에 있던 파일은 원자적으로 교체됩니다.
+     *
+     * @return 기록한 바이트 수
+     */
+    public long store(ReadableByteChannel source, Path target, long maxBytes) throws IOException {
+        if (target.startsWith(blobRoot)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "예약된 경로에는 저장할 수 없습니다.");
+        }
+
+        MessageDigest digest = newDigest();
+        Path staged = stagingDirectory.resolve(Long.toHexString(ThreadLocalRandom.current().nextLong())
+            + AtomicFileWriter.TEMP_SUFFIX);
+        try {
+            // 1. 스테이징 파일에 쓰면서 digest 계산. 중복이면 버려지므로 아직 fsync 하지 않습니다.
+            long written = streamingFileWriter.write(new DigestingChannel(source, digest), staged, maxBytes, false);
+            String hex = HEX.formatHex(digest.digest());
+
+            // 2. 블롭 게시 후 논리 경로 연결
+            publishAndLink(staged, hex, target);
+            return written;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /**
+     * 이미 다 쓴 파일을 블롭으로 저장하고 대상 경로를 그 블롭에 연결합니다. digest는 파일을 한 번 읽어 계산하며,
+     * 새 블롭이면 파일 자체를 블롭으로 게시하므로 내용을 다시 쓰지 않습니다. 파일은 반영 후 지웁니다.
+     *
+     * @return 파일의 바이트 수
+     */
+    public long storeFile(Path file, Path target) throws IOException {
+        if (target.startsWith(blobRoot)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "예약된 경로에는 저장할 수 없습니다.");
+        }
+        try {
+            MessageDigest digest = newDigest();
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+                int read;
+                while ((read = channel.read(buffer.clear())) >= 0) {
+                    digest.update(buffer.flip());
+                    size += read;
+                }
+            }
+            publishAndLink(file, HEX.formatHex(digest.digest()), target);
+            return size;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * @return 논리 경로가 가리키는 블롭의 digest, 블롭에 연결된 파일이 아니면 {@code null}
+     */
+    public String digestOf(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        CachedDigest cached = fileKey == null ? null : digestsByFileKey.get(fileKey);
+        if (cached == null) {
+            return null;
+        }
+        if (!cached.matches(attributes)) {
+            // 기록한 뒤 바뀌었거나 다른 파일이 같은 inode 번호를 받은 경우
+            digestsByFileKey.remove(fileKey, cached);
+            return null;
+        }
+        return cached.digest();
+    }
+
+    /**
+     * 정리한 블롭의 digest 기록을 지웁니다. 블롭의 링크가 모두 사라진 뒤 호출해야 합니다.
+     */
+    public void forget(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        if (fileKey != null) {
+            digestsByFileKey.remove(fileKey);
+        }
+    }
+
+    /**
+     * 블롭에 연결된 파일의 수정 시각을 직접 바꾼 뒤 기록된 크기/수정 시각을 갱신합니다. (복원 도구 등)
+     */
+    public void refresh(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        if (fileKey != null) {
+            digestsByFileKey.computeIfPresent(fileKey,
+                (key, cached) -> new CachedDigest(cached.digest(), attributes));
+        }
+    }
+
+    /**
+     * @return 블롭을 참조하는 논리 경로의 수, 블롭이 없으면 -1
+     */
+    public long referenceCount(String digest) throws IOException {
+        try {
+            return ((Number) Files.getAttribute(blobPath(digest), "unix:nlink")).longValue() - 1;
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    public Path blobPath(String digest) {
+        return blobRoot.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    // 블롭을 게시한 뒤 대상 경로를 연결합니다. 그 사이 블롭이 정리되면 한 번 더 게시합니다.
+    private void publishAndLink(Path staged, String hex, Path target) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path blob = publish(staged, hex);
+            try {
+                Object previous = fileKeyOf(target);
+                link(blob, target);
+                if (previous != null) {
+                    pruneIfUnlinked(previous);
+                }
+                remember(target, hex);
+                return;
+            } catch (NoSuchFileException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // 같은 digest의 블롭이 없을 때만 스테이징 파일을 블롭으로 게시합니다. (link는 기존 파일을 덮어쓰지 않음)
+    private Path publish(Path staged, String digest) throws IOException {
+        Path blob = blobPath(digest);
+        if (Files.exists(blob)) {
+            dedupHits.increment();
+        } else {
+            atomicFileWriter.syncFile(staged);
+            List<Path> createdDirectories = AtomicFileWriter.createParentDirectories(blob);
+            try {
+                Files.createLink(blob, staged);
+                atomicFileWriter.syncDirectory(blob.getParent());
+                for (Path created : createdDirectories) {
+                    atomicFileWriter.syncDirectory(created.getParent());
+                }
+                dedupMisses.increment();
+            } catch (FileAlreadyExistsException e) {
+                // 같은 내용이 동시에 업로드된 경우
+                dedupHits.increment();
+            }
+        }
+        return blob;
+    }
+
+    // 임시 하드 링크를 만든 뒤 대상 경로로 원자적 rename 합니다.
+    private void link(Path blob, Path target) throws IOException {
+        List<Path> createdDirectories = AtomicFileWriter.createParentDirectories(target);
+        Path temp = AtomicFileWriter.tempSibling(target);
+        try {
+            Files.createLink(temp, blob);
+            atomicFileWriter.commit(temp, target, createdDirectories);
+        } finally {
+            // 대상이 이미 같은 블롭에 연결되어 있으면 rename이 아무 일도 하지 않으므로 임시 링크가 남습니다.
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // 하드 링크는 inode를 공유하므로 블롭 또는 논리 경로 어느 쪽의 파일 키로도 기록할 수 있습니다.
+    private void remember(Path file, String digest) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        Object fileKey = attributes.fileKey();
+        if (fileKey != null) {
+            digestsByFileKey.put(fileKey, new CachedDigest(digest, attributes));
+        }
+    }
+
+    // 교체된 경로가 가리키던 inode가 더 이상 블롭에 연결되어 있지 않으면 (블롭이 먼저 정리된 경우) 기록을 지웁니다.
+    private void pruneIfUnlinked(Object fileKey) throws IOException {
+        CachedDigest cached = digestsByFileKey.get(fileKey);
+        if (cached != null && !fileKey.equals(fileKeyOf(blobPath(cached.digest())))) {
+            digestsByFileKey.remove(fileKey, cached);
+        }
+    }
+
+    private static Object fileKeyOf(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void verifyHardLinkSupport() throws IOException {
+        Path probe = stagingDirectory.resolve("link-probe" + AtomicFileWriter.TEMP_SUFFIX);
+        Path link = stagingDirectory.resolve("link-probe.link" + AtomicFileWriter.TEMP_SUFFIX);
+        try {
+            Files.deleteIfExists(link);
+            Files.deleteIfExists(probe);
+            Files.createFile(probe);
+            Files.createLink(link, probe);
+        } catch (UnsupportedOperationException | IOException e) {
+            throw new IllegalStateException("중복 제거 저장소는 하드 링크를 지원하는 파일 시스템이 필요합니다: " + blobRoot, e);
+        } finally {
+            Files.deleteIfExists(link);
+            Files.deleteIfExists(probe);
+        }
+    }
+
+    // 이전 실행에서 만든 블롭의 inode -> digest 색인을 백그라운드에서 채웁니다.
+    // 색인이 끝나기 전에는 다운로드 ETag가 크기/수정 시각 기반으로 계산될 수 있습니다.
+    private void startIndexing() {
+        Thread.ofPlatform().daemon().name("storage-blob-index").start(() -> {
+            long indexed = 0;
+            try (Stream<Path> blobs = Files.walk(blobRoot, 3)) {
+                for (Path blob : (Iterable<Path>) blobs::iterator) {
+                    String name = blob.getFileName().toString();
+                    if (DIGEST_PATTERN.matcher(name).matches() && Files.isRegularFile(blob)) {
+                        remember(blob, name);
+                        indexed++;
+                    }
+                }
+                log.info("블롭 색인을 마쳤습니다: {}개", indexed);
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("블롭 색인 중 오류가 발생했습니다. ({}개 색인됨)", indexed, e);
+            }
+        });
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedDigest(String digest, long size, long lastModified) {
+
+        CachedDigest(String digest, BasicFileAttributes attributes) {
+            this(digest, attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.dedup.writes", dedupHits, LongAdder::sum)
+            .tag("result", "hit")
+            .description("이미 저장된 내용과 같아 새 블롭을 만들지 않은 업로드 수")
+            .register(registry);
+        FunctionCounter.builder("storage.dedup.writes", dedupMisses, LongAdder::sum)
+            .tag("result", "miss")
+            .description("새 블롭을 만든 업로드 수")
+            .register(registry);
+    }
+}
@@ -0,0 +1,44 @@
+package AmpmStorage.storage.blob;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+
+/**
+ * 읽어 들이는 바이트를 그대로 {@link MessageDigest}에 반영하는 채널입니다.
+ * 업로드 스트림을 한 번만 읽으면서 저장과 해시 계산을 함께 수행합니다.
+ */
+public final class DigestingChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel delegate;
+    private final MessageDigest digest;
+
+    public DigestingChannel(ReadableByteChannel delegate, MessageDigest digest) {
+        this.delegate = delegate;
+        this.digest = digest;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int read = delegate.read(dst);
+        if (read > 0) {
+            // 방금 채워진 구간만 다시 읽습니다. 원래 버퍼의 position/limit은 건드리지 않습니다.
+            ByteBuffer filled = dst.duplicate();
+            filled.limit(start + read).position(start);
+            digest.update(filled);
+        }
+        return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
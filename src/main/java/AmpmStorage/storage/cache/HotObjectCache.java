@@ -0,0 +1,272 @@
+package AmpmStorage.storage.cache;
+
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 자주 요청되는 작은 파일을 off-heap(direct 버퍼)에 보관하는 캐시입니다.
+ * <ul>
+ *     <li>조회는 잠금 없이 {@link ConcurrentHashMap}에서 처리합니다. ETag가 다르면 적중으로 보지 않습니다.</li>
+ *     <li>용량은 바이트 단위로 제한합니다. 용량이 부족하면 CLOCK 순서로 희생자를 고르되,
+ *     TinyLFU 승인 정책에 따라 새 항목의 접근 빈도가 희생자보다 높을 때만 교체합니다.</li>
+ *     <li>디스크에서 읽어 적재할 때는 {@link #reserve}로 승인과 자리 확보를 먼저 하고, 승인된 경우에만 direct 메모리를
+ *     할당합니다. 읽는 중인 항목도 용량에 포함됩니다.</li>
+ *     <li>업로드 시 {@link StoredObjectChangedEvent}로 해당 경로를 즉시 무효화합니다.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.cache.enabled", havingValue = "true")
+public class HotObjectCache implements MeterBinder {
+
+    private static final long AVERAGE_ENTRY_BYTES = 16 * 1024;
+
+    private final ConcurrentMap<Path, CachedObject> entries = new ConcurrentHashMap<>();
+    // 적재 순서(CLOCK 대기열). 적재와 제거 시에만 잠금 하에 갱신합니다.
+    private final LinkedHashMap<Path, CachedObject> clock = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    // 적재된 항목과 읽는 중인 예약의 합
+    private volatile long usedBytes;
+    // 무효화 횟수. 예약 이후 바뀌었으면 읽은 내용을 적재하지 않습니다. (잠금 하에 갱신)
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public HotObjectCache(@Value("${app.storage.cache.max-bytes:64MB}") DataSize maxBytes,
+                          @Value("${app.storage.cache.max-entry-bytes:512KB}") DataSize maxEntryBytes) {
+        this.maxBytes = maxBytes.toBytes();
+        this.maxEntryBytes = Math.min(maxEntryBytes.toBytes(), Integer.MAX_VALUE);
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, this.maxBytes / AVERAGE_ENTRY_BYTES));
+    }
+
+    public boolean isCacheable(long size) {
+        return size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    /**
+     * @return ETag가 일치하는 캐시 항목, 없으면 {@code null}
+     */
+    public CachedObject get(Path path, String eTag) {
+        sketch.increment(path);
+        CachedObject cached = entries.get(path);
+        if (cached != null && cached.eTag().equals(eTag)) {
+            cached.referenced = true;
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 디스크에서 읽은 내용을 캐시에 넣습니다. 승인되지 않더라도 호출 측이 응답에 쓸 수 있도록 항목을 반환합니다.
+     */
+    public CachedObject put(Path path, String eTag, ByteBuffer data) {
+        CachedObject candidate = new CachedObject(data, eTag);
+        lock.lock();
+        try {
+            removeLocked(path);
+            if (admitLocked(path, candidate.size())) {
+                clock.put(path, candidate);
+                entries.put(path, candidate);
+                usedBytes += candidate.size();
+            }
+            return candidate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@code size} 바이트 항목을 적재할 자리를 먼저 예약합니다. 승인과 희생자 제거를 메모리를 할당하기 전에 하므로
+     * 승인되지 않을 항목에는 direct 메모리를 할당하지 않고, 예약한 바이트는 적재 전부터 사용량에 포함되어
+     * 읽는 중인 항목까지 합쳐도 {@code max-bytes}를 넘지 않습니다.
+     *
+     * @return 예약, 승인되지 않았거나 자리가 없으면 {@code null}
+     */
+    public Reservation reserve(Path path, long size) {
+        if (!isCacheable(size)) {
+            return null;
+        }
+        lock.lock();
+        try {
+            removeLocked(path);
+            if (!admitLocked(path, size)) {
+                return null;
+            }
+            usedBytes += size;
+            return new Reservation(path, (int) size, invalidations);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 용량이 부족하면 CLOCK 순서로 희생자를 제거합니다. 새 항목이 희생자보다 자주 쓰인다는 근거가 없거나
+    // 읽는 중인 예약만 남아 자리를 만들 수 없으면 승인하지 않습니다. (잠금 하에 호출)
+    private boolean admitLocked(Path path, long size) {
+        int candidateFrequency = sketch.frequency(path);
+        while (usedBytes + size > maxBytes) {
+            Iterator<Map.Entry<Path, CachedObject>> iterator = clock.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                rejections.increment();
+                return false;
+            }
+            Map.Entry<Path, CachedObject> head = iterator.next();
+            Path victimPath = head.getKey();
+            CachedObject victim = head.getValue();
+            iterator.remove();
+
+            if (victim.referenced) {
+                // 최근 조회된 항목은 한 번 더 기회를 줍니다.
+                victim.referenced = false;
+                clock.put(victimPath, victim);
+                continue;
+            }
+            if (sketch.frequency(victimPath) >= candidateFrequency) {
+                clock.put(victimPath, victim);
+                rejections.increment();
+                return false;
+            }
+            entries.remove(victimPath, victim);
+            usedBytes -= victim.size();
+            evictions.increment();
+        }
+        return true;
+    }
+
+    public void invalidate(Path path) {
+        lock.lock();
+        try {
+            invalidations++;
+            removeLocked(path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onStoredObjectChanged(StoredObjectChangedEvent event) {
+        invalidate(event.path());
+    }
+
+    /**
+     * {@link #reserve}로 잡아 둔 자리입니다. {@link #buffer()}로 읽은 내용을 {@link #commit}하거나, 읽지 못했으면
+     * {@link #cancel()}해야 합니다.
+     */
+    public final class Reservation {
+
+        private final Path path;
+        private final int size;
+        private final long invalidationsAtReserve;
+        private boolean done;
+
+        private Reservation(Path path, int size, long invalidationsAtReserve) {
+            this.path = path;
+            this.size = size;
+            this.invalidationsAtReserve = invalidationsAtReserve;
+        }
+
+        /**
+         * @return 예약한 크기의 direct 버퍼
+         */
+        public ByteBuffer buffer() {
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        /**
+         * 읽은 내용을 캐시에 넣습니다. 읽는 사이 무효화가 있었으면 넣지 않고 자리를 돌려줍니다.
+         *
+         * @return 호출 측이 응답에 쓸 항목 (캐시에 넣지 않았더라도 반환)
+         */
+        public CachedObject commit(String eTag, ByteBuffer data) {
+            CachedObject candidate = new CachedObject(data, eTag);
+            lock.lock();
+            try {
+                if (done) {
+                    return candidate;
+                }
+                done = true;
+                usedBytes -= size;
+                if (invalidations != invalidationsAtReserve) {
+                    // 읽는 동안 파일이 바뀌었을 수 있습니다.
+                    return candidate;
+                }
+                removeLocked(path);
+                clock.put(path, candidate);
+                entries.put(path, candidate);
+                usedBytes += candidate.size();
+                return candidate;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void cancel() {
+            lock.lock();
+            try {
+                if (!done) {
+                    done = true;
+                    usedBytes -= size;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void removeLocked(Path path) {
+        CachedObject previous = clock.remove(path);
+        if (previous != null) {
+            entries.remove(path, previous);
+            usedBytes -= previous.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.cache.requests", hits, LongAdder::sum)
+            .tag("result", "hit")
+            .description("핫 오브젝트 캐시 조회 수")
+            .register(registry);
+        FunctionCounter.builder("storage.cache.requests", misses, LongAdder::sum)
+            .tag("result", "miss")
+            .description("핫 오브젝트 캐시 조회 수")
+            .register(registry);
+        FunctionCounter.builder("storage.cache.evictions", evictions, LongAdder::sum)
+            .description("용량 부족으로 제거된 항목 수")
+            .register(registry);
+        FunctionCounter.builder("storage.cache.rejections", rejections, LongAdder::sum)
+            .description("TinyLFU 승인 정책으로 적재되지 않은 항목 수")
+            .register(registry);
+        Gauge.builder("storage.cache.size", this, cache -> cache.usedBytes)
+            .baseUnit(BaseUnits.BYTES)
+            .description("캐시가 사용 중인 off-heap 메모리")
+            .register(registry);
+        Gauge.builder("storage.cache.entries", entries, Map::size)
+            .description("캐시 항목 수")
+            .register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package AmpmStorage.storage.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 풀에 보관된 파일 매핑. {@code data}는 파일 전체를 읽기 전용으로 매핑한 버퍼이며, 사용할 때는 {@link #content()}로
+ * 복제본을 얻습니다.
+ */
+public final class MappedRegion {
+
+    private final ByteBuffer data;
+    private final String eTag;
+    // CLOCK 방식의 두 번째 기회: 매핑 이후 조회된 적이 있는지 표시합니다.
+    volatile boolean referenced;
+
+    MappedRegion(ByteBuffer data, String eTag) {
+        this.data = data.asReadOnlyBuffer();
+        this.eTag = eTag;
+    }
+
+    public ByteBuffer content() {
+        return data.duplicate();
+    }
+
+    public String eTag() {
+        return eTag;
+    }
+
+    public int size() {
+        return data.capacity();
+    }
+}
@@ -0,0 +1,209 @@
+package AmpmStorage.storage.cache;
+
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 자주 읽히는 파일을 {@link FileChannel#map}으로 매핑해 두고 요청 사이에 재사용하는 풀입니다.
+ * 요청마다 파일을 열고 읽고 닫는 대신 매핑된 페이지(페이지 캐시)를 그대로 응답에 씁니다.
+ * <ul>
+ *     <li>조회는 잠금 없이 {@link ConcurrentHashMap}에서 처리합니다. ETag가 다르면 적중으로 보지 않습니다.</li>
+ *     <li>최근 접근 빈도({@link FrequencySketch})가 {@code min-reads} 이상인 파일만 매핑하므로 한 번 읽히고 마는
+ *     파일은 매핑하지 않습니다.</li>
+ *     <li>매핑한 총 바이트와 매핑 수를 제한하며, 넘치면 CLOCK 순서로 제거합니다. 업로드 시
+ *     {@link StoredObjectChangedEvent}로 해당 경로를 즉시 제거합니다.</li>
+ * </ul>
+ * 매핑은 풀에서 제거된 뒤 응답 중인 요청까지 버퍼를 놓으면 GC가 해제합니다. (Java 21에는 공개된 즉시 해제 API가 없고,
+ * 다른 요청이 아직 쓰고 있는 매핑을 강제로 해제하면 JVM이 비정상 종료될 수 있습니다)
+ * 저장소는 파일을 임시 파일에 쓴 뒤 교체(rename)하므로 매핑된 이전 파일의 내용은 바뀌지 않습니다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.mmap.enabled", havingValue = "true")
+public class MappedRegionPool implements MeterBinder {
+
+    private static final long AVERAGE_FILE_BYTES = 64 * 1024;
+    // FrequencySketch 카운터의 최댓값
+    private static final int MAX_MIN_READS = 15;
+
+    private final ConcurrentMap<Path, MappedRegion> regions = new ConcurrentHashMap<>();
+    // 매핑 순서(CLOCK 대기열). 추가와 제거 시에만 잠금 하에 갱신합니다.
+    private final LinkedHashMap<Path, MappedRegion> clock = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final DiskIoLimiter diskIoLimiter;
+    private final long maxBytes;
+    private final int maxRegions;
+    private final long maxFileBytes;
+    private final int minReads;
+    private volatile long mappedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mappings = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MappedRegionPool(DiskIoLimiter diskIoLimiter,
+                            @Value("${app.storage.mmap.max-bytes:256MB}") DataSize maxBytes,
+                            @Value("${app.storage.mmap.max-regions:4096}") int maxRegions,
+                            @Value("${app.storage.mmap.max-file-size:2MB}") DataSize maxFileSize,
+                            @Value("${app.storage.mmap.min-reads:2}") int minReads) {
+        this.diskIoLimiter = diskIoLimiter;
+        this.maxBytes = maxBytes.toBytes();
+        this.maxRegions = maxRegions;
+        this.maxFileBytes = Math.min(maxFileSize.toBytes(), Integer.MAX_VALUE);
+        this.minReads = Math.max(1, Math.min(minReads, MAX_MIN_READS));
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(maxRegions, this.maxBytes / AVERAGE_FILE_BYTES)));
+    }
+
+    public boolean isMappable(long size) {
+        return size > 0 && size <= maxFileBytes && size <= maxBytes;
+    }
+
+    /**
+     * ETag가 일치하는 매핑을 돌려주고, 없으면 충분히 자주 읽힌 파일일 때 새로 매핑합니다.
+     *
+     * @return 매핑, 아직 매핑할 만큼 읽히지 않았거나 파일이 그 사이 바뀌었으면 {@code null}
+     */
+    public MappedRegion get(Path path, String eTag, long size) throws IOException {
+        sketch.increment(path);
+        MappedRegion region = regions.get(path);
+        if (region != null && region.eTag().equals(eTag)) {
+            region.referenced = true;
+            hits.increment();
+            return region;
+        }
+        misses.increment();
+        if (sketch.frequency(path) < minReads) {
+            return null;
+        }
+        region = map(path, eTag, size);
+        if (region != null) {
+            put(path, region);
+        }
+        return region;
+    }
+
+    // 파일 전체를 매핑하고 페이지를 미리 읽어 둡니다. 크기가 메타데이터와 다르면 매핑하지 않습니다.
+    private MappedRegion map(Path path, String eTag, long size) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != size) {
+                return null;
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        // 응답 중 페이지 폴트로 디스크를 읽지 않도록 디스크 작업 허가를 잡고 미리 적재합니다.
+        diskIoLimiter.acquire();
+        try {
+            data.load();
+        } finally {
+            diskIoLimiter.release();
+        }
+        mappings.increment();
+        return new MappedRegion(data, eTag);
+    }
+
+    private void put(Path path, MappedRegion region) {
+        lock.lock();
+        try {
+            removeLocked(path);
+            while (mappedBytes + region.size() > maxBytes || clock.size() >= maxRegions) {
+                Iterator<Map.Entry<Path, MappedRegion>> iterator = clock.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                Map.Entry<Path, MappedRegion> head = iterator.next();
+                Path victimPath = head.getKey();
+                MappedRegion victim = head.getValue();
+                iterator.remove();
+
+                if (victim.referenced) {
+                    // 최근 조회된 매핑은 한 번 더 기회를 줍니다.
+                    victim.referenced = false;
+                    clock.put(victimPath, victim);
+                    continue;
+                }
+                regions.remove(victimPath, victim);
+                mappedBytes -= victim.size();
+                evictions.increment();
+            }
+            clock.put(path, region);
+            regions.put(path, region);
+            mappedBytes += region.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Path path) {
+        lock.lock();
+        try {
+            removeLocked(path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onStoredObjectChanged(StoredObjectChangedEvent event) {
+        invalidate(event.path());
+    }
+
+    private void removeLocked(Path path) {
+        MappedRegion previous = clock.remove(path);
+        if (previous != null) {
+            regions.remove(path, previous);
+            mappedBytes -= previous.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.mmap.requests", hits, LongAdder::sum)
+            .tag("result", "hit")
+            .description("매핑 풀 조회 수")
+            .register(registry);
+        FunctionCounter.builder("storage.mmap.requests", misses, LongAdder::sum)
+            .tag("result", "miss")
+            .description("매핑 풀 조회 수")
+            .register(registry);
+        FunctionCounter.builder("storage.mmap.mappings", mappings, LongAdder::sum)
+            .description("새로 매핑한 파일 수")
+            .register(registry);
+        FunctionCounter.builder("storage.mmap.evictions", evictions, LongAdder::sum)
+            .description("용량 부족으로 풀에서 제거된 매핑 수")
+            .register(registry);
+        Gauge.builder("storage.mmap.size", this, pool -> pool.mappedBytes)
+            .baseUnit(BaseUnits.BYTES)
+            .description("풀이 보관 중인 매핑의 총 크기")
+            .register(registry);
+        Gauge.builder("storage.mmap.regions", regions, Map::size)
+            .description("풀이 보관 중인 매핑 수")
+            .register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package AmpmStorage.storage.cluster;
+
+import java.net.URI;
+
+/**
+ * 클러스터를 이루는 노드 하나입니다.
+ *
+ * @param id      해시 링의 위치를 정하는 이름. 주소가 바뀌어도 같은 키 범위를 담당하도록 주소와 분리합니다.
+ * @param baseUri 다른 노드가 복제 요청을 보낼 주소 ({@code http://host:port})
+ */
+public record ClusterNode(String id, URI baseUri) {
+
+    /**
+     * {@code id=http://host:port} 형식의 설정 값을 읽습니다.
+     */
+    public static ClusterNode parse(String value) {
+        int separator = value.indexOf('=');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalStateException("클러스터 노드 설정이 올바르지 않습니다 (id=http://host:port): " + value);
+        }
+        String baseUri = value.substring(separator + 1).trim();
+        return new ClusterNode(value.substring(0, separator).trim(),
+            URI.create(baseUri.endsWith("/") ? baseUri.substring(0, baseUri.length() - 1) : baseUri));
+    }
+}
@@ -0,0 +1,86 @@
+package AmpmStorage.storage.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * 키(저장 경로)를 담당 노드에 배치하는 consistent hash 링입니다.
+ * <p>
+ * 노드마다 {@code virtualNodes}개의 토큰을 링에 두고, 키의 해시에서 시계 방향으로 만나는 서로 다른 노드
+ * N개를 담당 노드로 정합니다. 노드를 추가/제거하면 그 노드의 토큰 주변 키(약 1/n)만 담당 노드가 바뀝니다.
+ * 토큰은 노드 id로 정하므로 모든 노드가 같은 설정이면 같은 배치를 계산합니다.
+ */
+public final class HashRing {
+
+    private final List<ClusterNode> nodes;
+    private final long[] tokens;
+    private final ClusterNode[] tokenOwners;
+
+    public HashRing(List<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("노드와 가상 노드 수는 1 이상이어야 합니다.");
+        }
+        record Token(long hash, ClusterNode node) {
+        }
+        List<Token> ring = new ArrayList<>(nodes.size() * virtualNodes);
+        Set<String> ids = new HashSet<>();
+        for (ClusterNode node : nodes) {
+            if (!ids.add(node.id())) {
+                throw new IllegalArgumentException("노드 id가 중복되었습니다: " + node.id());
+            }
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.add(new Token(hash(node.id() + "#" + i), node));
+            }
+        }
+        // 해시가 같은 토큰은 노드 id 순으로 두어 노드마다 같은 링을 만듭니다.
+        ring.sort((a, b) -> a.hash() != b.hash()
+            ? Long.compare(a.hash(), b.hash())
+            : a.node().id().compareTo(b.node().id()));
+        this.tokens = ring.stream().mapToLong(Token::hash).toArray();
+        this.tokenOwners = ring.stream().map(Token::node).toArray(ClusterNode[]::new);
+        this.nodes = List.copyOf(nodes);
+    }
+
+    public List<ClusterNode> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return 키를 담당하는 서로 다른 노드 최대 {@code count}개. 첫 번째가 주 담당 노드입니다.
+     */
+    public List<ClusterNode> owners(String key, int count) {
+        int wanted = Math.min(count, nodes.size());
+        List<ClusterNode> owners = new ArrayList<>(wanted);
+        int index = Arrays.binarySearch(tokens, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        for (int step = 0; step < tokens.length && owners.size() < wanted; step++) {
+            ClusterNode node = tokenOwners[(index + step) % tokens.length];
+            if (!owners.contains(node)) {
+                owners.add(node);
+            }
+        }
+        return owners;
+    }
+
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        // 키 길이도 섞어 32비트 CRC를 64비트로 넓힙니다. (ShardedFileSystemBackend와 같은 방식)
+        return mix((crc.getValue() << 32) | bytes.length);
+    }
+
+    // SplitMix64의 마무리 단계. 비트를 고르게 퍼뜨립니다.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,164 @@
+package AmpmStorage.storage.cluster;
+
+import AmpmStorage.common.validator.SignatureValidator;
+import AmpmStorage.storage.backend.ObjectVersion;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * 다른 노드의 복제 엔드포인트({@code ReplicaController})를 호출합니다.
+ * <p>
+ * 노드 사이의 요청도 클라이언트 요청과 같은 방식으로 서명하므로 서명 필터를 그대로 통과하며, 공유 비밀 키를
+ * 모르는 쪽은 복제본을 쓰거나 지울 수 없습니다. 서명은 요청마다 짧게 만료됩니다.
+ */
+class ReplicaClient {
+
+    private static final Duration SIGNATURE_TTL = Duration.ofMinutes(1);
+
+    private final SignatureValidator signatureValidator;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    ReplicaClient(SignatureValidator signatureValidator, Duration requestTimeout) {
+        this.signatureValidator = signatureValidator;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * 파일 내용을 {@code version}의 복제본으로 보냅니다. 파일은 전송하면서 읽으므로 완료될 때까지 지우면 안 됩니다.
+     * 그 노드에 같거나 더 새 버전이 이미 있으면(409) 이 복제본은 필요 없으므로 성공으로 봅니다.
+     */
+    CompletableFuture<Void> put(ClusterNode node, String key, Path file, ObjectVersion version) throws IOException {
+        HttpRequest request = objectRequest(node, "PUT", key, "")
+            .header("Content-Type", FileMetadataCache.resolveContentType(Path.of(key)))
+            .header(ReplicatedStorageBackend.VERSION_HEADER, version.toString())
+            .PUT(HttpRequest.BodyPublishers.ofFile(file))
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenAccept(response -> {
+                if (response.statusCode() / 100 != 2 && response.statusCode() != 409) {
+                    throw new UncheckedIOException(failure(response, node, key));
+                }
+            });
+    }
+
+    /**
+     * @return 복제본의 메타데이터, 그 노드에 없으면 {@code null}
+     */
+    FileMetadata head(ClusterNode node, String key) throws IOException {
+        HttpResponse<Void> response = send(node, objectRequest(node, "HEAD", key, "")
+            .method("HEAD", HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        expectSuccess(response, node, key);
+
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+            .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+            .orElse(0L);
+        String eTag = response.headers().firstValue("ETag").orElse(null);
+        String contentType = response.headers().firstValue("Content-Type")
+            .orElseGet(() -> FileMetadataCache.resolveContentType(Path.of(key)));
+        return new FileMetadata(size, lastModified, eTag, contentType);
+    }
+
+    /**
+     * @throws NoSuchFileException 그 노드에 복제본이 없는 경우
+     */
+    ReadableByteChannel get(ClusterNode node, String key, long offset, long length) throws IOException {
+        HttpResponse<InputStream> response = send(node,
+            objectRequest(node, "GET", key, "&offset=" + offset + "&length=" + length).GET(),
+            HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw failure(response, node, key);
+        }
+        return Channels.newChannel(response.body());
+    }
+
+    /**
+     * 그 노드에 같거나 더 새 버전이 이미 있으면(409) 지우지 않은 것으로 봅니다.
+     */
+    boolean delete(ClusterNode node, String key, ObjectVersion version) throws IOException {
+        HttpResponse<Void> response = send(node, objectRequest(node, "DELETE", key, "")
+            .header(ReplicatedStorageBackend.VERSION_HEADER, version.toString())
+            .DELETE(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404 || response.statusCode() == 409) {
+            return false;
+        }
+        expectSuccess(response, node, key);
+        return true;
+    }
+
+    List<String> list(ClusterNode node, String prefix, int limit) throws IOException {
+        URI uri = URI.create(node.baseUri() + ReplicatedStorageBackend.LIST_PATH + "?prefix="
+            + UriUtils.encodeQueryParam(prefix, StandardCharsets.UTF_8) + "&limit=" + limit
+            + "&" + signatureQuery("GET", ReplicatedStorageBackend.LIST_RESOURCE));
+        HttpResponse<String> response = send(node, HttpRequest.newBuilder(uri).timeout(requestTimeout).GET(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("복제본 목록 조회가 실패했습니다: " + node.id() + " (" + response.statusCode() + ")");
+        }
+        return response.body().lines().filter(line -> !line.isEmpty()).toList();
+    }
+
+    private HttpRequest.Builder objectRequest(ClusterNode node, String method, String key, String extraQuery) {
+        URI uri = URI.create(node.baseUri() + ReplicatedStorageBackend.REPLICAS_PATH
+            + UriUtils.encodePath(key, StandardCharsets.UTF_8)
+            + "?" + signatureQuery(method, ReplicatedStorageBackend.REPLICA_RESOURCE_PREFIX + key) + extraQuery);
+        return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+    }
+
+    private String signatureQuery(String method, String resource) {
+        long expires = System.currentTimeMillis() / 1000 + SIGNATURE_TTL.toSeconds();
+        return "expires=" + expires + "&signature=" + signatureValidator.generateSignature(method, resource, expires)
+            + "&kid=" + UriUtils.encodeQueryParam(signatureValidator.keyId(), StandardCharsets.UTF_8);
+    }
+
+    private <T> HttpResponse<T> send(ClusterNode node, HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler)
+        throws IOException {
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("복제본 요청이 중단되었습니다: " + node.id());
+        }
+    }
+
+    private static void expectSuccess(HttpResponse<?> response, ClusterNode node, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw failure(response, node, key);
+        }
+    }
+
+    private static IOException failure(HttpResponse<?> response, ClusterNode node, String key) {
+        return new IOException("복제본 요청이 실패했습니다: " + node.id() + " " + response.statusCode() + " (" + key + ")");
+    }
+}
@@ -0,0 +1,427 @@
+package AmpmStorage.storage.cluster;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.common.validator.SignatureValidator;
+import AmpmStorage.storage.backend.FileSystemStorageBackend;
+import AmpmStorage.storage.backend.ObjectVersion;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.encoding.PrecompressionService;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.io.StreamingFileWriter;
+import AmpmStorage.storage.service.FileMetadata;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 노드에 키를 나누어 복제하는 클러스터 모드의 저장소입니다. ({@code app.storage.cluster.enabled})
+ * <p>
+ * 키는 {@link HashRing}에서 시계 방향으로 만나는 {@code replication-factor}개의 노드가 담당합니다.
+ * <ul>
+ *     <li>쓰기: 이 노드가 담당 노드이면 로컬에 먼저 쓰고 rename 직전에 남긴 하드 링크를, 아니면 임시 파일에 받은 뒤
+ *     그 파일을 다른 담당 노드로 동시에 보냅니다. 전송 도중 같은 키가 다시 바뀌어도 보내는 내용은 그대로입니다.
+ *     {@code write-quorum}개의 노드가 저장하면 응답하고, 나머지 전송은 백그라운드에서 끝납니다.
+ *     정족수를 채우지 못하면 503으로 실패합니다. (이미 저장한 복제본은 되돌리지 않음)</li>
+ *     <li>버전: 업로드/삭제를 받은 노드가 받기 시작한 시각과 자기 노드 ID를 버전({@link ObjectVersion})으로 정해 복제본과
+ *     함께 보내고, 각 노드는 키마다 버전 파일에 기록합니다. 같거나 더 새 버전이 이미 있으면 반영하지 않으므로
+ *     (last-writer-wins) 전송 순서가 뒤바뀌어도 모든 담당 노드가 같은 내용으로 수렴합니다. 삭제도 버전을 남기므로 삭제 전에
+ *     시작된 쓰기가 늦게 도착해도 되살아나지 않습니다. 업로드를 받은 노드의 로컬 쓰기/삭제가 밀리면 409로 응답합니다.</li>
+ *     <li>읽기: 이 노드에 복제본이 있으면 로컬 파일(sendfile, 캐시 등)로, 없으면 담당 노드를 차례로 물어 가져옵니다.
+ *     따라서 어느 노드로 요청해도 응답할 수 있습니다.</li>
+ *     <li>예약 키({@code .encoded/} 등)는 노드마다 만드는 파생 데이터이므로 복제하지 않고 로컬에만 둡니다.</li>
+ * </ul>
+ * 삭제하면 각 담당 노드는 복제본과 함께 그 노드가 만든 색인 항목과 압축 사본도 지웁니다.
+ * 노드가 내려가 있던 동안의 쓰기/삭제는 그 노드에 반영되지 않습니다. (읽기 복구, hinted handoff는 하지 않음)
+ * 로컬 저장은 {@code app.storage.backend.type}의 파일 시스템 저장소({@code local}, {@code sharded})가 맡습니다.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "app.storage.cluster", name = "enabled", havingValue = "true")
+public class ReplicatedStorageBackend implements StorageBackend, MeterBinder {
+
+    /** 복제본 단건 요청 경로. 서명 대상은 {@code internal/replicas/{key}}입니다. */
+    public static final String REPLICAS_PATH = "/storage/internal/replicas/";
+    public static final String REPLICA_RESOURCE_PREFIX = "internal/replicas/";
+    /** 노드 로컬 목록 조회 경로 */
+    public static final String LIST_PATH = "/storage/internal/replica-list";
+    public static final String LIST_RESOURCE = "internal/replica-list";
+    /** 복제본의 버전({@link ObjectVersion}, 요청을 받은 노드의 시각과 노드 ID)을 담는 헤더 */
+    public static final String VERSION_HEADER = "X-Replica-Version";
+
+    private final FileSystemStorageBackend local;
+    private final StreamingFileWriter streamingFileWriter;
+    private final ReplicaClient replicaClient;
+    // 색인과 압축 사본은 이 저장소를 사용하므로 쓸 때 찾습니다.
+    private final ObjectProvider<MetadataIndex> metadataIndex;
+    private final ObjectProvider<PrecompressionService> precompressionService;
+    private final HashRing ring;
+    private final ClusterNode self;
+    private final int replicationFactor;
+    private final int writeQuorum;
+    private final Duration requestTimeout;
+
+    private final LongAdder replicaWrites = new LongAdder();
+    private final LongAdder replicaWriteFailures = new LongAdder();
+    private final LongAdder remoteReads = new LongAdder();
+
+    public ReplicatedStorageBackend(FileSystemStorageBackend local,
+                                    StreamingFileWriter streamingFileWriter,
+                                    SignatureValidator signatureValidator,
+                                    ObjectProvider<MetadataIndex> metadataIndex,
+                                    ObjectProvider<PrecompressionService> precompressionService,
+                                    @Value("${app.storage.cluster.node-id}") String nodeId,
+                                    @Value("${app.storage.cluster.nodes}") List<String> nodes,
+                                    @Value("${app.storage.cluster.replication-factor:3}") int replicationFactor,
+                                    @Value("${app.storage.cluster.write-quorum:2}") int writeQuorum,
+                                    @Value("${app.storage.cluster.virtual-nodes:128}") int virtualNodes,
+                                    @Value("${app.storage.cluster.request-timeout:30s}") Duration requestTimeout) {
+        List<ClusterNode> members = nodes.stream().map(String::trim).filter(node -> !node.isEmpty())
+            .map(ClusterNode::parse).toList();
+        this.self = members.stream().filter(node -> node.id().equals(nodeId)).findFirst()
+            .orElseThrow(() -> new IllegalStateException(
+                "app.storage.cluster.nodes에 이 노드(app.storage.cluster.node-id=" + nodeId + ")가 없습니다."));
+        if (replicationFactor < 1 || writeQuorum < 1 || writeQuorum > replicationFactor) {
+            throw new IllegalStateException("1 <= write-quorum <= replication-factor 이어야 합니다.");
+        }
+        this.local = local;
+        this.streamingFileWriter = streamingFileWriter;
+        this.replicaClient = new ReplicaClient(signatureValidator, requestTimeout);
+        this.metadataIndex = metadataIndex;
+        this.precompressionService = precompressionService;
+        this.ring = new HashRing(members, virtualNodes);
+        this.replicationFactor = Math.min(replicationFactor, members.size());
+        this.writeQuorum = Math.min(writeQuorum, this.replicationFactor);
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * @return 이 노드의 파일 시스템 저장소. 다른 노드가 보낸 복제본은 여기에만 저장합니다.
+     */
+    public FileSystemStorageBackend local() {
+        return local;
+    }
+
+    /**
+     * @return 키를 담당하는 노드 (첫 번째가 주 담당 노드)
+     */
+    public List<ClusterNode> owners(String key) {
+        return ring.owners(key, replicationFactor);
+    }
+
+    @Override
+    public boolean ownsKey(String key) {
+        return isReserved(key) || owners(key).contains(self);
+    }
+
+    @Override
+    public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+        if (isReserved(key)) {
+            return local.put(key, source, maxBytes);
+        }
+        List<ClusterNode> owners = owners(key);
+        boolean selfOwned = owners.contains(self);
+        ObjectVersion version = newVersion();
+        // 다른 노드로 보낼 내용. 담당 노드이면 로컬 파일의 하드 링크, 아니면 임시 파일입니다.
+        Path snapshot = selfOwned
+            ? AtomicFileWriter.tempSibling(local.localPath(key))
+            : Files.createTempFile("replica-upload-", ".tmp");
+        long written;
+        try {
+            written = selfOwned
+                ? local.putVersion(key, source, maxBytes, version, snapshot)
+                : streamingFileWriter.write(source, snapshot, maxBytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(snapshot);
+            throw e;
+        }
+
+        List<CompletableFuture<Void>> transfers = new ArrayList<>();
+        for (ClusterNode owner : owners) {
+            if (!owner.equals(self)) {
+                transfers.add(replicaClient.put(owner, key, snapshot, version));
+            }
+        }
+        CompletableFuture.allOf(transfers.toArray(CompletableFuture[]::new))
+            .whenComplete((ignored, error) -> deleteQuietly(snapshot));
+        awaitQuorum(key, transfers, writeQuorum - (selfOwned ? 1 : 0));
+        return written;
+    }
+
+    // 필요한 수만큼 성공하면 바로 돌아가고, 남은 전송이 모두 성공해도 모자라면 바로 실패합니다.
+    private void awaitQuorum(String key, List<CompletableFuture<Void>> transfers, int required) {
+        if (required <= 0) {
+            transfers.forEach(transfer -> transfer.whenComplete((ignored, error) -> record(key, error)));
+            return;
+        }
+        CompletableFuture<Void> quorum = new CompletableFuture<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<Void> transfer : transfers) {
+            transfer.whenComplete((ignored, error) -> {
+                record(key, error);
+                if (error == null) {
+                    if (succeeded.incrementAndGet() >= required) {
+                        quorum.complete(null);
+                    }
+                } else if (transfers.size() - failed.incrementAndGet() < required) {
+                    quorum.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            quorum.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE,
+                "복제본을 충분히 저장하지 못했습니다 (필요 " + writeQuorum + "개): " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, "복제 도중 중단되었습니다: " + key);
+        }
+    }
+
+    private void record(String key, Throwable error) {
+        if (error == null) {
+            replicaWrites.increment();
+        } else {
+            replicaWriteFailures.increment();
+            log.warn("복제본을 저장하지 못했습니다: {}: {}", key, error.toString());
+        }
+    }
+
+    @Override
+    public FileMetadata head(String key) throws IOException {
+        if (isReserved(key)) {
+            return local.head(key);
+        }
+        List<ClusterNode> owners = owners(key);
+        if (owners.contains(self)) {
+            FileMetadata metadata = local.head(key);
+            if (metadata != null) {
+                return metadata;
+            }
+        }
+        IOException failure = null;
+        for (ClusterNode owner : owners) {
+            if (owner.equals(self)) {
+                continue;
+            }
+            try {
+                FileMetadata metadata = replicaClient.head(owner, key);
+                if (metadata != null) {
+                    return metadata;
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    @Override
+    public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+        if (isReserved(key)) {
+            return local.get(key, offset, length);
+        }
+        List<ClusterNode> owners = owners(key);
+        if (owners.contains(self) && local.head(key) != null) {
+            return local.get(key, offset, length);
+        }
+        IOException failure = new NoSuchFileException(key);
+        for (ClusterNode owner : owners) {
+            if (owner.equals(self)) {
+                continue;
+            }
+            try {
+                ReadableByteChannel channel = replicaClient.get(owner, key, offset, length);
+                remoteReads.increment();
+                return channel;
+            } catch (NoSuchFileException e) {
+                // 다음 복제본을 찾습니다.
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        if (isReserved(key)) {
+            return local.delete(key);
+        }
+        ObjectVersion version = newVersion();
+        boolean deleted = false;
+        for (ClusterNode owner : owners(key)) {
+            if (owner.equals(self)) {
+                deleted |= deleteLocal(key, version);
+                continue;
+            }
+            try {
+                deleted |= replicaClient.delete(owner, key, version);
+            } catch (IOException e) {
+                log.warn("복제본을 지우지 못했습니다: {} ({}): {}", key, owner.id(), e.toString());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 이 노드의 복제본을 {@code version}으로 지웁니다. 이 노드가 그 키로 만든 색인 항목과 압축 사본도 함께 지웁니다.
+     *
+     * @return 복제본을 삭제했으면 {@code true}
+     * @throws BusinessException 같거나 더 새 버전이 이미 기록되어 있는 경우 (409)
+     */
+    public boolean deleteLocal(String key, ObjectVersion version) throws IOException {
+        boolean deleted = local.deleteVersion(key, version);
+        MetadataIndex index = metadataIndex.getIfAvailable();
+        if (index != null && index.get(key) != null) {
+            index.remove(key);
+        }
+        PrecompressionService precompression = precompressionService.getIfAvailable();
+        if (precompression != null) {
+            local.delete(precompression.encodedKey(key));
+        }
+        return deleted;
+    }
+
+    /**
+     * 모든 노드의 목록을 합칩니다. 응답하지 않는 노드는 건너뛰므로, 그 노드에만 있는 키는 빠질 수 있습니다.
+     */
+    @Override
+    public List<String> list(String prefix, int limit) throws IOException {
+        List<String> keys = new ArrayList<>(local.list(prefix, limit));
+        for (ClusterNode node : ring.nodes()) {
+            if (node.equals(self)) {
+                continue;
+            }
+            try {
+                keys.addAll(replicaClient.list(node, prefix, limit));
+            } catch (IOException e) {
+                log.warn("노드의 목록을 가져오지 못했습니다: {}: {}", node.id(), e.toString());
+            }
+        }
+        return keys.stream().sorted().distinct().limit(limit).toList();
+    }
+
+    /**
+     * 이 노드에 복제본이 있을 때만 경로를 반환합니다. 없으면 다른 노드에서 읽도록 {@code null}입니다.
+     */
+    @Override
+    public Path localPath(String key) {
+        if (isReserved(key)) {
+            return local.localPath(key);
+        }
+        if (!owners(key).contains(self)) {
+            return null;
+        }
+        try {
+            return local.head(key) != null ? local.localPath(key) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 다른 노드가 보낸 {@code version}의 복제본을 이 노드에 쓰는 저장소.
+     * 같거나 더 새 버전이 이미 있으면 쓰기가 409로 실패합니다.
+     */
+    public StorageBackend replicaTarget(ObjectVersion version) {
+        return new VersionedReplicaTarget(local, version);
+    }
+
+    private ObjectVersion newVersion() {
+        return new ObjectVersion(System.currentTimeMillis(), self.id());
+    }
+
+    private static boolean isReserved(String key) {
+        return key.startsWith(".");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("복제용 임시 파일을 지우지 못했습니다: {}: {}", file, e.toString());
+        }
+    }
+
+    private record VersionedReplicaTarget(FileSystemStorageBackend local, ObjectVersion version)
+        implements StorageBackend {
+
+        @Override
+        public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+            return local.putVersion(key, source, maxBytes, version, null);
+        }
+
+        @Override
+        public FileMetadata head(String key) throws IOException {
+            return local.head(key);
+        }
+
+        @Override
+        public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+            return local.get(key, offset, length);
+        }
+
+        @Override
+        public boolean delete(String key) throws IOException {
+            return local.delete(key);
+        }
+
+        @Override
+        public List<String> list(String prefix, int limit) throws IOException {
+            return local.list(prefix, limit);
+        }
+
+        @Override
+        public Path localPath(String key) {
+            return local.localPath(key);
+        }
+
+        @Override
+        public boolean ownsKey(String key) {
+            return local.ownsKey(key);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.cluster.replica.writes", replicaWrites, LongAdder::sum)
+            .tag("result", "success")
+            .description("다른 노드에 저장한 복제본 수")
+            .register(registry);
+        FunctionCounter.builder("storage.cluster.replica.writes", replicaWriteFailures, LongAdder::sum)
+            .tag("result", "failure")
+            .description("다른 노드에 저장하지 못한 복제본 수")
+            .register(registry);
+        FunctionCounter.builder("storage.cluster.remote.reads", remoteReads, LongAdder::sum)
+            .description("이 노드에 복제본이 없어 다른 노드에서 읽은 요청 수")
+            .register(registry);
+    }
+}
@@ -0,0 +1,35 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.storage.presign.PresignRequest;
+import AmpmStorage.storage.presign.PresignResponse;
+import AmpmStorage.storage.presign.PresignService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Presigned URL 발급 API입니다. 서명 검증 필터는 이 경로를 건너뛰고, API 키로 인증합니다.
+ * <pre>
+ * POST /storage/presign
+ * Authorization: Bearer {api-key}
+ * {"method": "PUT", "keys": ["exhibits/images/1/posts/{uuid}/image.png", ...], "expiresInSeconds": 600}
+ * </pre>
+ */
+@RestController
+@RequestMapping("/storage/presign")
+@ConditionalOnProperty(prefix = "app.storage.presign", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class PresignController {
+
+    private final PresignService presignService;
+
+    @PostMapping
+    public PresignResponse presign(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                   @RequestBody PresignRequest request) {
+        presignService.authenticate(authorization);
+        return presignService.presign(request);
+    }
+}
@@ -0,0 +1,153 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.index.ObjectListing;
+import AmpmStorage.storage.index.ObjectListingService;
+import AmpmStorage.storage.service.ReactiveFileDownloadService;
+import AmpmStorage.storage.service.ReactiveFileUploadService;
+import AmpmStorage.storage.variant.ImageVariantService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux 모드({@code reactive} 프로필)의 저장소 API입니다. {@link StorageController}와 URL, 서명 규칙, 응답이 같습니다.
+ * <p>
+ * 업로드 본문은 {@link DataBuffer} 스트림으로 받아 backpressure를 지키며 디스크에 쓰고, 다운로드는 zero-copy로
+ * 전송하므로 느린 클라이언트가 많아도 요청마다 스레드를 점유하지 않습니다. 색인, 변형 생성처럼 블로킹인 작업은
+ * boundedElastic 스케줄러에서 실행합니다.
+ * 묶음 업로드/다운로드({@code /storage/batch})와 분할 업로드({@code /storage/uploads})는 서블릿 모드에서만 제공합니다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/storage")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveStorageController {
+
+    private static final int MAX_LIST_LIMIT = 1000;
+
+    private final ReactiveFileUploadService fileUploadService;
+    private final ReactiveFileDownloadService fileDownloadService;
+    private final ObjectListingService objectListingService;
+    private final ImageVariantService imageVariantService;
+    private final long maxUploadSize;
+
+    public ReactiveStorageController(@Value("${app.storage.upload.max-file-size:10MB}") DataSize maxUploadSize,
+                                     ReactiveFileUploadService fileUploadService,
+                                     ReactiveFileDownloadService fileDownloadService,
+                                     ObjectListingService objectListingService,
+                                     ObjectProvider<ImageVariantService> imageVariantService) {
+        this.fileUploadService = fileUploadService;
+        this.fileDownloadService = fileDownloadService;
+        this.objectListingService = objectListingService;
+        this.imageVariantService = imageVariantService.getIfAvailable();
+        this.maxUploadSize = maxUploadSize.toBytes();
+    }
+
+    @PutMapping(path = "/exhibits/images/{userId}/posts/{uuid}/image.png", consumes = "image/*")
+    public Mono<ResponseEntity<String>> handleRawFileUpload(@PathVariable String userId,
+                                                            @PathVariable String uuid,
+                                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            @RequestBody Flux<DataBuffer> body) {
+        String relativePath = String.format("exhibits/images/%s/posts/%s/image.png", userId, uuid);
+        return fileUploadService.store(relativePath, contentType, body, Long.MAX_VALUE)
+            .flatMap(written -> imageVariantService == null ? Mono.just(written) : Mono.fromCallable(() -> {
+                // 축소 변형은 응답을 기다리게 하지 않도록 백그라운드에서 만듭니다. (이전 변형 삭제만 여기서 수행)
+                imageVariantService.onOriginalStored(relativePath);
+                return written;
+            }).subscribeOn(Schedulers.boundedElastic()))
+            .map(written -> {
+                log.debug("Raw file saved to: {}", relativePath);
+                return ResponseEntity.ok("File uploaded successfully: " + relativePath);
+            })
+            .onErrorMap(ReactiveStorageController::isIoError, ex -> {
+                log.warn("파일 저장 중 오류가 발생했습니다: {}", ex.toString());
+                return new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
+            });
+    }
+
+    // multipart/form-data 방식 업로드. "file" 파트의 본문만 버퍼링 없이 저장하고 나머지 파트는 버립니다.
+    @PutMapping(value = "/{fileId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<String>> uploadFile(@PathVariable String fileId, @RequestBody Flux<PartEvent> parts) {
+        // 본문을 읽기 전에 키부터 검증합니다.
+        StorageKeys.validate(fileId);
+        return parts.windowUntil(PartEvent::isLast)
+            .concatMap(part -> part.switchOnFirst((first, events) -> {
+                if (first.get() instanceof FilePartEvent filePart && "file".equals(filePart.name())) {
+                    MediaType contentType = filePart.headers().getContentType();
+                    return fileUploadService.store(fileId, contentType != null ? contentType.toString() : null,
+                        events.map(PartEvent::content), maxUploadSize);
+                }
+                return events.doOnNext(event -> DataBufferUtils.release(event.content())).then(Mono.<Long>empty());
+            }))
+            .next()
+            .switchIfEmpty(Mono.error(() -> new BusinessException(HttpStatus.BAD_REQUEST, "file 파트가 누락되었습니다.")))
+            .map(written -> {
+                log.debug("Multipart file saved to: {}", fileId);
+                return ResponseEntity.ok("File uploaded successfully: " + fileId);
+            })
+            .onErrorMap(ReactiveStorageController::isIoError,
+                ex -> new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일을 저장하는 중 오류가 발생했습니다."));
+    }
+
+    // 접두어 아래의 객체 목록을 키 순서로 나누어 응답합니다. 서명은 "list/{prefix}"를 사용합니다.
+    @GetMapping("/list")
+    public Mono<ObjectListing> listObjects(@RequestParam String prefix,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        StorageKeys.validatePrefix(prefix);
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "limit은 1~" + MAX_LIST_LIMIT + " 사이여야 합니다.");
+        }
+        return Mono.fromCallable(() -> objectListingService.list(prefix, after, limit))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(ReactiveStorageController::isIoError,
+                ex -> new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다."));
+    }
+
+    @GetMapping("/{fileId}")
+    public Mono<Void> downloadFile(@PathVariable String fileId, ServerWebExchange exchange) {
+        return fileDownloadService.serve(StorageKeys.validate(fileId), exchange)
+            .onErrorMap(ReactiveStorageController::isIoError,
+                ex -> new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다."));
+    }
+
+    @GetMapping("/exhibits/images/{userId}/{uuid}/{fileName}")
+    public Mono<Void> handleRawFileDownload(@PathVariable String userId,
+                                            @PathVariable String uuid,
+                                            @PathVariable String fileName,
+                                            @RequestParam(name = "w", required = false) Integer width,
+                                            ServerWebExchange exchange) {
+        String relativePath = StorageKeys.validate(
+            String.format("exhibits/images/%s/posts/%s/%s", userId, uuid, fileName));
+        // 너비(?w=320)를 지정하면 그에 맞는 축소 변형을 제공합니다. (없으면 만들 때까지 기다리므로 boundedElastic에서 실행)
+        Mono<String> key = width != null && width > 0 && imageVariantService != null
+            ? Mono.fromCallable(() -> imageVariantService.resolve(relativePath, width)).subscribeOn(Schedulers.boundedElastic())
+            : Mono.just(relativePath);
+        return key.flatMap(resolved -> fileDownloadService.serve(resolved, exchange))
+            .onErrorMap(ReactiveStorageController::isIoError,
+                ex -> new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다."));
+    }
+
+    private static boolean isIoError(Throwable error) {
+        return error instanceof IOException || error instanceof UncheckedIOException;
+    }
+}
@@ -0,0 +1,145 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.FileSystemStorageBackend;
+import AmpmStorage.storage.backend.ObjectVersion;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.cluster.ReplicatedStorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 클러스터 노드 사이의 복제 API입니다. 다른 노드의 {@link ReplicatedStorageBackend}만 호출하며,
+ * 요청은 공유 비밀 키로 서명됩니다. (서명 대상: {@code internal/replicas/{key}}, {@code internal/replica-list})
+ * <p>
+ * 이 노드의 파일 시스템 저장소만 읽고 쓰므로 다시 다른 노드로 전달되지 않습니다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/storage/internal")
+@ConditionalOnProperty(prefix = "app.storage.cluster", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReplicaController {
+
+    private static final int MAX_LIST_LIMIT = 100_000;
+
+    private final FileUploadService fileUploadService;
+    private final ReplicatedStorageBackend replicatedStorageBackend;
+    private final FileSystemStorageBackend local;
+
+    public ReplicaController(FileUploadService fileUploadService, ReplicatedStorageBackend replicatedStorageBackend) {
+        this.fileUploadService = fileUploadService;
+        this.replicatedStorageBackend = replicatedStorageBackend;
+        this.local = replicatedStorageBackend.local();
+    }
+
+    // 같거나 더 새 버전이 이미 있으면 409로 응답합니다.
+    @PutMapping("/replicas/{*key}")
+    public ResponseEntity<Void> putReplica(@PathVariable String key,
+                                           @RequestHeader(ReplicatedStorageBackend.VERSION_HEADER) String version,
+                                           HttpServletRequest request) {
+        try {
+            long contentLength = request.getContentLengthLong();
+            fileUploadService.storeReplica(keyOf(key), Channels.newChannel(request.getInputStream()),
+                contentLength >= 0 ? contentLength : Long.MAX_VALUE, ObjectVersion.parse(version));
+            return ResponseEntity.noContent().build();
+        } catch (IOException ex) {
+            log.warn("복제본을 저장하지 못했습니다: {}", ex.toString());
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
+        }
+    }
+
+    @RequestMapping(path = "/replicas/{*key}", method = RequestMethod.HEAD)
+    public void headReplica(@PathVariable String key, HttpServletResponse response) {
+        try {
+            writeHeaders(local.head(keyOf(key)), response);
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    @GetMapping("/replicas/{*key}")
+    public void getReplica(@PathVariable String key,
+                           @RequestParam(defaultValue = "0") long offset,
+                           @RequestParam(defaultValue = "-1") long length,
+                           HttpServletResponse response) {
+        try {
+            String validated = keyOf(key);
+            FileMetadata metadata = local.head(validated);
+            if (!writeHeaders(metadata, response)) {
+                return;
+            }
+            long start = Math.min(Math.max(offset, 0), metadata.size());
+            long count = length < 0 ? metadata.size() - start : Math.min(length, metadata.size() - start);
+            response.setContentLengthLong(count);
+            try (InputStream source = Channels.newInputStream(local.get(validated, start, count))) {
+                source.transferTo(response.getOutputStream());
+            }
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    // 색인 항목과 압축 사본도 함께 지웁니다. 같거나 더 새 버전이 이미 있으면 409로 응답합니다.
+    @DeleteMapping("/replicas/{*key}")
+    public ResponseEntity<Void> deleteReplica(@PathVariable String key,
+                                              @RequestHeader(ReplicatedStorageBackend.VERSION_HEADER) String version) {
+        try {
+            return replicatedStorageBackend.deleteLocal(keyOf(key), ObjectVersion.parse(version))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    // 한 줄에 키 하나씩 응답합니다.
+    @GetMapping(path = "/replica-list", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> listReplicas(@RequestParam String prefix,
+                                               @RequestParam(defaultValue = "1000") int limit) {
+        StorageKeys.validatePrefix(prefix);
+        try {
+            List<String> keys = local.list(prefix, Math.min(Math.max(limit, 1), MAX_LIST_LIMIT));
+            return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(String.join("\n", keys));
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    // {*key}는 앞의 '/'를 포함합니다.
+    private static String keyOf(String path) {
+        return StorageKeys.validate(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    // 복제본이 없으면 404를 쓰고 false를 반환합니다.
+    private static boolean writeHeaders(FileMetadata metadata, HttpServletResponse response) {
+        if (metadata == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return false;
+        }
+        response.setContentLengthLong(metadata.size());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, metadata.lastModified());
+        if (metadata.eTag() != null) {
+            response.setHeader(HttpHeaders.ETAG, metadata.eTag());
+        }
+        response.setContentType(metadata.contentType());
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+package AmpmStorage.storage.controller;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.upload.ResumableUploadService;
+import AmpmStorage.storage.upload.UploadSession;
+import AmpmStorage.storage.upload.UploadStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 분할 업로드 API입니다.
+ * <ol>
+ *     <li>{@code POST /storage/uploads?key=...&size=...} (서명 필요) - 업로드 ID 발급</li>
+ *     <li>{@code PUT /storage/uploads/{uploadId}/parts/{partNumber}} - 파트 본문 (동시에 여러 개 가능)</li>
+ *     <li>{@code GET /storage/uploads/{uploadId}} - 올라온 파트 목록 (이어 올리기)</li>
+ *     <li>{@code POST /storage/uploads/{uploadId}/complete} / {@code DELETE /storage/uploads/{uploadId}}</li>
+ * </ol>
+ * 시작 요청만 키에 대한 서명으로 확인하고, 이후 요청은 추측할 수 없는 업로드 ID로 확인합니다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/storage/uploads")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResumableUploadController {
+
+    private final ResumableUploadService resumableUploadService;
+    private final long defaultPartSize;
+
+    public ResumableUploadController(ResumableUploadService resumableUploadService,
+                                     @Value("${app.storage.resumable.part-size:1MB}") DataSize defaultPartSize) {
+        this.resumableUploadService = resumableUploadService;
+        this.defaultPartSize = defaultPartSize.toBytes();
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSession> initiate(@RequestParam String key,
+                                                  @RequestParam long size,
+                                                  @RequestParam(required = false) Long partSize,
+                                                  @RequestParam(required = false) String contentType) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(resumableUploadService.initiate(key, contentType,
+                size, partSize != null ? partSize : defaultPartSize));
+        } catch (IOException ex) {
+            log.warn("분할 업로드를 시작하지 못했습니다: {}", ex.toString());
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
+        }
+    }
+
+    @PutMapping("/{uploadId}/parts/{partNumber}")
+    public ResponseEntity<Void> uploadPart(@PathVariable String uploadId,
+                                           @PathVariable int partNumber,
+                                           HttpServletRequest request) {
+        try {
+            resumableUploadService.writePart(uploadId, partNumber, Channels.newChannel(request.getInputStream()));
+            return ResponseEntity.noContent().build();
+        } catch (IOException ex) {
+            log.warn("파트를 저장하지 못했습니다: {} #{}: {}", uploadId, partNumber, ex.toString());
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public UploadStatus status(@PathVariable String uploadId) {
+        try {
+            return resumableUploadService.status(uploadId);
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<String> complete(@PathVariable String uploadId) {
+        try {
+            UploadSession session = resumableUploadService.complete(uploadId);
+            log.debug("Resumable upload completed: {}", session.key());
+            return ResponseEntity.ok("File uploaded successfully: " + session.key());
+        } catch (IOException ex) {
+            log.warn("분할 업로드를 완료하지 못했습니다: {}: {}", uploadId, ex.toString());
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) {
+        try {
+            resumableUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+}
@@ -1,40 +1,69 @@
 package AmpmStorage.storage.controller;
 
 import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.batch.BatchTransferService;
+import AmpmStorage.storage.index.ObjectListing;
+import AmpmStorage.storage.index.ObjectListingService;
+import AmpmStorage.storage.io.MultipartStream;
+import AmpmStorage.storage.service.FileDownloadService;
+import AmpmStorage.storage.service.FileUploadService;
+import AmpmStorage.storage.variant.ImageVariantService;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
-import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.SchemaProperty;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.util.WebUtils;
 
+@Slf4j
 @RestController
 @RequestMapping("/storage")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class StorageController {
 
-    private final Path fileStorageLocation;
-    private final String uploadDir; // 업로드 디렉토리 경로를 저장할 변수
+    private static final int MULTIPART_PARSE_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_LIST_LIMIT = 1000;
 
-    public StorageController(@Value("${app.storage.upload-dir}") String uploadDir) {
-        this.uploadDir = uploadDir; // 경로 저장
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("파일을 저장할 디렉터리를 생성할 수 없습니다.", ex);
-        }
+    private final FileDownloadService fileDownloadService;
+    private final FileUploadService fileUploadService;
+    private final BatchTransferService batchTransferService;
+    private final ObjectListingService objectListingService;
+    private final ImageVariantService imageVariantService;
+    private final long maxUploadSize;
+
+    public StorageController(@Value("${app.storage.upload.max-file-size:10MB}") DataSize maxUploadSize,
+                             FileDownloadService fileDownloadService,
+                             FileUploadService fileUploadService,
+                             BatchTransferService batchTransferService,
+                             ObjectListingService objectListingService,
+                             ObjectProvider<ImageVariantService> imageVariantService) {
+        this.fileDownloadService = fileDownloadService;
+        this.fileUploadService = fileUploadService;
+        this.batchTransferService = batchTransferService;
+        this.objectListingService = objectListingService;
+        this.imageVariantService = imageVariantService.getIfAvailable();
+        this.maxUploadSize = maxUploadSize.toBytes();
     }
 
 //    // ⭐️ [신규 추가] Presigned URL을 위한 원시 데이터(raw) PUT 업로드 메서드
@@ -86,139 +115,174 @@ public class StorageController {
             // "fileName"이 "image.png"로 고정되었습니다.
             String relativePath = String.format("exhibits/images/%s/posts/%s/image.png", userId, uuid);
 
-            // 3. 파일을 저장할 절대 경로를 계산합니다.
-            Path destinationFile = Paths.get(this.uploadDir).resolve(relativePath).normalize();
-
-            // 4. 상위 디렉터리가 없으면 생성합니다.
-            Files.createDirectories(destinationFile.getParent());
+            // 3. 요청 본문을 저장소에 저장합니다. (실제 위치와 원자적 교체는 StorageBackend가 처리)
+            // 업로드 검사가 켜져 있으면 선언한 Content-Type과 실제 형식을 저장하면서 확인합니다.
+            fileUploadService.store(relativePath, request.getContentType(),
+                Channels.newChannel(request.getInputStream()), Long.MAX_VALUE);
 
-            // 5. 요청 본문에서 파일 저장
-            Files.copy(request.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            // 4. 축소 변형은 응답을 기다리게 하지 않도록 백그라운드에서 만듭니다.
+            if (imageVariantService != null) {
+                imageVariantService.onOriginalStored(relativePath);
+            }
 
-            System.out.println("Raw file saved to: " + destinationFile.toAbsolutePath());
+            log.debug("Raw file saved to: {}", relativePath);
             return ResponseEntity.ok("File uploaded successfully: " + relativePath);
 
         } catch (IOException e) {
-            e.printStackTrace();
+            log.warn("파일 저장 중 오류가 발생했습니다: {}", e.toString());
             throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일 저장 중 오류가 발생했습니다.");
         }
     }
 
-    // 기존의 multipart/form-data 방식 업로드 메서드 (참고용으로 유지)
+    // multipart/form-data 방식 업로드 메서드
+    // spring.servlet.multipart.enabled=false 이면 컨테이너의 파트 버퍼링 없이 본문을 직접 파싱하여 저장합니다.
     @PutMapping(value = "/{fileId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> uploadFile(@PathVariable String fileId,
-        @Parameter(schema = @Schema(type = "string", format = "binary")) @RequestParam("file") MultipartFile file) {
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+        mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+        schemaProperties = @SchemaProperty(name = "file", schema = @Schema(type = "string", format = "binary"))))
+    public ResponseEntity<String> uploadFile(@PathVariable String fileId, HttpServletRequest request) {
+        // 본문을 읽기 전에 키부터 검증합니다.
+        StorageKeys.validate(fileId);
         try {
-            Path targetLocation = this.fileStorageLocation.resolve(fileId);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Multipart file saved to: " + targetLocation.toAbsolutePath());
+            MultipartHttpServletRequest multipartRequest =
+                WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+            if (multipartRequest != null) {
+                // 컨테이너가 이미 파트를 버퍼링한 경우
+                MultipartFile file = multipartRequest.getFile("file");
+                if (file == null) {
+                    throw new BusinessException(HttpStatus.BAD_REQUEST, "file 파트가 누락되었습니다.");
+                }
+                fileUploadService.store(fileId, file.getContentType(), Channels.newChannel(file.getInputStream()),
+                    maxUploadSize);
+            } else {
+                writeFilePart(request, fileId);
+            }
+            log.debug("Multipart file saved to: {}", fileId);
             return ResponseEntity.ok("File uploaded successfully: " + fileId);
         } catch (IOException ex) {
             throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일을 저장하는 중 오류가 발생했습니다.");
         }
     }
 
-//    @GetMapping("/{fileId}")
-//    public ResponseEntity<Resource> downloadFile(@PathVariable String fileId) {
-//        try {
-//            Path filePath = this.fileStorageLocation.resolve(fileId).normalize();
-//            System.out.println("Attempting to load file from: " + filePath.toAbsolutePath());
-//            Resource resource = new UrlResource(filePath.toUri());
-//
-//            if (resource.exists() && resource.isReadable()) {
-//                return ResponseEntity.ok()
-//                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-//                    .body(resource);
-//            } else {
-//                throw new BusinessException(HttpStatus.NOT_FOUND, "파일을 찾을 수 없거나 읽을 수 없습니다: " + fileId);
-//            }
-//        } catch (MalformedURLException ex) {
-//            throw new BusinessException(HttpStatus.BAD_REQUEST, "파일 경로가 올바르지 않습니다: " + fileId);
-//        } catch (Exception ex) {
-//            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
-//        }
-//    }
+    // 요청 본문에서 "file" 파트를 찾아 곧바로 저장소에 기록합니다.
+    private void writeFilePart(HttpServletRequest request, String key) throws IOException {
+        MultipartStream multipartStream = openMultipart(request);
+        MultipartStream.Part part;
+        while ((part = multipartStream.nextPart()) != null) {
+            if ("file".equals(part.getName())) {
+                fileUploadService.store(key, part.getContentType(), part, maxUploadSize);
+                return;
+            }
+        }
+        throw new BusinessException(HttpStatus.BAD_REQUEST, "file 파트가 누락되었습니다.");
+    }
 
-//    @GetMapping("/{fileId}")
-//    public ResponseEntity<Resource> downloadFile(@PathVariable String fileId) {
-//        try {
-//            Path filePath = this.fileStorageLocation.resolve(fileId).normalize();
-//            Resource resource = new UrlResource(filePath.toUri());
-//
-//            if (resource.exists() && resource.isReadable()) {
-//                String contentType = null;
-//
-//                // [핵심 수정 1] 경로에서 파일 이름을 문자열로 가져옵니다.
-//                String filename = filePath.getFileName().toString();
-//
-//                // [핵심 수정 2] 파일 이름이 "img"와 일치하는지 확인합니다.
-//                if ("img".equals(filename)) {
-//                    // 이름이 "img"이면, 기본 이미지 타입으로 지정합니다.
-//                    // 대부분의 경우 JPEG 또는 PNG이므로 "image/jpeg"를 기본값으로 사용합니다.
-//                    // 만약 모든 이미지가 PNG라면 "image/png"로 변경해도 좋습니다.
-//                    contentType = "image/jpeg";
-//                } else {
-//                    // 다른 파일 이름의 경우, 기존 방식대로 확장자를 통해 타입을 추측합니다.
-//                    contentType = Files.probeContentType(filePath);
-//                }
-//
-//                // 만약 위 로직으로도 타입을 알 수 없다면, 최종 기본값으로 설정합니다.
-//                if (contentType == null) {
-//                    contentType = "application/octet-stream";
-//                }
-//
-//                return ResponseEntity.ok()
-//                    .contentType(MediaType.parseMediaType(contentType))
-//                    .body(resource);
-//            } else {
-//                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-//            }
-//        } catch (IOException ex) {
-//            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-//        }
-//    }
+    private static MultipartStream openMultipart(HttpServletRequest request) throws IOException {
+        String boundary = MediaType.parseMediaType(request.getContentType()).getParameter("boundary");
+        if (boundary == null || boundary.isBlank()) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "multipart boundary가 누락되었습니다.");
+        }
+        if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+            boundary = boundary.substring(1, boundary.length() - 1);
+        }
+        return new MultipartStream(request.getInputStream(), boundary, MULTIPART_PARSE_BUFFER_SIZE);
+    }
+
+    // 묶음 업로드: multipart 본문의 파일 파트를 {prefix}{filename} 키로 저장합니다. (서명은 prefix 전체에 한 번)
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<String>> uploadBatch(@RequestParam String prefix, HttpServletRequest request) {
+        StorageKeys.validatePrefix(prefix);
+        try {
+            List<String> keys = batchTransferService.upload(prefix, openMultipart(request), maxUploadSize);
+            log.debug("Batch uploaded {} files to: {}", keys.size(), prefix);
+            return ResponseEntity.ok(keys);
+        } catch (IOException ex) {
+            log.warn("묶음 업로드 중 오류가 발생했습니다: {}", ex.toString());
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일을 저장하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    // 묶음 다운로드: prefix 아래의 파일을 zip/tar로 묶어 곧바로 응답합니다.
+    @GetMapping("/batch")
+    public void downloadBatch(@RequestParam String prefix,
+        @RequestParam(defaultValue = "zip") String format,
+        HttpServletResponse response) {
+
+        StorageKeys.validatePrefix(prefix);
+        BatchTransferService.ArchiveFormat archiveFormat;
+        try {
+            archiveFormat = BatchTransferService.ArchiveFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "지원하지 않는 형식입니다: " + format);
+        }
+        try {
+            // 목록은 응답을 시작하기 전에 만들어, 파일 수 초과 같은 오류를 상태 코드로 알립니다.
+            List<String> keys = batchTransferService.list(prefix);
+            String name = prefix.substring(prefix.lastIndexOf('/', prefix.length() - 2) + 1, prefix.length() - 1);
+            response.setContentType(archiveFormat.contentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + archiveFormat.extension(), StandardCharsets.UTF_8).build().toString());
+            OutputStream out = new BufferedOutputStream(response.getOutputStream(), MULTIPART_PARSE_BUFFER_SIZE * 4);
+            batchTransferService.download(keys, prefix, archiveFormat, out);
+            out.flush();
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    // 접두어 아래의 객체 목록을 키 순서로 나누어 응답합니다. 서명은 "list/{prefix}"를 사용합니다.
+    @GetMapping("/list")
+    public ObjectListing listObjects(@RequestParam String prefix,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "100") int limit) {
+
+        StorageKeys.validatePrefix(prefix);
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "limit은 1~" + MAX_LIST_LIMIT + " 사이여야 합니다.");
+        }
+        try {
+            return objectListingService.list(prefix, after, limit);
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
+
+    @GetMapping("/{fileId}")
+    public void downloadFile(@PathVariable String fileId,
+        HttpServletRequest request,
+        HttpServletResponse response) {
+
+        try {
+            fileDownloadService.serve(StorageKeys.validate(fileId), request, response);
+        } catch (IOException ex) {
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
+        }
+    }
 
     @GetMapping("/exhibits/images/{userId}/{uuid}/{fileName}")
-    public ResponseEntity<Resource> handleRawFileDownload(
+    public void handleRawFileDownload(
         @PathVariable String userId,
         @PathVariable String uuid,
-        @PathVariable String fileName) {
+        @PathVariable String fileName,
+        @RequestParam(name = "w", required = false) Integer width,
+        HttpServletRequest request,
+        HttpServletResponse response) {
 
         try {
             // 1. Presigned URL의 경로 구조에 맞춰 전체 파일 경로를 조합합니다.
-            String relativePath = String.format("exhibits/images/%s/posts/%s/%s", userId, uuid, fileName);
-
-            // 2. 파일을 저장할 절대 경로를 계산합니다.
-            Path filePath = this.fileStorageLocation.resolve(relativePath).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = null;
-                String retrievedFilename = filePath.getFileName().toString();
-
-                // 파일 이름이 "img"인 경우를 특별 처리하는 로직
-                if ("image.png".equals(retrievedFilename)) {
-                    contentType = "image/png";
-                } else {
-                    // 그 외의 경우, 파일 확장자를 통해 Content-Type을 추측
-                    contentType = Files.probeContentType(filePath);
-                }
+            String relativePath = StorageKeys.validate(
+                String.format("exhibits/images/%s/posts/%s/%s", userId, uuid, fileName));
 
-                // Content-Type을 결정할 수 없는 경우를 위한 기본값
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-
-                return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            // 2. 너비(?w=320)를 지정하면 그에 맞는 축소 변형을 제공합니다. (없으면 만들어서 제공)
+            if (width != null && width > 0 && imageVariantService != null) {
+                relativePath = imageVariantService.resolve(relativePath, width);
             }
+
+            // 3. 메타데이터 캐시와 Range/조건부 요청 처리는 다운로드 엔진에 위임합니다.
+            fileDownloadService.serve(relativePath, request, response);
         } catch (IOException ex) {
-            ex.printStackTrace(); // 디버깅을 위해 에러 로그 출력
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            throw new BusinessException(HttpStatus.INTERNAL_SERVER_ERROR, "파일에 접근하는 중 오류가 발생했습니다.");
         }
     }
 
-}
+}
\ No newline at end of file
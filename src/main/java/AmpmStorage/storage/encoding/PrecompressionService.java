@@ -0,0 +1,296 @@
+package AmpmStorage.storage.encoding;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 압축 효과가 있는 객체(JSON, SVG, 텍스트 등)의 gzip 사본을 미리 만들어 둡니다.
+ * <ul>
+ *     <li>업로드가 끝나면 이전 사본을 지우고, 새 사본은 크기가 제한된 작업 큐를 가진 전용 스레드 풀에서 만듭니다.
+ *     큐가 가득 차면 건너뜁니다. (업로드 응답을 기다리게 하지 않습니다)</li>
+ *     <li>사본은 사용자 키와 겹치지 않도록 예약된 {@code .encoded/{key}.gz}에 저장하며, 원본보다
+ *     {@code min-ratio} 이상 작아지지 않으면 저장하지 않습니다.</li>
+ *     <li>다운로드 시 {@code Accept-Encoding}이 gzip을 허용하면 사본을 {@code Content-Encoding: gzip}으로 그대로
+ *     (sendfile 포함) 전송합니다. 요청마다 압축하지 않습니다.</li>
+ *     <li>사본을 만든 원본의 ETag는 gzip 헤더의 주석(FCOMMENT)에 기록합니다. 다운로드 시 지금 원본의 ETag와 같을 때만
+ *     사본을 사용하므로 수정 시각의 정밀도와 관계없이 이전 원본의 사본을 보내지 않습니다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.precompression", name = "enabled", havingValue = "true")
+public class PrecompressionService implements DisposableBean {
+
+    public static final String GZIP = "gzip";
+
+    private static final String ENCODED_PREFIX = ".encoded/";
+    private static final String GZIP_SUFFIX = ".gz";
+    // RFC 1952: 고정 헤더 10바이트, FLG는 3번째 바이트
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int FLAGS_OFFSET = 3;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    private static final int MAX_COMMENT_BYTES = 512;
+    private static final int MAX_SOURCE_TAGS = 10_000;
+
+    private final StorageBackend storageBackend;
+    private final List<MediaType> contentTypes;
+    private final long minSourceBytes;
+    private final long maxSourceBytes;
+    private final double minRatio;
+    private final int level;
+    private final ThreadPoolExecutor executor;
+    // 사본 경로 -> 사본의 ETag와 헤더에 기록된 원본 ETag. 사본이 바뀌면 헤더를 다시 읽습니다.
+    private final ConcurrentMap<Path, SourceTag> sourceTags = new ConcurrentHashMap<>();
+
+    public PrecompressionService(StorageBackend storageBackend,
+                                 @Value("${app.storage.precompression.content-types:text/*,application/json,application/javascript,application/xml,image/svg+xml}")
+                                 List<String> contentTypes,
+                                 @Value("${app.storage.precompression.min-source-bytes:1KB}") DataSize minSourceBytes,
+                                 @Value("${app.storage.precompression.max-source-bytes:${app.storage.upload.max-file-size:10MB}}")
+                                 DataSize maxSourceBytes,
+                                 @Value("${app.storage.precompression.min-ratio:0.1}") double minRatio,
+                                 @Value("${app.storage.precompression.level:9}") int level,
+                                 @Value("${app.storage.precompression.workers:0}") int workers,
+                                 @Value("${app.storage.precompression.queue-capacity:256}") int queueCapacity) {
+        this.storageBackend = storageBackend;
+        this.contentTypes = contentTypes.stream().map(MediaType::parseMediaType).toList();
+        this.minSourceBytes = minSourceBytes.toBytes();
+        this.maxSourceBytes = maxSourceBytes.toBytes();
+        this.minRatio = minRatio;
+        this.level = level;
+
+        // 압축은 CPU 작업이므로 기본값은 코어 수의 절반입니다. 요청 처리 스레드와 CPU를 나눠 씁니다.
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> Thread.ofPlatform().daemon()
+                .name("storage-precompress-" + threadIndex.incrementAndGet())
+                .priority(Thread.NORM_PRIORITY - 1)
+                .unstarted(runnable),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 객체가 새로 저장된 뒤 호출합니다. 이전 사본을 지우고 새 사본을 백그라운드에서 만듭니다.
+     */
+    public void onStored(String key, long size) throws IOException {
+        if (!isCompressible(FileMetadataCache.resolveContentType(Path.of(key)))) {
+            return;
+        }
+        String encodedKey = encodedKey(key);
+        storageBackend.delete(encodedKey);
+        if (size < minSourceBytes || size > maxSourceBytes) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    compress(key, encodedKey);
+                } catch (NoSuchFileException e) {
+                    // 압축하기 전에 원본이 삭제된 경우
+                } catch (IOException | RuntimeException e) {
+                    log.warn("압축 사본을 만들지 못했습니다: {}: {}", key, e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("압축 큐가 가득 차 압축 사본을 만들지 않습니다: {}", key);
+        }
+    }
+
+    /**
+     * @return 미리 압축해 두는 Content-Type인지 여부
+     */
+    public boolean isCompressible(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (MediaType candidate : contentTypes) {
+            if (candidate.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 키의 gzip 사본이 저장되는 예약 키
+     */
+    public String encodedKey(String key) {
+        return ENCODED_PREFIX + key + GZIP_SUFFIX;
+    }
+
+    /**
+     * @return 원본 ETag에서 만든 gzip 표현의 ETag ({@code "abc"} -> {@code "abc-gzip"})
+     */
+    public static String encodedETag(String eTag) {
+        return eTag.endsWith("\"") ? eTag.substring(0, eTag.length() - 1) + "-" + GZIP + "\"" : eTag + "-" + GZIP;
+    }
+
+    /**
+     * 사본을 만든 원본의 ETag를 반환합니다. 사본의 gzip 헤더를 읽으며, 사본이 바뀌지 않았으면 읽은 값을 재사용합니다.
+     *
+     * @param encodedFile 사본 파일의 메타데이터
+     * @return 원본 ETag, 기록되어 있지 않으면 {@code null}
+     */
+    public String sourceETagOf(Path encoded, FileMetadata encodedFile) throws IOException {
+        SourceTag cached = sourceTags.get(encoded);
+        if (cached != null && cached.encodedETag().equals(encodedFile.eTag())) {
+            return cached.sourceETag();
+        }
+        String sourceETag;
+        try (InputStream in = Files.newInputStream(encoded)) {
+            sourceETag = readComment(in.readNBytes(GZIP_HEADER_SIZE + MAX_COMMENT_BYTES));
+        } catch (NoSuchFileException e) {
+            // stat 이후 사본이 지워진 경우
+            return null;
+        }
+        if (sourceETag != null && (cached != null || sourceTags.size() < MAX_SOURCE_TAGS)) {
+            sourceTags.put(encoded, new SourceTag(encodedFile.eTag(), sourceETag));
+        }
+        return sourceETag;
+    }
+
+    /**
+     * {@code Accept-Encoding} 헤더가 gzip을 허용하는지 확인합니다. ({@code q=0}은 거부, 명시가 없으면 {@code *}를 따름)
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            int semicolon = coding.indexOf(';');
+            String name = (semicolon >= 0 ? coding.substring(0, semicolon) : coding).trim().toLowerCase(Locale.ROOT);
+            boolean accepted = semicolon < 0 || !isZeroQuality(coding.substring(semicolon + 1));
+            if (GZIP.equals(name) || "x-gzip".equals(name)) {
+                return accepted;
+            }
+            if ("*".equals(name)) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void compress(String key, String encodedKey) throws IOException {
+        FileMetadata original = storageBackend.head(key);
+        if (original == null) {
+            throw new NoSuchFileException(key);
+        }
+        if (original.size() < minSourceBytes || original.size() > maxSourceBytes) {
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream((int) Math.max(512, original.size() / 4));
+        try (InputStream source = Channels.newInputStream(storageBackend.get(key, 0, original.size()));
+             GZIPOutputStream gzip = new LeveledGzipOutputStream(compressed, level)) {
+            source.transferTo(gzip);
+        }
+        if (compressed.size() > original.size() * (1 - minRatio)) {
+            log.debug("압축 효과가 작아 사본을 저장하지 않습니다: {} ({} -> {} bytes)", key, original.size(), compressed.size());
+            return;
+        }
+        byte[] encoded = withComment(compressed.toByteArray(), original.eTag());
+        storageBackend.put(encodedKey, Channels.newChannel(new ByteArrayInputStream(encoded)), encoded.length);
+
+        // 압축하는 동안 원본이 교체되었으면 이전 원본으로 만든 사본을 지웁니다. (새 원본의 사본은 다시 만들어집니다)
+        FileMetadata current = storageBackend.head(key);
+        if (current == null || !Objects.equals(current.eTag(), original.eTag())) {
+            storageBackend.delete(encodedKey);
+        }
+    }
+
+    // GZIPOutputStream은 헤더 필드를 쓰지 않으므로 고정 헤더 뒤에 주석을 끼워 넣고 FCOMMENT 플래그를 켭니다.
+    private static byte[] withComment(byte[] gzip, String comment) {
+        byte[] text = comment.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] result = new byte[gzip.length + text.length + 1];
+        System.arraycopy(gzip, 0, result, 0, GZIP_HEADER_SIZE);
+        result[FLAGS_OFFSET] |= FCOMMENT;
+        System.arraycopy(text, 0, result, GZIP_HEADER_SIZE, text.length);
+        System.arraycopy(gzip, GZIP_HEADER_SIZE, result, GZIP_HEADER_SIZE + text.length + 1,
+            gzip.length - GZIP_HEADER_SIZE);
+        return result;
+    }
+
+    // 이 서비스가 쓴 헤더만 읽습니다. (FEXTRA, FNAME 없이 FCOMMENT만 있음)
+    private static String readComment(byte[] header) {
+        if (header.length <= GZIP_HEADER_SIZE || (header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B) {
+            return null;
+        }
+        int flags = header[FLAGS_OFFSET] & 0xFF;
+        if ((flags & FCOMMENT) == 0 || (flags & (FEXTRA | FNAME)) != 0) {
+            return null;
+        }
+        for (int i = GZIP_HEADER_SIZE; i < header.length; i++) {
+            if (header[i] == 0) {
+                return new String(header, GZIP_HEADER_SIZE, i - GZIP_HEADER_SIZE, StandardCharsets.ISO_8859_1);
+            }
+        }
+        return null;
+    }
+
+    private record SourceTag(String encodedETag, String sourceETag) {
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // GZIPOutputStream은 압축 수준을 생성자로 받지 않습니다.
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(level);
+        }
+    }
+}
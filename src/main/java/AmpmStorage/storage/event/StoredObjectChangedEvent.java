@@ -0,0 +1,10 @@
+package AmpmStorage.storage.event;
+
+import java.nio.file.Path;
+
+/**
+ * 저장된 파일이 새로 쓰이거나(덮어쓰기 포함) 삭제되었음을 알립니다.
+ * 리스너는 동기적으로 호출되므로, 업로드 응답 전에 캐시 무효화가 끝납니다.
+ */
+public record StoredObjectChangedEvent(Path path) {
+}
@@ -0,0 +1,72 @@
+package AmpmStorage.storage.index;
+
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileStat;
+import java.util.Objects;
+
+/**
+ * 메타데이터 색인에 보관하는 객체 하나의 정보입니다.
+ *
+ * @param digest       내용의 SHA-256 (16진수), 모르면 {@code null}
+ * @param lastModified 로컬 파일이면 색인할 때 본 파일의 수정 시각, 아니면 저장을 마친 시각
+ * @param owner        키에서 꺼낸 소유자({@code exhibits/images/{userId}/...}의 userId), 없으면 {@code null}
+ * @param width        업로드 검증에서 읽은 이미지 너비(픽셀), 모르면 0
+ * @param height       업로드 검증에서 읽은 이미지 높이(픽셀), 모르면 0
+ * @param fileKey      색인할 때 본 로컬 파일의 file key(inode 등), 모르면 {@code null}
+ */
+public record IndexEntry(String key, long size, String contentType, String digest, long lastModified, String owner,
+                         int width, int height, String fileKey) {
+
+    private static final String OWNED_PREFIX = "exhibits/images/";
+
+    public IndexEntry(String key, long size, String contentType, String digest, long lastModified, String owner) {
+        this(key, size, contentType, digest, lastModified, owner, 0, 0, null);
+    }
+
+    /**
+     * 파일의 stat만으로 항목을 만듭니다. (digest와 이미지 크기는 알 수 없음)
+     */
+    public static IndexEntry of(String key, FileStat stat) {
+        FileMetadata metadata = stat.metadata();
+        return new IndexEntry(key, metadata.size(), metadata.contentType(), null, metadata.lastModified(),
+            ownerOf(key), 0, 0, stat.fileKey());
+    }
+
+    /**
+     * @return 항목이 지금의 파일을 가리키면 {@code true} (크기, 수정 시각, file key가 모두 같음)
+     */
+    public boolean matches(FileStat stat) {
+        return size == stat.metadata().size()
+            && lastModified == stat.metadata().lastModified()
+            && Objects.equals(fileKey, stat.fileKey());
+    }
+
+    /**
+     * @return 같은 내용에 대해 파일의 stat을 새로 기록한 항목
+     */
+    public IndexEntry withStat(FileStat stat) {
+        return new IndexEntry(key, size, contentType, digest, stat.metadata().lastModified(), owner, width, height,
+            stat.fileKey());
+    }
+
+    /**
+     * @return 다운로드 응답에 쓰는 메타데이터. digest가 있으면 그대로 강한 ETag로 사용합니다.
+     */
+    public FileMetadata toMetadata() {
+        String eTag = digest != null
+            ? "\"" + digest + "\""
+            : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        return new FileMetadata(size, lastModified, eTag, contentType);
+    }
+
+    /**
+     * @return 키의 소유자, 사용자별 경로가 아니면 {@code null}
+     */
+    public static String ownerOf(String key) {
+        if (!key.startsWith(OWNED_PREFIX)) {
+            return null;
+        }
+        int end = key.indexOf('/', OWNED_PREFIX.length());
+        return end < 0 ? null : key.substring(OWNED_PREFIX.length(), end);
+    }
+}
@@ -0,0 +1,95 @@
+package AmpmStorage.storage.index;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.cluster.ReplicatedStorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import AmpmStorage.storage.service.FileStat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 색인을 처음 켰을 때(또는 색인 디렉터리를 지운 뒤) 저장소에 이미 있던 객체를 백그라운드에서 색인에 불러옵니다.
+ * <p>
+ * 업로드는 저장이 끝난 뒤에만 색인을 갱신하므로, 색인을 켜기 전에 저장된 객체는 이 과정이 없으면 목록에 나오지
+ * 않습니다. 불러오는 동안 {@link ObjectListingService}는 저장소 목록을 읽습니다. 다 불러오면 색인 디렉터리에
+ * {@code populated} 파일을 남기므로 다음 시작부터는 다시 훑지 않습니다. 도중에 실패하면 다음 시작 시 다시
+ * 시도하며, 이미 색인에 있는 키(업로드가 기록한 항목 포함)는 건너뜁니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.index", name = "enabled", havingValue = "true")
+public class IndexLoader {
+
+    private final StorageBackend storageBackend;
+    private final MetadataIndex metadataIndex;
+    private final FileMetadataCache metadataCache;
+
+    public IndexLoader(StorageBackend storageBackend, MetadataIndex metadataIndex, FileMetadataCache metadataCache) {
+        // 클러스터 모드에서 색인은 이 노드가 보관하는 객체만 담습니다.
+        this.storageBackend = storageBackend instanceof ReplicatedStorageBackend replicatedStorageBackend
+            ? replicatedStorageBackend.local()
+            : storageBackend;
+        this.metadataIndex = metadataIndex;
+        this.metadataCache = metadataCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (metadataIndex.isPopulated()) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("storage-index-loader").start(() -> {
+            try {
+                load();
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("기존 객체를 색인에 불러오지 못했습니다. 목록은 계속 저장소에서 읽습니다.", e);
+            }
+        });
+    }
+
+    /**
+     * @return 새로 색인한 객체 수
+     */
+    long load() throws IOException {
+        long startNanos = System.nanoTime();
+        long loaded = 0;
+        for (String key : storageBackend.list("", Integer.MAX_VALUE)) {
+            if (!StorageKeys.isValid(key) || metadataIndex.get(key) != null) {
+                continue;
+            }
+            IndexEntry entry = entryOf(key);
+            if (entry != null && metadataIndex.putIfAbsent(entry)) {
+                loaded++;
+            }
+        }
+        // 한 건씩 fsync하지 않았으므로 스냅샷으로 내려 쓴 뒤에 완료를 표시합니다.
+        metadataIndex.compact();
+        metadataIndex.markPopulated();
+        log.info("기존 객체를 색인에 불러왔습니다: {}개 ({}ms)", loaded,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return loaded;
+    }
+
+    // 목록을 읽은 뒤 삭제된 객체이면 null
+    private IndexEntry entryOf(String key) throws IOException {
+        Path local = storageBackend.localPath(key);
+        if (local != null) {
+            FileStat stat = metadataCache.stat(local);
+            return stat != null ? IndexEntry.of(key, stat) : null;
+        }
+        FileMetadata metadata = storageBackend.head(key);
+        return metadata != null
+            ? new IndexEntry(key, metadata.size(), metadata.contentType(), null, metadata.lastModified(),
+                IndexEntry.ownerOf(key))
+            : null;
+    }
+}
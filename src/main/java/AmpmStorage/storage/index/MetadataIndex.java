@@ -0,0 +1,456 @@
+package AmpmStorage.storage.index;
+
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import AmpmStorage.storage.service.FileStat;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 저장된 객체의 메타데이터(크기, Content-Type, digest, 수정 시각, 소유자, 이미지 크기)를 보관하는 내장 색인입니다.
+ * <p>
+ * 변경은 저널 파일({@code journal})에 덧붙이기만 하고, 메모리에는 키 순서로 정렬된 맵을 유지하여 조회와 접두어 목록을
+ * 디스크 접근 없이 처리합니다. 저널이 {@code app.storage.index.compact-threshold}개를 넘으면 현재 맵을 스냅샷
+ * ({@code snapshot})으로 쓰고 저널을 비웁니다. 시작 시에는 스냅샷을 읽고 저널을 다시 적용한 뒤 곧바로 압축합니다.
+ * <p>
+ * 각 레코드는 길이와 CRC32C를 앞에 두므로, 쓰는 도중 종료되어 잘린 마지막 레코드는 무시합니다.
+ * {@link #put}과 {@link #remove}는 저널을 fsync한 뒤 반환합니다. 동시에 들어온 변경은 한 번의 fsync로 함께
+ * 내려 씁니다. (group commit)
+ * <p>
+ * 색인은 업로드 이후에 갱신되므로 색인에 없는 키는 저장소에서 직접 메타데이터를 읽어야 합니다. 또한 색인 밖에서
+ * 파일이 바뀔 수 있으므로, 로컬 파일은 {@link #metadata(String, Path, FileMetadataCache)}로 파일의 stat과
+ * 맞춰 본 뒤에 사용합니다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.index", name = "enabled", havingValue = "true")
+public class MetadataIndex implements DisposableBean {
+
+    static final String SNAPSHOT_FILE = "snapshot";
+    static final String JOURNAL_FILE = "journal";
+    static final String ROTATED_JOURNAL_FILE = "journal.old";
+    static final String POPULATED_FILE = "populated";
+
+    private static final int SNAPSHOT_MAGIC = 0x414d4958; // "AMIX"
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final long compactThreshold;
+    private final NavigableMap<String, IndexEntry> entries = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    // 저널 쓰기와 맵 갱신은 같은 순서로 일어나야 하므로 함께 잠급니다.
+    private final Object journalLock = new Object();
+    // fsync는 한 번에 하나만 수행합니다. journalLock보다 먼저 잡습니다.
+    private final Object syncLock = new Object();
+    private FileChannel journal;
+    private long journalRecords;
+    // 저널에 쓴 레코드의 일련번호(journalLock)와 fsync까지 마친 일련번호
+    private long appendedSeq;
+    private volatile long syncedSeq;
+    // 저장소에 이미 있던 객체를 모두 불러왔는지 여부 (IndexLoader가 표시)
+    private volatile boolean populated;
+
+    public MetadataIndex(@Value("${app.storage.index.directory:${app.storage.upload-dir}/.index}") String directory,
+                         @Value("${app.storage.index.compact-threshold:100000}") long compactThreshold)
+        throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.compactThreshold = compactThreshold;
+        Files.createDirectories(this.directory);
+
+        long startNanos = System.nanoTime();
+        replay(this.directory.resolve(SNAPSHOT_FILE), true);
+        replay(this.directory.resolve(ROTATED_JOURNAL_FILE), false);
+        replay(this.directory.resolve(JOURNAL_FILE), false);
+        // 아직 아무도 쓰지 않으므로 저널을 모두 스냅샷에 합치고 비웁니다.
+        writeSnapshot();
+        Files.deleteIfExists(this.directory.resolve(ROTATED_JOURNAL_FILE));
+        Files.deleteIfExists(this.directory.resolve(JOURNAL_FILE));
+        this.journal = openJournal();
+        this.populated = Files.exists(this.directory.resolve(POPULATED_FILE));
+        log.info("메타데이터 색인을 불러왔습니다: {}개 ({}ms)", entries.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * @return 색인된 메타데이터, 없으면 {@code null}
+     */
+    public FileMetadata metadata(String key) {
+        IndexEntry entry = entries.get(key);
+        return entry != null ? entry.toMetadata() : null;
+    }
+
+    /**
+     * 로컬 파일의 메타데이터를 색인 항목과 파일의 stat(크기, 수정 시각, file key)을 맞춰 본 뒤 반환합니다.
+     * <ul>
+     *     <li>파일이 없으면 항목을 지우고 {@code null}을 반환합니다.</li>
+     *     <li>파일이 로컬에 쓰이기 전에 기록된 항목(file key 없음)은 크기가 같으면 지금의 파일에 연결합니다.</li>
+     *     <li>그 밖에 디스크와 다른 항목은 stat으로 다시 만듭니다. (digest와 이미지 크기는 버림)</li>
+     * </ul>
+     * 다시 만든 항목은 fsync하지 않습니다. 잃어버려도 다음 조회에서 같은 결과로 다시 만들어집니다.
+     *
+     * @return 파일이 없으면 {@code null}
+     */
+    public FileMetadata metadata(String key, Path file, FileMetadataCache metadataCache) throws IOException {
+        IndexEntry entry = entries.get(key);
+        FileStat stat = metadataCache.stat(file);
+        if (stat == null) {
+            if (entry != null) {
+                replace(key, entry, null);
+            }
+            return null;
+        }
+        if (entry == null) {
+            return stat.metadata();
+        }
+        if (!entry.matches(stat)) {
+            IndexEntry rebuilt = entry.fileKey() == null && stat.fileKey() != null
+                && entry.size() == stat.metadata().size()
+                ? entry.withStat(stat)
+                : IndexEntry.of(key, stat);
+            log.debug("디스크와 다른 색인 항목을 다시 만듭니다: {}", key);
+            replace(key, entry, rebuilt);
+            entry = rebuilt;
+        }
+        if (entry.digest() != null) {
+            return entry.toMetadata();
+        }
+        FileMetadata metadata = stat.metadata();
+        return new FileMetadata(metadata.size(), metadata.lastModified(), metadata.eTag(), entry.contentType());
+    }
+
+    public IndexEntry get(String key) {
+        return entries.get(key);
+    }
+
+    public void put(IndexEntry entry) throws IOException {
+        ByteBuffer record = encode(PUT, entry.key(), entry);
+        long seq;
+        synchronized (journalLock) {
+            seq = append(record);
+            entries.put(entry.key(), entry);
+        }
+        sync(seq);
+        compactIfNeeded();
+    }
+
+    public void remove(String key) throws IOException {
+        ByteBuffer record = encode(REMOVE, key, null);
+        long seq;
+        synchronized (journalLock) {
+            seq = append(record);
+            entries.remove(key);
+        }
+        sync(seq);
+        compactIfNeeded();
+    }
+
+    /**
+     * 색인에 없는 키만 기록합니다. 저장소의 기존 객체를 불러올 때 사용하며, 업로드가 먼저 기록한 항목을 덮어쓰지
+     * 않습니다. 한 건씩 fsync하지 않으므로 다 불러온 뒤 {@link #compact()}로 스냅샷에 내려 써야 합니다.
+     *
+     * @return 기록했으면 {@code true}
+     */
+    boolean putIfAbsent(IndexEntry entry) throws IOException {
+        ByteBuffer record = encode(PUT, entry.key(), entry);
+        synchronized (journalLock) {
+            if (entries.containsKey(entry.key())) {
+                return false;
+            }
+            append(record);
+            entries.put(entry.key(), entry);
+        }
+        return true;
+    }
+
+    /**
+     * @return 저장소에 이미 있던 객체를 모두 불러왔으면 {@code true}. 그 전에는 색인만으로 목록을 만들 수 없습니다.
+     */
+    public boolean isPopulated() {
+        return populated;
+    }
+
+    void markPopulated() throws IOException {
+        Path marker = directory.resolve(POPULATED_FILE);
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+        populated = true;
+    }
+
+    // 그 사이 다른 변경이 없었을 때만 항목을 바꿉니다. (replacement가 null이면 삭제)
+    private void replace(String key, IndexEntry expected, IndexEntry replacement) throws IOException {
+        ByteBuffer record = encode(replacement != null ? PUT : REMOVE, key, replacement);
+        synchronized (journalLock) {
+            if (entries.get(key) != expected) {
+                return;
+            }
+            append(record);
+            if (replacement != null) {
+                entries.put(key, replacement);
+            } else {
+                entries.remove(key);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * 키 순서로 {@code prefix} 아래의 항목을 {@code after} 다음부터 최대 {@code limit}개 반환합니다.
+     */
+    public ObjectListing list(String prefix, String after, int limit) {
+        NavigableMap<String, IndexEntry> tail = after != null && after.compareTo(prefix) >= 0
+            ? entries.tailMap(after, false)
+            : entries.tailMap(prefix, true);
+        List<IndexEntry> items = new ArrayList<>(Math.min(limit, 1024) + 1);
+        for (IndexEntry entry : tail.values()) {
+            if (!entry.key().startsWith(prefix) || items.size() > limit) {
+                break;
+            }
+            items.add(entry);
+        }
+        if (items.size() <= limit) {
+            return new ObjectListing(items, null);
+        }
+        List<IndexEntry> page = List.copyOf(items.subList(0, limit));
+        return new ObjectListing(page, page.get(limit - 1).key());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // journalLock을 잡은 상태에서 호출합니다.
+    private long append(ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            journal.write(record);
+        }
+        journalRecords++;
+        return ++appendedSeq;
+    }
+
+    /**
+     * {@code seq}번째 레코드까지 디스크에 내려 씁니다. fsync 중에 들어온 레코드는 다음 fsync가 한꺼번에 처리하므로,
+     * 동시에 기록하는 스레드 수와 관계없이 fsync는 한 번에 하나만 일어납니다.
+     */
+    private void sync(long seq) throws IOException {
+        if (syncedSeq >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (journalLock) {
+                channel = journal;
+                target = appendedSeq;
+            }
+            // fsync 동안에는 journalLock을 잡지 않으므로 다른 스레드는 계속 저널에 덧붙입니다.
+            channel.force(false);
+            syncedSeq = target;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (journalRecords < compactThreshold || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("storage-index-compactor").start(() -> {
+            try {
+                compact();
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("메타데이터 색인을 압축하지 못했습니다. 저널은 그대로 유지됩니다.", e);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * 저널을 교체한 뒤 현재 맵을 스냅샷으로 씁니다. 교체 이후의 변경은 새 저널에 남으므로, 스냅샷을 쓰는 동안에도
+     * 업로드를 막지 않습니다. (스냅샷에 일부 반영되어도 시작 시 새 저널을 다시 적용하면 같은 결과가 됩니다)
+     */
+    void compact() throws IOException {
+        Path rotated = directory.resolve(ROTATED_JOURNAL_FILE);
+        // fsync 중인 저널을 닫지 않도록 syncLock을 먼저 잡습니다.
+        synchronized (syncLock) {
+            synchronized (journalLock) {
+                if (Files.exists(rotated)) {
+                    // 이전 압축이 끝나지 못했으면 그 저널이 스냅샷에 반영될 때까지 교체하지 않습니다.
+                    log.warn("이전 색인 압축의 저널이 남아 있습니다: {}", rotated);
+                } else {
+                    journal.force(false);
+                    syncedSeq = appendedSeq;
+                    journal.close();
+                    Files.move(directory.resolve(JOURNAL_FILE), rotated, StandardCopyOption.ATOMIC_MOVE);
+                    journal = openJournal();
+                    journalRecords = 0;
+                }
+            }
+        }
+        writeSnapshot();
+        Files.deleteIfExists(rotated);
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(SNAPSHOT_MAGIC);
+            for (IndexEntry entry : entries.values()) {
+                ByteBuffer record = encode(PUT, entry.key(), entry);
+                out.write(record.array(), 0, record.limit());
+            }
+            data.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(directory.resolve(JOURNAL_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void replay(Path file, boolean snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (snapshot && in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("메타데이터 색인 스냅샷 형식이 올바르지 않습니다: " + file);
+            }
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        throw new EOFException();
+                    }
+                    byte[] payload = in.readNBytes(length);
+                    crc.reset();
+                    crc.update(payload);
+                    if (payload.length != length || (int) crc.getValue() != checksum) {
+                        throw new EOFException();
+                    }
+                    apply(payload);
+                } catch (EOFException e) {
+                    // 기록 도중 종료되어 잘린 마지막 레코드
+                    log.warn("메타데이터 색인의 손상된 끝부분을 무시합니다: {}", file);
+                    return;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // 처음 시작하는 경우
+        }
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        String key = in.readUTF();
+        if (type == REMOVE) {
+            entries.remove(key);
+            return;
+        }
+        long size = in.readLong();
+        String contentType = emptyToNull(in.readUTF());
+        String digest = emptyToNull(in.readUTF());
+        long lastModified = in.readLong();
+        String owner = emptyToNull(in.readUTF());
+        // 이미지 크기와 file key는 나중에 추가된 필드이므로 이전 형식의 레코드에는 없습니다.
+        int width = 0;
+        int height = 0;
+        String fileKey = null;
+        if (in.available() >= 8) {
+            width = in.readInt();
+            height = in.readInt();
+        }
+        if (in.available() > 0) {
+            fileKey = emptyToNull(in.readUTF());
+        }
+        entries.put(key, new IndexEntry(key, size, contentType, digest, lastModified, owner, width, height, fileKey));
+    }
+
+    // [길이][CRC32C][종류, 키, (PUT이면) 크기, Content-Type, digest, 수정 시각, 소유자, 너비, 높이, file key]
+    private static ByteBuffer encode(byte type, String key, IndexEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeUTF(key);
+        if (type == PUT) {
+            out.writeLong(entry.size());
+            out.writeUTF(nullToEmpty(entry.contentType()));
+            out.writeUTF(nullToEmpty(entry.digest()));
+            out.writeLong(entry.lastModified());
+            out.writeUTF(nullToEmpty(entry.owner()));
+            out.writeInt(entry.width());
+            out.writeInt(entry.height());
+            out.writeUTF(nullToEmpty(entry.fileKey()));
+        }
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        int length = record.limit() - 8;
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 8, length);
+        record.putInt(0, length).putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        synchronized (syncLock) {
+            synchronized (journalLock) {
+                journal.force(false);
+                journal.close();
+            }
+        }
+    }
+}
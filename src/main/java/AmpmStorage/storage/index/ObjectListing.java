@@ -0,0 +1,11 @@
+package AmpmStorage.storage.index;
+
+import java.util.List;
+
+/**
+ * 접두어 목록 조회의 한 페이지입니다.
+ *
+ * @param nextAfter 다음 페이지를 받을 때 {@code after}로 넘길 값, 마지막 페이지이면 {@code null}
+ */
+public record ObjectListing(List<IndexEntry> items, String nextAfter) {
+}
@@ -0,0 +1,55 @@
+package AmpmStorage.storage.index;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.cluster.ReplicatedStorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * 접두어 아래의 객체를 키 순서로 나누어 조회합니다.
+ * {@link MetadataIndex}가 켜져 있으면 메모리의 색인만 읽고, 꺼져 있으면 저장소 목록과 메타데이터를 읽습니다.
+ * 색인이 켜져 있어도 {@link IndexLoader}가 기존 객체를 다 불러오기 전에는 저장소 목록을 읽습니다.
+ */
+@Service
+public class ObjectListingService {
+
+    private final StorageBackend storageBackend;
+    private final MetadataIndex metadataIndex;
+
+    public ObjectListingService(StorageBackend storageBackend, ObjectProvider<MetadataIndex> metadataIndex) {
+        this.storageBackend = storageBackend;
+        // 클러스터 모드에서 노드의 색인은 그 노드가 담당하는 키만 담으므로, 모든 노드의 목록을 합쳐 응답합니다.
+        this.metadataIndex = storageBackend instanceof ReplicatedStorageBackend ? null : metadataIndex.getIfAvailable();
+    }
+
+    /**
+     * @param after 이전 페이지의 {@link ObjectListing#nextAfter()}, 첫 페이지이면 {@code null}
+     */
+    public ObjectListing list(String prefix, String after, int limit) throws IOException {
+        if (metadataIndex != null && metadataIndex.isPopulated()) {
+            return metadataIndex.list(prefix, after, limit);
+        }
+
+        // 색인이 없거나 아직 불러오는 중이면 접두어 아래를 모두 훑은 뒤 after 다음부터 메타데이터를 읽습니다.
+        List<String> keys = storageBackend.list(prefix, Integer.MAX_VALUE);
+        List<IndexEntry> items = new ArrayList<>();
+        for (String key : keys) {
+            if (after != null && key.compareTo(after) <= 0) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new ObjectListing(items, items.get(limit - 1).key());
+            }
+            FileMetadata metadata = storageBackend.head(key);
+            if (metadata != null) {
+                items.add(new IndexEntry(key, metadata.size(), metadata.contentType(), null,
+                    metadata.lastModified(), IndexEntry.ownerOf(key)));
+            }
+        }
+        return new ObjectListing(items, null);
+    }
+}
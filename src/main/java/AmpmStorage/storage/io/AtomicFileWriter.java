@@ -0,0 +1,176 @@
+package AmpmStorage.storage.io;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 업로드를 같은 디렉터리의 임시 파일에 쓴 뒤 원자적으로 rename 하여 최종 경로에 반영합니다.
+ * 동시에 다운로드하는 요청은 항상 이전 파일 또는 완성된 새 파일 중 하나만 보게 되며,
+ * 쓰는 도중 장애가 나도 반쯤 쓰인 파일이 최종 경로에 남지 않습니다.
+ * <p>
+ * rename 전후의 fsync 수준은 {@link DurabilityPolicy}로 정합니다.
+ */
+@Slf4j
+@Component
+public class AtomicFileWriter implements DisposableBean {
+
+    /** 쓰는 중인 임시 파일의 접미사. 정리 작업은 이 접미사로 남은 임시 파일을 찾습니다. */
+    public static final String TEMP_SUFFIX = ".upload-tmp";
+
+    private final StreamingFileWriter streamingFileWriter;
+    private final DiskIoLimiter diskIoLimiter;
+    private final DurabilityPolicy durabilityPolicy;
+    private final GroupCommitSyncer groupCommitSyncer;
+
+    public AtomicFileWriter(StreamingFileWriter streamingFileWriter,
+                            DiskIoLimiter diskIoLimiter,
+                            @Value("${app.storage.durability:none}") DurabilityPolicy durabilityPolicy,
+                            @Value("${app.storage.group-commit.max-batch-size:64}") int groupCommitMaxBatchSize,
+                            @Value("${app.storage.group-commit.max-delay:2ms}") Duration groupCommitMaxDelay) {
+        this.streamingFileWriter = streamingFileWriter;
+        this.diskIoLimiter = diskIoLimiter;
+        this.durabilityPolicy = durabilityPolicy;
+        this.groupCommitSyncer = durabilityPolicy == DurabilityPolicy.GROUP_COMMIT
+            ? new GroupCommitSyncer(groupCommitMaxBatchSize, groupCommitMaxDelay)
+            : null;
+    }
+
+    /**
+     * @return 기록한 바이트 수
+     */
+    public long write(ReadableByteChannel source, Path target, long maxBytes) throws IOException {
+        List<Path> createdDirectories = createParentDirectories(target);
+        Path temp = tempSibling(target);
+        try {
+            // 1. 임시 파일에 기록
+            long written = writeContent(source, temp, maxBytes);
+            // 2. 최종 경로로 원자적 rename
+            commit(temp, target, createdDirectories);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 파일에 내용을 쓰고 정책에 맞게 내용을 디스크에 반영합니다. (FSYNC_* 정책이면 닫기 전에 fsync)
+     * 파일을 최종 경로에 반영하는 것은 호출 측의 몫입니다.
+     *
+     * @return 기록한 바이트 수
+     */
+    public long writeContent(ReadableByteChannel source, Path file, long maxBytes) throws IOException {
+        boolean fsyncInline = durabilityPolicy == DurabilityPolicy.FSYNC_FILE
+            || durabilityPolicy == DurabilityPolicy.FSYNC_FILE_AND_DIR;
+        long written = streamingFileWriter.write(source, file, maxBytes, fsyncInline);
+        if (durabilityPolicy == DurabilityPolicy.GROUP_COMMIT) {
+            groupCommitSyncer.sync(file);
+        }
+        return written;
+    }
+
+    /**
+     * 이미 쓰여 닫힌 파일의 내용을 정책에 맞게 디스크에 반영합니다.
+     * 쓴 직후에는 반영 여부를 정할 수 없는 경우(예: 중복 제거)에 사용합니다.
+     */
+    public void syncFile(Path file) throws IOException {
+        if (durabilityPolicy == DurabilityPolicy.NONE) {
+            return;
+        }
+        if (groupCommitSyncer != null) {
+            groupCommitSyncer.sync(file);
+        } else {
+            diskIoLimiter.execute(() -> {
+                GroupCommitSyncer.force(file);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 같은 디렉터리의 임시 파일을 최종 경로로 원자적으로 rename 하고,
+     * rename과 새로 만든 디렉터리를 정책에 맞게 디렉터리 엔트리에 반영합니다.
+     *
+     * @param createdDirectories {@link #createParentDirectories(Path)}가 반환한 목록
+     */
+    public void commit(Path temp, Path target, List<Path> createdDirectories) throws IOException {
+        diskIoLimiter.execute(() -> {
+            move(temp, target);
+            return null;
+        });
+
+        syncDirectory(target.getParent());
+        for (Path created : createdDirectories) {
+            syncDirectory(created.getParent());
+        }
+    }
+
+    /**
+     * 디렉터리 엔트리 변경(rename, link)을 정책에 맞게 디스크에 반영합니다.
+     * 디렉터리 fsync를 요구하지 않는 정책이면 아무것도 하지 않습니다.
+     */
+    public void syncDirectory(Path directory) throws IOException {
+        if (durabilityPolicy != DurabilityPolicy.FSYNC_FILE_AND_DIR
+            && durabilityPolicy != DurabilityPolicy.GROUP_COMMIT) {
+            return;
+        }
+        if (groupCommitSyncer != null) {
+            groupCommitSyncer.sync(directory);
+        } else {
+            diskIoLimiter.execute(() -> {
+                GroupCommitSyncer.force(directory);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 대상 파일의 상위 디렉터리를 만들고, 새로 만들어진 디렉터리 목록을 반환합니다. (가장 바깥쪽이 마지막)
+     */
+    public static List<Path> createParentDirectories(Path target) throws IOException {
+        Path directory = target.getParent();
+        List<Path> missing = new ArrayList<>();
+        for (Path current = directory; current != null && !Files.isDirectory(current); current = current.getParent()) {
+            missing.add(current);
+        }
+        if (!missing.isEmpty()) {
+            Files.createDirectories(directory);
+        }
+        return missing;
+    }
+
+    /**
+     * 대상 파일과 같은 디렉터리에 있는 임시 파일 경로를 만듭니다. 같은 파일 시스템이므로 rename이 원자적입니다.
+     */
+    public static Path tempSibling(Path target) {
+        return target.resolveSibling("." + target.getFileName() + "."
+            + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            log.warn("원자적 rename을 지원하지 않아 일반 이동으로 대체합니다: {}", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (groupCommitSyncer != null) {
+            groupCommitSyncer.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package AmpmStorage.storage.io;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 파일 I/O에 사용하는 direct {@link ByteBuffer} 풀입니다.
+ * <p>
+ * 버퍼 개수에 상한이 있으므로 동시 업로드 수나 파일 크기와 관계없이 I/O 버퍼 메모리는
+ * {@code buffer-size * max-buffers}를 넘지 않습니다. 버퍼는 전송이 끝날 때까지(느린 클라이언트이면 그만큼 오래)
+ * 빌려 가므로, 상한은 기본으로 커넥터의 최대 연결 수({@code server.tomcat.max-connections})와 같게 두어 연결마다
+ * 버퍼 하나를 쓸 수 있게 합니다. 버퍼는 처음 쓸 때 할당하므로 실제 사용량은 동시 전송 수만큼만 늘어납니다.
+ * <p>
+ * 상한에 도달하면 {@code buffer-acquire-timeout-ms}까지 기다린 뒤(기본 0, 기다리지 않음) 503으로 거절합니다.
+ * 앞선 전송이 끝나기를 요청 스레드가 기다리며 붙잡혀 있지 않도록 하기 위함입니다.
+ */
+@Component
+public class DirectBufferPool {
+
+    private final BlockingQueue<ByteBuffer> available = new LinkedBlockingQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final long acquireTimeoutMillis;
+
+    public DirectBufferPool(@Value("${app.storage.io.buffer-size:64KB}") DataSize bufferSize,
+                            @Value("${app.storage.io.max-buffers:${server.tomcat.max-connections:8192}}") int maxBuffers,
+                            @Value("${app.storage.io.buffer-acquire-timeout-ms:0}") long acquireTimeoutMillis) {
+        this.bufferSize = (int) bufferSize.toBytes();
+        this.maxBuffers = maxBuffers;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    /**
+     * @throws BusinessException 상한까지 빌려 가 있어 제한 시간 안에 버퍼를 확보하지 못한 경우 (503)
+     */
+    public ByteBuffer acquire() throws IOException {
+        ByteBuffer buffer = available.poll();
+        if (buffer != null) {
+            return buffer.clear();
+        }
+        if (allocated.incrementAndGet() <= maxBuffers) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        allocated.decrementAndGet();
+
+        try {
+            buffer = acquireTimeoutMillis > 0
+                ? available.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS)
+                : available.poll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("I/O 버퍼를 기다리는 중 인터럽트되었습니다.");
+        }
+        if (buffer == null) {
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE,
+                "동시 전송이 너무 많습니다. 잠시 후 다시 시도해 주세요. (I/O 버퍼 " + maxBuffers + "개 사용 중)");
+        }
+        return buffer.clear();
+    }
+
+    public void release(ByteBuffer buffer) {
+        available.offer(buffer);
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,74 @@
+package AmpmStorage.storage.io;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * 동시에 진행되는 디스크 작업(청크 단위 read/write, fsync, rename) 수를 제한합니다.
+ * <p>
+ * 가상 스레드 모드에서는 요청 수만큼 스레드가 생기므로, 파일 I/O로 블로킹된 가상 스레드를 위해 JDK가
+ * 캐리어 스레드를 늘리다 보면 파일시스템에 요청이 몰립니다. 네트워크를 기다리는 동안에는 허가를 잡지 않고
+ * 실제 디스크 접근 구간에서만 잡으므로, 느린 클라이언트가 허가를 오래 점유하지 않습니다.
+ * {@code app.storage.io.max-concurrent-operations}가 0이면 제한하지 않습니다.
+ */
+@Component
+public class DiskIoLimiter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DiskIoLimiter(@Value("${app.storage.io.max-concurrent-operations:0}") int maxConcurrentOperations,
+                         @Value("${app.storage.io.acquire-timeout-ms:10000}") long acquireTimeoutMillis) {
+        this.permits = maxConcurrentOperations > 0 ? new Semaphore(maxConcurrentOperations) : null;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public static DiskIoLimiter unlimited() {
+        return new DiskIoLimiter(0, 0);
+    }
+
+    public <T> T execute(IoOperation<T> operation) throws IOException {
+        acquire();
+        try {
+            return operation.run();
+        } finally {
+            release();
+        }
+    }
+
+    public void acquire() throws IOException {
+        if (permits == null) {
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("디스크 작업 허가를 기다리는 중 인터럽트되었습니다.");
+        }
+        if (!acquired) {
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, "디스크 작업이 몰려 요청을 처리할 수 없습니다.");
+        }
+    }
+
+    public void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * 허가를 잡은 채로 실행할 디스크 작업.
+     */
+    @FunctionalInterface
+    public interface IoOperation<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package AmpmStorage.storage.io;
+
+/**
+ * 업로드 완료 응답 전에 어느 수준까지 디스크 동기화를 보장할지 정합니다. ({@code app.storage.durability})
+ */
+public enum DurabilityPolicy {
+
+    /** fsync 하지 않습니다. 원자적 rename만 보장합니다. */
+    NONE,
+
+    /** rename 전에 파일 내용을 fsync 합니다. */
+    FSYNC_FILE,
+
+    /** 파일 내용과 rename이 반영된 디렉터리 엔트리까지 fsync 합니다. */
+    FSYNC_FILE_AND_DIR,
+
+    /** FSYNC_FILE_AND_DIR와 같은 보장을 하되, 동시에 들어온 업로드의 fsync를 모아서 처리합니다. */
+    GROUP_COMMIT
+}
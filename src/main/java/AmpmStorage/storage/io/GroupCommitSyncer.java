@@ -0,0 +1,159 @@
+package AmpmStorage.storage.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 여러 업로드의 fsync 요청을 모아 전용 스레드 하나에서 처리합니다.
+ * <p>
+ * 첫 요청이 도착하면 최대 {@code maxDelay} 동안(또는 {@code maxBatchSize}개가 찰 때까지) 요청을 더 모은 뒤
+ * 한 번에 동기화합니다. 같은 경로(주로 같은 상위 디렉터리)는 배치 내에서 한 번만 fsync 하고,
+ * 연달아 호출되는 fsync는 파일시스템 저널 커밋을 공유하므로 동시 업로드가 많을수록 건당 비용이 줄어듭니다.
+ */
+@Slf4j
+public final class GroupCommitSyncer implements AutoCloseable {
+
+    private final BlockingQueue<SyncRequest> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread worker;
+    // 종료 여부 확인과 요청 등록을 함께 잠가 close() 이후에 요청이 큐에 남지 않도록 합니다.
+    private final Object lifecycleLock = new Object();
+    private volatile boolean running = true;
+
+    public GroupCommitSyncer(int maxBatchSize, Duration maxDelay) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.worker = new Thread(this::run, "storage-group-commit");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 경로가 동기화될 때까지 기다립니다.
+     *
+     * @throws IOException 이미 {@link #close()}된 경우
+     */
+    public void sync(Path path) throws IOException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (lifecycleLock) {
+            if (!running) {
+                throw new IOException("group commit이 종료되어 fsync 요청을 받지 않습니다: " + path);
+            }
+            queue.add(new SyncRequest(path, done));
+        }
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("fsync 대기 중 인터럽트되었습니다: " + path);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("fsync에 실패했습니다: " + path, e.getCause());
+        }
+    }
+
+    private void run() {
+        List<SyncRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                SyncRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    SyncRequest next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 이미 모은 요청은 마저 처리합니다.
+                flush(batch);
+            } catch (RuntimeException e) {
+                log.error("group commit 처리 중 오류가 발생했습니다.", e);
+                batch.forEach(request -> request.done().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void flush(List<SyncRequest> batch) {
+        Map<Path, List<CompletableFuture<Void>>> byPath = new LinkedHashMap<>();
+        for (SyncRequest request : batch) {
+            byPath.computeIfAbsent(request.path(), path -> new ArrayList<>()).add(request.done());
+        }
+        byPath.forEach((path, waiters) -> {
+            try {
+                force(path);
+                waiters.forEach(done -> done.complete(null));
+            } catch (IOException e) {
+                UncheckedIOException failure = new UncheckedIOException(e);
+                waiters.forEach(done -> done.completeExceptionally(failure));
+            }
+        });
+    }
+
+    /**
+     * 파일은 내용(fdatasync), 디렉터리는 엔트리를 디스크에 반영합니다.
+     */
+    static void force(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException e) {
+                // 디렉터리 fsync를 지원하지 않는 플랫폼(Windows 등)에서는 건너뜁니다.
+                log.debug("디렉터리 fsync를 건너뜁니다: {} ({})", path, e.getMessage());
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * 새 요청을 더 받지 않고, 대기 중인 요청을 모두 처리한 뒤 스레드를 종료합니다.
+     * 인터럽트하면 진행 중인 FileChannel이 닫히므로 폴링 주기가 끝나기를 기다리며, 시간 안에 처리하지 못한 요청은
+     * 실패로 끝내 호출한 쪽이 계속 기다리지 않게 합니다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (lifecycleLock) {
+            running = false;
+        }
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        UncheckedIOException closed =
+            new UncheckedIOException(new IOException("group commit이 종료되어 fsync하지 못했습니다."));
+        for (SyncRequest request; (request = queue.poll()) != null; ) {
+            request.done().completeExceptionally(closed);
+        }
+    }
+
+    private record SyncRequest(Path path, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,317 @@
+package AmpmStorage.storage.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * multipart/form-data 본문을 점진적으로 읽는 파서입니다.
+ * <p>
+ * 고정 크기 버퍼 하나만 사용하며, 각 파트의 본문은 {@link Part}를 통해 구분자(boundary)를 만날 때까지
+ * 바로 읽어 낼 수 있습니다. 서블릿 컨테이너의 파트 버퍼링(임시 파일/메모리)을 거치지 않습니다.
+ * 한 번에 하나의 파트만 읽을 수 있으며, {@link #nextPart()}를 호출하면 이전 파트의 남은 본문은 버려집니다.
+ */
+public final class MultipartStream {
+
+    private static final int MAX_HEADER_SIZE = 8 * 1024;
+
+    private final InputStream input;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean started;
+    private boolean finished;
+    private Part currentPart;
+
+    public MultipartStream(InputStream input, String boundary, int bufferSize) {
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(bufferSize, delimiter.length * 4)];
+        // 첫 번째 구분자 앞에는 CRLF가 없으므로 미리 채워 두고 동일하게 처리합니다.
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.tail = 2;
+    }
+
+    /**
+     * @return 다음 파트, 마지막 구분자에 도달했으면 {@code null}
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            // 첫 구분자 이전의 preamble은 버립니다.
+            started = true;
+            skipBody();
+        } else if (currentPart != null) {
+            currentPart.drain();
+        }
+        currentPart = null;
+
+        int first = readByte();
+        int second = readByte();
+        if (first == '-' && second == '-') {
+            finished = true;
+            return null;
+        }
+        // 구분자 뒤의 transport padding(공백)은 무시합니다.
+        while (first == ' ' || first == '\t') {
+            first = second;
+            second = readByte();
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("multipart 구분자 형식이 올바르지 않습니다.");
+        }
+
+        currentPart = new Part(readHeaders());
+        return currentPart;
+    }
+
+    private void skipBody() throws IOException {
+        int available;
+        while ((available = availableBody()) >= 0) {
+            head += available;
+        }
+    }
+
+    /**
+     * 현재 위치에서 구분자와 겹치지 않아 바로 읽을 수 있는 본문 바이트 수를 반환합니다.
+     * 구분자에 도달하면 구분자를 소비하고 -1을 반환합니다.
+     */
+    private int availableBody() throws IOException {
+        while (true) {
+            int index = indexOfDelimiter();
+            if (index == head) {
+                head += delimiter.length;
+                return -1;
+            }
+            if (index > head) {
+                return index - head;
+            }
+            // 버퍼 끝부분은 구분자의 앞부분일 수 있으므로 남겨 둡니다.
+            int safe = tail - head - (delimiter.length - 1);
+            if (safe > 0) {
+                return safe;
+            }
+            if (!fill()) {
+                throw new EOFException("multipart 본문이 마지막 구분자 없이 끝났습니다.");
+            }
+        }
+    }
+
+    private int indexOfDelimiter() {
+        byte first = delimiter[0];
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            if (buffer[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = input.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    private int readByte() throws IOException {
+        if (head == tail && !fill()) {
+            throw new EOFException("multipart 본문이 예상보다 일찍 끝났습니다.");
+        }
+        return buffer[head++] & 0xff;
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int total = 0;
+        while (true) {
+            int b = readByte();
+            if (++total > MAX_HEADER_SIZE) {
+                throw new IOException("multipart 파트 헤더가 너무 큽니다.");
+            }
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            if (text.isEmpty()) {
+                return headers;
+            }
+            int colon = text.indexOf(':');
+            if (colon > 0) {
+                headers.put(text.substring(0, colon).trim(), text.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    /**
+     * Content-Disposition 헤더에서 파라미터 값을 꺼냅니다. (예: {@code form-data; name="file"; filename="a.png"})
+     */
+    static String dispositionParameter(String disposition, String parameter) {
+        if (disposition == null) {
+            return null;
+        }
+        int index = 0;
+        int length = disposition.length();
+        while (index < length) {
+            int separator = nextSeparator(disposition, index);
+            String token = disposition.substring(index, separator).trim();
+            int equals = token.indexOf('=');
+            if (equals > 0 && token.substring(0, equals).trim().equalsIgnoreCase(parameter)) {
+                String value = token.substring(equals + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1).replace("\\\"", "\"");
+                }
+                return value;
+            }
+            index = separator + 1;
+        }
+        return null;
+    }
+
+    private static int nextSeparator(String value, int from) {
+        boolean quoted = false;
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' && (i == 0 || value.charAt(i - 1) != '\\')) {
+                quoted = !quoted;
+            } else if (c == ';' && !quoted) {
+                return i;
+            }
+        }
+        return value.length();
+    }
+
+    /**
+     * 하나의 파트. 본문은 {@link ReadableByteChannel} 또는 {@link #getInputStream()}으로 읽습니다.
+     */
+    public final class Part implements ReadableByteChannel {
+
+        private final Map<String, String> headers;
+        private boolean done;
+
+        private Part(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        public String getName() {
+            return dispositionParameter(headers.get("Content-Disposition"), "name");
+        }
+
+        public String getFilename() {
+            return dispositionParameter(headers.get("Content-Disposition"), "filename");
+        }
+
+        public String getContentType() {
+            return headers.get("Content-Type");
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (!dst.hasRemaining()) {
+                return 0;
+            }
+            int available = nextChunk();
+            if (available < 0) {
+                return -1;
+            }
+            int count = Math.min(available, dst.remaining());
+            dst.put(buffer, head, count);
+            head += count;
+            return count;
+        }
+
+        public InputStream getInputStream() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (done) {
+                        return -1;
+                    }
+                    if (len == 0) {
+                        return 0;
+                    }
+                    int available = nextChunk();
+                    if (available < 0) {
+                        return -1;
+                    }
+                    int count = Math.min(available, len);
+                    System.arraycopy(buffer, head, b, off, count);
+                    head += count;
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !done;
+        }
+
+        @Override
+        public void close() {
+            // 남은 본문은 다음 nextPart() 호출 시 버려집니다.
+        }
+
+        private int nextChunk() throws IOException {
+            int available = availableBody();
+            if (available < 0) {
+                done = true;
+            }
+            return available;
+        }
+
+        private void drain() throws IOException {
+            while (!done) {
+                int available = nextChunk();
+                if (available > 0) {
+                    head += available;
+                }
+            }
+        }
+    }
+}
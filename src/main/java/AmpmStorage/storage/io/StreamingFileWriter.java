@@ -0,0 +1,91 @@
+package AmpmStorage.storage.io;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청 본문을 풀에서 빌린 direct 버퍼 하나로 파일에 기록합니다.
+ * 본문 전체를 메모리나 임시 파일에 모으지 않으므로 힙 사용량이 파일 크기와 무관합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamingFileWriter {
+
+    private final DirectBufferPool bufferPool;
+    private final DiskIoLimiter diskIoLimiter;
+
+    /**
+     * @return 기록한 바이트 수
+     */
+    public long write(ReadableByteChannel source, Path target, long maxBytes) throws IOException {
+        return write(source, target, maxBytes, false);
+    }
+
+    /**
+     * @param fsync 닫기 전에 파일 내용을 디스크에 동기화할지 여부
+     * @return 기록한 바이트 수
+     */
+    public long write(ReadableByteChannel source, Path target, long maxBytes, boolean fsync) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        boolean completed = false;
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long written = transfer(source, channel, buffer, maxBytes);
+            if (fsync) {
+                diskIoLimiter.execute(() -> {
+                    channel.force(false);
+                    return null;
+                });
+            }
+            completed = true;
+            return written;
+        } finally {
+            bufferPool.release(buffer);
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    // 네트워크에서 읽는 동안에는 디스크 허가를 잡지 않고, 버퍼가 찰 때마다 기록 구간에서만 잡습니다.
+    private long transfer(ReadableByteChannel source, WritableByteChannel target, ByteBuffer buffer, long maxBytes)
+            throws IOException {
+        long total = 0;
+        int read;
+        while ((read = source.read(buffer)) >= 0) {
+            total += read;
+            if (total > maxBytes) {
+                throw new BusinessException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "파일 크기가 제한(" + maxBytes + " bytes)을 초과했습니다.");
+            }
+            if (!buffer.hasRemaining()) {
+                flush(buffer, target);
+            }
+        }
+        flush(buffer, target);
+        return total;
+    }
+
+    private void flush(ByteBuffer buffer, WritableByteChannel target) throws IOException {
+        buffer.flip();
+        diskIoLimiter.acquire();
+        try {
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        } finally {
+            diskIoLimiter.release();
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,99 @@
+package AmpmStorage.storage.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+
+/**
+ * 업로드/다운로드 경로의 지표입니다. ({@code /actuator/prometheus})
+ * <ul>
+ *     <li>{@code storage.requests}: 지연 시간 히스토그램. {@code direction}(upload/download), {@code endpoint}(URL 패턴),
+ *     {@code outcome}(SUCCESS, REDIRECTION, CLIENT_ERROR, SERVER_ERROR) 태그로 나뉩니다.</li>
+ *     <li>{@code storage.requests.in-flight}: 처리 중인 요청 수</li>
+ *     <li>{@code storage.bytes}: 받은/보낸 본문 바이트 수 ({@code direction}=in/out)</li>
+ * </ul>
+ * 요청 단위 기록은 {@link StorageMetricsFilter}가, 바이트 수는 업로드/다운로드 서비스가 기록합니다.
+ */
+@Component
+public class StorageMetrics {
+
+    private final MeterProvider<Timer> uploadTimers;
+    private final MeterProvider<Timer> downloadTimers;
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+    private final AtomicInteger downloadsInFlight = new AtomicInteger();
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final MeterRegistry registry;
+
+    public StorageMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.uploadTimers = timers(registry, "upload");
+        this.downloadTimers = timers(registry, "download");
+
+        Gauge.builder("storage.requests.in-flight", uploadsInFlight, AtomicInteger::get)
+            .tag("direction", "upload")
+            .description("처리 중인 업로드 요청 수")
+            .register(registry);
+        Gauge.builder("storage.requests.in-flight", downloadsInFlight, AtomicInteger::get)
+            .tag("direction", "download")
+            .description("처리 중인 다운로드 요청 수")
+            .register(registry);
+        this.bytesIn = Counter.builder("storage.bytes")
+            .tag("direction", "in")
+            .baseUnit(BaseUnits.BYTES)
+            .description("저장한 업로드 본문 바이트 수")
+            .register(registry);
+        this.bytesOut = Counter.builder("storage.bytes")
+            .tag("direction", "out")
+            .baseUnit(BaseUnits.BYTES)
+            .description("응답한 다운로드 본문 바이트 수")
+            .register(registry);
+    }
+
+    public Timer.Sample start(boolean upload) {
+        (upload ? uploadsInFlight : downloadsInFlight).incrementAndGet();
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, boolean upload, String endpoint, int status) {
+        (upload ? uploadsInFlight : downloadsInFlight).decrementAndGet();
+        sample.stop((upload ? uploadTimers : downloadTimers).withTags("endpoint", endpoint, "outcome", outcome(status)));
+    }
+
+    public void recordBytesIn(long bytes) {
+        bytesIn.increment(bytes);
+    }
+
+    public void recordBytesOut(long bytes) {
+        bytesOut.increment(bytes);
+    }
+
+    private static MeterProvider<Timer> timers(MeterRegistry registry, String direction) {
+        return Timer.builder("storage.requests")
+            .tag("direction", direction)
+            .description("저장소 요청 처리 시간 (sendfile 전송은 서블릿 반환 시점까지)")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .withRegistry(registry);
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return "SUCCESS";
+    }
+}
@@ -0,0 +1,54 @@
+package AmpmStorage.storage.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * {@code /storage/**} 요청의 처리 시간과 동시 처리 수를 {@link StorageMetrics}에 기록합니다.
+ * 엔드포인트 태그는 매칭된 URL 패턴({@code /storage/{fileId}} 등)을 사용하므로 키마다 지표가 늘어나지 않습니다.
+ * 서명 거절(400/403)과 요청 제한(429)도 기록되도록 다른 저장소 필터보다 먼저 실행됩니다.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@RequiredArgsConstructor
+public class StorageMetricsFilter extends OncePerRequestFilter {
+
+    private static final String STORAGE_PATH = "/storage/";
+    private static final String UNKNOWN_ENDPOINT = "UNKNOWN";
+
+    private final StorageMetrics storageMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+            || !request.getRequestURI().startsWith(STORAGE_PATH, request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean upload = HttpMethod.PUT.matches(request.getMethod()) || HttpMethod.POST.matches(request.getMethod());
+        Timer.Sample sample = storageMetrics.start(upload);
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            storageMetrics.stop(sample, upload, pattern != null ? pattern.toString() : UNKNOWN_ENDPOINT, status);
+        }
+    }
+}
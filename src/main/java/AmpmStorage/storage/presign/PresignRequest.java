@@ -0,0 +1,13 @@
+package AmpmStorage.storage.presign;
+
+import java.util.List;
+
+/**
+ * URL 발급 요청입니다. 같은 메서드와 유효 시간으로 여러 키의 URL을 한 번에 발급합니다.
+ *
+ * @param method           {@code PUT} (업로드) 또는 {@code GET} (다운로드)
+ * @param keys             저장 키 ({@code exhibits/images/{userId}/posts/{uuid}/{fileName}} 또는 {@code fileId})
+ * @param expiresInSeconds 유효 시간(초), 없으면 기본값
+ */
+public record PresignRequest(String method, List<String> keys, Long expiresInSeconds) {
+}
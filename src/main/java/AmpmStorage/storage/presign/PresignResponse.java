@@ -0,0 +1,11 @@
+package AmpmStorage.storage.presign;
+
+import java.util.List;
+
+/**
+ * @param keyId   서명에 쓴 키의 id (URL의 {@code kid})
+ * @param expires 만료 시각 (epoch seconds)
+ * @param urls    요청한 키와 같은 순서의 URL
+ */
+public record PresignResponse(String method, String keyId, long expires, List<PresignedUrl> urls) {
+}
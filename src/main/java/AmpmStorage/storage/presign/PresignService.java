@@ -0,0 +1,150 @@
+package AmpmStorage.storage.presign;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.common.filter.SignedRequestVerifier;
+import AmpmStorage.common.validator.SignatureValidator;
+import AmpmStorage.storage.backend.StorageKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * 저장 키에 대한 Presigned URL을 발급합니다. 다른 백엔드가 이미지마다 URL을 만들러 오가지 않도록 여러 키를 한 번에
+ * 서명하며, 요청 하나에서는 키가 설정된 {@link javax.crypto.Mac}을 한 번만 빌려 씁니다.
+ * <p>
+ * 서명 대상은 {@link SignedRequestVerifier}가 검증하는 URL 경로와 같습니다.
+ * <ul>
+ *     <li>{@code exhibits/images/{userId}/posts/{uuid}/image.png}: PUT은 같은 경로,
+ *     GET은 {@code exhibits/images/{userId}/{uuid}/image.png}</li>
+ *     <li>{@code fileId}: PUT/GET 모두 {@code /storage/{fileId}}</li>
+ * </ul>
+ * 호출 측은 {@code Authorization: Bearer {api-key}}로 인증합니다. 발급한 URL에는 서명한 키의 id({@code kid})가 붙으므로
+ * 비밀 키를 바꾼 뒤에도 이전 키를 {@code app.storage.signing.previous-keys}에 남겨 두면 URL이 만료될 때까지 통과합니다.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.storage.presign", name = "enabled", havingValue = "true")
+public class PresignService {
+
+    private static final Pattern EXHIBIT_KEY = Pattern.compile("exhibits/images/([^/]+)/posts/([^/]+)/([^/]+)");
+    private static final String EXHIBIT_UPLOAD_FILE_NAME = "image.png";
+    private static final String BEARER_PREFIX = "Bearer ";
+    // /storage/ 바로 아래에서 다른 API가 쓰는 경로. 같은 이름의 fileId URL은 다르게 검증되므로 발급하지 않습니다.
+    private static final Set<String> RESERVED_FILE_IDS = Set.of("batch", "list", "uploads", "presign", "internal");
+
+    private final SignatureValidator signatureValidator;
+    private final List<byte[]> apiKeys;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int maxKeys;
+    private final String baseUrl;
+    private final Counter issuedUrls;
+
+    public PresignService(SignatureValidator signatureValidator,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.storage.presign.api-keys:}") List<String> apiKeys,
+                          @Value("${app.storage.presign.default-ttl:10m}") Duration defaultTtl,
+                          @Value("${app.storage.presign.max-ttl:1h}") Duration maxTtl,
+                          @Value("${app.storage.presign.max-keys:1000}") int maxKeys,
+                          @Value("${app.storage.presign.base-url:}") String baseUrl) {
+        this.apiKeys = apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty())
+            .map(key -> key.getBytes(StandardCharsets.UTF_8)).toList();
+        if (this.apiKeys.isEmpty()) {
+            throw new IllegalStateException("app.storage.presign.api-keys를 설정해야 합니다.");
+        }
+        this.signatureValidator = signatureValidator;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.maxKeys = maxKeys;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.issuedUrls = Counter.builder("storage.presign.issued")
+            .description("발급한 Presigned URL 수")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param authorization {@code Authorization} 헤더 값
+     */
+    public void authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new BusinessException(HttpStatus.UNAUTHORIZED, "API 키가 필요합니다.");
+        }
+        byte[] provided = authorization.substring(BEARER_PREFIX.length()).trim().getBytes(StandardCharsets.UTF_8);
+        boolean matched = false;
+        // 어느 키와 일치했는지가 응답 시간으로 드러나지 않도록 모든 키와 상수 시간으로 비교합니다.
+        for (byte[] apiKey : apiKeys) {
+            matched |= MessageDigest.isEqual(apiKey, provided);
+        }
+        if (!matched) {
+            throw new BusinessException(HttpStatus.UNAUTHORIZED, "API 키가 유효하지 않습니다.");
+        }
+    }
+
+    public PresignResponse presign(PresignRequest request) {
+        String method = request.method() != null ? request.method().toUpperCase(Locale.ROOT) : "";
+        if (!"GET".equals(method) && !"PUT".equals(method)) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "method는 GET 또는 PUT이어야 합니다.");
+        }
+        List<String> keys = request.keys();
+        if (keys == null || keys.isEmpty() || keys.size() > maxKeys) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "keys는 1개 이상 " + maxKeys + "개 이하여야 합니다.");
+        }
+        Duration ttl = request.expiresInSeconds() != null ? Duration.ofSeconds(request.expiresInSeconds()) : defaultTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST,
+                "유효 시간은 1초 이상 " + maxTtl.toSeconds() + "초 이하여야 합니다.");
+        }
+
+        List<String> resources = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            resources.add(resourceOf(method, key));
+        }
+        long expires = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        List<String> signatures = signatureValidator.generateSignatures(method, resources, expires);
+
+        String keyId = signatureValidator.keyId();
+        String query = "?expires=" + expires + "&kid=" + UriUtils.encodeQueryParam(keyId, StandardCharsets.UTF_8)
+            + "&signature=";
+        List<PresignedUrl> urls = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            urls.add(new PresignedUrl(keys.get(i), baseUrl + SignedRequestVerifier.STORAGE_PATH
+                + UriUtils.encodePath(resources.get(i), StandardCharsets.UTF_8) + query + signatures.get(i)));
+        }
+        issuedUrls.increment(urls.size());
+        return new PresignResponse(method, keyId, expires, urls);
+    }
+
+    /**
+     * @return 키에 대한 요청 URL의 {@code /storage/} 뒤 경로 (서명 대상)
+     */
+    static String resourceOf(String method, String key) {
+        StorageKeys.validate(key);
+        Matcher exhibit = EXHIBIT_KEY.matcher(key);
+        if (exhibit.matches()) {
+            if ("PUT".equals(method)) {
+                if (!EXHIBIT_UPLOAD_FILE_NAME.equals(exhibit.group(3))) {
+                    throw new BusinessException(HttpStatus.BAD_REQUEST,
+                        "전시 이미지 업로드 URL은 " + EXHIBIT_UPLOAD_FILE_NAME + "만 발급할 수 있습니다: " + key);
+                }
+                return key;
+            }
+            return "exhibits/images/" + exhibit.group(1) + "/" + exhibit.group(2) + "/" + exhibit.group(3);
+        }
+        if (key.indexOf('/') < 0 && !RESERVED_FILE_IDS.contains(key)) {
+            return key;
+        }
+        throw new BusinessException(HttpStatus.BAD_REQUEST, "URL을 발급할 수 없는 키입니다: " + key);
+    }
+}
@@ -0,0 +1,7 @@
+package AmpmStorage.storage.presign;
+
+/**
+ * @param url 서명된 URL. {@code app.storage.presign.base-url}이 없으면 {@code /storage/...} 형태의 상대 경로입니다.
+ */
+public record PresignedUrl(String key, String url) {
+}
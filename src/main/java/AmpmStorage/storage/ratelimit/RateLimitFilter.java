@@ -0,0 +1,208 @@
+package AmpmStorage.storage.ratelimit;
+
+import AmpmStorage.storage.index.IndexEntry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * {@code /storage/**} 요청에 {@link RateLimiter}를 적용합니다.
+ * <p>
+ * 요청 수 제한에 걸리면 429와 {@code Retry-After}로 응답합니다. 바이트 수 제한이 켜져 있으면 요청 본문과 응답 본문
+ * 스트림을 감싸 청크마다 속도를 맞추며, 이때는 커널 sendfile(속도를 맞출 수 없음) 대신 버퍼 복사로 전송합니다.
+ * 사용자는 경로({@code /storage/exhibits/images/{userId}/...})나 {@code prefix}/{@code key} 파라미터에서 찾습니다.
+ * 클러스터 노드 사이의 복제 요청({@code /storage/internal/**})은 제한하지 않습니다.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "app.storage.rate-limit", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String STORAGE_PATH = "/storage/";
+    // 클러스터 노드 사이의 복제 요청은 이미 제한을 거친 클라이언트 요청에서 나온 것이므로 다시 세지 않습니다.
+    private static final String INTERNAL_PATH = "/storage/internal/";
+    // FileDownloadService가 sendfile 사용 여부를 판단하는 속성
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+            || !request.getRequestURI().startsWith(STORAGE_PATH, request.getContextPath().length())
+            || request.getRequestURI().startsWith(INTERNAL_PATH, request.getContextPath().length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = userOf(request);
+        if (!rateLimiter.acquireRequest(userId)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+            return;
+        }
+        if (!rateLimiter.limitsBandwidth(userId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        chain.doFilter(new ThrottledRequest(request, userId), new ThrottledResponse(response, userId));
+    }
+
+    static String userOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + STORAGE_PATH.length());
+        String owner = IndexEntry.ownerOf(path);
+        if (owner == null && request.getParameter("prefix") != null) {
+            owner = IndexEntry.ownerOf(request.getParameter("prefix"));
+        }
+        if (owner == null && request.getParameter("key") != null) {
+            owner = IndexEntry.ownerOf(request.getParameter("key"));
+        }
+        return owner;
+    }
+
+    private final class ThrottledRequest extends HttpServletRequestWrapper {
+
+        private final String userId;
+        private ServletInputStream inputStream;
+
+        ThrottledRequest(HttpServletRequest request, String userId) {
+            super(request);
+            this.userId = userId;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new ThrottledInputStream(super.getInputStream(), userId);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return SENDFILE_SUPPORTED_ATTR.equals(name) ? null : super.getAttribute(name);
+        }
+    }
+
+    private final class ThrottledResponse extends HttpServletResponseWrapper {
+
+        private final String userId;
+        private ServletOutputStream outputStream;
+
+        ThrottledResponse(HttpServletResponse response, String userId) {
+            super(response);
+            this.userId = userId;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new ThrottledOutputStream(super.getOutputStream(), userId);
+            }
+            return outputStream;
+        }
+    }
+
+    // 읽은 만큼 예약하고 기다립니다. (다음 읽기가 늦어지므로 TCP 수신 창을 통해 클라이언트도 느려집니다)
+    private final class ThrottledInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final String userId;
+
+        ThrottledInputStream(ServletInputStream delegate, String userId) {
+            this.delegate = delegate;
+            this.userId = userId;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                rateLimiter.pace(userId, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                rateLimiter.pace(userId, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+
+    private final class ThrottledOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final String userId;
+
+        ThrottledOutputStream(ServletOutputStream delegate, String userId) {
+            this.delegate = delegate;
+            this.userId = userId;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            rateLimiter.pace(userId, 1);
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                rateLimiter.pace(userId, len);
+            }
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package AmpmStorage.storage.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 사용자별({@code exhibits/images/{userId}/...})과 전체 요청 수/전송 바이트 수를 토큰 버킷으로 제한합니다.
+ * <ul>
+ *     <li>요청 수: 토큰이 모자라면 {@code app.storage.rate-limit.max-request-delay}까지는 기다렸다가 처리하고,
+ *     그보다 오래 기다려야 하면 거절합니다. (429)</li>
+ *     <li>바이트 수: 거절하지 않고 읽기/쓰기 청크마다 예약한 만큼 기다려 속도를 맞춥니다.</li>
+ * </ul>
+ * 버킷은 {@link TokenBucket}(CAS 하나)이고 사용자별 버킷은 {@link ConcurrentHashMap}에 나뉘어 있으므로, 제한기 자체가
+ * 경합 지점이 되지 않습니다. 오래 쓰이지 않은 사용자 버킷은 주기적으로 지웁니다.
+ * 결정은 {@code storage.ratelimit.decisions}(scope, limit, outcome), 대기 시간은 {@code storage.ratelimit.delay}로 기록합니다.
+ * 값이 0인 제한은 적용하지 않습니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimiter {
+
+    private final long burstNanos;
+    private final long maxRequestDelayNanos;
+    private final long userRequestsPerSecond;
+    private final long userBytesPerSecond;
+    private final TokenBucket globalRequests;
+    private final TokenBucket globalBytes;
+    private final ConcurrentMap<String, UserBuckets> users = new ConcurrentHashMap<>();
+    private final MeterProvider<Counter> decisions;
+    private final MeterProvider<Timer> delays;
+
+    public RateLimiter(@Value("${app.storage.rate-limit.global.requests-per-second:0}") long globalRequestsPerSecond,
+                       @Value("${app.storage.rate-limit.global.bytes-per-second:0}") DataSize globalBytesPerSecond,
+                       @Value("${app.storage.rate-limit.user.requests-per-second:0}") long userRequestsPerSecond,
+                       @Value("${app.storage.rate-limit.user.bytes-per-second:0}") DataSize userBytesPerSecond,
+                       @Value("${app.storage.rate-limit.burst:1s}") Duration burst,
+                       @Value("${app.storage.rate-limit.max-request-delay:250ms}") Duration maxRequestDelay,
+                       MeterRegistry meterRegistry) {
+        this.burstNanos = burst.toNanos();
+        this.maxRequestDelayNanos = maxRequestDelay.toNanos();
+        this.userRequestsPerSecond = userRequestsPerSecond;
+        this.userBytesPerSecond = userBytesPerSecond.toBytes();
+        this.globalRequests = bucket(globalRequestsPerSecond);
+        this.globalBytes = bucket(globalBytesPerSecond.toBytes());
+        this.decisions = Counter.builder("storage.ratelimit.decisions")
+            .description("요청/전송량 제한 결정 수")
+            .withRegistry(meterRegistry);
+        this.delays = Timer.builder("storage.ratelimit.delay")
+            .description("제한 때문에 기다린 시간")
+            .withRegistry(meterRegistry);
+    }
+
+    /**
+     * 요청 하나를 처리할 수 있을 때까지 기다립니다.
+     *
+     * @param userId 사용자를 알 수 없으면 {@code null} (전체 제한만 적용)
+     * @return 처리해도 되면 {@code true}, 너무 오래 기다려야 해서 거절해야 하면 {@code false}
+     */
+    public boolean acquireRequest(String userId) throws InterruptedIOException {
+        TokenBucket user = userId != null ? buckets(userId).requests() : null;
+        long userWait = reserve(user, 1, maxRequestDelayNanos);
+        if (userWait < 0) {
+            record("user", "requests", "rejected");
+            return false;
+        }
+        long globalWait = reserve(globalRequests, 1, maxRequestDelayNanos);
+        if (globalWait < 0) {
+            if (user != null) {
+                user.refund(1);
+            }
+            record("global", "requests", "rejected");
+            return false;
+        }
+        long wait = Math.max(userWait, globalWait);
+        record("any", "requests", wait > 0 ? "delayed" : "allowed");
+        await("requests", wait);
+        return true;
+    }
+
+    /**
+     * 방금 주고받은(또는 곧 주고받을) 바이트 수만큼 속도를 맞춥니다.
+     */
+    public void pace(String userId, long bytes) throws InterruptedIOException {
+        TokenBucket user = userId != null ? buckets(userId).bytes() : null;
+        long wait = Math.max(reserve(user, bytes, -1), reserve(globalBytes, bytes, -1));
+        if (wait > 0) {
+            record("any", "bytes", "delayed");
+            await("bytes", wait);
+        }
+    }
+
+    /**
+     * @return 바이트 수 제한이 하나라도 켜져 있는지 여부
+     */
+    public boolean limitsBandwidth(String userId) {
+        return globalBytes != null || (userId != null && userBytesPerSecond > 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.rate-limit.idle-cleanup-interval:PT1M}")
+    public void removeIdleUsers() {
+        long now = System.nanoTime();
+        users.values().removeIf(buckets -> buckets.isIdle(now));
+    }
+
+    int trackedUsers() {
+        return users.size();
+    }
+
+    private UserBuckets buckets(String userId) {
+        return users.computeIfAbsent(userId,
+            ignored -> new UserBuckets(bucket(userRequestsPerSecond), bucket(userBytesPerSecond)));
+    }
+
+    private TokenBucket bucket(long perSecond) {
+        return perSecond > 0 ? new TokenBucket(perSecond, burstNanos) : null;
+    }
+
+    private static long reserve(TokenBucket bucket, long tokens, long maxWaitNanos) {
+        return bucket != null ? bucket.reserve(tokens, maxWaitNanos) : 0;
+    }
+
+    private void await(String limit, long waitNanos) throws InterruptedIOException {
+        if (waitNanos <= 0) {
+            return;
+        }
+        delays.withTags("limit", limit).record(waitNanos, TimeUnit.NANOSECONDS);
+        try {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("전송 속도 제한 대기 중 인터럽트되었습니다.");
+        }
+    }
+
+    private void record(String scope, String limit, String outcome) {
+        decisions.withTags("scope", scope, "limit", limit, "outcome", outcome).increment();
+    }
+
+    private record UserBuckets(TokenBucket requests, TokenBucket bytes) {
+
+        boolean isIdle(long now) {
+            return (requests == null || requests.isIdle(now)) && (bytes == null || bytes.isIdle(now));
+        }
+    }
+}
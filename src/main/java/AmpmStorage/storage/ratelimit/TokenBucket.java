@@ -0,0 +1,69 @@
+package AmpmStorage.storage.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 잠금 없이 동작하는 토큰 버킷입니다. (GCRA: 상태는 "버킷이 다시 가득 차는 이론상 시각" 하나)
+ * <p>
+ * 예약은 {@link AtomicLong} 하나에 대한 CAS로 끝나므로 요청 스레드끼리 잠금을 기다리지 않습니다.
+ * 토큰이 모자라면 바로 거절하지 않고, 예약한 양을 쓰기 위해 기다려야 하는 시간을 알려 줍니다.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long tokensPerSecond;
+    private final long burstNanos;
+    // 지금까지 예약된 토큰을 모두 쓸 수 있게 되는 시각 (System.nanoTime 기준)
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param burstNanos 쉬고 있던 버킷이 한 번에 내줄 수 있는 양 (초당 토큰 수 x 이 시간)
+     */
+    TokenBucket(long tokensPerSecond, long burstNanos) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.burstNanos = burstNanos;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * 토큰을 예약합니다.
+     *
+     * @param maxWaitNanos 이보다 오래 기다려야 하면 예약하지 않습니다. 음수이면 얼마든지 기다립니다.
+     * @return 예약한 토큰을 쓰기 전에 기다려야 하는 시간(ns), 예약하지 않았으면 {@code -1}
+     */
+    long reserve(long tokens, long maxWaitNanos) {
+        long cost = costOf(tokens);
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now - burstNanos) + cost;
+            long wait = Math.max(0, next - now);
+            if (maxWaitNanos >= 0 && wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * 예약한 토큰을 돌려줍니다. (다른 버킷에서 거절되어 요청을 처리하지 않는 경우)
+     */
+    void refund(long tokens) {
+        theoreticalArrival.addAndGet(-costOf(tokens));
+    }
+
+    /**
+     * @return 버킷이 가득 차 있어 지워도 동작이 같은지 여부
+     */
+    boolean isIdle(long now) {
+        return theoreticalArrival.get() <= now - burstNanos;
+    }
+
+    private long costOf(long tokens) {
+        // 큰 예약(대용량 파일 한 번에)에서도 long 범위를 넘지 않도록 몫과 나머지를 나눠 계산합니다.
+        return tokens / tokensPerSecond * NANOS_PER_SECOND + tokens % tokensPerSecond * NANOS_PER_SECOND / tokensPerSecond;
+    }
+}
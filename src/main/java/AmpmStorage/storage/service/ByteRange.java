@@ -0,0 +1,58 @@
+package AmpmStorage.storage.service;
+
+/**
+ * 단일 {@code Range: bytes=...} 헤더를 해석한 결과입니다. {@code end}는 포함(inclusive) 위치입니다.
+ * 여러 구간을 요청한 경우는 RFC 9110에 따라 무시하고 전체 본문을 응답합니다.
+ */
+record ByteRange(long start, long end) {
+
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * @return 범위가 없거나 무시해야 하면 {@code null}, 만족할 수 없으면 {@link #UNSATISFIABLE}
+     */
+    static ByteRange parse(String header, long size) {
+        if (header == null || !header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        if (spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // bytes=-N : 마지막 N 바이트
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start < 0 || start >= size) {
+                return UNSATISFIABLE;
+            }
+            if (end < start) {
+                return null;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package AmpmStorage.storage.service;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.cache.CachedObject;
+import AmpmStorage.storage.cache.HotObjectCache;
+import AmpmStorage.storage.cache.MappedRegion;
+import AmpmStorage.storage.cache.MappedRegionPool;
+import AmpmStorage.storage.encoding.PrecompressionService;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.metrics.StorageMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * 저장된 파일을 HTTP 응답으로 내보내는 다운로드 엔진입니다.
+ * <ul>
+ *     <li>If-None-Match / If-Modified-Since 조건부 요청은 캐시된 메타데이터만으로 304를 응답합니다.</li>
+ *     <li>단일 Range 요청은 206 Partial Content로 응답합니다.</li>
+ *     <li>{@link HotObjectCache}가 켜져 있으면 작은 파일은 메모리에서 응답합니다.</li>
+ *     <li>{@link MappedRegionPool}이 켜져 있으면 sendfile로 보내지 않는 응답(sendfile-threshold 미만이거나 sendfile을
+ *     지원하지 않는 커넥터) 중 자주 읽히는 파일은 요청마다 열지 않고 재사용하는 매핑에서 응답합니다.</li>
+ *     <li>Tomcat NIO 커넥터에서는 sendfile로 커널이 직접 전송하고, 그 외에는 풀에서 빌린 direct 버퍼로
+ *     디스크 읽기와 응답 쓰기를 나누어 전송합니다. (스트림 채널로의 transferTo는 어차피 내부 복사 루프가 됩니다)</li>
+ *     <li>로컬 파일이 없는 {@link StorageBackend}(S3 등)는 메타데이터와 본문 구간을 저장소에서 받아 전송합니다.</li>
+ * </ul>
+ * {@link MetadataIndex}가 켜져 있으면 색인된 메타데이터를 먼저 사용하고, 색인에 없을 때만 저장소에서 읽습니다.
+ * {@link PrecompressionService}가 켜져 있으면 {@code Accept-Encoding}에 따라 미리 만든 gzip 사본을 같은 경로로 전송합니다.
+ */
+@Service
+public class FileDownloadService {
+
+    // Tomcat이 sendfile을 지원할 때 노출하는 요청 속성들 (org.apache.catalina.Globals 참고)
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final StorageBackend storageBackend;
+    private final StorageMetrics storageMetrics;
+    private final FileMetadataCache metadataCache;
+    private final DirectBufferPool bufferPool;
+    private final DiskIoLimiter diskIoLimiter;
+    private final HotObjectCache hotObjectCache;
+    private final MappedRegionPool mappedRegionPool;
+    private final MetadataIndex metadataIndex;
+    private final PrecompressionService precompressionService;
+    private final long sendfileThreshold;
+
+    public FileDownloadService(StorageBackend storageBackend,
+                               StorageMetrics storageMetrics,
+                               FileMetadataCache metadataCache,
+                               DirectBufferPool bufferPool,
+                               DiskIoLimiter diskIoLimiter,
+                               ObjectProvider<HotObjectCache> hotObjectCache,
+                               ObjectProvider<MappedRegionPool> mappedRegionPool,
+                               ObjectProvider<MetadataIndex> metadataIndex,
+                               ObjectProvider<PrecompressionService> precompressionService,
+                               @Value("${app.storage.download.sendfile-threshold:48KB}") DataSize sendfileThreshold) {
+        this.hotObjectCache = hotObjectCache.getIfAvailable();
+        this.mappedRegionPool = mappedRegionPool.getIfAvailable();
+        this.metadataIndex = metadataIndex.getIfAvailable();
+        this.precompressionService = precompressionService.getIfAvailable();
+        this.storageBackend = storageBackend;
+        this.storageMetrics = storageMetrics;
+        this.metadataCache = metadataCache;
+        this.bufferPool = bufferPool;
+        this.diskIoLimiter = diskIoLimiter;
+        this.sendfileThreshold = sendfileThreshold.toBytes();
+    }
+
+    /**
+     * 키의 객체를 응답으로 내보냅니다. 로컬 파일 시스템 저장소이면 파일 기반의 빠른 경로(캐시, sendfile)를 사용하고,
+     * 원격 저장소이면 필요한 구간만 받아 풀 버퍼로 흘려 보냅니다.
+     */
+    public void serve(String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = storageBackend.localPath(key);
+        if (file != null) {
+            // 색인은 파일의 stat과 맞춰 본 뒤에만 사용합니다.
+            FileMetadata metadata = metadataIndex != null
+                ? metadataIndex.metadata(key, file, metadataCache)
+                : metadataCache.get(file);
+            if (precompressionService != null && metadata != null && serveEncoded(key, file, metadata, request, response)) {
+                return;
+            }
+            serve(file, metadata, request, response);
+            return;
+        }
+
+        FileMetadata indexed = metadataIndex != null ? metadataIndex.metadata(key) : null;
+        ByteRange body = writeHeaders(indexed != null ? indexed : storageBackend.head(key), request, response);
+        if (body == null) {
+            return;
+        }
+        // 버퍼가 모자라면 객체를 열기 전에 503으로 거절합니다.
+        ByteBuffer buffer = acquireBuffer(response);
+        ReadableByteChannel source;
+        try {
+            source = storageBackend.get(key, body.start(), body.length());
+        } catch (NoSuchFileException e) {
+            // head 이후 객체가 삭제된 경우
+            bufferPool.release(buffer);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+            }
+            return;
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+
+        try (source) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long remaining = body.length();
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = source.read(buffer);
+                if (read < 0) {
+                    throw new EOFException("객체가 예상보다 짧습니다: " + key + " (" + request.getRequestURI() + ")");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                remaining -= read;
+            }
+            storageMetrics.recordBytesOut(body.length());
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * 클라이언트가 gzip을 받을 수 있고 미리 만든 사본이 있으면 사본을 전송합니다. 사본은 별도의 표현이므로 ETag가
+     * 다르고, Range 요청에는 원본으로 응답합니다.
+     *
+     * @return 사본으로 응답했으면 {@code true}
+     */
+    private boolean serveEncoded(String key, Path file, FileMetadata metadata, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (!precompressionService.isCompressible(metadata.contentType())) {
+            return false;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (request.getHeader(HttpHeaders.RANGE) != null
+            || !PrecompressionService.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return false;
+        }
+        Path encoded = storageBackend.localPath(precompressionService.encodedKey(key));
+        FileMetadata encodedFile = encoded != null ? metadataCache.get(encoded) : null;
+        if (encodedFile == null) {
+            return false;
+        }
+        // 사본에 기록된 원본 ETag가 지금 파일의 ETag(색인이 아닌 stat 기준, 사본을 만들 때와 같은 값)와 다르면
+        // 이전 원본의 사본이므로 쓰지 않습니다.
+        FileMetadata source = metadataCache.get(file);
+        if (source == null || !source.eTag().equals(precompressionService.sourceETagOf(encoded, encodedFile))) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, PrecompressionService.GZIP);
+        serve(encoded, new FileMetadata(encodedFile.size(), metadata.lastModified(),
+            PrecompressionService.encodedETag(metadata.eTag()), metadata.contentType()), request, response);
+        return true;
+    }
+
+    private void serve(Path file, FileMetadata metadata, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        ByteRange body = writeHeaders(metadata, request, response);
+        if (body == null) {
+            return;
+        }
+        long size = metadata.size();
+        long start = body.start();
+        long length = body.length();
+        // sendfile은 서블릿 반환 뒤에 전송되므로 응답할 길이로 기록합니다.
+        storageMetrics.recordBytesOut(length);
+
+        // 4. 본문 전송 - 캐시 대상이면 메모리에서, 다음으로 sendfile, 매핑, 버퍼 복사 순으로 전송합니다.
+        if (hotObjectCache != null && hotObjectCache.isCacheable(size)) {
+            CachedObject cached = hotObjectCache.get(file, metadata.eTag());
+            if (cached == null) {
+                cached = loadIntoCache(file, metadata);
+            }
+            if (cached != null) {
+                write(cached.content(), start, length, response);
+                return;
+            }
+        }
+        // sendfile로 보낼 수 있는 크기이면 복사가 없는 sendfile을 우선하고, 매핑은 그보다 작은 응답에만 씁니다.
+        boolean sendfile = length >= sendfileThreshold
+            && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR));
+        if (!sendfile && mappedRegionPool != null && mappedRegionPool.isMappable(size)) {
+            MappedRegion region = mappedRegionPool.get(file, metadata.eTag(), size);
+            if (region != null) {
+                write(region.content(), start, length, response);
+                return;
+            }
+        }
+        if (sendfile) {
+            // 서블릿이 반환된 뒤 Tomcat이 커널 sendfile로 직접 전송합니다.
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + length);
+            return;
+        }
+        transfer(file, start, length, request, response);
+    }
+
+    private static void write(ByteBuffer content, long start, long length, HttpServletResponse response)
+        throws IOException {
+        content.limit((int) (start + length)).position((int) start);
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        while (content.hasRemaining()) {
+            target.write(content);
+        }
+    }
+
+    // 캐시가 승인하고 자리를 예약한 경우에만 파일 전체를 direct 버퍼로 읽어 캐시에 넣습니다.
+    // 승인되지 않았거나 읽는 도중 파일이 바뀌었으면 null을 반환합니다. (mmap, sendfile 등으로 응답)
+    private CachedObject loadIntoCache(Path file, FileMetadata metadata) throws IOException {
+        HotObjectCache.Reservation reservation = hotObjectCache.reserve(file, metadata.size());
+        if (reservation == null) {
+            return null;
+        }
+        boolean committed = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = reservation.buffer();
+            diskIoLimiter.acquire();
+            try {
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // 끝까지 읽습니다.
+                }
+            } finally {
+                diskIoLimiter.release();
+            }
+            if (data.hasRemaining() || channel.size() != metadata.size()) {
+                metadataCache.invalidate(file);
+                return null;
+            }
+            data.flip();
+            committed = true;
+            return reservation.commit(metadata.eTag(), data);
+        } catch (NoSuchFileException e) {
+            metadataCache.invalidate(file);
+            return null;
+        } finally {
+            if (!committed) {
+                reservation.cancel();
+            }
+        }
+    }
+
+    // 디스크에서 풀 버퍼로 읽는 구간에서만 디스크 작업 허가를 잡고, 클라이언트로 쓰는 동안에는 놓습니다.
+    private void transfer(Path file, long start, long length,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 버퍼가 모자라면 파일을 열기 전에 503으로 거절합니다.
+        ByteBuffer buffer = acquireBuffer(response);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // stat 이후 파일이 삭제된 경우
+            bufferPool.release(buffer);
+            metadataCache.invalidate(file);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+            }
+            return;
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+
+        try (channel) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read;
+                diskIoLimiter.acquire();
+                try {
+                    read = channel.read(buffer, position);
+                } finally {
+                    diskIoLimiter.release();
+                }
+                if (read <= 0) {
+                    // 전송 도중 파일이 교체되어 짧아진 경우
+                    metadataCache.invalidate(file);
+                    throw new EOFException("파일이 예상보다 짧습니다: " + file + " (" + request.getRequestURI() + ")");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                position += read;
+                remaining -= read;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    // 응답 헤더를 쓴 뒤에 거절하므로, 오류 응답이 파일의 Content-Length 등을 물려받지 않도록 비웁니다.
+    private ByteBuffer acquireBuffer(HttpServletResponse response) throws IOException {
+        try {
+            return bufferPool.acquire();
+        } catch (BusinessException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 조건부 요청과 Range를 처리하고 응답 헤더를 씁니다.
+     *
+     * @return 본문으로 보낼 구간, 본문 없이 응답이 끝났으면 {@code null} (404, 304/412, 416, HEAD, 빈 파일)
+     */
+    private static ByteRange writeHeaders(FileMetadata metadata, HttpServletRequest request,
+                                          HttpServletResponse response) {
+        if (metadata == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+
+        // 1. 조건부 요청 처리 - 304/412 응답 시 파일에 접근하지 않습니다.
+        if (new ServletWebRequest(request, response).checkNotModified(metadata.eTag(), metadata.lastModified())) {
+            return null;
+        }
+
+        // 2. Range 해석
+        long size = metadata.size();
+        ByteRange range = ifRangeMatches(request, metadata)
+            ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+            : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return null;
+        }
+
+        // 3. 응답 헤더 작성
+        response.setContentType(metadata.contentType());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, metadata.eTag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, metadata.lastModified());
+        if (range != null) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+        ByteRange body = range != null ? range : new ByteRange(0, size - 1);
+        response.setContentLengthLong(body.length());
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || body.length() == 0) {
+            return null;
+        }
+        return body;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, FileMetadata metadata) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(metadata.eTag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == metadata.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
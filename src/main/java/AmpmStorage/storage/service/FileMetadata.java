@@ -0,0 +1,8 @@
+package AmpmStorage.storage.service;
+
+/**
+ * 다운로드 응답에 필요한 파일 메타데이터입니다.
+ * 요청마다 파일을 다시 stat 하지 않도록 {@link FileMetadataCache}에 보관됩니다.
+ */
+public record FileMetadata(long size, long lastModified, String eTag, String contentType) {
+}
@@ -0,0 +1,200 @@
+package AmpmStorage.storage.service;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FileMetadataCache {
+
+    private static final String DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+    private final ConcurrentMap<Path, CachedStat> entries = new ConcurrentHashMap<>();
+    // 적재 순서(CLOCK 대기열). 항목 수가 maxEntries에 닿으면 최근 조회되지 않은 항목부터 제거합니다. (잠금 하에 갱신)
+    private final LinkedHashMap<Path, CachedStat> clock = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // 무효화가 일어날 때마다 증가합니다. stat 도중 무효화가 끼어들면 오래된 값을 캐시에 넣지 않습니다.
+    private final AtomicLong generation = new AtomicLong();
+    // 쓰는 중인 경로 -> 진행 중인 쓰기 수. rename 전후로 이전 파일의 값이 다시 캐시되지 않도록 합니다.
+    private final ConcurrentMap<Path, Integer> writesInProgress = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    // 중복 제거 저장소가 켜져 있으면 블롭의 digest를 ETag로 사용합니다.
+    private final ContentAddressedStore contentAddressedStore;
+
+    public FileMetadataCache(@Value("${app.storage.metadata-cache.max-entries:100000}") int maxEntries,
+                             ObjectProvider<ContentAddressedStore> contentAddressedStore) {
+        this.maxEntries = maxEntries;
+        this.contentAddressedStore = contentAddressedStore.getIfAvailable();
+    }
+
+    /**
+     * 캐시된 메타데이터를 반환합니다. 캐시에 없으면 파일 속성을 한 번만 읽어 채웁니다.
+     *
+     * @return 파일이 없으면 {@code null}
+     */
+    public FileMetadata get(Path file) throws IOException {
+        FileStat stat = stat(file);
+        return stat != null ? stat.metadata() : null;
+    }
+
+    /**
+     * {@link #get(Path)}와 같지만 파일의 file key(inode 등)도 함께 반환합니다. 색인 항목이 지금의 파일을 가리키는지
+     * 확인할 때 사용합니다.
+     *
+     * @return 파일이 없으면 {@code null}
+     */
+    public FileStat stat(Path file) throws IOException {
+        CachedStat cached = entries.get(file);
+        if (cached != null) {
+            cached.referenced = true;
+            return cached.stat;
+        }
+
+        long observedGeneration = generation.get();
+        FileStat loaded = load(file);
+        if (loaded != null) {
+            admit(file, loaded, observedGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * 파일이 새로 쓰이거나 삭제된 뒤 호출하여 이전 메타데이터가 제공되지 않도록 합니다.
+     */
+    public void invalidate(Path file) {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            CachedStat previous = clock.remove(file);
+            if (previous != null) {
+                entries.remove(file, previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 파일을 새로 쓰기(rename) 전에 호출합니다. 캐시된 값을 지우고, {@link #endWrite(Path)}까지는 stat 결과를
+     * 캐시하지 않으므로 rename 직후에도 이전 파일의 크기와 ETag가 제공되지 않습니다.
+     */
+    public void beginWrite(Path file) {
+        writesInProgress.merge(file, 1, Integer::sum);
+        invalidate(file);
+    }
+
+    /**
+     * {@link #beginWrite(Path)}로 시작한 쓰기가 끝났거나 실패한 뒤 호출합니다.
+     */
+    public void endWrite(Path file) {
+        invalidate(file);
+        writesInProgress.computeIfPresent(file, (path, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @EventListener
+    public void onStoredObjectChanged(StoredObjectChangedEvent event) {
+        invalidate(event.path());
+    }
+
+    // 읽는 사이 무효화가 없었고 쓰는 중이 아닐 때만 캐시에 넣습니다. 자리가 없으면 CLOCK 순서로 희생자를 고르되,
+    // 최근 조회된 항목은 한 번 더 기회를 줍니다.
+    private void admit(Path file, FileStat loaded, long observedGeneration) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation.get() != observedGeneration || writesInProgress.containsKey(file)
+                || clock.containsKey(file)) {
+                return;
+            }
+            while (clock.size() >= maxEntries) {
+                Iterator<Map.Entry<Path, CachedStat>> iterator = clock.entrySet().iterator();
+                Map.Entry<Path, CachedStat> head = iterator.next();
+                Path victimPath = head.getKey();
+                CachedStat victim = head.getValue();
+                iterator.remove();
+                if (victim.referenced) {
+                    victim.referenced = false;
+                    clock.put(victimPath, victim);
+                    continue;
+                }
+                entries.remove(victimPath, victim);
+            }
+            CachedStat entry = new CachedStat(loaded);
+            clock.put(file, entry);
+            entries.put(file, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileStat load(Path file) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+
+        long size = attributes.size();
+        String digest = contentAddressedStore != null ? contentAddressedStore.digestOf(attributes) : null;
+        String eTag;
+        if (digest != null) {
+            // 내용의 SHA-256 그대로 강한 ETag로 사용합니다. 같은 내용은 경로가 달라도 같은 ETag를 갖습니다.
+            eTag = "\"" + digest + "\"";
+        } else {
+            long modifiedMicros = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+            // 크기와 수정 시각(마이크로초)으로 강한 ETag를 만듭니다. 파일 내용을 읽지 않습니다.
+            eTag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(modifiedMicros) + "\"";
+        }
+        Object fileKey = attributes.fileKey();
+        return new FileStat(new FileMetadata(size, attributes.lastModifiedTime().toMillis(), eTag,
+            resolveContentType(file)), fileKey != null ? fileKey.toString() : null);
+    }
+
+    public static String resolveContentType(Path file) {
+        String filename = file.getFileName().toString();
+
+        // Presigned 업로드 경로는 항상 "image.png"로 저장됩니다.
+        if ("image.png".equals(filename)) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        // 그 외의 경우, 파일 확장자를 통해 Content-Type을 추측 (디스크 접근 없음)
+        return MediaTypeFactory.getMediaType(filename)
+            .map(MediaType::toString)
+            .orElse(DEFAULT_CONTENT_TYPE);
+    }
+
+    private static final class CachedStat {
+
+        private final FileStat stat;
+        // 적재 이후 조회된 적이 있는지. CLOCK이 지나가면 지웁니다.
+        private volatile boolean referenced;
+
+        private CachedStat(FileStat stat) {
+            this.stat = stat;
+        }
+    }
+}
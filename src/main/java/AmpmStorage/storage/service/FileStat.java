@@ -0,0 +1,10 @@
+package AmpmStorage.storage.service;
+
+/**
+ * 파일 하나의 stat 결과입니다.
+ *
+ * @param metadata 다운로드 응답에 쓰는 메타데이터 ({@code lastModified}는 파일의 수정 시각)
+ * @param fileKey  파일을 식별하는 값(inode 등), 파일 시스템이 제공하지 않으면 {@code null}
+ */
+public record FileStat(FileMetadata metadata, String fileKey) {
+}
@@ -0,0 +1,193 @@
+package AmpmStorage.storage.service;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.ObjectVersion;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.blob.DigestingChannel;
+import AmpmStorage.storage.cluster.ReplicatedStorageBackend;
+import AmpmStorage.storage.encoding.PrecompressionService;
+import AmpmStorage.storage.index.IndexEntry;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.metrics.StorageMetrics;
+import AmpmStorage.storage.validation.InspectingChannel;
+import AmpmStorage.storage.validation.UploadInspection;
+import AmpmStorage.storage.validation.UploadValidator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * 업로드 본문을 저장소에 반영합니다.
+ * <p>
+ * 실제 저장 위치와 방식(원자적 쓰기, 중복 제거, 샤딩, S3 등)은 설정된 {@link StorageBackend}가 정하며,
+ * 저장소는 저장이 끝나면 캐시 무효화 이벤트를 발행합니다.
+ * {@link MetadataIndex}가 켜져 있으면 본문을 읽으면서 SHA-256을 계산하고, 저장이 끝난 뒤 색인에 기록합니다.
+ * 로컬 파일이면 다운로드 시 색인 항목이 지금의 파일을 가리키는지 확인할 수 있도록 파일의 stat도 함께 기록합니다.
+ * {@link PrecompressionService}가 켜져 있으면 저장 후 압축 사본 생성을 예약합니다. (응답을 기다리게 하지 않음)
+ * {@link UploadValidator}가 켜져 있으면 Content-Type을 선언한 이미지 업로드를 저장하면서 검사하고, 판별한 형식과
+ * 이미지 크기, SHA-256을 색인에 기록합니다. (본문은 한 번만 읽음)
+ */
+@Service
+public class FileUploadService {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int DRAIN_BUFFER_SIZE = 64 * 1024;
+
+    private final StorageBackend storageBackend;
+    private final StorageMetrics storageMetrics;
+    private final MetadataIndex metadataIndex;
+    private final PrecompressionService precompressionService;
+    private final UploadValidator uploadValidator;
+    private final FileMetadataCache metadataCache;
+
+    public FileUploadService(StorageBackend storageBackend, StorageMetrics storageMetrics,
+                             FileMetadataCache metadataCache,
+                             ObjectProvider<MetadataIndex> metadataIndex,
+                             ObjectProvider<PrecompressionService> precompressionService,
+                             ObjectProvider<UploadValidator> uploadValidator) {
+        this.storageBackend = storageBackend;
+        this.storageMetrics = storageMetrics;
+        this.metadataCache = metadataCache;
+        this.metadataIndex = metadataIndex.getIfAvailable();
+        this.precompressionService = precompressionService.getIfAvailable();
+        this.uploadValidator = uploadValidator.getIfAvailable();
+    }
+
+    /**
+     * @return 기록한 바이트 수
+     */
+    public long store(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+        return store(storageBackend, key, null, source, body -> storageBackend.put(key, body, maxBytes));
+    }
+
+    /**
+     * 요청이 선언한 Content-Type과 함께 저장합니다. 검사가 켜져 있으면 본문을 저장하면서 검사하고,
+     * 검사에 실패하면 나머지 본문을 읽지 않고 중단합니다.
+     *
+     * @param declaredType 요청의 Content-Type, 모르면 {@code null} (검사하지 않음)
+     * @return 기록한 바이트 수
+     */
+    public long store(String key, String declaredType, ReadableByteChannel source, long maxBytes)
+        throws IOException {
+        return store(storageBackend, key, declaredType, source, body -> storageBackend.put(key, body, maxBytes));
+    }
+
+    /**
+     * 저장소가 본문을 로컬 파일로 직접 받을 수 있으면 그 임시 파일 경로를 반환합니다.
+     * 다 쓴 뒤 {@link #commit(String, String, Path)}로 반영합니다.
+     *
+     * @return 임시 파일 경로, 지원하지 않는 저장소이면 {@code null}
+     */
+    public Path stagingPath(String key) throws IOException {
+        StorageKeys.validate(key);
+        return storageBackend.stagingPath(key);
+    }
+
+    /**
+     * {@link #stagingPath(String)}에 다 쓴 파일을 키에 반영합니다. 검사나 색인이 필요하면 파일을 한 번 읽고,
+     * 내용은 다시 쓰지 않고 rename 합니다.
+     *
+     * @param declaredType 요청의 Content-Type, 모르면 {@code null} (검사하지 않음)
+     * @return 반영한 바이트 수
+     */
+    public long commit(String key, String declaredType, Path staged) throws IOException {
+        try (FileChannel source = FileChannel.open(staged, StandardOpenOption.READ)) {
+            return store(storageBackend, key, declaredType, source, body -> {
+                if (body != source) {
+                    // 검사/digest 채널은 읽으면서 계산하므로 끝까지 읽습니다.
+                    drain(body);
+                }
+                return storageBackend.commit(key, staged);
+            });
+        }
+    }
+
+    /**
+     * 클러스터의 다른 노드가 보낸 {@code version}의 복제본을 이 노드에만 저장합니다. (다시 다른 노드로 전달하지 않음)
+     * 같거나 더 새 버전이 이미 있으면 409로 거절하며, 색인과 압축 사본도 건드리지 않습니다.
+     *
+     * @return 기록한 바이트 수
+     */
+    public long storeReplica(String key, ReadableByteChannel source, long maxBytes, ObjectVersion version)
+        throws IOException {
+        if (!(storageBackend instanceof ReplicatedStorageBackend replicatedStorageBackend)) {
+            throw new BusinessException(HttpStatus.NOT_FOUND, "클러스터 모드가 아닙니다.");
+        }
+        // 업로드를 받은 노드에서 이미 검사했으므로 다시 검사하지 않습니다.
+        StorageBackend target = replicatedStorageBackend.replicaTarget(version);
+        return store(target, key, null, source, body -> target.put(key, body, maxBytes));
+    }
+
+    // 색인과 압축 사본은 이 노드가 보관하는 키에 대해서만 만듭니다. (클러스터에서 담당 노드가 아니면 건너뜀)
+    private long store(StorageBackend target, String key, String declaredType, ReadableByteChannel source,
+                       BodyWriter writer) throws IOException {
+        StorageKeys.validate(key);
+        boolean owned = target.ownsKey(key);
+        long written;
+        if (uploadValidator != null && declaredType != null) {
+            // 검사 채널이 형식 판별과 SHA-256 계산을 함께 하므로 DigestingChannel을 따로 두지 않습니다.
+            InspectingChannel inspecting = uploadValidator.inspect(declaredType, source);
+            written = writer.write(inspecting);
+            storageMetrics.recordBytesIn(written);
+            if (metadataIndex != null && owned) {
+                UploadInspection inspection = inspecting.inspection();
+                metadataIndex.put(withLocalStat(target, new IndexEntry(key, written, inspection.contentType(),
+                    inspection.digest(), System.currentTimeMillis(), IndexEntry.ownerOf(key), inspection.width(),
+                    inspection.height(), null)));
+            }
+        } else if (metadataIndex == null || !owned) {
+            written = writer.write(source);
+            storageMetrics.recordBytesIn(written);
+        } else {
+            MessageDigest digest = newDigest();
+            written = writer.write(new DigestingChannel(source, digest));
+            storageMetrics.recordBytesIn(written);
+            metadataIndex.put(withLocalStat(target, new IndexEntry(key, written,
+                FileMetadataCache.resolveContentType(Path.of(key)), HEX.formatHex(digest.digest()),
+                System.currentTimeMillis(), IndexEntry.ownerOf(key))));
+        }
+        if (precompressionService != null && owned) {
+            precompressionService.onStored(key, written);
+        }
+        return written;
+    }
+
+    // 방금 쓴 로컬 파일의 수정 시각과 file key를 기록합니다. 아직 로컬에 없으면(지연 기록 등) 그대로 두고,
+    // 다운로드 시 처음 본 파일에 연결합니다.
+    private IndexEntry withLocalStat(StorageBackend target, IndexEntry entry) throws IOException {
+        Path local = target.localPath(entry.key());
+        FileStat stat = local != null ? metadataCache.stat(local) : null;
+        return stat != null && stat.metadata().size() == entry.size() ? entry.withStat(stat) : entry;
+    }
+
+    private static void drain(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(DRAIN_BUFFER_SIZE);
+        while (channel.read(buffer.clear()) >= 0) {
+            // 읽기만 합니다.
+        }
+    }
+
+    // 본문 채널을 저장소에 기록합니다. (put 또는 임시 파일 반영)
+    @FunctionalInterface
+    private interface BodyWriter {
+        long write(ReadableByteChannel body) throws IOException;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package AmpmStorage.storage.service;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.metrics.StorageMetrics;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux 모드의 다운로드 엔진입니다. {@link FileDownloadService}와 같은 조건부 요청(304/412)과 단일 Range(206/416)를
+ * 처리합니다.
+ * <ul>
+ *     <li>로컬 파일은 {@link ZeroCopyHttpOutputMessage}(Reactor Netty의 sendfile)로 전송하고, 지원하지 않는 서버에서는
+ *     {@link AsynchronousFileChannel}로 읽어 보냅니다.</li>
+ *     <li>원격 저장소(S3 등)는 필요한 구간만 받아 boundedElastic 스케줄러에서 흘려 보냅니다.</li>
+ * </ul>
+ * 메타데이터 조회(색인, 캐시, stat)는 이벤트 루프를 막지 않도록 boundedElastic 스케줄러에서 실행합니다.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveFileDownloadService {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final StorageBackend storageBackend;
+    private final StorageMetrics storageMetrics;
+    private final FileMetadataCache metadataCache;
+    private final MetadataIndex metadataIndex;
+
+    public ReactiveFileDownloadService(StorageBackend storageBackend,
+                                       StorageMetrics storageMetrics,
+                                       FileMetadataCache metadataCache,
+                                       ObjectProvider<MetadataIndex> metadataIndex) {
+        this.storageBackend = storageBackend;
+        this.storageMetrics = storageMetrics;
+        this.metadataCache = metadataCache;
+        this.metadataIndex = metadataIndex.getIfAvailable();
+    }
+
+    public Mono<Void> serve(String key, ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> locate(key))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(target -> write(key, target, exchange))
+            .switchIfEmpty(Mono.defer(() -> {
+                exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+                return exchange.getResponse().setComplete();
+            }));
+    }
+
+    // 객체가 없으면 null (빈 Mono)
+    private Target locate(String key) throws IOException {
+        Path file = storageBackend.localPath(key);
+        if (file != null) {
+            // 색인은 파일의 stat과 맞춰 본 뒤에만 사용합니다.
+            FileMetadata metadata = metadataIndex != null
+                ? metadataIndex.metadata(key, file, metadataCache)
+                : metadataCache.get(file);
+            return metadata != null ? new Target(file, metadata) : null;
+        }
+        FileMetadata indexed = metadataIndex != null ? metadataIndex.metadata(key) : null;
+        FileMetadata metadata = indexed != null ? indexed : storageBackend.head(key);
+        return metadata != null ? new Target(null, metadata) : null;
+    }
+
+    private Mono<Void> write(String key, Target target, ServerWebExchange exchange) {
+        FileMetadata metadata = target.metadata();
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+
+        // 1. 조건부 요청 처리 - 304/412 응답 시 파일에 접근하지 않습니다.
+        if (exchange.checkNotModified(metadata.eTag(), Instant.ofEpochMilli(metadata.lastModified()))) {
+            return response.setComplete();
+        }
+
+        // 2. Range 해석
+        long size = metadata.size();
+        HttpHeaders headers = response.getHeaders();
+        ByteRange range = ifRangeMatches(request.getHeaders(), metadata)
+            ? ByteRange.parse(request.getHeaders().getFirst(HttpHeaders.RANGE), size)
+            : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return response.setComplete();
+        }
+
+        // 3. 응답 헤더 작성
+        headers.setContentType(MediaType.parseMediaType(metadata.contentType()));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(metadata.eTag());
+        headers.setLastModified(metadata.lastModified());
+        if (range != null) {
+            response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+        ByteRange body = range != null ? range : new ByteRange(0, size - 1);
+        headers.setContentLength(body.length());
+        if (HttpMethod.HEAD.equals(request.getMethod()) || body.length() == 0) {
+            return response.setComplete();
+        }
+
+        // 4. 본문 전송
+        storageMetrics.recordBytesOut(body.length());
+        Path file = target.file();
+        if (file != null && response instanceof ZeroCopyHttpOutputMessage zeroCopy) {
+            return zeroCopy.writeWith(file, body.start(), body.length());
+        }
+        Flux<DataBuffer> content = file != null
+            ? DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ), body.start(),
+                response.bufferFactory(), READ_BUFFER_SIZE)
+            : DataBufferUtils.readByteChannel(() -> storageBackend.get(key, body.start(), body.length()),
+                response.bufferFactory(), READ_BUFFER_SIZE).subscribeOn(Schedulers.boundedElastic());
+        return response.writeWith(DataBufferUtils.takeUntilByteCount(content, body.length()));
+    }
+
+    private static boolean ifRangeMatches(HttpHeaders headers, FileMetadata metadata) {
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(metadata.eTag());
+        }
+        try {
+            return headers.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == metadata.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param file 로컬 파일, 원격 저장소이면 {@code null}
+     */
+    private record Target(Path file, FileMetadata metadata) {
+    }
+}
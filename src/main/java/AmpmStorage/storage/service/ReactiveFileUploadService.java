@@ -0,0 +1,128 @@
+package AmpmStorage.storage.service;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageKeys;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux 모드의 업로드 경로입니다.
+ * <p>
+ * 요청 본문({@link DataBuffer})을 {@link AsynchronousFileChannel}로 저장소가 정한 임시 파일(대상 경로 옆)에 직접
+ * 기록합니다. 디스크 쓰기가 끝나야 다음 버퍼를 요청하므로(backpressure) 느린 클라이언트가 스레드를 점유하지 않고,
+ * 메모리에 본문이 쌓이지도 않습니다. 기록한 버퍼는 바로 풀에 돌려줍니다. 본문을 다 받은 뒤에만
+ * {@link FileUploadService}로 임시 파일을 rename 하여 반영하며(색인/지표 포함), 이 단계는 boundedElastic 스케줄러에서
+ * 실행합니다.
+ * <p>
+ * 로컬 파일로 받을 수 없는 저장소(S3, 클러스터, 지연 기록 등)이면 {@code {upload-dir}/.incoming}에 받은 뒤 저장소에
+ * 복사합니다.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveFileUploadService {
+
+    static final String INCOMING_DIRECTORY = ".incoming";
+
+    private final FileUploadService fileUploadService;
+    private final Path incomingDirectory;
+
+    public ReactiveFileUploadService(FileUploadService fileUploadService,
+                                     @Value("${app.storage.upload-dir}") String uploadDir) throws IOException {
+        this.fileUploadService = fileUploadService;
+        this.incomingDirectory = Files.createDirectories(
+            Paths.get(uploadDir).toAbsolutePath().normalize().resolve(INCOMING_DIRECTORY));
+    }
+
+    /**
+     * @return 기록한 바이트 수
+     */
+    public Mono<Long> store(String key, Flux<DataBuffer> body, long maxBytes) {
+        return store(key, null, body, maxBytes);
+    }
+
+    /**
+     * 요청이 선언한 Content-Type과 함께 저장합니다. 업로드 검사는 본문을 다 받은 뒤 저장소에 반영하는 단계에서
+     * {@link FileUploadService}가 처리합니다.
+     *
+     * @param declaredType 요청의 Content-Type, 모르면 {@code null}
+     * @return 기록한 바이트 수
+     */
+    public Mono<Long> store(String key, String declaredType, Flux<DataBuffer> body, long maxBytes) {
+        StorageKeys.validate(key);
+        return Mono.fromCallable(() -> fileUploadService.stagingPath(key))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(staged -> receive(body, staged, maxBytes)
+                .then(Mono.fromCallable(() -> fileUploadService.commit(key, declaredType, staged))
+                    .subscribeOn(Schedulers.boundedElastic()))
+                .doFinally(signal -> deleteQuietly(staged)))
+            .switchIfEmpty(Mono.defer(() -> {
+                Path incoming = incomingDirectory.resolve(UUID.randomUUID().toString());
+                return receive(body, incoming, maxBytes)
+                    .then(Mono.fromCallable(() -> {
+                        try (FileChannel source = FileChannel.open(incoming, StandardOpenOption.READ)) {
+                            return fileUploadService.store(key, declaredType, source, maxBytes);
+                        }
+                    }).subscribeOn(Schedulers.boundedElastic()))
+                    .doFinally(signal -> deleteQuietly(incoming));
+            }));
+    }
+
+    // DataBufferUtils.write는 기록한 버퍼를 그대로 내보내고 해제는 호출 측에 맡기므로 여기서 돌려줍니다.
+    // (Reactor Netty의 버퍼는 풀에서 빌린 것이라 해제하지 않으면 본문 크기만큼 새어 나갑니다)
+    static Mono<Void> receive(Flux<DataBuffer> body, Path file, long maxBytes) {
+        return Mono.using(
+            () -> AsynchronousFileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+            channel -> DataBufferUtils.write(limit(body, maxBytes), channel)
+                .doOnNext(DataBufferUtils.releaseConsumer())
+                .then(),
+            ReactiveFileUploadService::close);
+    }
+
+    private static Flux<DataBuffer> limit(Flux<DataBuffer> body, long maxBytes) {
+        AtomicLong received = new AtomicLong();
+        return body.handle((buffer, sink) -> {
+            if (received.addAndGet(buffer.readableByteCount()) > maxBytes) {
+                DataBufferUtils.release(buffer);
+                sink.error(new BusinessException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "파일 크기가 제한(" + maxBytes + " bytes)을 초과했습니다."));
+                return;
+            }
+            sink.next(buffer);
+        });
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("임시 업로드 파일을 지우지 못했습니다: {}: {}", file, e.toString());
+        }
+    }
+}
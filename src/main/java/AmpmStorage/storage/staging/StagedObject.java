@@ -0,0 +1,163 @@
+package AmpmStorage.storage.staging;
+
+import AmpmStorage.storage.service.FileMetadata;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스테이징된 업로드 하나입니다. 내용은 {@link StagingLog}에 기록되어 있고, 받을 때 쓴 {@link StagingArea}의 조각이
+ * 남아 있으면 읽기 캐시로 사용합니다.
+ * <p>
+ * 조각은 참조가 모두 풀려야 영역으로 돌아갑니다. 처음 참조는 캐시 자신의 것 하나이며, 읽는 쪽은 조각 채널을 닫을 때
+ * 참조를 돌려줍니다. 영역이 부족하면 {@link #evict()}로 캐시를 내려놓고, 그 뒤에는 로그에서 읽습니다.
+ * 로그 세그먼트는 {@link #discard()}할 때까지 붙잡습니다.
+ */
+final class StagedObject {
+
+    private final String key;
+    private final FileMetadata metadata;
+    private final StagingLog log;
+    private final StagingLog.Location location;
+    private final List<ByteBuffer> chunks;
+    private final int chunkSize;
+    private final StagingArea area;
+    private final boolean holdsSlot;
+    private final AtomicInteger chunkReferences;
+    private final AtomicBoolean cached;
+    private final AtomicBoolean logged = new AtomicBoolean(true);
+
+    /**
+     * @param chunks    받을 때 쓴 조각, 로그에서 복원한 업로드이면 {@code null}
+     * @param holdsSlot 대기열 자리를 차지하고 있으면 {@code true} (복원한 업로드는 자리 없이 대기열에 넣음)
+     */
+    StagedObject(String key, FileMetadata metadata, StagingLog log, StagingLog.Location location,
+                 List<ByteBuffer> chunks, int chunkSize, StagingArea area, boolean holdsSlot) {
+        this.key = key;
+        this.metadata = metadata;
+        this.log = log;
+        this.location = location;
+        this.chunks = chunks;
+        this.chunkSize = chunkSize;
+        this.area = area;
+        this.holdsSlot = holdsSlot;
+        this.chunkReferences = new AtomicInteger(chunks != null ? 1 : 0);
+        this.cached = new AtomicBoolean(chunks != null);
+    }
+
+    String key() {
+        return key;
+    }
+
+    FileMetadata metadata() {
+        return metadata;
+    }
+
+    long size() {
+        return metadata.size();
+    }
+
+    boolean holdsSlot() {
+        return holdsSlot;
+    }
+
+    /**
+     * 캐시된 조각을 내려놓습니다. 읽는 중인 채널이 있으면 그 채널을 닫을 때 영역으로 돌아갑니다.
+     */
+    void evict() {
+        if (cached.compareAndSet(true, false)) {
+            releaseChunks();
+        }
+    }
+
+    /**
+     * 저장소에 기록했거나 더 새 내용으로 바뀐 업로드를 버립니다. 로그 세그먼트를 다시 쓸 수 있게 됩니다.
+     */
+    void discard() {
+        evict();
+        if (logged.compareAndSet(true, false)) {
+            location.segment().release();
+        }
+    }
+
+    /**
+     * {@code offset}부터 최대 {@code length} 바이트를 읽는 채널을 엽니다. 조각이 캐시되어 있으면 조각에서, 아니면
+     * 로그에서 읽습니다. 호출 측에서 닫아야 합니다.
+     *
+     * @return 채널, 이미 버려져 로그에서도 읽을 수 없으면 {@code null}
+     */
+    ReadableByteChannel open(long offset, long length) {
+        long position = Math.min(offset, size());
+        long count = Math.max(0, Math.min(length, size() - position));
+        if (retainChunks()) {
+            return new ChunkChannel(position, count);
+        }
+        return log.open(location, position, count);
+    }
+
+    private boolean retainChunks() {
+        int current;
+        do {
+            current = chunkReferences.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!chunkReferences.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void releaseChunks() {
+        if (chunkReferences.decrementAndGet() == 0) {
+            area.release(chunks);
+        }
+    }
+
+    private final class ChunkChannel implements ReadableByteChannel {
+
+        private long position;
+        private long remaining;
+        private boolean open = true;
+
+        private ChunkChannel(long position, long remaining) {
+            this.position = position;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int total = 0;
+            while (remaining > 0 && dst.hasRemaining()) {
+                int inChunk = (int) (position % chunkSize);
+                int count = (int) Math.min(Math.min(chunkSize - inChunk, remaining), dst.remaining());
+                ByteBuffer chunk = chunks.get((int) (position / chunkSize));
+                dst.put(chunk.slice(inChunk, count));
+                position += count;
+                remaining -= count;
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                releaseChunks();
+            }
+        }
+    }
+}
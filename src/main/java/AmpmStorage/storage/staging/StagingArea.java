@@ -0,0 +1,62 @@
+package AmpmStorage.storage.staging;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 업로드 본문을 받아 두는 off-heap 메모리 영역입니다. 본문은 {@link StagingLog}에 기록된 뒤에도 저장소에 기록될
+ * 때까지 읽기 캐시로 남습니다.
+ * <p>
+ * 시작할 때 {@code capacity}만큼의 direct 버퍼를 한 번 할당하고 {@code chunkSize} 조각으로 나누어 링으로 돌려 씁니다.
+ * 조각이 모두 쓰이면 기다리지 않고 {@code null}을 반환하므로 호출 측이 곧바로 거절할 수 있습니다.
+ */
+final class StagingArea {
+
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final int chunkSize;
+    private final int chunks;
+
+    StagingArea(long capacity, int chunkSize) {
+        if (chunkSize <= 0 || capacity < chunkSize) {
+            throw new IllegalArgumentException("capacity는 chunk-size 이상이어야 합니다.");
+        }
+        this.chunkSize = chunkSize;
+        this.chunks = (int) Math.min(capacity / chunkSize, Integer.MAX_VALUE);
+        this.free = new ArrayBlockingQueue<>(chunks);
+        // direct 버퍼 하나의 크기는 int 범위이므로 2GB 단위로 나누어 할당합니다.
+        int perRegion = Integer.MAX_VALUE / chunkSize;
+        for (int allocated = 0; allocated < chunks; ) {
+            int count = Math.min(perRegion, chunks - allocated);
+            ByteBuffer region = ByteBuffer.allocateDirect(count * chunkSize);
+            for (int i = 0; i < count; i++) {
+                free.add(region.slice(i * chunkSize, chunkSize));
+            }
+            allocated += count;
+        }
+    }
+
+    /**
+     * @return 비어 있는 조각, 남은 조각이 없으면 {@code null}
+     */
+    ByteBuffer tryAcquire() {
+        ByteBuffer chunk = free.poll();
+        return chunk != null ? chunk.clear() : null;
+    }
+
+    void release(List<ByteBuffer> used) {
+        used.forEach(free::add);
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    long capacity() {
+        return (long) chunks * chunkSize;
+    }
+
+    long usedBytes() {
+        return (long) (chunks - free.size()) * chunkSize;
+    }
+}
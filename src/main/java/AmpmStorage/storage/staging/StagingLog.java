@@ -0,0 +1,487 @@
+package AmpmStorage.storage.staging;
+
+import AmpmStorage.storage.io.GroupCommitSyncer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * write-behind 업로드를 응답하기 전에 내려 쓰는 append-only 로그입니다.
+ * <p>
+ * 같은 크기의 세그먼트 파일 여러 개를 링으로 돌려 씁니다. 세그먼트는 처음 만들 때 0으로 채워 디스크 공간을 미리
+ * 확보하므로, 기록 도중 공간이 모자라 실패하지 않습니다. 레코드는 잠금 안에서 순서대로 쓰고, fsync는
+ * {@link GroupCommitSyncer}가 동시에 들어온 요청을 모아 한 번에 처리합니다. 호출 측은 fsync가 끝난 뒤에 응답합니다.
+ * <p>
+ * 세그먼트는 가장 오래된 것부터, 그 안의 업로드가 모두 저장소에 기록되거나 더 새 내용으로 바뀐 뒤에만 비웁니다.
+ * 시작 시에는 비어 있지 않은 세그먼트를 사용한 순서대로 읽어 업로드와 삭제 표시를 복원합니다.
+ * <pre>
+ * 세그먼트: [magic][epoch] 레코드...      (epoch 0 = 비어 있음)
+ * 레코드:   [길이][CRC32C][epoch][종류, 키, 수정 시각, 크기, 본문]
+ * </pre>
+ * 레코드마다 세그먼트의 epoch를 기록하므로, 세그먼트를 다시 쓰기 전에 남아 있던 레코드는 복원하지 않습니다.
+ */
+@Slf4j
+final class StagingLog implements AutoCloseable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int SEGMENT_MAGIC = 0x414d5347; // "AMSG"
+    private static final int SEGMENT_HEADER_BYTES = 12;
+    private static final int RECORD_PREFIX_BYTES = 16;
+    // 종류, 키(수정된 UTF-8, 최대 65535바이트), 수정 시각, 크기
+    private static final int MAX_PAYLOAD_HEADER_BYTES = 1 + 2 + 65535 + 16;
+    private static final int IO_CHUNK_BYTES = 64 * 1024;
+
+    /**
+     * 로그에 기록된 본문의 위치입니다.
+     */
+    record Location(Segment segment, long epoch, long offset) {
+    }
+
+    /**
+     * 시작 시 로그에서 복원한 레코드입니다. 업로드({@link #PUT})는 세그먼트를 하나 붙잡고 있으므로,
+     * 더 필요 없으면 {@link Segment#release()}해야 합니다.
+     */
+    record Recovered(byte type, String key, long lastModified, long size, Location location) {
+    }
+
+    private final Segment[] segments;
+    private final long segmentSize;
+    private final GroupCommitSyncer syncer;
+    // 레코드 쓰기와 세그먼트 전환/비우기는 한 번에 하나씩 합니다. (fsync는 잠금 밖에서 기다림)
+    private final Object appendLock = new Object();
+    // 비어 있지 않은 세그먼트에 업로드 레코드가 남아 있는 키 -> 그 세그먼트의 epoch
+    private final Map<String, Long> loggedKeys = new ConcurrentHashMap<>();
+    private final List<Recovered> recovered = new ArrayList<>();
+    private int current;
+    private int oldest;
+    private long lastEpoch;
+
+    StagingLog(Path directory, long capacity, long segmentSize, int groupCommitMaxBatchSize,
+               Duration groupCommitMaxDelay) throws IOException {
+        if (segmentSize < 128 * 1024 || segmentSize >= Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                "app.storage.write-behind.segment-size는 128KB 이상 2GB 미만이어야 합니다: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        int count = (int) Math.max(2, capacity / segmentSize);
+        try (Stream<Path> existing = Files.list(directory)) {
+            count = Math.max(count, (int) existing.filter(StagingLog::isSegmentFile).count());
+        }
+        this.segmentSize = segmentSize;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = Segment.open(i, directory.resolve(String.format("%s%04d%s", SEGMENT_PREFIX, i,
+                SEGMENT_SUFFIX)), segmentSize);
+        }
+        recover();
+        this.syncer = new GroupCommitSyncer(groupCommitMaxBatchSize, groupCommitMaxDelay);
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return 한 레코드에 담을 수 있는 가장 큰 본문 크기
+     */
+    long maxBodySize() {
+        return segmentSize - SEGMENT_HEADER_BYTES - RECORD_PREFIX_BYTES - MAX_PAYLOAD_HEADER_BYTES;
+    }
+
+    /**
+     * 시작 시 복원한 레코드를 기록한 순서대로 반환합니다. 한 번만 호출합니다.
+     */
+    List<Recovered> takeRecovered() {
+        List<Recovered> result = List.copyOf(recovered);
+        recovered.clear();
+        return result;
+    }
+
+    /**
+     * @return 비어 있지 않은 세그먼트에 이 키의 업로드 레코드가 남아 있으면 {@code true}.
+     *         이 키를 로그 밖에서 바꾸거나 지우기 전에 삭제 표시를 남겨야 재시작 시 되살아나지 않습니다.
+     */
+    boolean mayContain(String key) {
+        return loggedKeys.containsKey(key);
+    }
+
+    /**
+     * 레코드를 덧붙이고 디스크에 내려 쓸 때까지 기다립니다. 업로드 레코드는 세그먼트를 하나 붙잡으므로
+     * 더 필요 없으면 {@link Segment#release()}해야 합니다.
+     *
+     * @param body 본문 조각 (position부터 limit까지, 호출 측 버퍼의 position은 바꾸지 않음)
+     * @return 본문의 위치, 로그에 자리가 없으면 {@code null}
+     */
+    Location append(byte type, String key, long lastModified, List<ByteBuffer> body, long size) throws IOException {
+        byte[] header = payloadHeader(type, key, lastModified, size);
+        CRC32C crc = new CRC32C();
+        crc.update(header);
+        for (ByteBuffer chunk : body) {
+            crc.update(chunk.duplicate());
+        }
+        long recordBytes = RECORD_PREFIX_BYTES + header.length + size;
+
+        Segment segment;
+        Location location;
+        synchronized (appendLock) {
+            segment = reserve(recordBytes);
+            if (segment == null) {
+                return null;
+            }
+            long offset = segment.writeOffset;
+            ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX_BYTES)
+                .putInt(header.length + (int) size).putInt((int) crc.getValue()).putLong(segment.epoch).flip();
+            long position = write(segment.channel, prefix, offset);
+            position = write(segment.channel, ByteBuffer.wrap(header), position);
+            location = new Location(segment, segment.epoch, position);
+            for (ByteBuffer chunk : body) {
+                position = write(segment.channel, chunk.duplicate(), position);
+            }
+            segment.writeOffset = offset + recordBytes;
+            if (type == PUT) {
+                segment.retain(segment.epoch);
+                loggedKeys.put(key, segment.epoch);
+            }
+        }
+        try {
+            // 잠금 안에서 앞선 레코드를 모두 쓴 뒤이므로, 이 fsync가 끝나면 앞선 레코드도 디스크에 있습니다.
+            syncer.sync(segment.path);
+        } catch (IOException e) {
+            if (type == PUT) {
+                segment.release();
+            }
+            throw e;
+        }
+        return location;
+    }
+
+    /**
+     * 본문의 {@code position}부터 {@code length} 바이트를 읽는 채널을 엽니다. 닫을 때까지 세그먼트를 비우지 않습니다.
+     *
+     * @return 채널, 세그먼트가 이미 비워졌으면 {@code null}
+     */
+    ReadableByteChannel open(Location location, long position, long length) {
+        Segment segment = location.segment();
+        if (!segment.retain(location.epoch())) {
+            return null;
+        }
+        return new SegmentChannel(segment, location.offset() + position, length);
+    }
+
+    /**
+     * 가장 오래된 세그먼트부터, 남은 업로드가 없는 세그먼트를 비워 다시 쓸 수 있게 합니다.
+     */
+    void recycle() throws IOException {
+        synchronized (appendLock) {
+            while (oldest != current) {
+                Segment segment = segments[oldest];
+                long epoch = segment.epoch;
+                if (!segment.reset()) {
+                    return;
+                }
+                loggedKeys.values().removeIf(value -> value == epoch);
+                oldest = (oldest + 1) % segments.length;
+            }
+        }
+    }
+
+    /**
+     * @return 비어 있지 않은 세그먼트에 기록된 바이트 수
+     */
+    long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            if (segment.epoch != 0) {
+                used += segment.writeOffset;
+            }
+        }
+        return used;
+    }
+
+    // appendLock을 잡은 상태에서 호출합니다.
+    private Segment reserve(long recordBytes) throws IOException {
+        Segment segment = segments[current];
+        if (segment.writeOffset + recordBytes <= segment.size) {
+            return segment;
+        }
+        if (SEGMENT_HEADER_BYTES + recordBytes > segmentSize) {
+            return null;
+        }
+        int next = (current + 1) % segments.length;
+        if (next == oldest) {
+            recycle();
+            if (next == oldest) {
+                return null;
+            }
+        }
+        segments[next].activate(++lastEpoch);
+        current = next;
+        return segments[next];
+    }
+
+    // 비어 있지 않은 세그먼트를 epoch 순으로 읽어 레코드를 복원합니다. 손상되거나 잘린 레코드에서 그 세그먼트를 멈춥니다.
+    private void recover() throws IOException {
+        List<Segment> used = Arrays.stream(segments)
+            .filter(segment -> segment.epoch != 0)
+            .sorted(Comparator.comparingLong(segment -> segment.epoch))
+            .toList();
+        if (used.isEmpty()) {
+            lastEpoch = 1;
+            segments[0].activate(lastEpoch);
+            return;
+        }
+        for (Segment segment : used) {
+            segment.writeOffset = replay(segment);
+        }
+        oldest = used.get(0).index;
+        current = used.get(used.size() - 1).index;
+        lastEpoch = used.get(used.size() - 1).epoch;
+        log.info("write-behind 로그에서 레코드 {}개를 읽었습니다. (세그먼트 {}개)", recovered.size(), used.size());
+    }
+
+    private long replay(Segment segment) throws IOException {
+        long offset = SEGMENT_HEADER_BYTES;
+        ByteBuffer prefix = ByteBuffer.allocate(RECORD_PREFIX_BYTES);
+        while (offset + RECORD_PREFIX_BYTES <= segment.size) {
+            prefix.clear();
+            if (read(segment.channel, prefix, offset) < RECORD_PREFIX_BYTES) {
+                break;
+            }
+            int length = prefix.getInt(0);
+            int checksum = prefix.getInt(4);
+            long epoch = prefix.getLong(8);
+            if (epoch != segment.epoch || length < 1 + 2 + 16 || offset + RECORD_PREFIX_BYTES + length > segment.size
+                || checksum(segment.channel, offset + RECORD_PREFIX_BYTES, length) != checksum) {
+                break;
+            }
+            ByteBuffer head = ByteBuffer.allocate(Math.min(length, MAX_PAYLOAD_HEADER_BYTES));
+            read(segment.channel, head, offset + RECORD_PREFIX_BYTES);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(head.array(), 0, head.position()));
+            byte type = in.readByte();
+            String key = in.readUTF();
+            long lastModified = in.readLong();
+            long size = in.readLong();
+            int headerLength = head.position() - in.available();
+            if ((type != PUT && type != DELETE) || size != length - headerLength) {
+                break;
+            }
+            Location location = new Location(segment, segment.epoch, offset + RECORD_PREFIX_BYTES + headerLength);
+            if (type == PUT) {
+                segment.retain(segment.epoch);
+                loggedKeys.put(key, segment.epoch);
+            }
+            recovered.add(new Recovered(type, key, lastModified, size, location));
+            offset += RECORD_PREFIX_BYTES + length;
+        }
+        return offset;
+    }
+
+    private static int checksum(FileChannel channel, long position, int length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(IO_CHUNK_BYTES);
+        long end = position + length;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                // 파일이 예상보다 짧으면 일치하지 않는 값을 돌려 복원을 멈춥니다.
+                return ~(int) crc.getValue();
+            }
+            crc.update(buffer.flip());
+            position += read;
+        }
+        return (int) crc.getValue();
+    }
+
+    private static byte[] payloadHeader(byte type, String key, long lastModified, long size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + key.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        out.writeUTF(key);
+        out.writeLong(lastModified);
+        out.writeLong(size);
+        return bytes.toByteArray();
+    }
+
+    private static long write(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+        return position;
+    }
+
+    private static int read(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        int total = 0;
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        syncer.close();
+        for (Segment segment : segments) {
+            segment.channel.force(false);
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * 로그 파일 하나입니다. 담긴 업로드와 읽는 중인 채널 수({@code live})가 0이 되어야 비울 수 있습니다.
+     */
+    static final class Segment {
+
+        private final int index;
+        private final Path path;
+        private final FileChannel channel;
+        private final long size;
+        private volatile long epoch;
+        private volatile long writeOffset = SEGMENT_HEADER_BYTES;
+        private int live;
+
+        private Segment(int index, Path path, FileChannel channel, long size, long epoch) {
+            this.index = index;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+            this.epoch = epoch;
+        }
+
+        static Segment open(int index, Path path, long segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            long existing = channel.size();
+            if (existing < segmentSize) {
+                // 0으로 채워 블록을 미리 할당합니다. (sparse 파일은 기록 도중 공간이 부족할 수 있음)
+                ByteBuffer zeros = ByteBuffer.allocate(IO_CHUNK_BYTES);
+                for (long position = existing; position < segmentSize; ) {
+                    zeros.clear().limit((int) Math.min(zeros.capacity(), segmentSize - position));
+                    position = write(channel, zeros, position);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            read(channel, header, 0);
+            long epoch = header.getInt(0) == SEGMENT_MAGIC ? header.getLong(4) : 0;
+            Segment segment = new Segment(index, path, channel, Math.max(existing, segmentSize), epoch);
+            if (epoch == 0) {
+                segment.writeHeader(0);
+            }
+            return segment;
+        }
+
+        /**
+         * @return 참조를 얻었으면 {@code true}, 그 사이 세그먼트가 비워졌으면 {@code false}
+         */
+        synchronized boolean retain(long expectedEpoch) {
+            if (epoch == 0 || epoch != expectedEpoch) {
+                return false;
+            }
+            live++;
+            return true;
+        }
+
+        synchronized void release() {
+            live--;
+        }
+
+        synchronized void activate(long newEpoch) throws IOException {
+            writeHeader(newEpoch);
+            epoch = newEpoch;
+            writeOffset = SEGMENT_HEADER_BYTES;
+        }
+
+        // 비운 세그먼트가 재시작 후 다시 읽히지 않도록 헤더를 바로 내려 씁니다.
+        synchronized boolean reset() throws IOException {
+            if (live > 0) {
+                return false;
+            }
+            writeHeader(0);
+            epoch = 0;
+            writeOffset = SEGMENT_HEADER_BYTES;
+            return true;
+        }
+
+        private void writeHeader(long newEpoch) throws IOException {
+            write(channel, ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(SEGMENT_MAGIC).putLong(newEpoch).flip(),
+                0);
+            channel.force(false);
+        }
+    }
+
+    private static final class SegmentChannel implements ReadableByteChannel {
+
+        private final Segment segment;
+        private long position;
+        private long remaining;
+        private boolean open = true;
+
+        private SegmentChannel(Segment segment, long position, long remaining) {
+            this.segment = segment;
+            this.position = position;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            ByteBuffer window = dst.slice();
+            if (window.remaining() > remaining) {
+                window.limit((int) remaining);
+            }
+            int read = segment.channel.read(window, position);
+            if (read > 0) {
+                dst.position(dst.position() + read);
+                position += read;
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                segment.release();
+            }
+        }
+    }
+}
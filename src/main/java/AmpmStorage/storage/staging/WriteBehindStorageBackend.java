@@ -0,0 +1,635 @@
+package AmpmStorage.storage.staging;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.FileSystemStorageBackend;
+import AmpmStorage.storage.backend.S3StorageBackend;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 업로드를 스테이징 로그에 내려 쓴 뒤 바로 응답하고, 전용 쓰기 스레드가 나중에 실제 저장소에 기록하는
+ * write-behind 저장소입니다. 설정된 저장소(로컬/샤딩/S3)를 감쌉니다.
+ * <p>
+ * 업로드 응답 지연이 디스크 지연(디렉터리 생성, 기록, fsync)의 순간적인 급증을 따라가지 않도록 하기 위한 것입니다.
+ * 업로드마다 파일과 디렉터리를 만들고 fsync하는 대신, 미리 할당한 로그 파일({@link StagingLog})에 덧붙이고
+ * 동시에 들어온 업로드를 한 번의 fsync로 묶습니다.
+ * <ul>
+ *     <li>본문은 {@link StagingArea}의 off-heap 조각에 받은 뒤 로그에 기록하고, fsync가 끝나면 응답합니다. 조각은
+ *     기록 전까지 읽기 캐시로 남고, 영역이 부족하면 오래된 캐시부터 내려놓고 로그에서 읽습니다.</li>
+ *     <li>대기열({@code max-pending})이나 로그({@code log-size})가 가득 차면 기다리지 않고 503으로 거절합니다.
+ *     대기열 검사는 본문을 읽기 전에 합니다.</li>
+ *     <li>{@code max-object-size}보다 큰 본문은 스테이징하지 않고 그 자리에서 바로 저장소에 기록합니다.</li>
+ *     <li>쓰기 스레드는 대기열에서 최대 {@code batch-size}개를 꺼내 로컬 경로 순으로 정렬한 뒤 기록합니다. 같은 디렉터리와
+ *     샤드의 파일이 이어서 기록되어 탐색이 줄어듭니다.</li>
+ *     <li>기록이 끝나기 전의 키는 조회/다운로드/목록 모두 스테이징 영역에서 응답합니다.</li>
+ *     <li>기록에서 실패할 것이 분명한 업로드(같은 경로가 디렉터리이거나, 상위 경로가 파일인 키)는 응답하기 전에
+ *     409로 거절합니다. 스테이징된 다른 키와의 충돌도 함께 확인합니다.</li>
+ *     <li>기록은 간격을 늘려 가며 최대 {@code max-flush-attempts}번 시도합니다. 끝내 실패한 업로드는 버리고
+ *     {@code storage.write-behind.dead-lettered} 지표와 오류 로그(dead letter)로 알립니다.</li>
+ * </ul>
+ * 프로세스가 비정상 종료되어도 응답한 업로드는 로그에 남아 있으므로, 다음 시작 시 복원해 다시 기록합니다.
+ * 로그 밖에서 키를 지우거나 바로 기록할 때는 로그에 삭제 표시를 먼저 남겨, 복원 시 이전 내용이 되살아나지 않게 합니다.
+ * 예약 키({@code .encoded/} 등)는 스테이징하지 않습니다.
+ * 기록 전후의 ETag가 같도록 저장소와 같은 방식으로 ETag를 만듭니다. 중복 제거 저장소({@code app.storage.dedup.enabled})이면
+ * 스테이징할 때 내용의 SHA-256을 계산하고, 파일이 같은 내용의 다른 키와 inode를 공유하므로 기록 후 수정 시각을 바꾸지 않습니다.
+ * 클러스터 모드에서는 복제 정족수가 응답 시점을 정하므로 사용하지 않습니다.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "app.storage.write-behind", name = "enabled", havingValue = "true")
+@ConditionalOnProperty(prefix = "app.storage.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class WriteBehindStorageBackend implements StorageBackend, MeterBinder, DisposableBean {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final StorageBackend delegate;
+    // 중복 제거 저장소에 기록하는지 여부. ETag가 내용의 digest입니다.
+    private final boolean contentAddressed;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StagingArea stagingArea;
+    private final StagingLog stagingLog;
+    private final long maxObjectSize;
+    private final int writerThreads;
+    private final int batchSize;
+    private final int maxFlushAttempts;
+    private final Duration shutdownTimeout;
+
+    private final Map<String, StagedObject> staged = new ConcurrentHashMap<>();
+    private final BlockingQueue<StagedObject> pending = new LinkedBlockingQueue<>();
+    // 조각을 캐시로 들고 있는 업로드 (오래된 순, 영역이 부족하면 앞에서부터 내려놓음)
+    private final Queue<StagedObject> cachedObjects = new ConcurrentLinkedQueue<>();
+    // 대기열 자리. 본문을 읽기 전에 얻고, 쓰기 스레드가 그 업로드를 처리하면 돌려줍니다.
+    private final Semaphore slots;
+    // 같은 키의 기록과 삭제가 엇갈리지 않도록 키 해시별로 잠급니다.
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile long shutdownDeadline;
+
+    private final LongAdder stagedCount = new LongAdder();
+    private final LongAdder stagedBytes = new LongAdder();
+    private final LongAdder writeThroughCount = new LongAdder();
+    private final LongAdder flushedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public WriteBehindStorageBackend(ObjectProvider<FileSystemStorageBackend> fileSystemBackend,
+                                     ObjectProvider<S3StorageBackend> s3Backend,
+                                     ObjectProvider<ContentAddressedStore> contentAddressedStore,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${app.storage.write-behind.directory:${app.storage.upload-dir}/.staging}")
+                                     String directory,
+                                     @Value("${app.storage.write-behind.capacity:256MB}") DataSize capacity,
+                                     @Value("${app.storage.write-behind.chunk-size:64KB}") DataSize chunkSize,
+                                     @Value("${app.storage.write-behind.max-object-size:8MB}") DataSize maxObjectSize,
+                                     @Value("${app.storage.write-behind.log-size:512MB}") DataSize logSize,
+                                     @Value("${app.storage.write-behind.segment-size:64MB}") DataSize segmentSize,
+                                     @Value("${app.storage.write-behind.max-pending:1024}") int maxPending,
+                                     @Value("${app.storage.write-behind.writer-threads:2}") int writerThreads,
+                                     @Value("${app.storage.write-behind.batch-size:64}") int batchSize,
+                                     @Value("${app.storage.write-behind.max-flush-attempts:10}") int maxFlushAttempts,
+                                     @Value("${app.storage.group-commit.max-batch-size:64}") int groupCommitMaxBatchSize,
+                                     @Value("${app.storage.group-commit.max-delay:2ms}") Duration groupCommitMaxDelay,
+                                     @Value("${app.storage.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout)
+        throws IOException {
+        this.delegate = fileSystemBackend.getIfAvailable(s3Backend::getObject);
+        this.contentAddressed = delegate instanceof FileSystemStorageBackend
+            && contentAddressedStore.getIfAvailable() != null;
+        this.eventPublisher = eventPublisher;
+        this.stagingArea = new StagingArea(capacity.toBytes(), (int) chunkSize.toBytes());
+        this.stagingLog = new StagingLog(Paths.get(directory).toAbsolutePath().normalize(), logSize.toBytes(),
+            segmentSize.toBytes(), groupCommitMaxBatchSize, groupCommitMaxDelay);
+        this.maxObjectSize = Math.min(Math.min(maxObjectSize.toBytes(), stagingArea.capacity()),
+            stagingLog.maxBodySize());
+        this.slots = new Semaphore(Math.max(1, maxPending));
+        this.writerThreads = Math.max(1, writerThreads);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxFlushAttempts = Math.max(1, maxFlushAttempts);
+        this.shutdownTimeout = shutdownTimeout;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        recover();
+    }
+
+    // 지난 실행에서 기록하지 못한 업로드를 로그에서 복원해 대기열에 넣습니다. (조각 캐시 없이 로그에서 읽음)
+    private void recover() throws IOException {
+        for (StagingLog.Recovered record : stagingLog.takeRecovered()) {
+            StagedObject previous = record.type() == StagingLog.PUT
+                ? staged.put(record.key(), new StagedObject(record.key(),
+                    metadataOf(record.key(), record.size(), record.lastModified(), recoveredDigest(record)),
+                    stagingLog, record.location(), null, stagingArea.chunkSize(), stagingArea, false))
+                : staged.remove(record.key());
+            if (previous != null) {
+                discard(previous);
+            }
+        }
+        for (StagedObject object : List.copyOf(staged.values())) {
+            FileMetadata stored = delegate.head(object.key());
+            if (stored != null && stored.size() == object.size()
+                && Objects.equals(stored.eTag(), object.metadata().eTag())) {
+                // 로그를 비우기 전에 종료되었지만 이미 기록된 업로드
+                staged.remove(object.key());
+                discard(object);
+            } else {
+                pending.add(object);
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("기록하지 못한 write-behind 업로드 {}개를 로그에서 복원했습니다.", pending.size());
+        }
+        stagingLog.recycle();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!writers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            writers.add(Thread.ofPlatform().daemon().name("storage-write-behind-" + i).start(this::runWriter));
+        }
+        log.info("write-behind 업로드를 시작합니다. (스테이징 {} bytes, 쓰기 스레드 {}개)",
+            stagingArea.capacity(), writerThreads);
+    }
+
+    @Override
+    public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+        if (!StorageKeys.isValid(key)) {
+            return delegate.put(key, source, maxBytes);
+        }
+        checkConflicts(key);
+        if (!slots.tryAcquire()) {
+            rejectedCount.increment();
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE, "업로드 대기열이 가득 찼습니다. 잠시 후 다시 시도해 주세요.");
+        }
+        List<ByteBuffer> chunks = new ArrayList<>();
+        boolean queued = false;
+        try {
+            long size = 0;
+            while (true) {
+                ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+                if (chunk == null || !chunk.hasRemaining()) {
+                    if (size >= maxObjectSize) {
+                        return writeThrough(key, chunks, source, maxBytes);
+                    }
+                    chunk = acquireChunk();
+                    if (chunk == null) {
+                        rejectedCount.increment();
+                        throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "업로드 임시 저장 공간이 부족합니다. 잠시 후 다시 시도해 주세요.");
+                    }
+                    chunks.add(chunk);
+                }
+                int read = source.read(chunk);
+                if (read < 0) {
+                    break;
+                }
+                size += read;
+                if (size > maxBytes) {
+                    throw new BusinessException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "파일 크기가 제한(" + maxBytes + " bytes)을 초과했습니다.");
+                }
+            }
+            stage(key, chunks, size);
+            queued = true;
+            return size;
+        } finally {
+            if (!queued) {
+                stagingArea.release(chunks);
+                slots.release();
+            }
+        }
+    }
+
+    /**
+     * 기록할 때 실패할 것이 분명한 키를 본문을 읽기 전에 거절합니다. 로컬 파일 시스템 저장소에서만 확인합니다.
+     * <ul>
+     *     <li>키의 경로가 디렉터리이거나, 스테이징된 다른 키가 그 아래에 있는 경우</li>
+     *     <li>키의 상위 경로 중 하나가 파일이거나, 스테이징된 다른 키인 경우</li>
+     * </ul>
+     */
+    private void checkConflicts(String key) {
+        Path path = delegate.localPath(key);
+        if (path == null) {
+            return;
+        }
+        Path existing = path;
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        // 가장 가까운 기존 경로가 키 자신이면 파일이어야 하고, 상위 경로이면 디렉터리여야 합니다.
+        boolean conflict = existing != null
+            && (existing.equals(path) ? Files.isDirectory(path) : !Files.isDirectory(existing));
+        for (int slash = key.indexOf('/'); !conflict && slash > 0; slash = key.indexOf('/', slash + 1)) {
+            String parent = key.substring(0, slash);
+            conflict = staged.containsKey(parent) && path.startsWith(delegate.localPath(parent));
+        }
+        if (!conflict) {
+            String directoryPrefix = key + "/";
+            conflict = staged.keySet().stream()
+                .anyMatch(other -> other.startsWith(directoryPrefix) && delegate.localPath(other).startsWith(path));
+        }
+        if (conflict) {
+            rejectedCount.increment();
+            throw new BusinessException(HttpStatus.CONFLICT, "같은 경로에 다른 객체가 있어 저장할 수 없습니다: " + key);
+        }
+    }
+
+    // 조각이 모자라면 로그에 이미 기록된 업로드의 캐시를 오래된 것부터 내려놓습니다.
+    private ByteBuffer acquireChunk() {
+        ByteBuffer chunk = stagingArea.tryAcquire();
+        while (chunk == null) {
+            StagedObject victim = cachedObjects.poll();
+            if (victim == null) {
+                return null;
+            }
+            victim.evict();
+            chunk = stagingArea.tryAcquire();
+        }
+        return chunk;
+    }
+
+    // 로그에 기록하고 fsync가 끝난 뒤에 스테이징합니다. 같은 키는 로그와 맵의 순서가 같도록 키 잠금 안에서 처리합니다.
+    private void stage(String key, List<ByteBuffer> chunks, long size) throws IOException {
+        long now = System.currentTimeMillis();
+        List<ByteBuffer> body = chunks.stream().map(chunk -> chunk.duplicate().flip()).toList();
+        String digest = contentAddressed ? digestOf(body) : null;
+        synchronized (lockFor(key)) {
+            StagingLog.Location location = stagingLog.append(StagingLog.PUT, key, now, body, size);
+            if (location == null) {
+                rejectedCount.increment();
+                throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "업로드 임시 저장 공간이 부족합니다. 잠시 후 다시 시도해 주세요.");
+            }
+            StagedObject object = new StagedObject(key, metadataOf(key, size, now, digest), stagingLog, location,
+                chunks, stagingArea.chunkSize(), stagingArea, true);
+            StagedObject previous = staged.put(key, object);
+            if (previous != null) {
+                discard(previous);
+            }
+            pending.add(object);
+            cachedObjects.add(object);
+        }
+        stagedCount.increment();
+        stagedBytes.add(size);
+    }
+
+    private void discard(StagedObject object) {
+        cachedObjects.remove(object);
+        object.discard();
+    }
+
+    // FileMetadataCache와 같은 형식이므로 ETag가 기록 전후로 같습니다. digest가 없으면 크기와 수정 시각으로 만들고,
+    // 기록 후 파일의 수정 시각을 lastModified로 맞춥니다.
+    private static FileMetadata metadataOf(String key, long size, long lastModified, String digest) {
+        String eTag = digest != null
+            ? "\"" + digest + "\""
+            : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified * 1000) + "\"";
+        return new FileMetadata(size, lastModified, eTag, FileMetadataCache.resolveContentType(Path.of(key)));
+    }
+
+    private static String digestOf(List<ByteBuffer> body) {
+        MessageDigest digest = newDigest();
+        body.forEach(chunk -> digest.update(chunk.duplicate()));
+        return HEX.formatHex(digest.digest());
+    }
+
+    // 복원한 업로드는 조각 캐시가 없으므로 로그에서 읽어 계산합니다. (시작할 때 한 번)
+    private String recoveredDigest(StagingLog.Recovered record) throws IOException {
+        if (!contentAddressed || record.type() != StagingLog.PUT) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+        try (ReadableByteChannel content = stagingLog.open(record.location(), 0, record.size())) {
+            while (content.read(buffer.clear()) >= 0) {
+                digest.update(buffer.flip());
+            }
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 로그에 남은 이 키의 이전 업로드가 재시작 후 되살아나지 않도록 삭제 표시를 남깁니다. (키 잠금 안에서 호출)
+    private void tombstone(String key) throws IOException {
+        if (stagingLog.append(StagingLog.DELETE, key, System.currentTimeMillis(), List.of(), 0) == null) {
+            rejectedCount.increment();
+            throw new BusinessException(HttpStatus.SERVICE_UNAVAILABLE,
+                "업로드 임시 저장 공간이 부족합니다. 잠시 후 다시 시도해 주세요.");
+        }
+    }
+
+    // 이미 받은 조각과 남은 본문을 이어서 바로 저장소에 기록합니다.
+    private long writeThrough(String key, List<ByteBuffer> chunks, ReadableByteChannel rest, long maxBytes)
+        throws IOException {
+        // 스테이징된 이전 내용이 나중에 기록되어 새 내용을 덮어쓰지 않도록 먼저 버립니다.
+        synchronized (lockFor(key)) {
+            StagedObject previous = staged.remove(key);
+            if (previous != null || stagingLog.mayContain(key)) {
+                tombstone(key);
+            }
+            if (previous != null) {
+                discard(previous);
+            }
+        }
+        chunks.forEach(ByteBuffer::flip);
+        ReadableByteChannel head = new ReadableByteChannel() {
+            private int index;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                while (index < chunks.size() && !chunks.get(index).hasRemaining()) {
+                    index++;
+                }
+                if (index == chunks.size()) {
+                    return rest.read(dst);
+                }
+                ByteBuffer chunk = chunks.get(index);
+                int count = Math.min(chunk.remaining(), dst.remaining());
+                dst.put(chunk.slice(chunk.position(), count));
+                chunk.position(chunk.position() + count);
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return rest.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                rest.close();
+            }
+        };
+        writeThroughCount.increment();
+        return delegate.put(key, head, maxBytes);
+    }
+
+    @Override
+    public FileMetadata head(String key) throws IOException {
+        StagedObject object = staged.get(key);
+        return object != null ? object.metadata() : delegate.head(key);
+    }
+
+    @Override
+    public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+        StagedObject object = staged.get(key);
+        ReadableByteChannel channel = object != null ? object.open(offset, length) : null;
+        return channel != null ? channel : delegate.get(key, offset, length);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        synchronized (lockFor(key)) {
+            StagedObject object = staged.remove(key);
+            if (object != null || stagingLog.mayContain(key)) {
+                tombstone(key);
+            }
+            if (object != null) {
+                discard(object);
+            }
+            return delegate.delete(key) | (object != null);
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix, int limit) throws IOException {
+        List<String> stored = delegate.list(prefix, limit);
+        return Stream.concat(stored.stream(), staged.keySet().stream().filter(key -> key.startsWith(prefix)))
+            .sorted().distinct().limit(limit).toList();
+    }
+
+    /**
+     * 아직 기록되지 않은 키는 로컬 파일이 없으므로 {@code null}입니다. (다운로드는 {@link #get}으로 스테이징 영역에서 응답)
+     */
+    @Override
+    public Path localPath(String key) {
+        return staged.containsKey(key) ? null : delegate.localPath(key);
+    }
+
+    @Override
+    public boolean ownsKey(String key) {
+        return delegate.ownsKey(key);
+    }
+
+    private void runWriter() {
+        List<StagedObject> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                StagedObject first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, batchSize - 1);
+                batch.sort(Comparator.comparing(this::flushOrder));
+                for (StagedObject object : batch) {
+                    flush(object);
+                }
+                stagingLog.recycle();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("write-behind 로그 세그먼트를 비우지 못했습니다. ({})", e.toString());
+            } finally {
+                batch.forEach(object -> {
+                    if (object.holdsSlot()) {
+                        slots.release();
+                    }
+                });
+                batch.clear();
+            }
+        }
+    }
+
+    // 로컬 저장소이면 최종 경로 순, 원격 저장소이면 키 순으로 기록합니다.
+    private String flushOrder(StagedObject object) {
+        Path path = delegate.localPath(object.key());
+        return path != null ? path.toString() : object.key();
+    }
+
+    // 기록에 실패하면 성공하거나 더 새 내용으로 바뀔 때까지 간격을 늘려 가며 max-flush-attempts번까지 다시 시도합니다.
+    private void flush(StagedObject object) throws InterruptedException {
+        long delayMillis = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                synchronized (lockFor(object.key())) {
+                    if (staged.get(object.key()) != object) {
+                        // 그 사이 다시 업로드되었거나 삭제된 경우
+                        return;
+                    }
+                    try (ReadableByteChannel content = object.open(0, object.size())) {
+                        delegate.put(object.key(), content, object.size());
+                    }
+                    preserveModifiedTime(object);
+                    if (staged.remove(object.key(), object)) {
+                        discard(object);
+                    }
+                }
+                flushedCount.increment();
+                return;
+            } catch (IOException | RuntimeException e) {
+                flushFailures.increment();
+                if (!running && System.nanoTime() - shutdownDeadline > 0) {
+                    log.error("종료 시한이 지나 스테이징된 업로드를 기록하지 못했습니다: {}", object.key(), e);
+                    return;
+                }
+                if (attempt >= maxFlushAttempts) {
+                    deadLetter(object, attempt, e);
+                    return;
+                }
+                log.warn("스테이징된 업로드를 기록하지 못했습니다. {}ms 뒤 다시 시도합니다: {} ({})",
+                    delayMillis, object.key(), e.toString());
+                Thread.sleep(delayMillis);
+                delayMillis = Math.min(delayMillis * 2, MAX_RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    // 더 시도해도 기록할 수 없는 업로드를 버립니다. 이미 응답한 업로드이므로 오류 로그와 지표로 남깁니다.
+    private void deadLetter(StagedObject object, int attempts, Exception cause) {
+        synchronized (lockFor(object.key())) {
+            if (staged.remove(object.key(), object)) {
+                discard(object);
+            }
+        }
+        deadLettered.increment();
+        log.error("[dead-letter] 스테이징된 업로드를 {}번 시도했지만 기록하지 못해 버립니다: {} ({} bytes, {})",
+            attempts, object.key(), object.size(), object.metadata().eTag(), cause);
+    }
+
+    // 중복 제거 저장소의 파일은 같은 내용의 다른 키와 inode를 공유하므로 수정 시각을 바꾸지 않습니다.
+    private void preserveModifiedTime(StagedObject object) {
+        Path path = contentAddressed ? null : delegate.localPath(object.key());
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(object.metadata().lastModified()));
+            // 기록 직후 캐시된 메타데이터에는 바뀌기 전 수정 시각이 들어 있을 수 있습니다.
+            eventPublisher.publishEvent(new StoredObjectChangedEvent(path));
+        } catch (IOException e) {
+            log.debug("수정 시각을 맞추지 못했습니다: {} ({})", path, e.toString());
+        }
+    }
+
+    private Object lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * 대기열에 남은 업로드를 {@code shutdown-timeout}까지 기록한 뒤 쓰기 스레드를 종료합니다.
+     */
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        shutdownDeadline = System.nanoTime() + shutdownTimeout.toNanos();
+        running = false;
+        // 준비 이벤트 전에 종료되는 경우에도 받은 업로드는 기록합니다.
+        start();
+        for (Thread writer : writers) {
+            writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(shutdownDeadline - System.nanoTime())));
+        }
+        if (!staged.isEmpty()) {
+            log.warn("기록하지 못한 스테이징 업로드 {}개는 로그에 남아 다음 시작 시 기록합니다: {}", staged.size(),
+                staged.keySet().stream().limit(10).toList());
+        }
+        stagingLog.close();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.write-behind.staged", stagedCount, LongAdder::sum)
+            .description("스테이징 영역에 받은 업로드 수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.staged.bytes", stagedBytes, LongAdder::sum)
+            .baseUnit(BaseUnits.BYTES)
+            .description("스테이징 영역에 받은 바이트 수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.write-through", writeThroughCount, LongAdder::sum)
+            .description("max-object-size를 넘어 바로 기록한 업로드 수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.flushed", flushedCount, LongAdder::sum)
+            .description("스테이징 영역에서 저장소로 기록한 업로드 수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.rejected", rejectedCount, LongAdder::sum)
+            .description("대기열이나 스테이징 영역이 가득 차 503으로 거절한 업로드 수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.flush.failures", flushFailures, LongAdder::sum)
+            .description("저장소 기록에 실패해 다시 시도한 횟수")
+            .register(registry);
+        FunctionCounter.builder("storage.write-behind.dead-lettered", deadLettered, LongAdder::sum)
+            .description("max-flush-attempts번 시도해도 기록하지 못해 버린 업로드 수")
+            .register(registry);
+        Gauge.builder("storage.write-behind.pending", staged, Map::size)
+            .description("아직 저장소에 기록되지 않은 업로드 수")
+            .register(registry);
+        Gauge.builder("storage.write-behind.memory.used", stagingArea, StagingArea::usedBytes)
+            .baseUnit(BaseUnits.BYTES)
+            .description("사용 중인 스테이징 영역(받는 중인 본문과 읽기 캐시) 크기")
+            .register(registry);
+        Gauge.builder("storage.write-behind.log.used", stagingLog, StagingLog::usedBytes)
+            .baseUnit(BaseUnits.BYTES)
+            .description("비우지 않은 스테이징 로그 세그먼트에 기록된 크기")
+            .register(registry);
+    }
+}
@@ -0,0 +1,362 @@
+package AmpmStorage.storage.upload;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageKeys;
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.service.FileUploadService;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 큰 파일을 여러 파트로 나누어 올리는 분할 업로드(initiate / part N / complete / abort)를 처리합니다.
+ * <ul>
+ *     <li>파트는 순서와 관계없이 여러 연결에서 동시에 올릴 수 있으며, 각 파트는 데이터 파일의 제 위치에
+ *     {@link FileChannel#write(ByteBuffer, long)}로 기록됩니다.</li>
+ *     <li>파트를 기록하고 동기화한 뒤에야 완료 표시(파트당 1바이트)를 남기므로, 서버가 재시작되어도
+ *     {@link #status(String)}로 빠진 파트만 확인해 이어 올릴 수 있습니다.</li>
+ *     <li>{@code app.storage.resumable.expire-after} 동안 진행이 없는 업로드는 주기적으로 정리합니다.</li>
+ * </ul>
+ * 세션은 {@code {upload-dir}/.uploads/{uploadId}/} 아래에 보관하며, 완료되면 저장소에 반영한 뒤 지웁니다.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    static final String MANIFEST_FILE = "upload.properties";
+    static final String DATA_FILE = "data";
+    static final String PARTS_FILE = "parts";
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{32}");
+    private static final int MAX_PARTS = 10_000;
+    private static final long MIN_PART_SIZE = 64 * 1024;
+    private static final long MAX_PART_SIZE = 64 * 1024 * 1024;
+    private static final byte COMPLETED = 1;
+    // 업로드 ID를 아는 쪽만 파트를 올릴 수 있으므로 추측할 수 없는 값을 씁니다.
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final FileUploadService fileUploadService;
+    private final DirectBufferPool bufferPool;
+    private final DiskIoLimiter diskIoLimiter;
+    private final Path directory;
+    private final long maxFileSize;
+    private final Duration expireAfter;
+    private final ConcurrentMap<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final Set<String> completing = ConcurrentHashMap.newKeySet();
+
+    public ResumableUploadService(FileUploadService fileUploadService,
+                                  DirectBufferPool bufferPool,
+                                  DiskIoLimiter diskIoLimiter,
+                                  @Value("${app.storage.resumable.directory:${app.storage.upload-dir}/.uploads}")
+                                  String directory,
+                                  @Value("${app.storage.resumable.max-file-size:1GB}") DataSize maxFileSize,
+                                  @Value("${app.storage.resumable.expire-after:24h}") Duration expireAfter) {
+        this.fileUploadService = fileUploadService;
+        this.bufferPool = bufferPool;
+        this.diskIoLimiter = diskIoLimiter;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.expireAfter = expireAfter;
+    }
+
+    /**
+     * 새 분할 업로드를 시작합니다.
+     */
+    public UploadSession initiate(String key, long size, long partSize) throws IOException {
+        return initiate(key, null, size, partSize);
+    }
+
+    /**
+     * 새 분할 업로드를 시작합니다. 완료할 때 {@code contentType}으로 업로드 검사를 합니다.
+     *
+     * @param contentType 파일의 Content-Type, 모르면 {@code null} (검사하지 않음)
+     */
+    public UploadSession initiate(String key, String contentType, long size, long partSize) throws IOException {
+        StorageKeys.validate(key);
+        if (size < 0 || size > maxFileSize) {
+            throw new BusinessException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "파일 크기가 제한(" + maxFileSize + " bytes)을 초과했습니다.");
+        }
+        if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST,
+                "파트 크기는 " + MIN_PART_SIZE + " ~ " + MAX_PART_SIZE + " bytes 사이여야 합니다.");
+        }
+        UploadSession session = new UploadSession(newUploadId(), key, size, partSize, contentType);
+        if (session.partCount() > MAX_PARTS) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, "파트 수가 " + MAX_PARTS + "개를 넘습니다. 파트 크기를 늘려 주세요.");
+        }
+
+        Path sessionDirectory = directory.resolve(session.uploadId());
+        Files.createDirectories(sessionDirectory);
+        try (FileChannel data = FileChannel.open(sessionDirectory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             FileChannel parts = FileChannel.open(sessionDirectory.resolve(PARTS_FILE),
+                 StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            // 파트가 동시에 기록되어도 파일 끝을 늘리는 경합이 없도록 미리 크기를 잡아 둡니다. (sparse)
+            if (session.size() > 0) {
+                data.write(ByteBuffer.allocate(1), session.size() - 1);
+            }
+            parts.write(ByteBuffer.allocate(session.partCount()), 0);
+        }
+        writeManifest(sessionDirectory, session);
+        sessions.put(session.uploadId(), session);
+        return session;
+    }
+
+    /**
+     * 파트 하나를 제 위치에 기록합니다. 같은 파트를 다시 보내면 덮어씁니다.
+     *
+     * @param partNumber 1부터 시작하는 파트 번호
+     */
+    public void writePart(String uploadId, int partNumber, ReadableByteChannel body) throws IOException {
+        UploadSession session = load(uploadId);
+        if (completing.contains(uploadId)) {
+            throw new BusinessException(HttpStatus.CONFLICT, "이미 완료 처리 중인 업로드입니다.");
+        }
+        if (partNumber < 1 || partNumber > session.partCount()) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST,
+                "파트 번호는 1 ~ " + session.partCount() + " 사이여야 합니다: " + partNumber);
+        }
+
+        Path sessionDirectory = directory.resolve(uploadId);
+        long position = session.offsetOf(partNumber);
+        long end = position + session.lengthOf(partNumber);
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel data = FileChannel.open(sessionDirectory.resolve(DATA_FILE), StandardOpenOption.WRITE)) {
+            while (body.read(buffer) >= 0) {
+                if (position + buffer.position() > end) {
+                    throw new BusinessException(HttpStatus.BAD_REQUEST,
+                        "파트 " + partNumber + "의 크기는 " + session.lengthOf(partNumber) + " bytes여야 합니다.");
+                }
+                if (!buffer.hasRemaining()) {
+                    position += flush(buffer, data, position);
+                }
+            }
+            position += flush(buffer, data, position);
+            if (position != end) {
+                throw new BusinessException(HttpStatus.BAD_REQUEST,
+                    "파트 " + partNumber + "의 크기는 " + session.lengthOf(partNumber) + " bytes여야 합니다.");
+            }
+            // 내용이 디스크에 남은 뒤에 완료 표시를 해야 재시작 후에도 표시를 믿을 수 있습니다.
+            diskIoLimiter.execute(() -> {
+                data.force(false);
+                return null;
+            });
+        } catch (NoSuchFileException e) {
+            throw notFound(uploadId);
+        } finally {
+            bufferPool.release(buffer);
+        }
+
+        try (FileChannel parts = FileChannel.open(sessionDirectory.resolve(PARTS_FILE), StandardOpenOption.WRITE)) {
+            parts.write(ByteBuffer.wrap(new byte[]{COMPLETED}), partNumber - 1);
+        }
+    }
+
+    public UploadStatus status(String uploadId) throws IOException {
+        UploadSession session = load(uploadId);
+        byte[] parts = readParts(session);
+        List<Integer> completedParts = new ArrayList<>();
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i] == COMPLETED) {
+                completedParts.add(i + 1);
+            }
+        }
+        return new UploadStatus(session.uploadId(), session.key(), session.size(), session.partSize(),
+            session.partCount(), completedParts);
+    }
+
+    /**
+     * 모든 파트가 올라왔으면 데이터 파일을 저장소에 반영하고 세션을 지웁니다.
+     *
+     * @return 완료한 업로드
+     */
+    public UploadSession complete(String uploadId) throws IOException {
+        UploadSession session = load(uploadId);
+        if (!completing.add(uploadId)) {
+            throw new BusinessException(HttpStatus.CONFLICT, "이미 완료 처리 중인 업로드입니다.");
+        }
+        try {
+            byte[] parts = readParts(session);
+            int missing = 0;
+            for (byte part : parts) {
+                if (part != COMPLETED) {
+                    missing++;
+                }
+            }
+            if (missing > 0) {
+                throw new BusinessException(HttpStatus.BAD_REQUEST, "아직 올라오지 않은 파트가 " + missing + "개 있습니다.");
+            }
+
+            try (FileChannel data = FileChannel.open(directory.resolve(uploadId).resolve(DATA_FILE),
+                    StandardOpenOption.READ)) {
+                fileUploadService.store(session.key(), session.contentType(), data, session.size());
+            }
+            delete(uploadId);
+            return session;
+        } finally {
+            completing.remove(uploadId);
+        }
+    }
+
+    public void abort(String uploadId) throws IOException {
+        load(uploadId);
+        delete(uploadId);
+    }
+
+    /**
+     * 마지막 진행 이후 {@code app.storage.resumable.expire-after}가 지난 업로드를 지웁니다.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.resumable.cleanup-interval:PT1H}",
+        initialDelayString = "${app.storage.resumable.cleanup-interval:PT1H}")
+    public void removeExpiredUploads() {
+        try {
+            int removed = removeExpired(Instant.now());
+            if (removed > 0) {
+                log.info("만료된 분할 업로드를 정리했습니다: {}개", removed);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("만료된 분할 업로드를 정리하지 못했습니다.", e);
+        }
+    }
+
+    int removeExpired(Instant now) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        Instant threshold = now.minus(expireAfter);
+        int removed = 0;
+        try (Stream<Path> sessionDirectories = Files.list(directory)) {
+            for (Path sessionDirectory : sessionDirectories.toList()) {
+                String uploadId = sessionDirectory.getFileName().toString();
+                if (!UPLOAD_ID.matcher(uploadId).matches() || completing.contains(uploadId)) {
+                    continue;
+                }
+                // 파트를 기록할 때마다 parts 파일의 수정 시각이 바뀝니다.
+                Path activity = Files.exists(sessionDirectory.resolve(PARTS_FILE))
+                    ? sessionDirectory.resolve(PARTS_FILE) : sessionDirectory;
+                if (Files.getLastModifiedTime(activity).toInstant().isBefore(threshold)) {
+                    delete(uploadId);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private UploadSession load(String uploadId) throws IOException {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw notFound(uploadId);
+        }
+        UploadSession cached = sessions.get(uploadId);
+        if (cached != null) {
+            return cached;
+        }
+        // 재시작 후에는 디스크에 남은 정보로 세션을 되살립니다.
+        Properties manifest = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(uploadId).resolve(MANIFEST_FILE),
+                StandardCharsets.UTF_8)) {
+            manifest.load(reader);
+        } catch (NoSuchFileException e) {
+            throw notFound(uploadId);
+        }
+        UploadSession session = new UploadSession(uploadId, manifest.getProperty("key"),
+            Long.parseLong(manifest.getProperty("size")), Long.parseLong(manifest.getProperty("part-size")),
+            manifest.getProperty("content-type"));
+        sessions.putIfAbsent(uploadId, session);
+        return session;
+    }
+
+    private byte[] readParts(UploadSession session) throws IOException {
+        try {
+            return Files.readAllBytes(directory.resolve(session.uploadId()).resolve(PARTS_FILE));
+        } catch (NoSuchFileException e) {
+            throw notFound(session.uploadId());
+        }
+    }
+
+    // 임시 파일에 쓴 뒤 이름을 바꾸므로, 중간에 중단되어도 반쯤 쓰인 manifest가 남지 않습니다.
+    private static void writeManifest(Path sessionDirectory, UploadSession session) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("key", session.key());
+        manifest.setProperty("size", Long.toString(session.size()));
+        manifest.setProperty("part-size", Long.toString(session.partSize()));
+        if (session.contentType() != null) {
+            manifest.setProperty("content-type", session.contentType());
+        }
+        Path temp = sessionDirectory.resolve(MANIFEST_FILE + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            manifest.store(writer, null);
+        }
+        Files.move(temp, sessionDirectory.resolve(MANIFEST_FILE), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void delete(String uploadId) throws IOException {
+        sessions.remove(uploadId);
+        Path sessionDirectory = directory.resolve(uploadId);
+        if (!Files.exists(sessionDirectory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(sessionDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private long flush(ByteBuffer buffer, FileChannel data, long position) throws IOException {
+        buffer.flip();
+        long written = 0;
+        diskIoLimiter.acquire();
+        try {
+            while (buffer.hasRemaining()) {
+                written += data.write(buffer, position + written);
+            }
+        } finally {
+            diskIoLimiter.release();
+        }
+        buffer.clear();
+        return written;
+    }
+
+    private static String newUploadId() {
+        byte[] random = new byte[16];
+        RANDOM.nextBytes(random);
+        return HexFormat.of().formatHex(random);
+    }
+
+    private static BusinessException notFound(String uploadId) {
+        return new BusinessException(HttpStatus.NOT_FOUND, "업로드를 찾을 수 없습니다: " + uploadId);
+    }
+}
@@ -0,0 +1,28 @@
+package AmpmStorage.storage.upload;
+
+/**
+ * 진행 중인 분할 업로드 하나의 정보입니다. 세션 디렉터리의 {@code upload.properties}에 저장됩니다.
+ *
+ * @param partSize    마지막 파트를 제외한 모든 파트의 크기
+ * @param contentType 시작할 때 선언한 Content-Type, 없으면 {@code null} (완료할 때 업로드 검사에 사용)
+ */
+public record UploadSession(String uploadId, String key, long size, long partSize, String contentType) {
+
+    public int partCount() {
+        return size == 0 ? 1 : (int) ((size + partSize - 1) / partSize);
+    }
+
+    /**
+     * @return 파트의 시작 위치
+     */
+    public long offsetOf(int partNumber) {
+        return (partNumber - 1) * partSize;
+    }
+
+    /**
+     * @return 파트의 크기 (마지막 파트는 더 작을 수 있음)
+     */
+    public long lengthOf(int partNumber) {
+        return Math.min(partSize, size - offsetOf(partNumber));
+    }
+}
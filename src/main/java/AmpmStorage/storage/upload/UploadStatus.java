@@ -0,0 +1,10 @@
+package AmpmStorage.storage.upload;
+
+import java.util.List;
+
+/**
+ * 분할 업로드의 진행 상황입니다. 중단된 업로드를 이어 올릴 때 빠진 파트만 다시 보내면 됩니다.
+ */
+public record UploadStatus(String uploadId, String key, long size, long partSize, int partCount,
+                           List<Integer> completedParts) {
+}
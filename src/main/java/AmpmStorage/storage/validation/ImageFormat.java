@@ -0,0 +1,136 @@
+package AmpmStorage.storage.validation;
+
+import java.util.Set;
+
+/**
+ * 업로드를 허용하는 이미지 형식입니다. 형식은 선언된 Content-Type이 아닌 파일 앞부분의 매직 바이트로 판별합니다.
+ * <p>
+ * JPEG를 제외한 형식은 앞의 {@link #HEADER_BYTES}바이트 안에 이미지 크기가 있습니다. JPEG는 EXIF 등 앞선
+ * 세그먼트 뒤의 SOF 세그먼트에 있으므로 {@link JpegDimensionParser}가 본문을 흘려 보내면서 찾습니다.
+ */
+enum ImageFormat {
+
+    PNG("image/png", Set.of("image/png", "image/x-png")),
+    JPEG("image/jpeg", Set.of("image/jpeg", "image/jpg", "image/pjpeg")),
+    GIF("image/gif", Set.of("image/gif")),
+    WEBP("image/webp", Set.of("image/webp"));
+
+    static final int HEADER_BYTES = 30;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final String mediaType;
+    private final Set<String> aliases;
+
+    ImageFormat(String mediaType, Set<String> aliases) {
+        this.mediaType = mediaType;
+        this.aliases = aliases;
+    }
+
+    String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param mediaType 파라미터를 뗀 소문자 Content-Type
+     * @return 해당 Content-Type의 형식, 지원하지 않으면 {@code null}
+     */
+    static ImageFormat ofMediaType(String mediaType) {
+        for (ImageFormat format : values()) {
+            if (format.aliases.contains(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 매직 바이트로 판별한 형식, 알 수 없으면 {@code null}
+     */
+    static ImageFormat detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return JPEG;
+        }
+        if (startsWith(header, length, 0, "GIF87a") || startsWith(header, length, 0, "GIF89a")) {
+            return GIF;
+        }
+        if (startsWith(header, length, 0, "RIFF") && startsWith(header, length, 8, "WEBP")) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    /**
+     * 앞부분에서 이미지 크기를 읽습니다. JPEG는 항상 {@code null}입니다.
+     *
+     * @return {너비, 높이}, 앞부분이 짧거나 형식에 맞지 않으면 {@code null}
+     */
+    int[] dimensions(byte[] header, int length) {
+        return switch (this) {
+            case PNG -> startsWith(header, length, 12, "IHDR") && length >= 24
+                ? new int[]{int32(header, 16), int32(header, 20)}
+                : null;
+            case GIF -> length >= 10 ? new int[]{uint16le(header, 6), uint16le(header, 8)} : null;
+            case WEBP -> webpDimensions(header, length);
+            case JPEG -> null;
+        };
+    }
+
+    private static int[] webpDimensions(byte[] header, int length) {
+        if (startsWith(header, length, 12, "VP8 ") && length >= 30
+            && (header[23] & 0xFF) == 0x9D && (header[24] & 0xFF) == 0x01 && (header[25] & 0xFF) == 0x2A) {
+            // 손실 압축: 키 프레임 시작 코드 뒤의 14비트 너비/높이
+            return new int[]{uint16le(header, 26) & 0x3FFF, uint16le(header, 28) & 0x3FFF};
+        }
+        if (startsWith(header, length, 12, "VP8L") && length >= 25 && header[20] == 0x2F) {
+            // 무손실 압축: 서명 뒤 14비트씩 (너비 - 1), (높이 - 1)
+            int bits = uint16le(header, 21) | uint16le(header, 23) << 16;
+            return new int[]{(bits & 0x3FFF) + 1, (bits >>> 14 & 0x3FFF) + 1};
+        }
+        if (startsWith(header, length, 12, "VP8X") && length >= 30) {
+            // 확장 형식: 24비트씩 (너비 - 1), (높이 - 1)
+            return new int[]{uint24le(header, 24) + 1, uint24le(header, 27) + 1};
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, String ascii) {
+        if (length < offset + ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (header[offset + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] prefix) {
+        if (length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (header[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int int32(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+            | (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+    }
+
+    private static int uint16le(byte[] bytes, int offset) {
+        return bytes[offset] & 0xFF | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24le(byte[] bytes, int offset) {
+        return uint16le(bytes, offset) | (bytes[offset + 2] & 0xFF) << 16;
+    }
+}
@@ -0,0 +1,139 @@
+package AmpmStorage.storage.validation;
+
+import AmpmStorage.storage.validation.UploadValidator.Rejection;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * 업로드 본문을 저장소로 흘려 보내면서 같은 바이트로 형식 판별, 선언된 형식 확인, 이미지 크기 추출, SHA-256 계산,
+ * 형식별 크기 제한을 함께 처리하는 채널입니다. (본문을 다시 읽지 않음)
+ * <p>
+ * 검사에 실패하면 그 자리에서 {@link AmpmStorage.common.exception.BusinessException}을 던지므로 저장소는 나머지
+ * 본문을 읽지 않고 임시 파일을 버립니다. 형식은 앞의 {@link ImageFormat#HEADER_BYTES}바이트가 모이면 판별하고,
+ * 이미지 크기를 끝내 찾지 못한 JPEG는 본문 끝(EOF)에서 거절합니다. 저장소는 EOF를 읽은 뒤에 파일을 반영합니다.
+ */
+public final class InspectingChannel implements ReadableByteChannel {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ReadableByteChannel delegate;
+    private final UploadValidator validator;
+    private final ImageFormat declared;
+    private final MessageDigest digest;
+    private final byte[] header = new byte[ImageFormat.HEADER_BYTES];
+    private final JpegDimensionParser jpegParser = new JpegDimensionParser();
+    private int headerLength;
+    private ImageFormat format;
+    private long maxBytes;
+    private long total;
+    private int width;
+    private int height;
+    private UploadInspection inspection;
+
+    InspectingChannel(ReadableByteChannel delegate, UploadValidator validator, ImageFormat declared,
+                      MessageDigest digest) {
+        this.delegate = delegate;
+        this.validator = validator;
+        this.declared = declared;
+        this.digest = digest;
+        // 선언된 형식이 있으면 첫 바이트부터 그 형식의 제한을 적용합니다.
+        this.maxBytes = declared != null ? validator.maxBytes(declared) : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return 본문 끝까지 읽은 뒤의 검사 결과
+     */
+    public UploadInspection inspection() {
+        if (inspection == null) {
+            throw new IllegalStateException("본문을 끝까지 읽지 않았습니다.");
+        }
+        return inspection;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int start = dst.position();
+        int read = delegate.read(dst);
+        if (read < 0) {
+            finish();
+        } else if (read > 0) {
+            // 방금 채워진 구간만 검사합니다. 원래 버퍼의 position/limit은 건드리지 않습니다.
+            ByteBuffer filled = dst.duplicate();
+            filled.limit(start + read).position(start);
+            inspect(filled);
+        }
+        return read;
+    }
+
+    private void inspect(ByteBuffer filled) {
+        total += filled.remaining();
+        if (headerLength < header.length) {
+            int count = Math.min(header.length - headerLength, filled.remaining());
+            filled.duplicate().get(header, headerLength, count);
+            headerLength += count;
+            if (headerLength == header.length) {
+                identify();
+            }
+        }
+        if (total > maxBytes) {
+            ImageFormat limited = format != null ? format : declared;
+            throw validator.reject(Rejection.TOO_LARGE,
+                limited.mediaType() + " 파일 크기가 제한(" + maxBytes + " bytes)을 초과했습니다.");
+        }
+        if ((format == null || format == ImageFormat.JPEG) && !jpegParser.isDone()) {
+            jpegParser.update(filled.duplicate());
+        }
+        digest.update(filled);
+    }
+
+    private void identify() {
+        format = ImageFormat.detect(header, headerLength);
+        if (format == null) {
+            throw validator.reject(Rejection.UNSUPPORTED, "지원하지 않는 이미지 형식입니다.");
+        }
+        if (declared != null && declared != format) {
+            throw validator.reject(Rejection.MISMATCH,
+                "선언한 형식(" + declared.mediaType() + ")과 실제 형식(" + format.mediaType() + ")이 다릅니다.");
+        }
+        maxBytes = validator.maxBytes(format);
+        if (format != ImageFormat.JPEG) {
+            accept(format.dimensions(header, headerLength));
+        }
+    }
+
+    private void finish() {
+        if (inspection != null) {
+            return;
+        }
+        if (format == null) {
+            // 본문이 앞부분 길이보다 짧은 경우
+            identify();
+        }
+        if (format == ImageFormat.JPEG) {
+            accept(jpegParser.dimensions());
+        }
+        inspection = new UploadInspection(format.mediaType(), width, height, HEX.formatHex(digest.digest()), total);
+        validator.accepted();
+    }
+
+    private void accept(int[] dimensions) {
+        if (dimensions == null || dimensions[0] <= 0 || dimensions[1] <= 0) {
+            throw validator.reject(Rejection.MALFORMED, "이미지 헤더가 손상되어 크기를 읽을 수 없습니다.");
+        }
+        width = dimensions[0];
+        height = dimensions[1];
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,104 @@
+package AmpmStorage.storage.validation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 업로드 본문을 조각 단위로 받으면서 JPEG의 SOF 세그먼트에서 이미지 크기를 찾는 상태 기계입니다.
+ * <p>
+ * SOI 뒤의 세그먼트를 길이만큼 건너뛰므로 EXIF 썸네일 같은 큰 세그먼트도 바이트마다 검사하지 않습니다.
+ * 크기를 찾거나, SOF 없이 스캔 데이터(SOS)나 EOI에 도달하거나, 형식이 어긋나면 더 이상 입력을 보지 않습니다.
+ */
+final class JpegDimensionParser {
+
+    private enum State { SOI_FF, SOI_D8, MARKER_FF, MARKER, LENGTH_HIGH, LENGTH_LOW, SKIP, FRAME_HEADER, DONE }
+
+    private State state = State.SOI_FF;
+    private int marker;
+    private int segmentLength;
+    private long skipRemaining;
+    private final byte[] frameHeader = new byte[5];
+    private int frameHeaderLength;
+    private int width;
+    private int height;
+
+    boolean isDone() {
+        return state == State.DONE;
+    }
+
+    /**
+     * @return 찾은 {너비, 높이}, 아직 못 찾았거나 찾을 수 없으면 {@code null}
+     */
+    int[] dimensions() {
+        return width > 0 && height > 0 ? new int[]{width, height} : null;
+    }
+
+    void update(ByteBuffer data) {
+        while (state != State.DONE && data.hasRemaining()) {
+            if (state == State.SKIP) {
+                int skipped = (int) Math.min(skipRemaining, data.remaining());
+                data.position(data.position() + skipped);
+                skipRemaining -= skipped;
+                if (skipRemaining == 0) {
+                    state = State.MARKER_FF;
+                }
+                continue;
+            }
+            accept(data.get() & 0xFF);
+        }
+    }
+
+    private void accept(int value) {
+        switch (state) {
+            case SOI_FF -> state = value == 0xFF ? State.SOI_D8 : State.DONE;
+            case SOI_D8 -> state = value == 0xD8 ? State.MARKER_FF : State.DONE;
+            case MARKER_FF -> state = value == 0xFF ? State.MARKER : State.DONE;
+            case MARKER -> {
+                if (value == 0xFF) {
+                    // 마커 앞의 채움 바이트
+                    return;
+                }
+                marker = value;
+                if (value == 0x01 || (value >= 0xD0 && value <= 0xD7)) {
+                    // 길이가 없는 마커 (TEM, RSTn)
+                    state = State.MARKER_FF;
+                } else if (value == 0xDA || value == 0xD9 || value == 0x00) {
+                    // SOF 없이 스캔 데이터나 이미지 끝에 도달한 경우
+                    state = State.DONE;
+                } else {
+                    state = State.LENGTH_HIGH;
+                }
+            }
+            case LENGTH_HIGH -> {
+                segmentLength = value << 8;
+                state = State.LENGTH_LOW;
+            }
+            case LENGTH_LOW -> {
+                segmentLength |= value;
+                if (segmentLength < 2) {
+                    state = State.DONE;
+                } else if (isStartOfFrame(marker)) {
+                    frameHeaderLength = 0;
+                    state = segmentLength >= 2 + frameHeader.length ? State.FRAME_HEADER : State.DONE;
+                } else {
+                    skipRemaining = segmentLength - 2;
+                    state = skipRemaining > 0 ? State.SKIP : State.MARKER_FF;
+                }
+            }
+            case FRAME_HEADER -> {
+                frameHeader[frameHeaderLength++] = (byte) value;
+                if (frameHeaderLength == frameHeader.length) {
+                    // [정밀도][높이 2바이트][너비 2바이트]
+                    height = (frameHeader[1] & 0xFF) << 8 | frameHeader[2] & 0xFF;
+                    width = (frameHeader[3] & 0xFF) << 8 | frameHeader[4] & 0xFF;
+                    state = State.DONE;
+                }
+            }
+            default -> state = State.DONE;
+        }
+    }
+
+    // SOF0~SOF15 중 DHT(C4), JPG(C8), DAC(CC)를 제외한 마커
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+}
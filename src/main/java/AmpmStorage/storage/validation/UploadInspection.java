@@ -0,0 +1,13 @@
+package AmpmStorage.storage.validation;
+
+/**
+ * 업로드 본문을 저장하면서 한 번에 얻은 검사 결과입니다.
+ *
+ * @param contentType 매직 바이트로 판별한 Content-Type
+ * @param width       이미지 너비(픽셀)
+ * @param height      이미지 높이(픽셀)
+ * @param digest      내용의 SHA-256 (16진수)
+ * @param size        본문 크기
+ */
+public record UploadInspection(String contentType, int width, int height, String digest, long size) {
+}
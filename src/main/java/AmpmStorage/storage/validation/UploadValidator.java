@@ -0,0 +1,140 @@
+package AmpmStorage.storage.validation;
+
+import AmpmStorage.common.exception.BusinessException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 이미지 업로드 본문을 저장하면서 검사합니다. 검사는 {@link InspectingChannel}이 본문을 한 번 흘려 보내는 동안
+ * 처리하며, 결과({@link UploadInspection})는 메타데이터 색인에 기록되어 다운로드 시 형식을 다시 추측하지 않습니다.
+ * <ul>
+ *     <li>매직 바이트로 형식(PNG, JPEG, GIF, WebP)을 판별하고, 선언한 Content-Type과 다르면 415로 거절합니다.</li>
+ *     <li>형식별 크기 제한({@code app.storage.validation.max-sizes})을 넘는 순간 413으로 거절합니다.</li>
+ *     <li>이미지 크기(너비/높이)를 읽을 수 없으면 400으로 거절합니다.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage.validation", name = "enabled", havingValue = "true")
+public class UploadValidator implements MeterBinder {
+
+    enum Rejection {
+        UNSUPPORTED("unsupported", HttpStatus.UNSUPPORTED_MEDIA_TYPE),
+        MISMATCH("mismatch", HttpStatus.UNSUPPORTED_MEDIA_TYPE),
+        TOO_LARGE("too-large", HttpStatus.PAYLOAD_TOO_LARGE),
+        MALFORMED("malformed", HttpStatus.BAD_REQUEST);
+
+        private final String tag;
+        private final HttpStatus status;
+
+        Rejection(String tag, HttpStatus status) {
+            this.tag = tag;
+            this.status = status;
+        }
+    }
+
+    private final Map<ImageFormat, Long> maxBytes = new EnumMap<>(ImageFormat.class);
+    private final LongAdder accepted = new LongAdder();
+    private final Map<Rejection, LongAdder> rejected = new EnumMap<>(Rejection.class);
+
+    /**
+     * @param maxSizes {@code content-type=크기} 형식의 형식별 크기 제한 (예: {@code image/gif=5MB}).
+     *                 설정하지 않은 형식은 요청의 크기 제한만 적용합니다.
+     */
+    public UploadValidator(@Value("${app.storage.validation.max-sizes:}") List<String> maxSizes) {
+        for (String entry : maxSizes) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            ImageFormat format = separator > 0
+                ? ImageFormat.ofMediaType(entry.substring(0, separator).trim().toLowerCase(Locale.ROOT))
+                : null;
+            if (format == null) {
+                throw new IllegalStateException("app.storage.validation.max-sizes 항목이 올바르지 않습니다: " + entry);
+            }
+            maxBytes.put(format, DataSize.parse(entry.substring(separator + 1).trim()).toBytes());
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejected.put(rejection, new LongAdder());
+        }
+    }
+
+    /**
+     * 본문을 검사하며 읽는 채널을 만듭니다. 지원하지 않는 Content-Type이면 본문을 읽기 전에 거절합니다.
+     *
+     * @param declaredType 요청의 Content-Type ({@code image/*}이면 지원하는 모든 형식을 허용)
+     */
+    public InspectingChannel inspect(String declaredType, ReadableByteChannel source) {
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(declaredType);
+        } catch (InvalidMediaTypeException e) {
+            throw reject(Rejection.UNSUPPORTED, "Content-Type이 올바르지 않습니다: " + declaredType);
+        }
+        if (!"image".equalsIgnoreCase(mediaType.getType())) {
+            throw reject(Rejection.UNSUPPORTED, "이미지 형식만 업로드할 수 있습니다: " + declaredType);
+        }
+        ImageFormat declared = null;
+        if (!mediaType.isWildcardSubtype()) {
+            declared = ImageFormat.ofMediaType(
+                (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT));
+            if (declared == null) {
+                throw reject(Rejection.UNSUPPORTED, "지원하지 않는 이미지 형식입니다: " + declaredType);
+            }
+        }
+        return new InspectingChannel(source, this, declared, newDigest());
+    }
+
+    long maxBytes(ImageFormat format) {
+        return maxBytes.getOrDefault(format, Long.MAX_VALUE);
+    }
+
+    BusinessException reject(Rejection rejection, String message) {
+        rejected.get(rejection).increment();
+        return new BusinessException(rejection.status, message);
+    }
+
+    void accepted() {
+        accepted.increment();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("storage.validation.uploads", accepted, LongAdder::sum)
+            .tag("result", "accepted")
+            .tag("reason", "none")
+            .description("검사한 이미지 업로드 수")
+            .register(registry);
+        for (Map.Entry<Rejection, LongAdder> entry : rejected.entrySet()) {
+            FunctionCounter.builder("storage.validation.uploads", entry.getValue(), LongAdder::sum)
+                .tag("result", "rejected")
+                .tag("reason", entry.getKey().tag)
+                .description("검사한 이미지 업로드 수")
+                .register(registry);
+        }
+    }
+}
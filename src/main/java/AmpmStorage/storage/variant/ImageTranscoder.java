@@ -0,0 +1,115 @@
+package AmpmStorage.storage.variant;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * 원본 이미지를 지정한 너비 이하로 줄여 다시 인코딩합니다. (JDK ImageIO만 사용)
+ * <p>
+ * 목표 너비보다 훨씬 큰 원본은 디코딩 단계에서 서브샘플링하여 읽으므로, 전체 해상도의 픽셀 버퍼를 만들지 않습니다.
+ * 남은 축소는 bilinear 보간으로 처리합니다. 원본보다 크게 늘리지는 않습니다.
+ */
+final class ImageTranscoder {
+
+    private final String format;
+    private final float quality;
+    private final long maxSourcePixels;
+
+    ImageTranscoder(String format, float quality, long maxSourcePixels) {
+        if (!ImageIO.getImageWritersByFormatName(format).hasNext()) {
+            throw new IllegalStateException("지원하지 않는 이미지 형식입니다: " + format);
+        }
+        this.format = format;
+        this.quality = quality;
+        this.maxSourcePixels = maxSourcePixels;
+    }
+
+    String format() {
+        return format;
+    }
+
+    /**
+     * @return 인코딩된 이미지
+     * @throws IOException 이미지로 읽을 수 없거나 픽셀 수가 상한을 넘는 경우
+     */
+    byte[] resize(InputStream source, int targetWidth) throws IOException {
+        BufferedImage decoded = decode(source, targetWidth);
+        int width = Math.min(targetWidth, decoded.getWidth());
+        int height = Math.max(1, (int) Math.round((double) decoded.getHeight() * width / decoded.getWidth()));
+
+        boolean opaque = "jpeg".equals(format) || "jpg".equals(format);
+        BufferedImage scaled = new BufferedImage(width, height,
+            opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            if (opaque) {
+                // JPEG는 알파 채널이 없으므로 투명 영역을 흰색으로 채웁니다.
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(decoded, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return encode(scaled);
+    }
+
+    private BufferedImage decode(InputStream source, int targetWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("이미지 형식을 인식할 수 없습니다.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+                    throw new IOException("이미지 픽셀 수가 제한을 초과했습니다: " + sourceWidth + "x" + sourceHeight);
+                }
+                // 보간 품질을 위해 목표 너비의 2배 이상은 남기고 줄여 읽습니다.
+                int subsampling = Math.max(1, sourceWidth / (targetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(encoded)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed() && param.getCompressionTypes() != null) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionType(param.getCompressionTypes()[0]);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return encoded.toByteArray();
+    }
+}
@@ -0,0 +1,215 @@
+package AmpmStorage.storage.variant;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 업로드된 이미지의 축소 변형(썸네일 등)을 만들어 예약 경로 {@code .variants/}에 저장합니다.
+ * ({@code .../image.png} -> {@code .variants/.../image.png.w320.jpg})
+ * <p>
+ * 사용자 키와 겹치지 않으므로 업로드가 같은 이름의 사용자 파일을 지우거나, 사용자가 올린 파일이 변형으로 제공되지 않습니다.
+ * 원본이 지워진 변형은 {@code StorageScrubber}가 정리합니다.
+ * <ul>
+ *     <li>업로드가 끝나면 설정된 너비({@code app.storage.variants.widths})의 변형을 백그라운드에서 만듭니다.</li>
+ *     <li>다운로드 시 변형이 없으면 그 자리에서 만들되, 같은 변형을 동시에 요청해도 한 번만 변환합니다. (single-flight)</li>
+ *     <li>변환은 크기가 제한된 작업 큐를 가진 전용 스레드 풀에서만 실행합니다. 큐가 가득 차면 업로드 직후의 변환은
+ *     건너뛰고(첫 요청 시 생성), 다운로드 요청은 원본으로 응답합니다.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.storage.variants", name = "enabled", havingValue = "true")
+public class ImageVariantService implements DisposableBean {
+
+    private static final String VARIANT_PREFIX = ".variants/";
+
+    private final StorageBackend storageBackend;
+    private final ImageTranscoder transcoder;
+    private final String extension;
+    private final int[] widths;
+    private final long maxSourceBytes;
+    private final Duration waitTimeout;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(StorageBackend storageBackend,
+                               @Value("${app.storage.variants.widths:320,640,1280}") List<Integer> widths,
+                               @Value("${app.storage.variants.format:jpeg}") String format,
+                               @Value("${app.storage.variants.quality:0.8}") float quality,
+                               @Value("${app.storage.variants.max-source-pixels:50000000}") long maxSourcePixels,
+                               @Value("${app.storage.variants.max-source-bytes:${app.storage.upload.max-file-size:10MB}}")
+                               DataSize maxSourceBytes,
+                               @Value("${app.storage.variants.workers:0}") int workers,
+                               @Value("${app.storage.variants.queue-capacity:256}") int queueCapacity,
+                               @Value("${app.storage.variants.wait-timeout:10s}") Duration waitTimeout) {
+        if (widths.isEmpty()) {
+            throw new IllegalStateException("app.storage.variants.widths가 비어 있습니다.");
+        }
+        this.storageBackend = storageBackend;
+        this.transcoder = new ImageTranscoder(format, quality, maxSourcePixels);
+        this.extension = "jpeg".equals(format) ? "jpg" : format;
+        this.widths = widths.stream().mapToInt(Integer::intValue).filter(width -> width > 0).sorted().distinct().toArray();
+        this.maxSourceBytes = maxSourceBytes.toBytes();
+        this.waitTimeout = waitTimeout;
+
+        // 변환은 CPU 작업이므로 기본값은 코어 수의 절반입니다. 요청 처리 스레드와 CPU를 나눠 씁니다.
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> Thread.ofPlatform().daemon()
+                .name("storage-variant-" + threadIndex.incrementAndGet())
+                .priority(Thread.NORM_PRIORITY - 1)
+                .unstarted(runnable),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 원본이 새로 저장된 뒤 호출합니다. 이전 원본의 변형을 지우고 새 변형을 백그라운드에서 만듭니다.
+     */
+    public void onOriginalStored(String key) throws IOException {
+        for (int width : widths) {
+            storageBackend.delete(variantKey(key, width));
+        }
+        for (int width : widths) {
+            CompletableFuture<Void> generation = generate(key, width);
+            if (generation == null) {
+                log.debug("변환 큐가 가득 차 첫 요청 시 변형을 만듭니다: {} (w={})", key, width);
+                continue;
+            }
+            generation.whenComplete((ignored, error) -> {
+                if (error != null && !(error instanceof NoSuchFileException)) {
+                    log.warn("이미지 변형을 만들지 못했습니다: {} (w={}): {}", key, width, error.toString());
+                }
+            });
+        }
+    }
+
+    /**
+     * 요청한 너비에 맞는 변형의 키를 반환합니다. 변형이 없으면 만들고, 만들 수 없으면 원본 키를 반환합니다.
+     *
+     * @param requestedWidth 요청한 너비. 설정된 너비 중 이 값 이상인 가장 작은 너비를 사용합니다.
+     */
+    public String resolve(String key, int requestedWidth) throws IOException {
+        int width = snap(requestedWidth);
+        String variantKey = variantKey(key, width);
+        if (storageBackend.head(variantKey) != null) {
+            return variantKey;
+        }
+
+        CompletableFuture<Void> generation = generate(key, width);
+        if (generation == null) {
+            return key;
+        }
+        try {
+            generation.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return variantKey;
+        } catch (TimeoutException e) {
+            return key;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return key;
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof NoSuchFileException)) {
+                log.warn("이미지 변형을 만들지 못했습니다: {} (w={})", key, width, e.getCause());
+            }
+            return key;
+        }
+    }
+
+    /**
+     * @return 변형의 키 ({@code a/image.png} -> {@code .variants/a/image.png.w320.jpg})
+     */
+    public String variantKey(String key, int width) {
+        return VARIANT_PREFIX + key + ".w" + width + "." + extension;
+    }
+
+    int snap(int requestedWidth) {
+        for (int width : widths) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    // 같은 변형을 만드는 작업이 이미 있으면 그 작업을 반환합니다. 큐가 가득 차면 null을 반환합니다.
+    private CompletableFuture<Void> generate(String key, int width) {
+        String variantKey = variantKey(key, width);
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(variantKey, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // 앞선 작업이 막 끝나 변형이 이미 있을 수 있습니다.
+                    if (storageBackend.head(variantKey) == null) {
+                        transcode(key, variantKey, width);
+                    }
+                    created.complete(null);
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(variantKey, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(variantKey, created);
+            return null;
+        }
+        return created;
+    }
+
+    private void transcode(String key, String variantKey, int width) throws IOException {
+        FileMetadata original = storageBackend.head(key);
+        if (original == null) {
+            throw new NoSuchFileException(key);
+        }
+        if (original.size() > maxSourceBytes) {
+            throw new IOException("원본이 변환 크기 제한을 초과했습니다: " + original.size() + " bytes");
+        }
+
+        byte[] encoded;
+        try (InputStream source = Channels.newInputStream(storageBackend.get(key, 0, original.size()))) {
+            encoded = transcoder.resize(source, width);
+        }
+        storageBackend.put(variantKey, Channels.newChannel(new ByteArrayInputStream(encoded)), encoded.length);
+
+        // 변환하는 동안 원본이 교체되었으면 이전 원본으로 만든 변형을 지웁니다. (새 원본의 변형은 다시 만들어집니다)
+        FileMetadata current = storageBackend.head(key);
+        if (current == null || !Objects.equals(current.eTag(), original.eTag())) {
+            storageBackend.delete(variantKey);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
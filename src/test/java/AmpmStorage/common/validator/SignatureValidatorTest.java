@@ -1,5 +1,11 @@
 package AmpmStorage.common.validator;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -83,4 +89,32 @@ class SignatureValidatorTest {
         // then
         assertThat(result).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 서명해도 단일 스레드와 같은 서명을 생성한다")
+    void generateSignature_concurrently_shouldMatchSequentialResult() throws Exception {
+        // given
+        long expires = System.currentTimeMillis() / 1000 + 3600;
+        List<String> fileIds = IntStream.range(0, 200).mapToObj(i -> "exhibits/images/" + i + "/posts/이미지-" + i).toList();
+        List<String> expected = fileIds.stream()
+            .map(fileId -> signatureValidator.generateSignature("PUT", fileId, expires))
+            .toList();
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = fileIds.stream()
+                .<Callable<String>>map(fileId -> () -> signatureValidator.generateSignature("PUT", fileId, expires))
+                .toList();
+            List<Future<String>> results = executor.invokeAll(tasks);
+
+            // then
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(expected.get(i));
+                assertThat(signatureValidator.verify("PUT", fileIds.get(i), expires, expected.get(i))).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package AmpmStorage.storage.backend;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.io.DurabilityPolicy;
+import AmpmStorage.storage.io.StreamingFileWriter;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 테스트용 {@link LocalFileSystemBackend}와 그 구성 요소입니다. 저장소는 {@code storageBackend}, 중복 제거 저장소는
+ * {@code contentAddressedStore}라는 이름으로 {@link #beanFactory()}에 등록되어 있으며, 이벤트는 메타데이터 캐시로
+ * 바로 전달합니다.
+ *
+ * @param contentAddressedStore 중복 제거를 켜지 않았으면 {@code null}
+ */
+public record LocalBackendFixture(DefaultListableBeanFactory beanFactory,
+                                  AtomicFileWriter atomicFileWriter,
+                                  FileMetadataCache metadataCache,
+                                  ContentAddressedStore contentAddressedStore,
+                                  LocalFileSystemBackend backend) {
+
+    public static LocalBackendFixture create(Path root, DirectoryLayout layout) throws IOException {
+        return create(root, layout, false);
+    }
+
+    public static LocalBackendFixture create(Path root, DirectoryLayout layout, boolean dedup) throws IOException {
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofKilobytes(4), 16, 1000);
+        DiskIoLimiter diskIoLimiter = DiskIoLimiter.unlimited();
+        StreamingFileWriter streamingFileWriter = new StreamingFileWriter(bufferPool, diskIoLimiter);
+        AtomicFileWriter atomicFileWriter = new AtomicFileWriter(streamingFileWriter, diskIoLimiter,
+            DurabilityPolicy.NONE, 16, Duration.ofMillis(2));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        ContentAddressedStore contentAddressedStore = null;
+        if (dedup) {
+            contentAddressedStore = new ContentAddressedStore(root.toString(), streamingFileWriter, atomicFileWriter);
+            beanFactory.registerSingleton("contentAddressedStore", contentAddressedStore);
+        }
+        FileMetadataCache metadataCache =
+            new FileMetadataCache(1000, beanFactory.getBeanProvider(ContentAddressedStore.class));
+        LocalFileSystemBackend backend = new LocalFileSystemBackend(root.toString(), layout, atomicFileWriter,
+            metadataCache, event -> metadataCache.onStoredObjectChanged((StoredObjectChangedEvent) event),
+            beanFactory.getBeanProvider(ContentAddressedStore.class));
+        beanFactory.registerSingleton("storageBackend", backend);
+        return new LocalBackendFixture(beanFactory, atomicFileWriter, metadataCache, contentAddressedStore, backend);
+    }
+
+    /**
+     * 저장소와 같은 방식으로 이벤트를 메타데이터 캐시에 전달합니다. (저장소를 감싸는 구현체의 이벤트 발행자로 사용)
+     */
+    public void publish(Object event) {
+        metadataCache.onStoredObjectChanged((StoredObjectChangedEvent) event);
+    }
+}
@@ -0,0 +1,153 @@
+package AmpmStorage.storage.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+class LocalFileSystemBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("hashed 배치에서는 새 파일을 샤드 디렉터리에 쓰고, 기존 flat 파일도 찾으며 이전 후에는 샤드에서 제공한다")
+    void hashedLayout_shouldFindLegacyFilesAndMigrateThem() throws Exception {
+        // given
+        String legacyKey = "exhibits/images/1/posts/a/image.png";
+        Path legacyFile = tempDir.resolve(legacyKey);
+        Files.createDirectories(legacyFile.getParent());
+        Files.writeString(legacyFile, "legacy");
+        LocalFileSystemBackend backend = backend(new DirectoryLayout(DirectoryLayout.Type.HASHED, 2));
+
+        // when
+        String newKey = "exhibits/images/2/posts/b/image.png";
+        backend.put(newKey, body("new"), 1024);
+
+        // then
+        Path shardRoot = tempDir.resolve(DirectoryLayout.SHARD_DIRECTORY);
+        assertThat(backend.localPath(newKey)).startsWith(shardRoot);
+        assertThat(backend.localPath(newKey).getFileName().toString())
+            .isEqualTo("exhibits%2Fimages%2F2%2Fposts%2Fb%2Fimage.png");
+        assertThat(backend.localPath(legacyKey)).isEqualTo(legacyFile);
+        assertThat(backend.head(legacyKey).size()).isEqualTo(6);
+        assertThat(backend.list("exhibits/images/", 10)).containsExactly(legacyKey, newKey);
+
+        // when
+        long migrated = backend.migrateLegacyLayout(0, Duration.ZERO);
+
+        // then
+        assertThat(migrated).isEqualTo(1);
+        assertThat(backend.localPath(legacyKey)).startsWith(shardRoot);
+        assertThat(Files.readString(backend.localPath(legacyKey))).isEqualTo("legacy");
+        assertThat(Files.exists(tempDir.resolve("exhibits"))).isFalse();
+        assertThat(backend.list("exhibits/images/1/", 10)).containsExactly(legacyKey);
+    }
+
+    @Test
+    @DisplayName("hashed 배치의 파일 이름은 키로 되돌릴 수 있다")
+    void encode_shouldBeReversible() {
+        String key = "exhibits/images/100%/posts/a%2Fb/image.png";
+
+        assertThat(DirectoryLayout.decode(DirectoryLayout.encode(key))).isEqualTo(key);
+        assertThat(DirectoryLayout.encode(key)).doesNotContain("/");
+    }
+
+    @Test
+    @DisplayName("버전을 붙인 쓰기는 같거나 더 새 버전이 있으면 409로 거절하고, 같은 시각이면 노드 ID로 정하며, rename 직전 내용을 스냅샷으로 남긴다")
+    void putVersion_shouldApplyLastWriterWinsAndKeepSnapshot() throws Exception {
+        // given
+        LocalFileSystemBackend backend = backend(new DirectoryLayout(DirectoryLayout.Type.FLAT, 2));
+        String key = "exhibits/images/1/posts/a/image.png";
+        Path snapshot = tempDir.resolve("snapshot");
+        backend.putVersion(key, body("newer"), 1024, new ObjectVersion(2_000_000, "node-a"), snapshot);
+
+        // when
+        backend.put(key, body("replaced"), 1024);
+
+        // then - 스냅샷은 교체된 뒤에도 버전 2_000_000의 내용
+        assertThat(Files.readString(snapshot)).isEqualTo("newer");
+
+        // when & then - 이전 버전과 같은 버전(재전송)은 반영하지 않음
+        assertThatThrownBy(() -> backend.putVersion(key, body("stale"), 1024,
+                new ObjectVersion(1_000_000, "node-z"), null))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThatThrownBy(() -> backend.putVersion(key, body("again"), 1024,
+                new ObjectVersion(2_000_000, "node-a"), null))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(Files.readString(backend.localPath(key))).isEqualTo("replaced");
+        backend.putVersion(key, body("tie"), 1024, new ObjectVersion(2_000_000, "node-b"), null);
+        assertThat(Files.readString(backend.localPath(key))).isEqualTo("tie");
+    }
+
+    @Test
+    @DisplayName("중복 제거가 켜져 있어도 같은 내용의 다른 키를 쓸 때 기존 키의 버전과 수정 시각이 바뀌지 않는다")
+    void putVersion_withDedup_shouldKeepVersionPerKey() throws Exception {
+        // given
+        LocalBackendFixture local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat(), true);
+        LocalFileSystemBackend backend = local.backend();
+        String first = "exhibits/images/1/posts/a/image.png";
+        String second = "exhibits/images/2/posts/b/image.png";
+        backend.putVersion(first, body("same"), 1024, new ObjectVersion(9_000_000, "node-a"), null);
+        long lastModified = backend.head(first).lastModified();
+
+        // when - 같은 내용(같은 블롭)을 더 오래된 버전으로 다른 키에 씀
+        backend.putVersion(second, body("same"), 1024, new ObjectVersion(1_000_000, "node-a"), null);
+
+        // then
+        assertThat(Files.isSameFile(backend.localPath(first), backend.localPath(second))).isTrue();
+        assertThat(Files.getLastModifiedTime(backend.localPath(first)).toMillis()).isEqualTo(lastModified);
+        assertThatThrownBy(() -> backend.putVersion(first, body("stale"), 1024,
+                new ObjectVersion(5_000_000, "node-a"), null))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(Files.readString(backend.localPath(first))).isEqualTo("same");
+    }
+
+    @Test
+    @DisplayName("버전을 붙인 삭제는 삭제 표시를 남겨, 삭제보다 먼저 시작된 쓰기가 늦게 도착해도 되살리지 않는다")
+    void deleteVersion_shouldLeaveTombstone() throws Exception {
+        // given
+        LocalFileSystemBackend backend = backend(DirectoryLayout.flat());
+        String key = "exhibits/images/1/posts/a/image.png";
+        backend.putVersion(key, body("first"), 1024, new ObjectVersion(1_000, "node-a"), null);
+
+        // when
+        boolean deleted = backend.deleteVersion(key, new ObjectVersion(3_000, "node-b"));
+
+        // then
+        assertThat(deleted).isTrue();
+        assertThat(backend.head(key)).isNull();
+        assertThatThrownBy(() -> backend.putVersion(key, body("in-flight"), 1024,
+                new ObjectVersion(2_000, "node-a"), null))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(backend.head(key)).isNull();
+        backend.putVersion(key, body("recreated"), 1024, new ObjectVersion(4_000, "node-a"), null);
+        assertThat(Files.readString(backend.localPath(key))).isEqualTo("recreated");
+        assertThatThrownBy(() -> backend.deleteVersion(key, new ObjectVersion(3_500, "node-c")))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private LocalFileSystemBackend backend(DirectoryLayout layout) throws Exception {
+        return LocalBackendFixture.create(tempDir, layout).backend();
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,176 @@
+package AmpmStorage.storage.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.io.StreamingFileWriter;
+import AmpmStorage.storage.service.FileMetadata;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class S3StorageBackendTest {
+
+    private static final String BUCKET = "ampm-test";
+
+    private final NavigableMap<String, byte[]> objects = new ConcurrentSkipListMap<>();
+    private HttpServer server;
+    private S3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/" + BUCKET, this::handle);
+        server.start();
+
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofKilobytes(4), 16, 1000);
+        StreamingFileWriter streamingFileWriter = new StreamingFileWriter(bufferPool, DiskIoLimiter.unlimited());
+        backend = new S3StorageBackend("http://127.0.0.1:" + server.getAddress().getPort(), BUCKET, "us-east-1",
+            "access", "secret", Duration.ofSeconds(5), streamingFileWriter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("S3 호환 저장소에 저장한 객체를 메타데이터, 구간 읽기, 목록, 삭제로 다룰 수 있다")
+    void putHeadGetListDelete_shouldRoundTrip() throws Exception {
+        // given
+        String key = "exhibits/images/user 1/posts/a/image.png";
+        backend.put(key, body("0123456789"), 1024);
+        backend.put("exhibits/images/user 1/posts/b/image.png", body("other"), 1024);
+        backend.put("exhibits/images/user-2/posts/c/image.png", body("third"), 1024);
+
+        // when
+        FileMetadata metadata = backend.head(key);
+        String range;
+        try (InputStream in = Channels.newInputStream(backend.get(key, 2, 4))) {
+            range = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // then
+        assertThat(objects).containsKey(key);
+        assertThat(metadata.size()).isEqualTo(10);
+        assertThat(metadata.contentType()).isEqualTo("image/png");
+        assertThat(range).isEqualTo("2345");
+        assertThat(backend.list("exhibits/images/user 1/", 10)).containsExactly(
+            "exhibits/images/user 1/posts/a/image.png", "exhibits/images/user 1/posts/b/image.png");
+        assertThat(backend.localPath(key)).isNull();
+
+        assertThat(backend.delete(key)).isTrue();
+        assertThat(backend.head(key)).isNull();
+        assertThatThrownBy(() -> backend.get(key, 0, 10)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    // path-style 요청만 처리하는 최소한의 S3 대역. 서명은 헤더가 있는지만 확인합니다.
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestHeaders().getFirst("Authorization").startsWith("AWS4-HMAC-SHA256 ")) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getRawPath();
+            String key = path.length() > BUCKET.length() + 2
+                ? URLDecoder.decode(path.substring(BUCKET.length() + 2).replace("+", "%2B"), StandardCharsets.UTF_8)
+                : "";
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    try (InputStream in = exchange.getRequestBody()) {
+                        objects.put(key, in.readAllBytes());
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "DELETE" -> {
+                    objects.remove(key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "HEAD" -> {
+                    byte[] content = objects.get(key);
+                    if (content == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(content.length));
+                    exchange.getResponseHeaders().set("Content-Type", "image/png");
+                    exchange.getResponseHeaders().set("ETag", "\"" + Arrays.hashCode(content) + "\"");
+                    exchange.getResponseHeaders().set("Last-Modified", "Sun, 18 Oct 2026 10:00:00 GMT");
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    if (key.isEmpty()) {
+                        list(exchange);
+                    } else {
+                        getObject(exchange, key);
+                    }
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void getObject(HttpExchange exchange, String key) throws IOException {
+        byte[] content = objects.get(key);
+        if (content == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int status = 200;
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            content = Arrays.copyOfRange(content, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+            status = 206;
+        }
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        for (String pair : exchange.getRequestURI().getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            query.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        String prefix = query.getOrDefault("prefix", "");
+        StringBuilder xml = new StringBuilder("<ListBucketResult><IsTruncated>false</IsTruncated>");
+        objects.tailMap(prefix, true).keySet().stream()
+            .takeWhile(key -> key.startsWith(prefix))
+            .limit(Integer.parseInt(query.get("max-keys")))
+            .forEach(key -> xml.append("<Contents><Key>").append(key).append("</Key></Contents>"));
+        byte[] body = xml.append("</ListBucketResult>").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,33 @@
+package AmpmStorage.storage.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class StorageKeysTest {
+
+    @Test
+    @DisplayName("예약 경로, 상대 경로 세그먼트, 임시 파일 접미사로 끝나는 키는 거절한다")
+    void validate_shouldRejectReservedAndTemporaryKeys() {
+        // given
+        String[] invalid = {
+            ".blobs/ab/cd", "/exhibits/a.png", "exhibits//a.png", "exhibits/../a.png", "exhibits/./a.png",
+            "exhibits\\a.png", "exhibits/images/1/posts/a/image.png" + AtomicFileWriter.TEMP_SUFFIX
+        };
+
+        // when & then
+        for (String key : invalid) {
+            assertThat(StorageKeys.isValid(key)).as(key).isFalse();
+            assertThatThrownBy(() -> StorageKeys.validate(key))
+                .isInstanceOfSatisfying(BusinessException.class,
+                    e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        assertThat(StorageKeys.isValid("exhibits/images/1/posts/a/image.upload-tmp.png")).isTrue();
+        assertThat(StorageKeys.isValid("exhibits/images/1/posts/a/.hidden.png")).isTrue();
+    }
+}
@@ -0,0 +1,160 @@
+package AmpmStorage.storage.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.backend.StorageScrubber.Reason;
+import AmpmStorage.storage.backend.StorageScrubber.Report;
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.index.IndexEntry;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.io.AtomicFileWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+class StorageScrubberTest {
+
+    private static final Instant NOW = Instant.now();
+    private static final FileTime TWO_DAYS_AGO = FileTime.from(NOW.minus(Duration.ofDays(2)));
+
+    @TempDir
+    Path tempDir;
+
+    private LocalFileSystemBackend backend;
+    private MetadataIndex metadataIndex;
+    private StorageScrubber scrubber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalBackendFixture local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat());
+        DefaultListableBeanFactory beanFactory = local.beanFactory();
+        backend = local.backend();
+        metadataIndex = new MetadataIndex(tempDir.resolve(".index").toString(), 1000);
+        beanFactory.registerSingleton("metadataIndex", metadataIndex);
+        scrubber = new StorageScrubber(beanFactory.getBeanProvider(FileSystemStorageBackend.class),
+            beanFactory.getBeanProvider(MetadataIndex.class),
+            beanFactory.getBeanProvider(ContentAddressedStore.class), Duration.ofHours(24), Duration.ZERO, 0,
+            DataSize.ofBytes(0), true, Duration.ofHours(24), "", Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        metadataIndex.destroy();
+    }
+
+    @Test
+    @DisplayName("오래된 임시 파일, 원본 없는 사본/변형, 빈 디렉터리는 지우고 최근 파일과 원본이 있는 사본/변형은 남긴다")
+    void scrub_shouldRemoveStaleLeftoversOnly() throws Exception {
+        // given
+        backend.put("exhibits/images/1/posts/a/image.png", body("image"), 1024);
+        Path staleTemp = file("exhibits/images/1/posts/a/.image.png.1f" + AtomicFileWriter.TEMP_SUFFIX, TWO_DAYS_AGO);
+        Path freshTemp = file("exhibits/images/1/posts/a/.image.png.2e" + AtomicFileWriter.TEMP_SUFFIX, FileTime.from(NOW));
+        Path staleIncoming = file(".incoming/2b0f7c8e-upload", TWO_DAYS_AGO);
+        Path orphanedCopy = file(".encoded/exhibits/images/1/posts/gone/data.json.gz", TWO_DAYS_AGO);
+        Path liveCopy = file(".encoded/exhibits/images/1/posts/a/image.png.gz", TWO_DAYS_AGO);
+        Path orphanedVariant = file(".variants/exhibits/images/1/posts/gone/image.png.w320.jpg", TWO_DAYS_AGO);
+        Path liveVariant = file(".variants/exhibits/images/1/posts/a/image.png.w320.jpg", TWO_DAYS_AGO);
+        Path emptyDirectory = Files.createDirectories(tempDir.resolve("exhibits/images/2/posts/b"));
+        Files.setLastModifiedTime(emptyDirectory, TWO_DAYS_AGO);
+
+        // when
+        Report report = scrubber.scrub(NOW);
+
+        // then
+        assertThat(staleTemp).doesNotExist();
+        assertThat(staleIncoming).doesNotExist();
+        assertThat(orphanedCopy).doesNotExist();
+        assertThat(orphanedVariant).doesNotExist();
+        assertThat(emptyDirectory).doesNotExist();
+        assertThat(freshTemp).exists();
+        assertThat(liveCopy).exists();
+        assertThat(liveVariant).exists();
+        assertThat(tempDir.resolve("exhibits/images/1/posts/a/image.png")).exists();
+        assertThat(tempDir.resolve(".incoming")).isDirectory();
+        assertThat(report.removed(Reason.INCOMPLETE_UPLOAD)).isEqualTo(2);
+        assertThat(report.removed(Reason.ORPHANED_COPY)).isEqualTo(2);
+        assertThat(report.removed(Reason.EMPTY_DIRECTORY)).isEqualTo(1);
+        assertThat(report.corrupt()).isZero();
+    }
+
+    @Test
+    @DisplayName("색인의 digest와 내용이 다른 파일은 손상으로 보고하되 지우지 않는다")
+    void scrub_shouldReportBitRotWithoutDeleting() throws Exception {
+        // given
+        String intactKey = "exhibits/images/1/posts/a/image.png";
+        String rottenKey = "exhibits/images/1/posts/b/image.png";
+        store(intactKey, "intact");
+        store(rottenKey, "rotten");
+        // 같은 크기로 내용만 바뀐 경우 (디스크 손상)
+        Files.writeString(tempDir.resolve(rottenKey), "r0tten");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        scrubber.bindTo(meterRegistry);
+
+        // when
+        Report report = scrubber.scrub(NOW);
+
+        // then
+        assertThat(report.corrupt()).isEqualTo(1);
+        assertThat(report.verifiedBytes()).isEqualTo(12);
+        assertThat(tempDir.resolve(rottenKey)).exists();
+        assertThat(meterRegistry.get("storage.scrubber.corrupt").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("storage.scrubber.verified").functionCounter().count()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("지운 키의 오래된 버전 파일(삭제 표시)은 지우고, 파일이 남은 키의 버전 파일은 남긴다")
+    void scrub_shouldExpireTombstonesOfDeletedKeysOnly() throws Exception {
+        // given
+        String liveKey = "exhibits/images/1/posts/a/image.png";
+        String deletedKey = "exhibits/images/1/posts/b/image.png";
+        backend.putVersion(liveKey, body("live"), 1024, new ObjectVersion(1_000, "node-a"), null);
+        backend.putVersion(deletedKey, body("gone"), 1024, new ObjectVersion(1_000, "node-a"), null);
+        backend.deleteVersion(deletedKey, new ObjectVersion(2_000, "node-a"));
+        Files.setLastModifiedTime(backend.versionPath(liveKey), TWO_DAYS_AGO);
+        Files.setLastModifiedTime(backend.versionPath(deletedKey), TWO_DAYS_AGO);
+
+        // when
+        Report report = scrubber.scrub(NOW);
+
+        // then
+        assertThat(backend.versionPath(deletedKey)).doesNotExist();
+        assertThat(backend.versionPath(liveKey)).exists();
+        assertThat(report.removed(Reason.EXPIRED_TOMBSTONE)).isEqualTo(1);
+    }
+
+    private void store(String key, String content) throws Exception {
+        backend.put(key, body(content), 1024);
+        String digest = HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        metadataIndex.put(new IndexEntry(key, content.length(), "image/png", digest,
+            System.currentTimeMillis() + 60_000, IndexEntry.ownerOf(key)));
+    }
+
+    private Path file(String relativePath, FileTime lastModified) throws Exception {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "leftover");
+        Files.setLastModifiedTime(file, lastModified);
+        return file;
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
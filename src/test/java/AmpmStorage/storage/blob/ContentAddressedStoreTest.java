@@ -0,0 +1,127 @@
+package AmpmStorage.storage.blob;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.io.AtomicFileWriter;
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.io.DurabilityPolicy;
+import AmpmStorage.storage.io.StreamingFileWriter;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class ContentAddressedStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("같은 내용을 다른 경로에 올리면 블롭은 하나만 저장되고 참조 수가 늘어난다")
+    void store_withSameContent_shouldShareOneBlob() throws Exception {
+        // given
+        ContentAddressedStore store = store();
+        Path first = tempDir.resolve("exhibits/images/1/posts/a/image.png");
+        Path second = tempDir.resolve("exhibits/images/2/posts/b/image.png");
+
+        // when
+        store.store(body("same image"), first, 1024);
+        store.store(body("same image"), second, 1024);
+
+        // then
+        String digest = sha256("same image");
+        assertThat(Files.readString(second)).isEqualTo("same image");
+        assertThat(Files.isSameFile(first, second)).isTrue();
+        assertThat(Files.isSameFile(first, store.blobPath(digest))).isTrue();
+        assertThat(store.referenceCount(digest)).isEqualTo(2);
+        assertThat(store.digestOf(Files.readAttributes(first, BasicFileAttributes.class))).isEqualTo(digest);
+        try (Stream<Path> staged = Files.list(tempDir.resolve(".blobs/tmp"))) {
+            assertThat(staged).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("경로의 내용을 바꾸면 이전 블롭의 참조가 풀리고, 같은 내용을 다시 올려도 임시 링크가 남지 않는다")
+    void store_whenOverwritten_shouldReleasePreviousBlob() throws Exception {
+        // given
+        ContentAddressedStore store = store();
+        Path target = tempDir.resolve("post/image.png");
+        store.store(body("v1"), target, 1024);
+
+        // when
+        store.store(body("v2"), target, 1024);
+        store.store(body("v2"), target, 1024);
+
+        // then
+        assertThat(Files.readString(target)).isEqualTo("v2");
+        assertThat(store.referenceCount(sha256("v1"))).isZero();
+        assertThat(store.referenceCount(sha256("v2"))).isEqualTo(1);
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    @DisplayName("기록한 뒤 크기나 수정 시각이 바뀐 inode의 digest는 버리고, 정리된 블롭의 기록은 지운다")
+    void digestOf_shouldValidateAgainstStatAndForgetCollectedBlobs() throws Exception {
+        // given
+        ContentAddressedStore store = store();
+        Path target = tempDir.resolve("post/image.png");
+        store.store(body("v1"), target, 1024);
+        Path blob = store.blobPath(sha256("v1"));
+        FileTime original = Files.getLastModifiedTime(target);
+
+        // when - 수정 시각을 직접 바꾸면 refresh 전까지는 믿지 않는다
+        Files.setLastModifiedTime(target, FileTime.fromMillis(original.toMillis() - 60_000));
+        String stale = store.digestOf(Files.readAttributes(target, BasicFileAttributes.class));
+        store.store(body("v1"), target, 1024);
+        Files.setLastModifiedTime(target, FileTime.fromMillis(original.toMillis() - 120_000));
+        store.refresh(target);
+        String refreshed = store.digestOf(Files.readAttributes(target, BasicFileAttributes.class));
+
+        // then
+        assertThat(stale).isNull();
+        assertThat(refreshed).isEqualTo(sha256("v1"));
+
+        // when - 블롭 정리 (스크러버와 같은 순서)
+        store.store(body("v2"), target, 1024);
+        BasicFileAttributes blobAttributes = Files.readAttributes(blob, BasicFileAttributes.class);
+        Files.delete(blob);
+        store.forget(blobAttributes);
+
+        // then
+        assertThat(store.digestOf(blobAttributes)).isNull();
+        assertThat(store.digestOf(Files.readAttributes(target, BasicFileAttributes.class))).isEqualTo(sha256("v2"));
+    }
+
+    private ContentAddressedStore store() throws Exception {
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofKilobytes(4), 16, 1000);
+        DiskIoLimiter diskIoLimiter = new DiskIoLimiter(4, 1000);
+        StreamingFileWriter streamingFileWriter = new StreamingFileWriter(bufferPool, diskIoLimiter);
+        AtomicFileWriter atomicFileWriter = new AtomicFileWriter(streamingFileWriter, diskIoLimiter,
+            DurabilityPolicy.FSYNC_FILE_AND_DIR, 16, Duration.ofMillis(2));
+        return new ContentAddressedStore(tempDir.toString(), streamingFileWriter, atomicFileWriter);
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
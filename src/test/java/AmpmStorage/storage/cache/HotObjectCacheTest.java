@@ -0,0 +1,98 @@
+package AmpmStorage.storage.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class HotObjectCacheTest {
+
+    private final HotObjectCache cache = new HotObjectCache(DataSize.ofBytes(300), DataSize.ofBytes(100));
+
+    @Test
+    @DisplayName("ETag가 다르면 캐시 항목을 돌려주지 않는다")
+    void get_withDifferentETag_shouldMiss() {
+        // given
+        Path path = Path.of("exhibits/images/1/posts/a/image.png");
+        cache.put(path, "\"v1\"", ByteBuffer.allocateDirect(10));
+
+        // when & then
+        assertThat(cache.get(path, "\"v1\"")).isNotNull();
+        assertThat(cache.get(path, "\"v2\"")).isNull();
+    }
+
+    @Test
+    @DisplayName("업로드 이벤트를 받으면 해당 경로를 무효화한다")
+    void onStoredObjectChanged_shouldInvalidateEntry() {
+        // given
+        Path path = Path.of("exhibits/images/1/posts/a/image.png");
+        cache.put(path, "\"v1\"", ByteBuffer.allocateDirect(10));
+
+        // when
+        cache.onStoredObjectChanged(new StoredObjectChangedEvent(path));
+
+        // then
+        assertThat(cache.get(path, "\"v1\"")).isNull();
+    }
+
+    @Test
+    @DisplayName("용량이 가득 차면 자주 조회된 항목은 유지하고 한 번만 조회된 새 항목은 승인하지 않는다")
+    void put_whenFull_shouldKeepFrequentlyUsedEntries() {
+        // given - 100바이트 항목 3개로 용량(300바이트)을 채우고 여러 번 조회
+        Path[] hot = {Path.of("hot-1"), Path.of("hot-2"), Path.of("hot-3")};
+        for (Path path : hot) {
+            cache.put(path, "\"e\"", ByteBuffer.allocateDirect(100));
+        }
+        for (int i = 0; i < 5; i++) {
+            for (Path path : hot) {
+                cache.get(path, "\"e\"");
+            }
+        }
+
+        // when - 처음 보는 항목 적재 시도
+        Path cold = Path.of("cold");
+        cache.get(cold, "\"e\"");
+        cache.put(cold, "\"e\"", ByteBuffer.allocateDirect(100));
+
+        // then
+        assertThat(cache.get(cold, "\"e\"")).isNull();
+        for (Path path : hot) {
+            assertThat(cache.get(path, "\"e\"")).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("예약은 메모리를 할당하기 전에 승인 여부를 정하고, 읽는 중인 예약도 용량에 포함하며, 읽는 사이 무효화되면 적재하지 않는다")
+    void reserve_shouldAdmitBeforeAllocating() {
+        // given - 자주 조회된 100바이트 항목 2개
+        Path[] hot = {Path.of("hot-1"), Path.of("hot-2")};
+        for (Path path : hot) {
+            cache.put(path, "\"e\"", ByteBuffer.allocateDirect(100));
+            for (int i = 0; i < 5; i++) {
+                cache.get(path, "\"e\"");
+            }
+        }
+        Path loading = Path.of("loading");
+        HotObjectCache.Reservation reservation = cache.reserve(loading, 100);
+
+        // when & then - 남은 자리가 없고 처음 보는 항목은 승인하지 않음
+        assertThat(reservation).isNotNull();
+        assertThat(cache.reserve(Path.of("cold"), 100)).isNull();
+
+        // when - 읽는 사이 무효화
+        cache.invalidate(loading);
+        CachedObject loaded = reservation.commit("\"e\"", reservation.buffer());
+
+        // then - 응답에는 쓸 수 있지만 적재되지 않고, 자리는 돌려받음
+        assertThat(loaded.size()).isEqualTo(100);
+        assertThat(cache.get(loading, "\"e\"")).isNull();
+        HotObjectCache.Reservation retry = cache.reserve(loading, 100);
+        assertThat(retry).isNotNull();
+        retry.commit("\"e\"", retry.buffer());
+        assertThat(cache.get(loading, "\"e\"")).isNotNull();
+    }
+}
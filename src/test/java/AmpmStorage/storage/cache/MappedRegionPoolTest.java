@@ -0,0 +1,91 @@
+package AmpmStorage.storage.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.event.StoredObjectChangedEvent;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class MappedRegionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MappedRegionPool pool = new MappedRegionPool(DiskIoLimiter.unlimited(),
+        DataSize.ofBytes(300), 16, DataSize.ofBytes(100), 2);
+
+    @Test
+    @DisplayName("두 번째 읽기부터 파일을 매핑하고, 이후 요청은 같은 매핑을 재사용한다")
+    void get_shouldMapFrequentlyReadFilesAndReuseMapping() throws Exception {
+        // given
+        Path file = Files.writeString(tempDir.resolve("image.png"), "mapped-content");
+
+        // when
+        MappedRegion first = pool.get(file, "\"v1\"", 14);
+        MappedRegion second = pool.get(file, "\"v1\"", 14);
+        MappedRegion third = pool.get(file, "\"v1\"", 14);
+
+        // then
+        assertThat(first).isNull();
+        assertThat(second).isNotNull();
+        assertThat(third).isSameAs(second);
+        assertThat(read(third.content())).isEqualTo("mapped-content");
+    }
+
+    @Test
+    @DisplayName("파일이 교체되면 이전 매핑을 버리고 새 내용을 매핑한다")
+    void onStoredObjectChanged_shouldDropMappingOfOverwrittenFile() throws Exception {
+        // given
+        Path file = Files.writeString(tempDir.resolve("image.png"), "before");
+        pool.get(file, "\"v1\"", 6);
+        MappedRegion before = pool.get(file, "\"v1\"", 6);
+        Path replacement = Files.writeString(tempDir.resolve("image.png.tmp"), "after!");
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+
+        // when
+        pool.onStoredObjectChanged(new StoredObjectChangedEvent(file));
+        MappedRegion after = pool.get(file, "\"v2\"", 6);
+
+        // then
+        assertThat(after).isNotSameAs(before);
+        assertThat(read(after.content())).isEqualTo("after!");
+        // 교체 전에 응답을 시작한 요청은 이전 내용을 끝까지 읽습니다.
+        assertThat(read(before.content())).isEqualTo("before");
+    }
+
+    @Test
+    @DisplayName("매핑한 총 크기가 상한을 넘으면 오래된 매핑부터 제거한다")
+    void get_whenPoolIsFull_shouldEvictOldestMapping() throws Exception {
+        // given - 100바이트 파일 4개, 상한 300바이트
+        Path[] files = new Path[4];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = Files.write(tempDir.resolve("file-" + i), new byte[100]);
+            pool.get(files[i], "\"e\"", 100);
+        }
+
+        // when
+        MappedRegion[] mapped = new MappedRegion[files.length];
+        for (int i = 0; i < files.length; i++) {
+            mapped[i] = pool.get(files[i], "\"e\"", 100);
+        }
+
+        // then - 네 번째 매핑을 위해 첫 번째 매핑을 제거합니다.
+        assertThat(mapped).doesNotContainNull();
+        assertThat(pool.get(files[0], "\"e\"", 100)).isNotSameAs(mapped[0]);
+        assertThat(pool.get(files[3], "\"e\"", 100)).isSameAs(mapped[3]);
+    }
+
+    private static String read(ByteBuffer content) {
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
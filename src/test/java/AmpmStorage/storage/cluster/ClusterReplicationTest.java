@@ -0,0 +1,182 @@
+package AmpmStorage.storage.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.AmpmStorageApplication;
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.common.validator.SignatureValidator;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.service.FileUploadService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+
+class ClusterReplicationTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("해시 링은 키마다 서로 다른 담당 노드를 고르고, 노드를 빼도 그 노드가 담당하지 않던 키는 옮기지 않는다")
+    void hashRing_shouldSpreadKeysAndMoveOnlyAffectedKeys() {
+        // given
+        List<ClusterNode> members = IntStream.rangeClosed(1, 4)
+            .mapToObj(i -> new ClusterNode("node-" + i, URI.create("http://localhost:" + (7000 + i))))
+            .toList();
+        HashRing ring = new HashRing(members, 128);
+        HashRing shrunk = new HashRing(members.subList(0, 3), 128);
+
+        // when
+        Map<ClusterNode, Integer> primaries = new HashMap<>();
+        for (int i = 0; i < 4000; i++) {
+            String key = "exhibits/images/" + i + "/posts/p/image.png";
+            List<ClusterNode> owners = ring.owners(key, 2);
+            primaries.merge(owners.get(0), 1, Integer::sum);
+
+            // then
+            assertThat(owners).hasSize(2).doesNotHaveDuplicates();
+            if (!owners.contains(members.get(3))) {
+                assertThat(shrunk.owners(key, 2)).isEqualTo(owners);
+            }
+        }
+        assertThat(primaries.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1300));
+    }
+
+    @Test
+    @DisplayName("담당 노드가 아닌 노드로 올린 파일은 담당 노드 N개에 복제되고, 어느 노드로든 다운로드할 수 있다")
+    void upload_shouldReplicateToOwnersAndBeReadableFromAnyNode() throws Exception {
+        // given
+        startCluster(3, 2, 2);
+        String key = "exhibits/images/1/posts/post-1/image.png";
+        List<ClusterNode> owners = backend(0).owners(key);
+        int coordinator = indexOfNonOwner(owners);
+
+        // when
+        nodes.get(coordinator).getBean(FileUploadService.class).store(key, body("replicated"), 1024);
+
+        // then
+        for (int i = 0; i < nodes.size(); i++) {
+            Path replica = tempDir.resolve("node-" + i).resolve(key);
+            if (owners.contains(node(i))) {
+                assertThat(Files.readString(replica)).isEqualTo("replicated");
+            } else {
+                assertThat(replica).doesNotExist();
+            }
+        }
+        assertThat(nodes.get(coordinator).getBean(StorageBackend.class).head(key).size()).isEqualTo(10);
+        HttpResponse<String> download = download(coordinator, "exhibits/images/1/post-1/image.png");
+        assertThat(download.statusCode()).isEqualTo(200);
+        assertThat(download.body()).isEqualTo("replicated");
+    }
+
+    @Test
+    @DisplayName("담당 노드가 내려가 쓰기 정족수를 채우지 못하면 503으로 실패한다")
+    void upload_withoutQuorum_shouldFail() throws Exception {
+        // given
+        startCluster(3, 2, 2);
+        ClusterNode stopped = node(2);
+        nodes.get(2).close();
+        String key = IntStream.range(0, 1000)
+            .mapToObj(i -> "exhibits/images/2/posts/post-" + i + "/image.png")
+            .filter(candidate -> backend(0).owners(candidate).contains(stopped))
+            .findFirst().orElseThrow();
+
+        // when & then
+        assertThatThrownBy(() -> nodes.get(0).getBean(FileUploadService.class).store(key, body("lost"), 1024))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    private void startCluster(int size, int replicationFactor, int writeQuorum) throws IOException {
+        int[] ports = new int[size];
+        for (int i = 0; i < size; i++) {
+            ports[i] = freePort();
+        }
+        String members = String.join(",", IntStream.range(0, size)
+            .mapToObj(i -> "node-" + i + "=http://localhost:" + ports[i]).toList());
+        for (int i = 0; i < size; i++) {
+            nodes.add(new SpringApplicationBuilder(AmpmStorageApplication.class)
+                .profiles("test")
+                .properties(
+                    "server.port=" + ports[i],
+                    "app.storage.upload-dir=" + tempDir.resolve("node-" + i),
+                    "app.storage.cluster.enabled=true",
+                    "app.storage.cluster.node-id=node-" + i,
+                    "app.storage.cluster.nodes=" + members,
+                    "app.storage.cluster.replication-factor=" + replicationFactor,
+                    "app.storage.cluster.write-quorum=" + writeQuorum,
+                    "app.storage.cluster.request-timeout=5s")
+                .run());
+        }
+    }
+
+    private ReplicatedStorageBackend backend(int index) {
+        return nodes.get(index).getBean(ReplicatedStorageBackend.class);
+    }
+
+    private ClusterNode node(int index) {
+        int port = Integer.parseInt(nodes.get(index).getEnvironment().getProperty("server.port"));
+        return new ClusterNode("node-" + index, URI.create("http://localhost:" + port));
+    }
+
+    private int indexOfNonOwner(List<ClusterNode> owners) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!owners.contains(node(i))) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("담당 노드가 아닌 노드가 없습니다.");
+    }
+
+    private HttpResponse<String> download(int index, String resource) throws Exception {
+        long expires = System.currentTimeMillis() / 1000 + 60;
+        String signature = nodes.get(index).getBean(SignatureValidator.class).generateSignature("GET", resource, expires);
+        URI uri = URI.create(node(index).baseUri() + "/storage/" + resource
+            + "?expires=" + expires + "&signature=" + signature);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static ReadableByteChannel body(String content) {
+        InputStream stream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        return Channels.newChannel(stream);
+    }
+}
@@ -0,0 +1,126 @@
+package AmpmStorage.storage.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.stream.Stream;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+@ActiveProfiles({"test", "reactive"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+class ReactiveStorageControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${app.storage.secret-key}")
+    private String secretKey;
+
+    @TempDir
+    static Path tempDir;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.upload-dir", () -> tempDir.toString());
+        registry.add("app.storage.layout.migration.enabled", () -> "false");
+    }
+
+    @Test
+    @DisplayName("WebFlux 모드에서도 같은 URL과 서명으로 이미지를 올리고, Range/조건부 요청으로 내려받는다")
+    void exhibits_uploadThenDownload_shouldMatchServletBehavior() throws Exception {
+        // given
+        byte[] image = "0123456789".getBytes(StandardCharsets.UTF_8);
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        String downloadSignature = sign("GET", "exhibits/images/user-1/post-1/image.png", expires);
+
+        // when
+        webTestClient.put()
+            .uri("/storage/exhibits/images/user-1/posts/post-1/image.png?expires={expires}&signature={signature}",
+                expires, sign("PUT", "exhibits/images/user-1/posts/post-1/image.png", expires))
+            .contentType(MediaType.IMAGE_PNG)
+            .bodyValue(image)
+            .exchange()
+            .expectStatus().isOk();
+
+        // then
+        assertThat(Files.readAllBytes(tempDir.resolve("exhibits/images/user-1/posts/post-1/image.png"))).isEqualTo(image);
+        try (Stream<Path> incoming = Files.list(tempDir.resolve(".incoming"))) {
+            assertThat(incoming).isEmpty();
+        }
+
+        String eTag = webTestClient.get()
+            .uri("/storage/exhibits/images/user-1/post-1/image.png?expires={expires}&signature={signature}",
+                expires, downloadSignature)
+            .header(HttpHeaders.RANGE, "bytes=2-5")
+            .exchange()
+            .expectStatus().isEqualTo(206)
+            .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10")
+            .expectBody(String.class).isEqualTo("2345")
+            .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get()
+            .uri("/storage/exhibits/images/user-1/post-1/image.png?expires={expires}&signature={signature}",
+                expires, downloadSignature)
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("WebFlux 모드에서 multipart의 file 파트만 저장하고, 서명이 다르면 본문을 읽기 전에 거절한다")
+    void uploadFile_withMultipartBody_shouldStoreFilePart() throws Exception {
+        // given
+        String fileId = "reactive-upload-file";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("description", "ignored");
+        body.part("file", "streamed content".getBytes(StandardCharsets.UTF_8))
+            .filename("a.txt")
+            .contentType(MediaType.TEXT_PLAIN);
+
+        // when
+        webTestClient.put()
+            .uri("/storage/{fileId}?expires={expires}&signature={signature}",
+                fileId, expires, sign("PUT", fileId, expires))
+            .body(BodyInserters.fromMultipartData(body.build()))
+            .exchange()
+            .expectStatus().isOk();
+        webTestClient.put()
+            .uri("/storage/{fileId}?expires={expires}&signature={signature}",
+                "other-file", expires, sign("PUT", fileId, expires))
+            .body(BodyInserters.fromMultipartData(body.build()))
+            .exchange()
+            .expectStatus().isForbidden();
+
+        // then
+        assertThat(Files.readString(tempDir.resolve(fileId))).isEqualTo("streamed content");
+        assertThat(Files.exists(tempDir.resolve("other-file"))).isFalse();
+    }
+
+    private String sign(String httpMethod, String fileId, long expires) throws Exception {
+        String messageToSign = httpMethod + "\n" + fileId + "\n" + expires;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(mac.doFinal(messageToSign.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,14 +1,25 @@
 package AmpmStorage.storage.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
@@ -37,6 +49,9 @@ class StorageControllerTest {
     @Value("${app.storage.secret-key}")
     private String secretKey;
 
+    @Value("${frontend.domain}")
+    private String frontendDomain;
+
     @TempDir
     static Path tempDir;
 
@@ -82,5 +97,249 @@ class StorageControllerTest {
         assertThat(Files.exists(expectedFilePath)).isTrue();
         assertThat(Files.readString(expectedFilePath)).isEqualTo(fileContent);
     }
-}
 
+    @Test
+    @DisplayName("이미지 다운로드 시 ETag와 함께 전체 본문을 응답하고, 같은 ETag로 재요청하면 304를 응답한다")
+    void download_withMatchingETag_shouldReturnNotModified() throws Exception {
+        // given
+        byte[] image = "fake-png-bytes".getBytes(StandardCharsets.UTF_8);
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        String downloadSignature = sign("GET", "exhibits/images/user-1/post-1/image.png", expires);
+        mockMvc.perform(put("/storage/exhibits/images/{userId}/posts/{uuid}/image.png", "user-1", "post-1")
+                .contentType(MediaType.IMAGE_PNG)
+                .content(image)
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", "exhibits/images/user-1/posts/post-1/image.png", expires)))
+            .andExpect(status().isOk());
+
+        // when
+        String eTag = mockMvc.perform(get("/storage/exhibits/images/{userId}/{uuid}/image.png", "user-1", "post-1")
+                .param("expires", String.valueOf(expires))
+                .param("signature", downloadSignature))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_PNG_VALUE))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(content().bytes(image))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // then
+        assertThat(eTag).isNotBlank();
+        mockMvc.perform(get("/storage/exhibits/images/{userId}/{uuid}/image.png", "user-1", "post-1")
+                .param("expires", String.valueOf(expires))
+                .param("signature", downloadSignature)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Range 헤더로 다운로드하면 요청한 구간만 206으로 응답한다")
+    void download_withRangeHeader_shouldReturnPartialContent() throws Exception {
+        // given
+        byte[] image = "0123456789".getBytes(StandardCharsets.UTF_8);
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        String downloadSignature = sign("GET", "exhibits/images/user-2/post-2/image.png", expires);
+        mockMvc.perform(put("/storage/exhibits/images/{userId}/posts/{uuid}/image.png", "user-2", "post-2")
+                .contentType(MediaType.IMAGE_PNG)
+                .content(image)
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", "exhibits/images/user-2/posts/post-2/image.png", expires)))
+            .andExpect(status().isOk());
+
+        // when & then
+        mockMvc.perform(get("/storage/exhibits/images/{userId}/{uuid}/image.png", "user-2", "post-2")
+                .param("expires", String.valueOf(expires))
+                .param("signature", downloadSignature)
+                .header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+            .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(get("/storage/exhibits/images/{userId}/{uuid}/image.png", "user-2", "post-2")
+                .param("expires", String.valueOf(expires))
+                .param("signature", downloadSignature)
+                .header(HttpHeaders.RANGE, "bytes=20-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    @DisplayName("컨테이너 버퍼링 없이 multipart 본문을 스트리밍으로 파싱하여 file 파트만 저장한다")
+    void uploadFile_withRawMultipartBody_shouldStreamFilePart() throws Exception {
+        // given
+        String fileId = "streamed-upload-file";
+        String boundary = "test-boundary-7MA4YWxk";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        String body = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+            + "ignored\r\n"
+            + "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+            + "Content-Type: text/plain\r\n\r\n"
+            + "streamed content\r\n"
+            + "--" + boundary + "--\r\n";
+
+        // when
+        mockMvc.perform(put("/storage/{fileId}", fileId)
+                .contentType("multipart/form-data; boundary=" + boundary)
+                .content(body.getBytes(StandardCharsets.UTF_8))
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", fileId, expires)))
+            .andExpect(status().isOk());
+
+        // then
+        assertThat(Files.readString(tempDir.resolve(fileId))).isEqualTo("streamed content");
+    }
+
+    @Test
+    @DisplayName("묶음 업로드는 prefix 서명 하나로 여러 파일을 저장하고, 묶음 다운로드는 같은 파일을 zip으로 응답한다")
+    void batch_uploadThenDownload_shouldRoundTripAsZip() throws Exception {
+        // given
+        String prefix = "exhibits/images/batch-user/posts/gallery/";
+        String boundary = "batch-boundary-Q2hh";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 3; i++) {
+            body.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(i).append(".png\"\r\n")
+                .append("Content-Type: image/png\r\n\r\n")
+                .append("image-").append(i).append("\r\n");
+        }
+        body.append("--").append(boundary).append("--\r\n");
+
+        // when
+        mockMvc.perform(post("/storage/batch")
+                .contentType("multipart/form-data; boundary=" + boundary)
+                .content(body.toString().getBytes(StandardCharsets.UTF_8))
+                .param("prefix", prefix)
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("POST", "batch/" + prefix, expires)))
+            .andExpect(status().isOk());
+
+        byte[] archive = mockMvc.perform(get("/storage/batch")
+                .param("prefix", prefix)
+                .param("format", "zip")
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("GET", "batch/" + prefix, expires)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertThat(Files.readString(tempDir.resolve(prefix + "2.png"))).isEqualTo("image-2");
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(entries).containsExactly(
+            Map.entry("1.png", "image-1"), Map.entry("2.png", "image-2"), Map.entry("3.png", "image-3"));
+
+        // 다른 prefix로 만든 서명은 거부합니다.
+        mockMvc.perform(get("/storage/batch")
+                .param("prefix", "exhibits/images/")
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("GET", "batch/" + prefix, expires)))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("묶음 다운로드를 tar로 요청하면 512바이트 블록 단위의 ustar 아카이브를 응답한다")
+    void batchDownload_asTar_shouldWriteUstarEntries() throws Exception {
+        // given
+        String prefix = "exhibits/images/tar-user/";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        mockMvc.perform(put("/storage/exhibits/images/{userId}/posts/{uuid}/image.png", "tar-user", "post-1")
+                .contentType(MediaType.IMAGE_PNG)
+                .content("0123456789".getBytes(StandardCharsets.UTF_8))
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", "exhibits/images/tar-user/posts/post-1/image.png", expires)))
+            .andExpect(status().isOk());
+
+        // when
+        byte[] archive = mockMvc.perform(get("/storage/batch")
+                .param("prefix", prefix)
+                .param("format", "tar")
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("GET", "batch/" + prefix, expires)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // then (헤더 1블록 + 본문 1블록 + 끝 표시 2블록)
+        assertThat(archive).hasSize(512 * 4);
+        assertThat(new String(archive, 0, 20, StandardCharsets.US_ASCII)).startsWith("posts/post-1/image.png");
+        assertThat(new String(archive, 257, 5, StandardCharsets.US_ASCII)).isEqualTo("ustar");
+        assertThat(new String(archive, 124, 11, StandardCharsets.US_ASCII)).isEqualTo("00000000012");
+        assertThat(new String(archive, 512, 10, StandardCharsets.US_ASCII)).isEqualTo("0123456789");
+    }
+
+    @Test
+    @DisplayName("목록 조회는 \"list/{prefix}\" 서명으로만 통과하고, 같은 prefix의 묶음 다운로드 서명은 거절한다")
+    void listObjects_shouldRequireListSignature() throws Exception {
+        // given
+        String prefix = "exhibits/images/list-user/";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+        mockMvc.perform(put("/storage/exhibits/images/{userId}/posts/{uuid}/image.png", "list-user", "post-1")
+                .contentType(MediaType.IMAGE_PNG)
+                .content("listed".getBytes(StandardCharsets.UTF_8))
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", "exhibits/images/list-user/posts/post-1/image.png", expires)))
+            .andExpect(status().isOk());
+
+        // when & then
+        mockMvc.perform(get("/storage/list")
+                .param("prefix", prefix)
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("GET", "list/" + prefix, expires)))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"items\":[{\"key\":\"" + prefix + "posts/post-1/image.png\"}]}"));
+        mockMvc.perform(get("/storage/list")
+                .param("prefix", prefix)
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("GET", "batch/" + prefix, expires)))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("서명 없는 이미지 요청은 핸들러에 닿기 전에 거절하고, CORS preflight는 서명 없이 허용 출처에만 응답한다")
+    void exhibits_withoutSignature_shouldBeRejectedBeforeHandler() throws Exception {
+        // given
+        String path = "/storage/exhibits/images/{userId}/posts/{uuid}/image.png";
+        long expires = System.currentTimeMillis() / 1000 + 300;
+
+        // when & then
+        mockMvc.perform(put(path, "unsigned-user", "post-1")
+                .contentType(MediaType.IMAGE_PNG)
+                .content("unsigned".getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().json("{\"status\":400}"));
+        mockMvc.perform(put(path, "unsigned-user", "post-1")
+                .contentType(MediaType.IMAGE_PNG)
+                .content("unsigned".getBytes(StandardCharsets.UTF_8))
+                .param("expires", String.valueOf(expires))
+                .param("signature", sign("PUT", "exhibits/images/other-user/posts/post-1/image.png", expires)))
+            .andExpect(status().isForbidden());
+        assertThat(Files.exists(tempDir.resolve("exhibits/images/unsigned-user"))).isFalse();
+
+        mockMvc.perform(options(path, "unsigned-user", "post-1")
+                .header(HttpHeaders.ORIGIN, frontendDomain)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "content-type"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, frontendDomain))
+            .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, "content-type"));
+        mockMvc.perform(options(path, "unsigned-user", "post-1")
+                .header(HttpHeaders.ORIGIN, "https://evil.example")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT"))
+            .andExpect(status().isForbidden());
+    }
+
+    private String sign(String httpMethod, String fileId, long expires) throws Exception {
+        String messageToSign = httpMethod + "\n" + fileId + "\n" + expires;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(mac.doFinal(messageToSign.getBytes(StandardCharsets.UTF_8)));
+    }
+}
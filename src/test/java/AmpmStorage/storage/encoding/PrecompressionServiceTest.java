@@ -0,0 +1,137 @@
+package AmpmStorage.storage.encoding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PrecompressionServiceTest {
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("압축 대상 형식은 업로드 후 백그라운드에서 gzip 사본을 만들고, 이미지는 건너뛴다")
+    void onStored_shouldCompressOnlyCompressibleTypes() throws Exception {
+        // given
+        PrecompressionService service = service();
+        byte[] json = "{\"name\":\"ampm\",\"tags\":[\"a\",\"b\",\"c\"]},".repeat(200).getBytes(StandardCharsets.UTF_8);
+        objects.put("reports/summary.json", json);
+        objects.put("exhibits/images/1/posts/a/image.png", json);
+
+        // when
+        service.onStored("reports/summary.json", json.length);
+        service.onStored("exhibits/images/1/posts/a/image.png", json.length);
+        byte[] encoded = awaitObject(service.encodedKey("reports/summary.json"));
+
+        // then - 일반 gzip으로 풀리고, 헤더에는 사본을 만든 원본의 ETag가 기록된다
+        assertThat(encoded.length).isLessThan(json.length / 4);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+        Path copy = Files.write(tempDir.resolve("summary.json.gz"), encoded);
+        FileMetadata copyMetadata = new FileMetadata(encoded.length, 0, "\"copy\"", "application/json");
+        assertThat(service.sourceETagOf(copy, copyMetadata)).isEqualTo("\"" + Arrays.hashCode(json) + "\"");
+        service.destroy();
+        assertThat(objects).doesNotContainKey(service.encodedKey("exhibits/images/1/posts/a/image.png"));
+    }
+
+    @Test
+    @DisplayName("원본을 다시 저장하면 이전 사본을 바로 지운다")
+    void onStored_shouldDeletePreviousCopyImmediately() throws Exception {
+        // given
+        PrecompressionService service = service();
+        String encodedKey = service.encodedKey("notes/readme.txt");
+        objects.put(encodedKey, new byte[]{1, 2, 3});
+        objects.put("notes/readme.txt", new byte[10]);
+
+        // when (압축하기에는 너무 작은 새 원본)
+        service.onStored("notes/readme.txt", 10);
+
+        // then
+        assertThat(objects).doesNotContainKey(encodedKey);
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("Accept-Encoding은 gzip의 q 값을 따르고, 명시가 없으면 *를 따른다")
+    void acceptsGzip_shouldFollowQualityValues() {
+        assertThat(PrecompressionService.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PrecompressionService.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(PrecompressionService.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(PrecompressionService.acceptsGzip("*;q=0.1")).isTrue();
+        assertThat(PrecompressionService.acceptsGzip("identity")).isFalse();
+        assertThat(PrecompressionService.acceptsGzip(null)).isFalse();
+        assertThat(PrecompressionService.encodedETag("\"abc\"")).isEqualTo("\"abc-gzip\"");
+    }
+
+    private PrecompressionService service() {
+        return new PrecompressionService(new InMemoryBackend(objects),
+            List.of("text/*", "application/json"), DataSize.ofKilobytes(1), DataSize.ofMegabytes(10),
+            0.1, 9, 1, 16);
+    }
+
+    private byte[] awaitObject(String key) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            byte[] content = objects.get(key);
+            if (content != null) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("압축 사본이 만들어지지 않았습니다: " + key);
+    }
+
+    private record InMemoryBackend(Map<String, byte[]> objects) implements StorageBackend {
+
+        @Override
+        public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+            try (InputStream in = Channels.newInputStream(source)) {
+                byte[] content = in.readAllBytes();
+                objects.put(key, content);
+                return content.length;
+            }
+        }
+
+        @Override
+        public FileMetadata head(String key) {
+            byte[] content = objects.get(key);
+            return content == null ? null
+                : new FileMetadata(content.length, 0, "\"" + Arrays.hashCode(content) + "\"", "application/json");
+        }
+
+        @Override
+        public ReadableByteChannel get(String key, long offset, long length) {
+            return Channels.newChannel(new ByteArrayInputStream(objects.get(key)));
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return objects.remove(key) != null;
+        }
+
+        @Override
+        public List<String> list(String prefix, int limit) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package AmpmStorage.storage.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.backend.DirectoryLayout;
+import AmpmStorage.storage.backend.LocalBackendFixture;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IndexLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("색인을 켜기 전에 저장된 객체를 불러오고, 업로드가 먼저 기록한 항목은 덮어쓰지 않는다")
+    void load_shouldIndexExistingObjectsOnce() throws Exception {
+        // given - 색인 없이 저장된 파일 두 개, 그중 하나는 불러오기 전에 업로드가 다시 기록함
+        String existing = "exhibits/images/1/posts/a/image.png";
+        String uploaded = "exhibits/images/2/posts/b/image.png";
+        for (String key : new String[]{existing, uploaded}) {
+            Files.createDirectories(tempDir.resolve(key).getParent());
+            Files.write(tempDir.resolve(key), new byte[12]);
+        }
+        LocalBackendFixture local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat());
+        MetadataIndex index = new MetadataIndex(tempDir.resolve(".index").toString(), 1000);
+        index.put(new IndexEntry(uploaded, 12, "image/png", "digest", 1_700_000_000_000L, "2"));
+        IndexLoader loader = new IndexLoader(local.backend(), index, local.metadataCache());
+        assertThat(index.isPopulated()).isFalse();
+
+        // when
+        long loaded = loader.load();
+
+        // then
+        assertThat(loaded).isEqualTo(1);
+        assertThat(index.get(existing))
+            .extracting(IndexEntry::size, IndexEntry::contentType, IndexEntry::owner)
+            .containsExactly(12L, "image/png", "1");
+        assertThat(index.get(uploaded).digest()).isEqualTo("digest");
+        assertThat(index.isPopulated()).isTrue();
+
+        // when - 재시작하면 다시 훑지 않고 불러온 항목이 남아 있음
+        index.destroy();
+        MetadataIndex restarted = new MetadataIndex(tempDir.resolve(".index").toString(), 1000);
+
+        // then
+        assertThat(restarted.isPopulated()).isTrue();
+        assertThat(restarted.size()).isEqualTo(2);
+        restarted.destroy();
+    }
+}
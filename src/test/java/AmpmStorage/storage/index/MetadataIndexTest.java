@@ -0,0 +1,191 @@
+package AmpmStorage.storage.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+class MetadataIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("재시작하면 스냅샷과 저널로 색인을 복원하고, 잘린 마지막 레코드는 무시한다")
+    void restart_shouldRebuildFromSnapshotAndJournal() throws Exception {
+        // given
+        MetadataIndex index = new MetadataIndex(tempDir.toString(), 1000);
+        index.put(entry("exhibits/images/1/posts/a/image.png", 10));
+        index.put(entry("exhibits/images/1/posts/b/image.png", 20));
+        index.put(entry("exhibits/images/2/posts/c/image.png", 30));
+        index.compact();
+        index.remove("exhibits/images/1/posts/b/image.png");
+        index.put(entry("exhibits/images/1/posts/a/image.png", 11));
+        index.put(new IndexEntry("exhibits/images/3/posts/d/image.png", 40, "image/jpeg", "digest-40",
+            1_700_000_000_000L, "3", 640, 480, null));
+        index.destroy();
+        // 기록 도중 종료된 것처럼 저널 끝에 잘린 레코드를 남깁니다.
+        try (FileChannel journal = FileChannel.open(tempDir.resolve(MetadataIndex.JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            journal.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2}));
+        }
+
+        // when
+        MetadataIndex restarted = new MetadataIndex(tempDir.toString(), 1000);
+
+        // then
+        assertThat(restarted.size()).isEqualTo(3);
+        assertThat(restarted.get("exhibits/images/1/posts/a/image.png").size()).isEqualTo(11);
+        assertThat(restarted.get("exhibits/images/1/posts/b/image.png")).isNull();
+        assertThat(restarted.get("exhibits/images/2/posts/c/image.png").owner()).isEqualTo("2");
+        assertThat(restarted.metadata("exhibits/images/2/posts/c/image.png").eTag()).isEqualTo("\"digest-30\"");
+        assertThat(restarted.get("exhibits/images/3/posts/d/image.png"))
+            .extracting(IndexEntry::contentType, IndexEntry::width, IndexEntry::height)
+            .containsExactly("image/jpeg", 640, 480);
+        restarted.destroy();
+    }
+
+    @Test
+    @DisplayName("이미지 크기와 file key가 없는 이전 형식의 레코드도 읽고, 없는 필드는 기본값으로 채운다")
+    void restart_withOldFormatRecords_shouldFillMissingFields() throws Exception {
+        // given - 이미지 크기 추가 전 형식과, file key 추가 전 형식으로 기록된 저널
+        ByteArrayOutputStream journal = new ByteArrayOutputStream();
+        journal.writeBytes(oldRecord("exhibits/images/1/posts/a/image.png", 10, false));
+        journal.writeBytes(oldRecord("exhibits/images/1/posts/b/image.png", 20, true));
+        Files.write(tempDir.resolve(MetadataIndex.JOURNAL_FILE), journal.toByteArray());
+
+        // when
+        MetadataIndex index = new MetadataIndex(tempDir.toString(), 1000);
+
+        // then
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.get("exhibits/images/1/posts/a/image.png"))
+            .extracting(IndexEntry::size, IndexEntry::digest, IndexEntry::owner, IndexEntry::width, IndexEntry::height,
+                IndexEntry::fileKey)
+            .containsExactly(10L, "digest-10", "1", 0, 0, null);
+        assertThat(index.get("exhibits/images/1/posts/b/image.png"))
+            .extracting(IndexEntry::size, IndexEntry::width, IndexEntry::height, IndexEntry::fileKey)
+            .containsExactly(20L, 640, 480, null);
+        index.destroy();
+    }
+
+    @Test
+    @DisplayName("접두어 목록은 키 순서로 after 다음부터 limit개씩 나누어 응답한다")
+    void list_shouldPageThroughPrefixInKeyOrder() throws Exception {
+        // given
+        MetadataIndex index = new MetadataIndex(tempDir.toString(), 1000);
+        for (String post : new String[]{"d", "a", "c", "b", "e"}) {
+            index.put(entry("exhibits/images/1/posts/" + post + "/image.png", 1));
+        }
+        index.put(entry("exhibits/images/10/posts/a/image.png", 1));
+
+        // when
+        ObjectListing first = index.list("exhibits/images/1/", null, 2);
+        ObjectListing second = index.list("exhibits/images/1/", first.nextAfter(), 2);
+        ObjectListing last = index.list("exhibits/images/1/", second.nextAfter(), 2);
+
+        // then
+        assertThat(first.items()).extracting(IndexEntry::key)
+            .containsExactly("exhibits/images/1/posts/a/image.png", "exhibits/images/1/posts/b/image.png");
+        assertThat(second.items()).extracting(IndexEntry::key)
+            .containsExactly("exhibits/images/1/posts/c/image.png", "exhibits/images/1/posts/d/image.png");
+        assertThat(last.items()).extracting(IndexEntry::key).containsExactly("exhibits/images/1/posts/e/image.png");
+        assertThat(last.nextAfter()).isNull();
+        index.destroy();
+    }
+
+    @Test
+    @DisplayName("로컬 파일은 색인 항목을 stat과 맞춰 보고, 디스크와 다르면 항목을 다시 만들거나 지운다")
+    void metadata_withLocalFile_shouldReconcileWithStat() throws Exception {
+        // given
+        FileMetadataCache metadataCache = new FileMetadataCache(1000,
+            new DefaultListableBeanFactory().getBeanProvider(ContentAddressedStore.class));
+        MetadataIndex index = new MetadataIndex(tempDir.resolve(".index").toString(), 1000);
+        String key = "exhibits/images/1/posts/a/image.png";
+        Path file = Files.write(tempDir.resolve("image.png"), new byte[10]);
+        index.put(entry(key, 10).withStat(metadataCache.stat(file)));
+
+        // when - 일치하는 항목은 그대로 사용
+        FileMetadata indexed = index.metadata(key, file, metadataCache);
+        // 색인을 거치지 않고 파일이 바뀐 경우
+        Files.write(file, new byte[25]);
+        metadataCache.invalidate(file);
+        FileMetadata rebuilt = index.metadata(key, file, metadataCache);
+
+        // then
+        assertThat(indexed.eTag()).isEqualTo("\"digest-10\"");
+        assertThat(rebuilt.size()).isEqualTo(25);
+        assertThat(rebuilt.eTag()).isEqualTo(metadataCache.get(file).eTag());
+        assertThat(index.get(key))
+            .extracting(IndexEntry::size, IndexEntry::digest, IndexEntry::fileKey)
+            .containsExactly(25L, null, metadataCache.stat(file).fileKey());
+
+        // when - 파일이 사라진 경우
+        Files.delete(file);
+        metadataCache.invalidate(file);
+
+        // then
+        assertThat(index.metadata(key, file, metadataCache)).isNull();
+        assertThat(index.get(key)).isNull();
+        index.destroy();
+    }
+
+    @Test
+    @DisplayName("파일이 로컬에 쓰이기 전에 기록된 항목은 크기가 같으면 처음 본 파일에 연결하고 digest를 유지한다")
+    void metadata_withUnboundEntry_shouldBindToFile() throws Exception {
+        // given - 지연 기록처럼 file key 없이 기록된 항목
+        FileMetadataCache metadataCache = new FileMetadataCache(1000,
+            new DefaultListableBeanFactory().getBeanProvider(ContentAddressedStore.class));
+        MetadataIndex index = new MetadataIndex(tempDir.resolve(".index").toString(), 1000);
+        String key = "exhibits/images/1/posts/a/image.png";
+        index.put(entry(key, 10));
+        Path file = Files.write(tempDir.resolve("image.png"), new byte[10]);
+
+        // when
+        FileMetadata metadata = index.metadata(key, file, metadataCache);
+
+        // then
+        assertThat(metadata.eTag()).isEqualTo("\"digest-10\"");
+        assertThat(index.get(key).matches(metadataCache.stat(file))).isTrue();
+        index.destroy();
+    }
+
+    // [길이][CRC32C][PUT, 키, 크기, Content-Type, digest, 수정 시각, 소유자, (withDimensions이면) 너비, 높이]
+    private static byte[] oldRecord(String key, long size, boolean withDimensions) throws Exception {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(1);
+        out.writeUTF(key);
+        out.writeLong(size);
+        out.writeUTF("image/png");
+        out.writeUTF("digest-" + size);
+        out.writeLong(1_700_000_000_000L);
+        out.writeUTF(IndexEntry.ownerOf(key));
+        if (withDimensions) {
+            out.writeInt(640);
+            out.writeInt(480);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.toByteArray());
+        return ByteBuffer.allocate(8 + payload.size())
+            .putInt(payload.size()).putInt((int) crc.getValue()).put(payload.toByteArray())
+            .array();
+    }
+
+    private static IndexEntry entry(String key, long size) {
+        return new IndexEntry(key, size, "image/png", "digest-" + size, 1_700_000_000_000L, IndexEntry.ownerOf(key));
+    }
+}
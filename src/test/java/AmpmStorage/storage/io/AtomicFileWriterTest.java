@@ -0,0 +1,86 @@
+package AmpmStorage.storage.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class AtomicFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("덮어쓰기 도중 실패하면 기존 파일은 그대로 남고 임시 파일도 남지 않는다")
+    void write_whenOverwriteFails_shouldKeepOriginalFile() throws Exception {
+        // given
+        AtomicFileWriter writer = writer(DurabilityPolicy.FSYNC_FILE_AND_DIR);
+        Path target = tempDir.resolve("exhibits/images/1/posts/a/image.png");
+        writer.write(body("original"), target, 100);
+
+        // when
+        assertThatThrownBy(() -> writer.write(body("x".repeat(200)), target, 100))
+            .isInstanceOf(BusinessException.class);
+
+        // then
+        assertThat(Files.readString(target)).isEqualTo("original");
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    @DisplayName("group commit 정책에서 동시에 들어온 업로드가 모두 완성된 상태로 저장된다")
+    void write_withGroupCommit_shouldPersistConcurrentUploads() throws Exception {
+        // given
+        AtomicFileWriter writer = writer(DurabilityPolicy.GROUP_COMMIT);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Long>> uploads = IntStream.range(0, 32)
+            .<Callable<Long>>mapToObj(i -> () -> writer.write(body("content-" + i), tempDir.resolve("post-" + i + "/image.png"), 1024))
+            .toList();
+
+        // when
+        try {
+            for (Future<Long> result : executor.invokeAll(uploads)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            writer.destroy();
+        }
+
+        // then
+        for (int i = 0; i < 32; i++) {
+            assertThat(Files.readString(tempDir.resolve("post-" + i + "/image.png"))).isEqualTo("content-" + i);
+        }
+    }
+
+    private static AtomicFileWriter writer(DurabilityPolicy policy) {
+        DirectBufferPool bufferPool = new DirectBufferPool(DataSize.ofKilobytes(4), 16, 1000);
+        DiskIoLimiter diskIoLimiter = new DiskIoLimiter(4, 1000);
+        return new AtomicFileWriter(new StreamingFileWriter(bufferPool, diskIoLimiter), diskIoLimiter,
+            policy, 16, Duration.ofMillis(2));
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,36 @@
+package AmpmStorage.storage.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+class DirectBufferPoolTest {
+
+    @Test
+    @DisplayName("상한까지 빌려 가 있으면 기다리지 않고 503으로 거절하고, 반환된 버퍼는 다시 빌려 준다")
+    void acquire_whenExhausted_shouldRejectImmediately() throws Exception {
+        // given
+        DirectBufferPool pool = new DirectBufferPool(DataSize.ofKilobytes(4), 2, 0);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+
+        // when & then
+        long startNanos = System.nanoTime();
+        assertThatThrownBy(pool::acquire)
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(System.nanoTime() - startNanos).isLessThan(1_000_000_000L);
+
+        pool.release(first.put((byte) 1));
+        ByteBuffer reused = pool.acquire();
+        assertThat(reused).isSameAs(first);
+        assertThat(reused.position()).isZero();
+        assertThat(second.isDirect()).isTrue();
+    }
+}
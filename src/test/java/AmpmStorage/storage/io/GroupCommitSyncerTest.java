@@ -0,0 +1,35 @@
+package AmpmStorage.storage.io;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GroupCommitSyncerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("종료한 뒤의 fsync 요청은 기다리지 않고 바로 실패한다")
+    void sync_afterClose_shouldFailImmediately() throws Exception {
+        // given
+        Path file = Files.writeString(tempDir.resolve("segment.log"), "record");
+        GroupCommitSyncer syncer = new GroupCommitSyncer(16, Duration.ofMillis(2));
+        assertThatCode(() -> syncer.sync(file)).doesNotThrowAnyException();
+
+        // when
+        syncer.close();
+
+        // then
+        assertThatThrownBy(() -> syncer.sync(file))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("종료");
+    }
+}
@@ -0,0 +1,97 @@
+package AmpmStorage.storage.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MultipartStreamTest {
+
+    private static final String BOUNDARY = "----AmpmBoundary";
+
+    @Test
+    @DisplayName("작은 버퍼와 조각난 입력에서도 각 파트의 헤더와 본문을 정확히 읽는다")
+    void nextPart_withFragmentedInput_shouldReadEveryPart() throws Exception {
+        // given
+        byte[] image = new byte[5000];
+        new Random(42).nextBytes(image);
+        byte[] body = multipartBody(image);
+        InputStream fragmented = new FilterInputStream(new ByteArrayInputStream(body)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+
+        // when
+        MultipartStream stream = new MultipartStream(fragmented, BOUNDARY, 16);
+        MultipartStream.Part first = stream.nextPart();
+        MultipartStream.Part second = stream.nextPart();
+        ByteBuffer content = ByteBuffer.allocate(image.length);
+        while (second.read(content) >= 0) {
+            // 끝까지 읽습니다.
+        }
+
+        // then
+        assertThat(first.getName()).isEqualTo("description");
+        assertThat(second.getName()).isEqualTo("file");
+        assertThat(second.getFilename()).isEqualTo("image.png");
+        assertThat(second.getContentType()).isEqualTo("image/png");
+        assertThat(Arrays.equals(content.array(), image)).isTrue();
+        assertThat(stream.nextPart()).isNull();
+    }
+
+    @Test
+    @DisplayName("읽지 않은 파트 본문은 다음 파트로 넘어갈 때 건너뛴다")
+    void nextPart_withoutReadingBody_shouldSkipToNextPart() throws Exception {
+        // given
+        MultipartStream stream = new MultipartStream(
+            new ByteArrayInputStream(multipartBody(new byte[100])), BOUNDARY, 1024);
+
+        // when
+        stream.nextPart();
+        MultipartStream.Part file = stream.nextPart();
+
+        // then
+        assertThat(file.getName()).isEqualTo("file");
+        assertThat(file.getInputStream().readAllBytes()).hasSize(100);
+    }
+
+    @Test
+    @DisplayName("마지막 구분자 없이 본문이 끝나면 예외가 발생한다")
+    void read_withTruncatedBody_shouldThrow() throws Exception {
+        // given
+        byte[] body = multipartBody(new byte[100]);
+        byte[] truncated = Arrays.copyOf(body, body.length - 30);
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(truncated), BOUNDARY, 1024);
+        stream.nextPart();
+        MultipartStream.Part file = stream.nextPart();
+
+        // when & then
+        assertThatThrownBy(() -> file.getInputStream().readAllBytes()).isInstanceOf(EOFException.class);
+    }
+
+    private static byte[] multipartBody(byte[] image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"description\"\r\n\r\n"
+            + "gallery\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"image.png\"\r\n"
+            + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(image);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package AmpmStorage.storage.presign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.common.filter.SignedRequestVerifier;
+import AmpmStorage.common.filter.SignedRequestVerifier.Rejection;
+import AmpmStorage.common.validator.SignatureValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class PresignServiceTest {
+
+    private static final String API_KEY = "presign-api-key";
+
+    @Test
+    @DisplayName("여러 키의 URL을 한 번에 발급하고, 발급한 URL은 서명 검증을 통과한다")
+    void presign_shouldIssueUrlsAcceptedByVerifier() {
+        // given
+        SignatureValidator validator = new SignatureValidator("k1", "secret-1", Map.of());
+        PresignService presignService = newService(validator);
+        List<String> keys = IntStream.range(0, 300)
+            .mapToObj(i -> "exhibits/images/7/posts/uuid-" + i + "/image.png")
+            .toList();
+
+        // when
+        PresignResponse uploads = presignService.presign(new PresignRequest("PUT", keys, 600L));
+        PresignResponse downloads = presignService.presign(
+            new PresignRequest("get", List.of("exhibits/images/7/posts/uuid-0/image.png", "report-2025"), null));
+
+        // then
+        assertThat(uploads.keyId()).isEqualTo("k1");
+        assertThat(uploads.urls()).hasSize(300);
+        assertThat(uploads.urls().get(0).url()).startsWith("/storage/exhibits/images/7/posts/uuid-0/image.png?");
+        assertThat(downloads.urls()).extracting(PresignedUrl::url)
+            .satisfiesExactly(
+                url -> assertThat(url).startsWith("/storage/exhibits/images/7/uuid-0/image.png?"),
+                url -> assertThat(url).startsWith("/storage/report-2025?"));
+        SignedRequestVerifier verifier = verifier(validator);
+        uploads.urls().forEach(url -> assertThat(verify(verifier, "PUT", url.url())).isNull());
+        downloads.urls().forEach(url -> assertThat(verify(verifier, "GET", url.url())).isNull());
+        assertThat(verify(verifier, "GET", uploads.urls().get(0).url())).isEqualTo(Rejection.INVALID_SIGNATURE);
+    }
+
+    @Test
+    @DisplayName("비밀 키를 바꿔도 이전 키로 발급된 URL은 통과하고, 모르는 kid나 잘못된 API 키는 거절한다")
+    void presign_afterKeyRotation_shouldKeepInFlightUrlsValid() {
+        // given
+        SignatureValidator before = new SignatureValidator("secret-1");
+        String issuedBefore = newService(before)
+            .presign(new PresignRequest("GET", List.of("report-2025"), null)).urls().get(0).url();
+        SignatureValidator after = new SignatureValidator("k2", "secret-2",
+            Map.of(SignatureValidator.DEFAULT_KEY_ID, "secret-1"));
+
+        // when
+        String issuedAfter = newService(after)
+            .presign(new PresignRequest("GET", List.of("report-2025"), null)).urls().get(0).url();
+
+        // then
+        SignedRequestVerifier verifier = verifier(after);
+        assertThat(verify(verifier, "GET", issuedBefore)).isNull();
+        assertThat(verify(verifier, "GET", issuedAfter)).isNull();
+        // kid가 없는 예전 형식의 URL도 default 키로 검증합니다.
+        long expires = System.currentTimeMillis() / 1000 + 60;
+        assertThat(verify(verifier, "GET", "/storage/report-2025?expires=" + expires
+            + "&signature=" + before.generateSignature("GET", "report-2025", expires))).isNull();
+        assertThat(verify(verifier, "GET", issuedAfter.replace("kid=k2", "kid=k3")))
+            .isEqualTo(Rejection.INVALID_SIGNATURE);
+        assertThatThrownBy(() -> newService(after).authenticate("Bearer wrong-key"))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+
+    private static PresignService newService(SignatureValidator validator) {
+        PresignService presignService = new PresignService(validator, new SimpleMeterRegistry(), List.of(API_KEY),
+            Duration.ofMinutes(10), Duration.ofHours(1), 1000, "");
+        presignService.authenticate("Bearer " + API_KEY);
+        return presignService;
+    }
+
+    private static SignedRequestVerifier verifier(SignatureValidator validator) {
+        return new SignedRequestVerifier(validator, "http://localhost:3000", new SimpleMeterRegistry());
+    }
+
+    private static Rejection verify(SignedRequestVerifier verifier, String method, String url) {
+        UriComponents uri = UriComponentsBuilder.fromUri(URI.create(url)).build();
+        String path = uri.getRawPath().substring(SignedRequestVerifier.STORAGE_PATH.length());
+        return verifier.verify(method, path, name -> uri.getQueryParams().getFirst(name));
+    }
+}
@@ -0,0 +1,75 @@
+package AmpmStorage.storage.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("사용자별 요청 수를 넘으면 그 사용자만 거절하고 거절 수를 기록한다")
+    void acquireRequest_shouldRejectOnlyTheUserOverLimit() throws Exception {
+        // given
+        RateLimiter limiter = limiter(0, 0, 2, 0, Duration.ofSeconds(1), Duration.ZERO);
+
+        // when
+        boolean first = limiter.acquireRequest("1");
+        boolean second = limiter.acquireRequest("1");
+        boolean third = limiter.acquireRequest("1");
+        boolean otherUser = limiter.acquireRequest("2");
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(otherUser).isTrue();
+        assertThat(meterRegistry.get("storage.ratelimit.decisions")
+            .tags("scope", "user", "outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("전송량 제한은 거절하지 않고 예약한 바이트만큼 기다린다")
+    void pace_shouldDelayInsteadOfRejecting() throws Exception {
+        // given
+        RateLimiter limiter = limiter(0, 0, 0, 1000, Duration.ofMillis(1), Duration.ZERO);
+        limiter.pace("1", 1);
+
+        // when
+        long start = System.nanoTime();
+        limiter.pace("1", 100);
+        long elapsed = System.nanoTime() - start;
+
+        // then
+        assertThat(limiter.limitsBandwidth("1")).isTrue();
+        assertThat(limiter.limitsBandwidth(null)).isFalse();
+        assertThat(Duration.ofNanos(elapsed)).isGreaterThanOrEqualTo(Duration.ofMillis(80));
+    }
+
+    @Test
+    @DisplayName("버킷이 다시 가득 찬 사용자는 정리 대상이 된다")
+    void removeIdleUsers_shouldForgetRefilledBuckets() throws Exception {
+        // given
+        RateLimiter limiter = limiter(0, 0, 1000, 0, Duration.ofMillis(1), Duration.ZERO);
+        limiter.acquireRequest("1");
+        assertThat(limiter.trackedUsers()).isEqualTo(1);
+        Thread.sleep(10);
+
+        // when
+        limiter.removeIdleUsers();
+
+        // then
+        assertThat(limiter.trackedUsers()).isZero();
+    }
+
+    private RateLimiter limiter(long globalRequests, long globalBytes, long userRequests, long userBytes,
+                                Duration burst, Duration maxRequestDelay) {
+        return new RateLimiter(globalRequests, DataSize.ofBytes(globalBytes), userRequests,
+            DataSize.ofBytes(userBytes), burst, maxRequestDelay, meterRegistry);
+    }
+}
@@ -0,0 +1,70 @@
+package AmpmStorage.storage.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+class FileMetadataCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("쓰는 동안에는 stat 결과를 캐시하지 않고, 쓰기가 끝난 뒤에는 새 파일의 값을 캐시한다")
+    void stat_duringWrite_shouldNotCacheUntilEndWrite() throws Exception {
+        // given
+        FileMetadataCache cache = cache(1000);
+        Path file = Files.writeString(tempDir.resolve("image.png"), "old");
+        assertThat(cache.get(file).size()).isEqualTo(3);
+
+        // when
+        cache.beginWrite(file);
+        FileMetadata beforeRename = cache.get(file);
+        Files.writeString(file, "renamed");
+        FileMetadata afterRename = cache.get(file);
+        cache.endWrite(file);
+        FileMetadata afterWrite = cache.get(file);
+        Files.writeString(file, "not yet invalidated");
+
+        // then
+        assertThat(beforeRename.size()).isEqualTo(3);
+        assertThat(afterRename.size()).isEqualTo(7);
+        assertThat(afterWrite.size()).isEqualTo(7);
+        assertThat(cache.get(file)).isEqualTo(afterWrite);
+    }
+
+    @Test
+    @DisplayName("항목 수가 가득 차면 최근 조회되지 않은 항목을 내보내고 새 항목을 캐시한다")
+    void stat_whenFull_shouldEvictUnreferencedEntry() throws Exception {
+        // given
+        FileMetadataCache cache = cache(2);
+        Path first = Files.writeString(tempDir.resolve("first.png"), "1");
+        Path second = Files.writeString(tempDir.resolve("second.png"), "2");
+        Path third = Files.writeString(tempDir.resolve("third.png"), "3");
+        cache.get(first);
+        cache.get(second);
+        cache.get(first);
+
+        // when
+        cache.get(third);
+        for (Path file : new Path[] {first, second, third}) {
+            Files.writeString(file, "changed");
+        }
+
+        // then
+        assertThat(cache.get(first).size()).isEqualTo(1);
+        assertThat(cache.get(third).size()).isEqualTo(1);
+        assertThat(cache.get(second).size()).isEqualTo(7);
+    }
+
+    private FileMetadataCache cache(int maxEntries) {
+        return new FileMetadataCache(maxEntries,
+            new DefaultListableBeanFactory().getBeanProvider(ContentAddressedStore.class));
+    }
+}
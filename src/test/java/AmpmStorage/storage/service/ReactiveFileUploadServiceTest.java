@@ -0,0 +1,102 @@
+package AmpmStorage.storage.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.backend.DirectoryLayout;
+import AmpmStorage.storage.backend.LocalBackendFixture;
+import AmpmStorage.storage.encoding.PrecompressionService;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.metrics.StorageMetrics;
+import AmpmStorage.storage.validation.UploadValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+class ReactiveFileUploadServiceTest {
+
+    private static final String KEY = "exhibits/images/1/posts/a/image.png";
+
+    @TempDir
+    Path tempDir;
+
+    // WebTestClient의 기본 버퍼는 해제하지 않아도 드러나지 않으므로 Reactor Netty와 같은 풀 버퍼를 사용합니다.
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    @Test
+    @DisplayName("본문을 대상 경로 옆 임시 파일에 한 번만 쓰고 rename 하며, 기록한 풀 버퍼는 모두 돌려준다")
+    void store_shouldWriteOnceAndReleasePooledBuffers() throws Exception {
+        // given
+        LocalBackendFixture local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat());
+        ReactiveFileUploadService service = service(local);
+        List<DataBuffer> body = buffers("reactive ", "upload ", "body");
+
+        // when
+        Long written = service.store(KEY, Flux.fromIterable(body), 1024).block();
+
+        // then
+        Path target = tempDir.resolve(KEY);
+        assertThat(written).isEqualTo(20);
+        assertThat(Files.readString(target)).isEqualTo("reactive upload body");
+        assertThat(body).allSatisfy(buffer ->
+            assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero());
+        try (Stream<Path> siblings = Files.list(target.getParent());
+             Stream<Path> incoming = Files.list(tempDir.resolve(ReactiveFileUploadService.INCOMING_DIRECTORY))) {
+            assertThat(siblings).containsExactly(target);
+            assertThat(incoming).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("중복 제거가 켜져 있으면 받은 임시 파일을 그대로 블롭으로 게시한다")
+    void store_withDedup_shouldPublishReceivedFileAsBlob() throws Exception {
+        // given
+        LocalBackendFixture local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat(), true);
+        ReactiveFileUploadService service = service(local);
+        List<DataBuffer> body = buffers("same ", "content");
+
+        // when
+        service.store(KEY, Flux.fromIterable(body), 1024).block();
+
+        // then
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+            .digest("same content".getBytes(StandardCharsets.UTF_8)));
+        Path target = tempDir.resolve(KEY);
+        assertThat(Files.isSameFile(target, local.contentAddressedStore().blobPath(digest))).isTrue();
+        assertThat(local.contentAddressedStore().referenceCount(digest)).isEqualTo(1);
+        assertThat(body).allSatisfy(buffer ->
+            assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero());
+        try (Stream<Path> siblings = Files.list(target.getParent())) {
+            assertThat(siblings).containsExactly(target);
+        }
+    }
+
+    private ReactiveFileUploadService service(LocalBackendFixture local) throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        FileUploadService fileUploadService = new FileUploadService(local.backend(),
+            new StorageMetrics(new SimpleMeterRegistry()), local.metadataCache(),
+            beanFactory.getBeanProvider(MetadataIndex.class), beanFactory.getBeanProvider(PrecompressionService.class),
+            beanFactory.getBeanProvider(UploadValidator.class));
+        return new ReactiveFileUploadService(fileUploadService, tempDir.toString());
+    }
+
+    private List<DataBuffer> buffers(String... chunks) {
+        return Stream.of(chunks)
+            .map(chunk -> (DataBuffer) bufferFactory.wrap(bufferFactory.getNativeBufferFactory()
+                .buffer().writeBytes(chunk.getBytes(StandardCharsets.UTF_8))))
+            .toList();
+    }
+}
@@ -0,0 +1,255 @@
+package AmpmStorage.storage.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.DirectoryLayout;
+import AmpmStorage.storage.backend.FileSystemStorageBackend;
+import AmpmStorage.storage.backend.LocalBackendFixture;
+import AmpmStorage.storage.backend.S3StorageBackend;
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.service.FileMetadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+class WriteBehindStorageBackendTest {
+
+    private static final String KEY = "exhibits/images/1/posts/a/image.png";
+
+    @TempDir
+    Path tempDir;
+
+    private LocalBackendFixture local;
+    private WriteBehindStorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (backend != null) {
+            backend.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("기록 전에는 스테이징 영역에서 응답하고, 쓰기 스레드가 기록한 뒤에도 같은 ETag로 응답한다")
+    void put_shouldServeFromStagingUntilFlushed() throws Exception {
+        // given
+        backend = newBackend(16);
+
+        // when
+        long written = backend.put(KEY, body("write-behind"), 1024);
+
+        // then
+        FileMetadata staged = backend.head(KEY);
+        assertThat(written).isEqualTo(12);
+        assertThat(tempDir.resolve(KEY)).doesNotExist();
+        assertThat(backend.localPath(KEY)).isNull();
+        assertThat(read(backend.get(KEY, 6, 100))).isEqualTo("behind");
+        assertThat(backend.list("exhibits/images/1/", 10)).containsExactly(KEY);
+
+        // when
+        backend.start();
+        awaitFlushed(KEY);
+
+        // then
+        assertThat(Files.readString(tempDir.resolve(KEY))).isEqualTo("write-behind");
+        assertThat(backend.head(KEY).eTag()).isEqualTo(staged.eTag());
+        assertThat(read(backend.get(KEY, 0, 100))).isEqualTo("write-behind");
+    }
+
+    @Test
+    @DisplayName("대기열이 가득 차면 본문을 읽지 않고 503으로 거절하고, 기록 전에 지운 키는 기록하지 않는다")
+    void put_whenQueueIsFull_shouldRejectWithServiceUnavailable() throws Exception {
+        // given
+        String other = "exhibits/images/1/posts/c/image.png";
+        backend = newBackend(2);
+        backend.put(KEY, body("first"), 1024);
+        backend.put(other, body("second"), 1024);
+        InputStream untouched = new ByteArrayInputStream("third".getBytes(StandardCharsets.UTF_8));
+
+        // when & then
+        assertThatThrownBy(() -> backend.put("exhibits/images/1/posts/b/image.png",
+            Channels.newChannel(untouched), 1024))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(untouched.available()).isEqualTo(5);
+
+        // when
+        assertThat(backend.delete(KEY)).isTrue();
+        backend.start();
+        // 쓰기 스레드가 하나이므로 경로 순으로 KEY를 먼저 처리합니다.
+        awaitFlushed(other);
+
+        // then
+        assertThat(backend.head(KEY)).isNull();
+        assertThat(tempDir.resolve(KEY)).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("상위 경로가 파일이거나 스테이징된 키와 겹치는 업로드는 응답하기 전에 409로 거절한다")
+    void put_withPathConflict_shouldRejectBeforeAcknowledging() throws Exception {
+        // given - 디스크의 파일과 스테이징된 키
+        Files.createDirectories(tempDir.resolve("exhibits/images/1"));
+        Files.writeString(tempDir.resolve("exhibits/images/1/posts"), "file");
+        backend = newBackend(16);
+        backend.put("exhibits/images/2/posts", body("staged"), 1024);
+
+        // when & then
+        for (String key : new String[]{KEY, "exhibits/images/2/posts/a/image.png", "exhibits/images/2"}) {
+            assertThatThrownBy(() -> backend.put(key, body("conflict"), 1024))
+                .isInstanceOfSatisfying(BusinessException.class,
+                    e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+        }
+        assertThat(backend.list("exhibits/images/", 10))
+            .containsExactly("exhibits/images/1/posts", "exhibits/images/2/posts");
+    }
+
+    @Test
+    @DisplayName("기록이 max-flush-attempts번 실패하면 재시도를 멈추고 dead letter로 집계한다")
+    void flush_whenAttemptsExhausted_shouldDeadLetter() throws Exception {
+        // given - 응답한 뒤에 같은 경로에 디렉터리가 생겨 기록할 수 없게 된 경우
+        backend = newBackend(16);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        backend.bindTo(registry);
+        backend.put(KEY, body("lost"), 1024);
+        Files.createDirectories(tempDir.resolve(KEY));
+
+        // when
+        backend.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (registry.get("storage.write-behind.dead-lettered").functionCounter().count() == 0
+            && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertThat(registry.get("storage.write-behind.dead-lettered").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("storage.write-behind.flush.failures").functionCounter().count()).isEqualTo(2);
+        assertThat(backend.head(KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("응답한 업로드는 기록 전에 프로세스가 종료되어도 로그에서 복원해 기록하고, 지운 키는 되살리지 않는다")
+    void restart_shouldRecoverAcknowledgedUploadsFromLog() throws Exception {
+        // given - 쓰기 스레드가 기록하기 전에 종료된 인스턴스
+        String deleted = "exhibits/images/1/posts/b/image.png";
+        WriteBehindStorageBackend crashed = newBackend(16);
+        crashed.put(KEY, body("durable"), 1024);
+        crashed.put(deleted, body("deleted"), 1024);
+        crashed.delete(deleted);
+
+        // when
+        backend = newBackend(16);
+
+        // then
+        assertThat(tempDir.resolve(KEY)).doesNotExist();
+        assertThat(backend.head(KEY).size()).isEqualTo(7);
+        assertThat(read(backend.get(KEY, 0, 100))).isEqualTo("durable");
+        assertThat(backend.head(deleted)).isNull();
+
+        // when
+        backend.start();
+        awaitFlushed(KEY);
+
+        // then
+        assertThat(Files.readString(tempDir.resolve(KEY))).isEqualTo("durable");
+        assertThat(tempDir.resolve(deleted)).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("스테이징 영역이 부족하면 로그에 기록된 업로드의 캐시를 내려놓고 로그에서 읽는다")
+    void put_whenAreaIsFull_shouldEvictCacheAndReadFromLog() throws Exception {
+        // given - 8바이트 조각 두 개뿐인 영역
+        backend = newBackend(DataSize.ofBytes(16), 16);
+        backend.put(KEY, body("abcdefgh"), 1024);
+
+        // when
+        backend.put("exhibits/images/1/posts/b/image.png", body("ijkl"), 1024);
+
+        // then
+        assertThat(read(backend.get(KEY, 2, 100))).isEqualTo("cdefgh");
+        assertThat(read(backend.get("exhibits/images/1/posts/b/image.png", 0, 100))).isEqualTo("ijkl");
+    }
+
+    @Test
+    @DisplayName("중복 제거 저장소에 기록하면 스테이징할 때부터 내용의 digest를 ETag로 쓰고, 공유하는 inode의 수정 시각을 바꾸지 않는다")
+    void flush_withDedup_shouldKeepETagAndSharedModifiedTime() throws Exception {
+        // given - 같은 내용이 이미 다른 키로 저장되어 있음
+        local = LocalBackendFixture.create(tempDir, DirectoryLayout.flat(), true);
+        String other = "exhibits/images/1/posts/b/image.png";
+        local.backend().put(other, body("shared"), 1024);
+        FileTime twoDaysAgo = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(tempDir.resolve(other), twoDaysAgo);
+        local.contentAddressedStore().refresh(tempDir.resolve(other));
+        backend = newBackend(16);
+
+        // when
+        backend.put(KEY, body("shared"), 1024);
+        FileMetadata staged = backend.head(KEY);
+        backend.start();
+        awaitFlushed(KEY);
+
+        // then
+        String digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+            .digest("shared".getBytes(StandardCharsets.UTF_8)));
+        assertThat(staged.eTag()).isEqualTo("\"" + digest + "\"");
+        assertThat(Files.isSameFile(tempDir.resolve(KEY), tempDir.resolve(other))).isTrue();
+        assertThat(Files.getLastModifiedTime(tempDir.resolve(other))).isEqualTo(twoDaysAgo);
+        assertThat(backend.head(KEY).eTag()).isEqualTo(staged.eTag());
+        assertThat(backend.head(other).eTag()).isEqualTo(staged.eTag());
+    }
+
+    private WriteBehindStorageBackend newBackend(int maxPending) throws Exception {
+        return newBackend(DataSize.ofKilobytes(64), maxPending);
+    }
+
+    private WriteBehindStorageBackend newBackend(DataSize capacity, int maxPending) throws Exception {
+        return new WriteBehindStorageBackend(local.beanFactory().getBeanProvider(FileSystemStorageBackend.class),
+            local.beanFactory().getBeanProvider(S3StorageBackend.class),
+            local.beanFactory().getBeanProvider(ContentAddressedStore.class), local::publish,
+            tempDir.resolve(".staging").toString(), capacity, DataSize.ofBytes(8), DataSize.ofKilobytes(16),
+            DataSize.ofKilobytes(512), DataSize.ofKilobytes(128), maxPending, 1, 8, 2, 64, Duration.ofMillis(2),
+            Duration.ofSeconds(5));
+    }
+
+    private void awaitFlushed(String key) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (backend.localPath(key) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(backend.localPath(key)).isNotNull();
+    }
+
+    private static String read(ReadableByteChannel channel) throws Exception {
+        try (InputStream stream = Channels.newInputStream(channel)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ReadableByteChannel body(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,181 @@
+package AmpmStorage.storage.upload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.blob.ContentAddressedStore;
+import AmpmStorage.storage.encoding.PrecompressionService;
+import AmpmStorage.storage.index.MetadataIndex;
+import AmpmStorage.storage.io.DirectBufferPool;
+import AmpmStorage.storage.io.DiskIoLimiter;
+import AmpmStorage.storage.metrics.StorageMetrics;
+import AmpmStorage.storage.service.FileMetadata;
+import AmpmStorage.storage.service.FileMetadataCache;
+import AmpmStorage.storage.service.FileUploadService;
+import AmpmStorage.storage.validation.UploadValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.unit.DataSize;
+
+class ResumableUploadServiceTest {
+
+    private static final String KEY = "exhibits/images/1/posts/a/image.png";
+    private static final int PART_SIZE = 64 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    @Test
+    @DisplayName("파트를 순서와 관계없이 동시에 올리고, 재시작 후 빠진 파트만 이어 올려 완료할 수 있다")
+    void parts_shouldBeWrittenInParallelAndResumedAfterRestart() throws Exception {
+        // given
+        byte[] content = new byte[PART_SIZE * 3 + 1000];
+        new Random(7).nextBytes(content);
+        ResumableUploadService service = service();
+        UploadSession session = service.initiate(KEY, content.length, PART_SIZE);
+
+        // when (3번, 1번 파트를 동시에 올린 뒤 중단)
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> uploads = List.of(
+                executor.submit(() -> writePart(service, session, content, 3)),
+                executor.submit(() -> writePart(service, session, content, 1)));
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        ResumableUploadService restarted = service();
+
+        // then
+        UploadStatus status = restarted.status(session.uploadId());
+        assertThat(status.partCount()).isEqualTo(4);
+        assertThat(status.completedParts()).containsExactly(1, 3);
+        assertThatThrownBy(() -> restarted.complete(session.uploadId()))
+            .isInstanceOf(BusinessException.class);
+
+        // when
+        writePart(restarted, session, content, 4);
+        writePart(restarted, session, content, 2);
+        restarted.complete(session.uploadId());
+
+        // then
+        assertThat(objects.get(KEY)).isEqualTo(content);
+        assertThat(Files.exists(tempDir.resolve(".uploads").resolve(session.uploadId()))).isFalse();
+    }
+
+    @Test
+    @DisplayName("파트 크기가 맞지 않으면 거부하고 완료 표시를 남기지 않는다")
+    void writePart_withWrongLength_shouldBeRejected() throws Exception {
+        // given
+        ResumableUploadService service = service();
+        UploadSession session = service.initiate(KEY, PART_SIZE * 2L, PART_SIZE);
+
+        // when & then
+        assertThatThrownBy(() -> service.writePart(session.uploadId(), 1, body(new byte[PART_SIZE + 1])))
+            .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.writePart(session.uploadId(), 2, body(new byte[10])))
+            .isInstanceOf(BusinessException.class);
+        assertThat(service.status(session.uploadId()).completedParts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("만료 시간 동안 진행이 없는 업로드는 정리된다")
+    void removeExpired_shouldDeleteStaleUploads() throws Exception {
+        // given
+        ResumableUploadService service = service();
+        UploadSession stale = service.initiate(KEY, PART_SIZE, PART_SIZE);
+
+        // when
+        int kept = service.removeExpired(Instant.now());
+        int removed = service.removeExpired(Instant.now().plus(Duration.ofHours(25)));
+
+        // then
+        assertThat(kept).isZero();
+        assertThat(removed).isEqualTo(1);
+        assertThatThrownBy(() -> service.status(stale.uploadId())).isInstanceOf(BusinessException.class);
+    }
+
+    private Void writePart(ResumableUploadService service, UploadSession session, byte[] content, int partNumber)
+        throws IOException {
+        int offset = (int) session.offsetOf(partNumber);
+        service.writePart(session.uploadId(), partNumber,
+            body(Arrays.copyOfRange(content, offset, offset + (int) session.lengthOf(partNumber))));
+        return null;
+    }
+
+    private ResumableUploadService service() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        FileUploadService fileUploadService = new FileUploadService(new InMemoryBackend(objects),
+            new StorageMetrics(new SimpleMeterRegistry()),
+            new FileMetadataCache(1000, beanFactory.getBeanProvider(ContentAddressedStore.class)),
+            beanFactory.getBeanProvider(MetadataIndex.class),
+            beanFactory.getBeanProvider(PrecompressionService.class),
+            beanFactory.getBeanProvider(UploadValidator.class));
+        return new ResumableUploadService(fileUploadService,
+            new DirectBufferPool(DataSize.ofKilobytes(16), 16, 1000), DiskIoLimiter.unlimited(),
+            tempDir.resolve(".uploads").toString(), DataSize.ofMegabytes(10), Duration.ofHours(24));
+    }
+
+    private static ReadableByteChannel body(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+
+    private record InMemoryBackend(Map<String, byte[]> objects) implements StorageBackend {
+
+        @Override
+        public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+            try (InputStream in = Channels.newInputStream(source)) {
+                byte[] content = in.readAllBytes();
+                objects.put(key, content);
+                return content.length;
+            }
+        }
+
+        @Override
+        public FileMetadata head(String key) {
+            byte[] content = objects.get(key);
+            return content == null ? null : new FileMetadata(content.length, 0, null, "image/png");
+        }
+
+        @Override
+        public ReadableByteChannel get(String key, long offset, long length) {
+            return body(objects.get(key));
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return objects.remove(key) != null;
+        }
+
+        @Override
+        public List<String> list(String prefix, int limit) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package AmpmStorage.storage.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import AmpmStorage.common.exception.BusinessException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class UploadValidatorTest {
+
+    private final UploadValidator validator = new UploadValidator(List.of("image/gif=100B"));
+
+    @Test
+    @DisplayName("본문을 한 번 읽으면서 형식, 이미지 크기, SHA-256을 함께 얻는다")
+    void inspect_shouldSniffDimensionsAndDigestInSinglePass() throws Exception {
+        // given - EXIF 세그먼트 뒤에 SOF가 있는 JPEG, IHDR만 있는 PNG
+        byte[] jpeg = jpeg(640, 480, 300);
+        byte[] png = png(1200, 800, 100);
+
+        // when
+        InspectingChannel jpegChannel = validator.inspect("image/jpeg", channel(jpeg));
+        long jpegSize = drain(jpegChannel, 7);
+        InspectingChannel pngChannel = validator.inspect("image/*", channel(png));
+        drain(pngChannel, 64);
+
+        // then
+        UploadInspection inspection = jpegChannel.inspection();
+        assertThat(jpegSize).isEqualTo(jpeg.length);
+        assertThat(inspection.contentType()).isEqualTo("image/jpeg");
+        assertThat(inspection.width()).isEqualTo(640);
+        assertThat(inspection.height()).isEqualTo(480);
+        assertThat(inspection.size()).isEqualTo(jpeg.length);
+        assertThat(inspection.digest())
+            .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jpeg)));
+        assertThat(pngChannel.inspection())
+            .extracting(UploadInspection::contentType, UploadInspection::width, UploadInspection::height)
+            .containsExactly("image/png", 1200, 800);
+    }
+
+    @Test
+    @DisplayName("선언한 형식과 실제 형식이 다르면 앞부분만 읽고 415로 중단한다")
+    void inspect_withMismatchedType_shouldAbortAfterHeader() {
+        // given
+        ByteArrayInputStream body = new ByteArrayInputStream(png(10, 10, 10_000));
+        InspectingChannel channel = validator.inspect("image/jpeg", Channels.newChannel(body));
+
+        // when & then
+        assertThatThrownBy(() -> drain(channel, 16))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        assertThat(body.available()).isGreaterThan(9_900);
+    }
+
+    @Test
+    @DisplayName("형식별 크기 제한을 넘으면 그 자리에서 413으로 중단하고, 지원하지 않는 형식은 읽기 전에 거절한다")
+    void inspect_overTypeLimit_shouldAbortMidStream() {
+        // given - GIF 제한은 100바이트
+        ByteArrayInputStream body = new ByteArrayInputStream(gif(10, 10, 10_000));
+        InspectingChannel channel = validator.inspect("image/gif", Channels.newChannel(body));
+
+        // when & then
+        assertThatThrownBy(() -> drain(channel, 64))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+        assertThat(body.available()).isGreaterThan(9_800);
+        assertThatThrownBy(() -> validator.inspect("image/svg+xml", channel(new byte[0])))
+            .isInstanceOfSatisfying(BusinessException.class,
+                e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+    }
+
+    private static long drain(ReadableByteChannel channel, int bufferSize) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        long total = 0;
+        int read;
+        while ((read = channel.read(buffer.clear())) >= 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    private static ReadableByteChannel channel(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+
+    // SOI, APP1(exifBytes), SOF0(width x height), SOS, 스캔 데이터, EOI
+    private static byte[] jpeg(int width, int height, int exifBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) ((exifBytes + 2) >> 8), (byte) (exifBytes + 2)});
+        out.writeBytes(new byte[exifBytes]);
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xC0, 0, 11, 8,
+            (byte) (height >> 8), (byte) height, (byte) (width >> 8), (byte) width, 1, 1, 0x11, 0});
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xDA, 0, 8, 1, 1, 0, 0, 0x3F, 0});
+        out.writeBytes(new byte[200]);
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD9});
+        return out.toByteArray();
+    }
+
+    private static byte[] png(int width, int height, int dataBytes) {
+        ByteBuffer png = ByteBuffer.allocate(24 + dataBytes);
+        png.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        png.putInt(13).put(new byte[]{'I', 'H', 'D', 'R'}).putInt(width).putInt(height);
+        return png.array();
+    }
+
+    private static byte[] gif(int width, int height, int dataBytes) {
+        ByteBuffer gif = ByteBuffer.allocate(10 + dataBytes);
+        gif.put(new byte[]{'G', 'I', 'F', '8', '9', 'a'});
+        gif.put((byte) width).put((byte) (width >> 8)).put((byte) height).put((byte) (height >> 8));
+        return gif.array();
+    }
+}
@@ -0,0 +1,154 @@
+package AmpmStorage.storage.variant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import AmpmStorage.storage.backend.StorageBackend;
+import AmpmStorage.storage.service.FileMetadata;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class ImageVariantServiceTest {
+
+    private static final String KEY = "exhibits/images/1/posts/a/image.png";
+    private static final String VARIANT_KEY = ".variants/exhibits/images/1/posts/a/image.png.w320.jpg";
+
+    private final InMemoryBackend backend = new InMemoryBackend();
+
+    @Test
+    @DisplayName("없는 변형을 동시에 요청해도 한 번만 변환하고, 설정된 너비로 줄인 이미지를 저장한다")
+    void resolve_withConcurrentRequests_shouldTranscodeOnce() throws Exception {
+        // given
+        backend.objects.put(KEY, png(1000, 500));
+        ImageVariantService service = service();
+
+        // when
+        List<Callable<String>> requests = IntStream.range(0, 8)
+            .<Callable<String>>mapToObj(i -> () -> service.resolve(KEY, 300))
+            .toList();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<String> result : executor.invokeAll(requests)) {
+                assertThat(result.get()).isEqualTo(VARIANT_KEY);
+            }
+        } finally {
+            executor.shutdownNow();
+            service.destroy();
+        }
+
+        // then
+        assertThat(backend.puts.get(VARIANT_KEY).get()).isEqualTo(1);
+        BufferedImage variant = ImageIO.read(new ByteArrayInputStream(backend.objects.get(VARIANT_KEY)));
+        assertThat(variant.getWidth()).isEqualTo(320);
+        assertThat(variant.getHeight()).isEqualTo(160);
+    }
+
+    @Test
+    @DisplayName("변형은 예약 경로에 두므로 변형과 같은 이름의 사용자 파일을 지우거나 변형으로 제공하지 않는다")
+    void variants_shouldNotShareUserKeySpace() throws Exception {
+        // given - 변형의 이전 이름과 같은 사용자 파일
+        String userKey = "exhibits/images/1/posts/a/image.w320.jpg";
+        backend.objects.put(userKey, "planted".getBytes());
+        backend.objects.put(KEY, png(1000, 500));
+        ImageVariantService service = service();
+
+        // when
+        service.onOriginalStored(KEY);
+        String resolved = service.resolve(KEY, 320);
+        service.destroy();
+
+        // then
+        assertThat(resolved).isEqualTo(VARIANT_KEY);
+        assertThat(backend.objects.get(userKey)).isEqualTo("planted".getBytes());
+        assertThat(ImageIO.read(new ByteArrayInputStream(backend.objects.get(VARIANT_KEY))).getWidth()).isEqualTo(320);
+    }
+
+    @Test
+    @DisplayName("이미지가 아니면 변형을 만들지 않고 원본 키를 반환한다")
+    void resolve_withInvalidImage_shouldFallBackToOriginal() throws Exception {
+        // given
+        backend.objects.put(KEY, "not an image".getBytes());
+        ImageVariantService service = service();
+
+        // when
+        String resolved = service.resolve(KEY, 640);
+        service.destroy();
+
+        // then
+        assertThat(resolved).isEqualTo(KEY);
+        assertThat(backend.objects).containsOnlyKeys(KEY);
+    }
+
+    private ImageVariantService service() {
+        return new ImageVariantService(backend, List.of(640, 320, 1280), "jpeg", 0.8f, 50_000_000,
+            DataSize.ofMegabytes(10), 2, 16, Duration.ofSeconds(10));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static final class InMemoryBackend implements StorageBackend {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> puts = new ConcurrentHashMap<>();
+
+        @Override
+        public long put(String key, ReadableByteChannel source, long maxBytes) throws IOException {
+            try (InputStream in = Channels.newInputStream(source)) {
+                byte[] content = in.readAllBytes();
+                objects.put(key, content);
+                puts.computeIfAbsent(key, ignored -> new AtomicInteger()).incrementAndGet();
+                return content.length;
+            }
+        }
+
+        @Override
+        public FileMetadata head(String key) {
+            byte[] content = objects.get(key);
+            return content == null ? null
+                : new FileMetadata(content.length, 0, "\"" + Arrays.hashCode(content) + "\"", "image/png");
+        }
+
+        @Override
+        public ReadableByteChannel get(String key, long offset, long length) throws IOException {
+            byte[] content = objects.get(key);
+            if (content == null) {
+                throw new NoSuchFileException(key);
+            }
+            return Channels.newChannel(new ByteArrayInputStream(content, (int) offset, (int) length));
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return objects.remove(key) != null;
+        }
+
+        @Override
+        public List<String> list(String prefix, int limit) {
+            return objects.keySet().stream().filter(key -> key.startsWith(prefix)).sorted().limit(limit).toList();
+        }
+    }
+}